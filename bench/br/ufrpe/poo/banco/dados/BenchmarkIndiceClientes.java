@@ -0,0 +1,108 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Mede a busca das 10 primeiras sugestoes por prefixo do cpf e do nome, com o
+ * indice e percorrendo o repositorio.
+ *
+ * As consultas por nome sao como as de um operador digitando: um primeiro nome
+ * e o inicio de um sobrenome, por exemplo "Ana Sil".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BenchmarkIndiceClientes {
+
+	/** Quantidade de sugestoes pedidas. */
+	private static final int SUGESTOES = 10;
+
+	private static final String[] NOMES = { "Ana", "Bruno", "Carla", "Daniel",
+			"Eduarda", "Felipe", "Gabriela", "Heitor", "Isabela", "Joao" };
+
+	private static final String[] SOBRENOMES = { "Silva", "Souza", "Oliveira",
+			"Santos", "Lima", "Pereira", "Costa", "Almeida", "Ferreira",
+			"Barbosa" };
+
+	@Param({ "100000", "1000000" })
+	public int quantidade;
+
+	private RepositorioClientesHash repositorio;
+
+	private RepositorioClientesIndexado indexado;
+
+	private String[] cpfs;
+
+	private String[] nomes;
+
+	private int proximo;
+
+	@Setup
+	public void preencher() throws RepositorioException {
+		Random random = new Random(42);
+		this.repositorio = new RepositorioClientesHash(this.quantidade);
+		for (int i = 0; i < this.quantidade; i++) {
+			String nome = NOMES[random.nextInt(NOMES.length)] + " "
+					+ SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " "
+					+ Integer.toString(i, 36);
+			this.repositorio.inserir(new Cliente(nome, String.format("%011d",
+					(long) random.nextInt(Integer.MAX_VALUE) * 47)));
+		}
+		this.indexado = new RepositorioClientesIndexado(this.repositorio);
+		this.cpfs = new String[256];
+		this.nomes = new String[256];
+		for (int i = 0; i < 256; i++) {
+			this.cpfs[i] = String.format("%05d", random.nextInt(100000));
+			this.nomes[i] = NOMES[random.nextInt(NOMES.length)] + " "
+					+ SOBRENOMES[random.nextInt(SOBRENOMES.length)].substring(0,
+							3);
+		}
+	}
+
+	private int proximo() {
+		this.proximo = (this.proximo + 1) & 255;
+		return this.proximo;
+	}
+
+	@Benchmark
+	public void cpfIndice(Blackhole bh) {
+		bh.consume(this.indexado.buscar(this.cpfs[this.proximo()], SUGESTOES));
+	}
+
+	@Benchmark
+	public void nomeIndice(Blackhole bh) {
+		bh.consume(this.indexado.buscar(this.nomes[this.proximo()], SUGESTOES));
+	}
+
+	@Benchmark
+	public void cpfSemIndice(Blackhole bh) {
+		bh.consume(this.repositorio.buscar(this.cpfs[this.proximo()],
+				SUGESTOES));
+	}
+
+	@Benchmark
+	public void nomeSemIndice(Blackhole bh) {
+		bh.consume(this.repositorio.buscar(this.nomes[this.proximo()],
+				SUGESTOES));
+	}
+}
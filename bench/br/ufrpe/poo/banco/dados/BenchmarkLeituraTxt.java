@@ -0,0 +1,81 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Dinheiro;
+
+/**
+ * Compara a leitura do arquivo texto de contas por
+ * <code>LeitorContasTxt</code> com a leitura por <code>Scanner</code> usada
+ * anteriormente por <code>RepositorioContasArquivoTxt</code>.
+ *
+ * O texto fica em memoria para que o benchmark meca a conversao e nao o disco.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkLeituraTxt {
+
+	@Param({ "1000", "100000" })
+	public int quantidade;
+
+	private byte[] texto;
+
+	/**
+	 * Gera linhas dos tres tipos sem bonus, que a leitura por
+	 * <code>Scanner</code> tambem reconhece.
+	 */
+	@Setup
+	public void criarTexto() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < this.quantidade; i++) {
+			sb.append(i % 3).append(' ').append(i).append(' ')
+					.append(Dinheiro.deCentavos(i * 37L)).append('\n');
+		}
+		this.texto = sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public void leitor(Blackhole bh) throws IOException, RepositorioException {
+		try (LeitorContasTxt leitor = new LeitorContasTxt(
+				new ByteArrayInputStream(this.texto), "benchmark")) {
+			while (leitor.proximo()) {
+				bh.consume(leitor.getConta());
+			}
+		}
+	}
+
+	@Benchmark
+	public void scanner(Blackhole bh) throws RepositorioException {
+		try (Scanner s = new Scanner(new ByteArrayInputStream(this.texto))) {
+			while (s.hasNext()) {
+				int tipo = s.nextInt();
+				String numero = s.next();
+				double saldo = Double.parseDouble(s.next());
+				bh.consume(CodecRegistros.criarConta(tipo, numero,
+						Dinheiro.de(saldo), Dinheiro.ZERO));
+			}
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.ContaImposto;
+import br.ufrpe.poo.banco.negocio.Poupanca;
+
+/**
+ * Mede a leitura e a gravacao dos repositorios de contas em arquivo binario e
+ * em arquivo texto.
+ *
+ * A gravacao do repositorio texto eh medida por meio de
+ * <code>atualizar</code>, que regrava o arquivo inteiro ou, no modo
+ * incremental, acrescenta uma linha. A atualizacao do repositorio binario eh
+ * medida no modo <code>IMEDIATO</code>, que regrava o arquivo antes de
+ * retornar, e no modo <code>ASSINCRONO</code>, que apenas marca a alteracao.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkPersistencia {
+
+	@Param({ "100", "1000", "10000" })
+	public int quantidade;
+
+	private File arquivoBin;
+
+	private File arquivoTxt;
+
+	private File arquivoIncremental;
+
+	private RepositorioContasArquivoBin bin;
+
+	private File arquivoAssincrono;
+
+	private RepositorioContasArquivoBin assincrono;
+
+	private RepositorioContasArquivoTxt txt;
+
+	private RepositorioContasArquivoTxt incremental;
+
+	private ContaAbstrata alterada;
+
+	/**
+	 * Cria os dois arquivos com a mesma quantidade de contas, alternando os
+	 * tipos de conta.
+	 */
+	@Setup
+	public void criarArquivos() throws IOException, RepositorioException {
+		this.arquivoBin = File.createTempFile("contas", ".dat");
+		this.arquivoTxt = File.createTempFile("contas", ".txt");
+		RepositorioContasHash contas = new RepositorioContasHash(
+				this.quantidade);
+		for (int i = 0; i < this.quantidade; i++) {
+			String numero = Integer.toString(i);
+			ContaAbstrata conta;
+			switch (i % 4) {
+			case 0:
+				conta = new Conta(numero, i);
+				break;
+			case 1:
+				conta = new Poupanca(numero, i);
+				break;
+			case 2:
+				conta = new ContaImposto(numero, i);
+				break;
+			default:
+				conta = new ContaEspecial(numero, i);
+			}
+			contas.inserir(conta);
+		}
+		// o arquivo binario eh gravado direto, pois cada insercao no
+		// repositorio regravaria o arquivo inteiro
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(this.arquivoBin)))) {
+			CodecRegistros.escreverCabecalho(out);
+			out.writeInt(this.quantidade);
+			IteratorContaAbstrata it = contas.getIterator();
+			while (it.hasNext()) {
+				CodecRegistros.escreverConta(out, it.next());
+			}
+		}
+		this.bin = new RepositorioContasArquivoBin(this.arquivoBin,
+				ModoGravacao.IMEDIATO);
+		this.txt = new RepositorioContasArquivoTxt(this.arquivoTxt);
+		IteratorContaAbstrata it = contas.getIterator();
+		while (it.hasNext()) {
+			this.txt.inserir(it.next());
+		}
+		this.arquivoIncremental = File.createTempFile("contas", ".txt");
+		Files.copy(this.arquivoTxt.toPath(), this.arquivoIncremental.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		this.incremental = new RepositorioContasArquivoTxt(
+				this.arquivoIncremental, true);
+		this.alterada = contas.procurar("0");
+		this.arquivoAssincrono = File.createTempFile("contas", ".dat");
+		Files.copy(this.arquivoBin.toPath(), this.arquivoAssincrono.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		this.assincrono = new RepositorioContasArquivoBin(
+				this.arquivoAssincrono, ModoGravacao.ASSINCRONO);
+	}
+
+	@TearDown
+	public void apagarArquivos() throws RepositorioException {
+		this.incremental.fechar();
+		this.assincrono.fechar();
+		this.arquivoBin.delete();
+		this.arquivoAssincrono.delete();
+		this.arquivoTxt.delete();
+		this.arquivoIncremental.delete();
+	}
+
+	@Benchmark
+	public Object carregarBin() throws RepositorioException {
+		return new RepositorioContasArquivoBin(this.arquivoBin,
+				ModoGravacao.IMEDIATO);
+	}
+
+	@Benchmark
+	public void gravarBin() throws RepositorioException {
+		this.bin.gravarArquivo();
+	}
+
+	@Benchmark
+	public boolean atualizarBin() throws RepositorioException {
+		return this.bin.atualizar(this.bin.procurar("0"));
+	}
+
+	@Benchmark
+	public boolean atualizarBinAssincrono() throws RepositorioException {
+		return this.assincrono.atualizar(this.assincrono.procurar("0"));
+	}
+
+	@Benchmark
+	public Object carregarTxt() throws RepositorioException {
+		return new RepositorioContasArquivoTxt(this.arquivoTxt);
+	}
+
+	@Benchmark
+	public boolean gravarTxt() throws RepositorioException {
+		return this.txt.atualizar(this.alterada);
+	}
+
+	@Benchmark
+	public boolean gravarTxtIncremental() throws RepositorioException {
+		return this.incremental.atualizar(this.alterada);
+	}
+}
@@ -0,0 +1,90 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Mede procurar, inserir e remover nos repositorios de clientes em memoria
+ * para quantidades crescentes de clientes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkRepositorioClientes {
+
+	/** Quantidade de cpfs sorteados antes da medicao. */
+	private static final int CPFS = 4096;
+
+	@Param({ "array", "hash" })
+	public String implementacao;
+
+	@Param({ "1000", "10000", "100000" })
+	public int quantidade;
+
+	private IRepositorioClientes repositorio;
+
+	private String[] cpfs;
+
+	private int proximo;
+
+	private Cliente novo;
+
+	/**
+	 * Cpf de 11 digitos do i-esimo cliente.
+	 */
+	private static String cpf(int i) {
+		return String.format("%011d", i);
+	}
+
+	@Setup
+	public void preencher() throws RepositorioException {
+		if (this.implementacao.equals("array")) {
+			this.repositorio = new RepositorioClientesArray();
+		} else {
+			this.repositorio = new RepositorioClientesHash(this.quantidade);
+		}
+		for (int i = 0; i < this.quantidade; i++) {
+			this.repositorio.inserir(new Cliente("cliente " + i, cpf(i)));
+		}
+		Random random = new Random(42);
+		this.cpfs = new String[CPFS];
+		for (int i = 0; i < CPFS; i++) {
+			this.cpfs[i] = cpf(random.nextInt(this.quantidade));
+		}
+		this.novo = new Cliente("novo", "99999999999");
+	}
+
+	@Benchmark
+	public Object procurar() {
+		this.proximo = (this.proximo + 1) & (CPFS - 1);
+		return this.repositorio.procurar(this.cpfs[this.proximo]);
+	}
+
+	/**
+	 * Insere um cliente e o remove em seguida, mantendo o tamanho do
+	 * repositorio constante durante a medicao.
+	 */
+	@Benchmark
+	public boolean inserirRemover() throws RepositorioException {
+		this.repositorio.inserir(this.novo);
+		return this.repositorio.remover(this.novo.getCpf());
+	}
+}
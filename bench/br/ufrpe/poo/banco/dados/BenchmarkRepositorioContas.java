@@ -0,0 +1,146 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+
+/**
+ * Mede procurar, inserir e remover nos repositorios de contas em memoria para
+ * quantidades crescentes de contas.
+ *
+ * O repositorio em array verifica a existencia da conta percorrendo o array a
+ * cada insercao, de modo que preenche-lo custa O(n^2); por isso ele eh medido
+ * apenas ate 100000 contas, e o repositorio hash ate 10000000.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkRepositorioContas {
+
+	/** Quantidade de numeros sorteados antes da medicao. */
+	private static final int NUMEROS = 4096;
+
+	/**
+	 * Repositorio preenchido e numeros sorteados para a medicao.
+	 */
+	public abstract static class Estado {
+
+		IRepositorioContas repositorio;
+
+		String[] numeros;
+
+		int proximo;
+
+		Conta nova;
+
+		abstract IRepositorioContas criar(int quantidade)
+				throws RepositorioException;
+
+		void preencher(int quantidade) throws RepositorioException {
+			this.repositorio = this.criar(quantidade);
+			for (int i = 0; i < quantidade; i++) {
+				this.repositorio.inserir(new Conta(Integer.toString(i), i));
+			}
+			Random random = new Random(42);
+			this.numeros = new String[NUMEROS];
+			for (int i = 0; i < NUMEROS; i++) {
+				this.numeros[i] = Integer.toString(random.nextInt(quantidade));
+			}
+			this.nova = new Conta("nova", 0);
+		}
+	}
+
+	/**
+	 * Repositorio em array.
+	 */
+	@State(Scope.Thread)
+	public static class EstadoArray extends Estado {
+
+		@Param({ "1000", "10000", "100000" })
+		public int quantidade;
+
+		@Override
+		IRepositorioContas criar(int quantidade)
+				throws RepositorioException {
+			return new RepositorioContasArray();
+		}
+
+		@Setup
+		public void preencher() throws RepositorioException {
+			this.preencher(this.quantidade);
+		}
+	}
+
+	/**
+	 * Repositorio hash, dimensionado para a quantidade de contas.
+	 */
+	@State(Scope.Thread)
+	public static class EstadoHash extends Estado {
+
+		@Param({ "1000", "10000", "100000", "1000000", "10000000" })
+		public int quantidade;
+
+		@Override
+		IRepositorioContas criar(int quantidade) {
+			return new RepositorioContasHash(quantidade);
+		}
+
+		@Setup
+		public void preencher() throws RepositorioException {
+			this.preencher(this.quantidade);
+		}
+	}
+
+	private static Object procurar(Estado estado) {
+		estado.proximo = (estado.proximo + 1) & (NUMEROS - 1);
+		return estado.repositorio.procurar(estado.numeros[estado.proximo]);
+	}
+
+	/**
+	 * Insere uma conta e a remove em seguida, mantendo o tamanho do
+	 * repositorio constante durante a medicao.
+	 */
+	private static boolean inserirRemover(Estado estado)
+			throws RepositorioException {
+		estado.repositorio.inserir(estado.nova);
+		return estado.repositorio.remover(estado.nova.getNumero());
+	}
+
+	@Benchmark
+	public Object procurarArray(EstadoArray estado) {
+		return procurar(estado);
+	}
+
+	@Benchmark
+	public Object procurarHash(EstadoHash estado) {
+		return procurar(estado);
+	}
+
+	@Benchmark
+	public boolean inserirRemoverArray(EstadoArray estado)
+			throws RepositorioException {
+		return inserirRemover(estado);
+	}
+
+	@Benchmark
+	public boolean inserirRemoverHash(EstadoHash estado)
+			throws RepositorioException {
+		return inserirRemover(estado);
+	}
+}
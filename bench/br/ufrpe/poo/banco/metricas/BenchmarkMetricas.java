@@ -0,0 +1,65 @@
+package br.ufrpe.poo.banco.metricas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.dados.IRepositorioContas;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasInstrumentado;
+import br.ufrpe.poo.banco.negocio.Conta;
+
+/**
+ * Mede o custo do decorador de metricas sobre uma busca no repositorio de
+ * contas em memoria, com a medicao habilitada e desabilitada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkMetricas {
+
+	private IRepositorioContas direto;
+
+	private IRepositorioContas habilitado;
+
+	private IRepositorioContas desabilitado;
+
+	@Setup
+	public void criarRepositorios() throws Exception {
+		this.direto = new RepositorioContasHash();
+		for (int i = 0; i < 1000; i++) {
+			this.direto.inserir(new Conta(Integer.toString(i), i));
+		}
+		this.habilitado = new RepositorioContasInstrumentado(this.direto,
+				new Metricas(true));
+		this.desabilitado = new RepositorioContasInstrumentado(this.direto,
+				new Metricas(false));
+	}
+
+	@Benchmark
+	public Object procurarDireto() {
+		return this.direto.procurar("500");
+	}
+
+	@Benchmark
+	public Object procurarHabilitado() {
+		return this.habilitado.procurar("500");
+	}
+
+	@Benchmark
+	public Object procurarDesabilitado() {
+		return this.desabilitado.procurar("500");
+	}
+}
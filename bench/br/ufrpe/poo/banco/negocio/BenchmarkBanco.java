@@ -0,0 +1,159 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.exceptions.ContaJaCadastradaException;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
+
+/**
+ * Mede creditar, debitar e transferir do banco com uma thread e com varias
+ * threads operando sobre as mesmas contas.
+ *
+ * O banco usa um repositorio de contas em memoria, de modo que a medicao
+ * inclui as travas por conta mas nao a persistencia.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkBanco {
+
+	/** Quantidade de contas sorteadas antes da medicao, por thread. */
+	private static final int SORTEIOS = 4096;
+
+	/**
+	 * Banco compartilhado por todas as threads da medicao.
+	 */
+	@State(Scope.Benchmark)
+	public static class EstadoBanco {
+
+		@Param({ "16", "1024" })
+		public int quantidade;
+
+		Banco banco;
+
+		ContaAbstrata[] contas;
+
+		@Setup
+		public void criarBanco() throws RepositorioException,
+				ContaJaCadastradaException {
+			this.banco = new Banco(null, new RepositorioContasHash(
+					this.quantidade));
+			this.contas = new ContaAbstrata[this.quantidade];
+			for (int i = 0; i < this.quantidade; i++) {
+				this.contas[i] = new Conta(Integer.toString(i), 1e12);
+				this.banco.cadastrar(this.contas[i]);
+			}
+		}
+	}
+
+	/**
+	 * Contas sorteadas por cada thread.
+	 */
+	@State(Scope.Thread)
+	public static class EstadoThread {
+
+		int[] origens;
+
+		int[] destinos;
+
+		int proximo;
+
+		@Setup
+		public void sortear(EstadoBanco estado) {
+			Random random = new Random(Thread.currentThread().getId());
+			this.origens = new int[SORTEIOS];
+			this.destinos = new int[SORTEIOS];
+			for (int i = 0; i < SORTEIOS; i++) {
+				this.origens[i] = random.nextInt(estado.quantidade);
+				this.destinos[i] = random.nextInt(estado.quantidade);
+			}
+		}
+
+		int avancar() {
+			this.proximo = (this.proximo + 1) & (SORTEIOS - 1);
+			return this.proximo;
+		}
+	}
+
+	private static void executarCreditar(EstadoBanco estado, EstadoThread thread)
+			throws RepositorioException, ValorInvalidoException {
+		int i = thread.avancar();
+		estado.banco.creditar(estado.contas[thread.origens[i]], 1);
+	}
+
+	private static void executarDebitar(EstadoBanco estado, EstadoThread thread)
+			throws RepositorioException, SaldoInsuficienteException,
+			ValorInvalidoException {
+		int i = thread.avancar();
+		estado.banco.debitar(estado.contas[thread.origens[i]], 1);
+	}
+
+	private static void executarTransferir(EstadoBanco estado, EstadoThread thread)
+			throws RepositorioException, SaldoInsuficienteException,
+			ValorInvalidoException {
+		int i = thread.avancar();
+		estado.banco.transferir(estado.contas[thread.origens[i]],
+				estado.contas[thread.destinos[i]], 1);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void creditar(EstadoBanco estado, EstadoThread thread)
+			throws Exception {
+		executarCreditar(estado, thread);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void debitar(EstadoBanco estado, EstadoThread thread)
+			throws Exception {
+		executarDebitar(estado, thread);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void transferir(EstadoBanco estado, EstadoThread thread)
+			throws Exception {
+		executarTransferir(estado, thread);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void creditarConcorrente(EstadoBanco estado, EstadoThread thread)
+			throws Exception {
+		executarCreditar(estado, thread);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void debitarConcorrente(EstadoBanco estado, EstadoThread thread)
+			throws Exception {
+		executarDebitar(estado, thread);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void transferirConcorrente(EstadoBanco estado, EstadoThread thread)
+			throws Exception {
+		executarTransferir(estado, thread);
+	}
+}
@@ -0,0 +1,87 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+
+/**
+ * Compara o custo de um debito aceito com o de um debito recusado por saldo
+ * insuficiente. O debito recusado eh medido tambem com uma excecao que
+ * captura a pilha e formata a mensagem na construcao, como a
+ * <code>SaldoInsuficienteException</code> fazia antes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkDebito {
+
+	/**
+	 * Excecao com pilha e mensagem formatada na construcao.
+	 */
+	private static class SaldoInsuficienteComPilha extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		SaldoInsuficienteComPilha(String numero, double saldo) {
+			super(String.format(
+					"Saldo insuficiente! O saldo atual da conta %s eh R$%.2f",
+					numero, saldo));
+		}
+	}
+
+	private Conta conta;
+
+	private Dinheiro centavo;
+
+	private Dinheiro muito;
+
+	@Setup
+	public void criarConta() {
+		this.conta = new Conta("1", 1e12);
+		this.centavo = Dinheiro.deCentavos(1);
+		this.muito = Dinheiro.de(1e13);
+	}
+
+	@Benchmark
+	public boolean aceito() throws SaldoInsuficienteException {
+		this.conta.debitar(this.centavo);
+		this.conta.creditar(this.centavo);
+		return true;
+	}
+
+	@Benchmark
+	public boolean recusado() {
+		try {
+			this.conta.debitar(this.muito);
+			return true;
+		} catch (SaldoInsuficienteException e) {
+			return false;
+		}
+	}
+
+	@Benchmark
+	public boolean recusadoComPilha() {
+		try {
+			if (this.conta.getSaldoDinheiro().menorQue(this.muito))
+				throw new SaldoInsuficienteComPilha(this.conta.getNumero(),
+						this.conta.getSaldo());
+			return true;
+		} catch (SaldoInsuficienteComPilha e) {
+			return false;
+		}
+	}
+}
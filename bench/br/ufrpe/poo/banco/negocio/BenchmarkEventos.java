@@ -0,0 +1,155 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.dados.ModoGravacao;
+import br.ufrpe.poo.banco.dados.RepositorioContasArquivoBin;
+import br.ufrpe.poo.banco.dados.RepositorioEventos;
+
+/**
+ * Compara um debito no banco sobre o arquivo binario de contas, que regrava
+ * todas as contas, com o mesmo debito no banco derivado do log de eventos,
+ * que acrescenta um evento. Mede tambem a inicializacao do banco de eventos
+ * a partir do log completo e a partir de um snapshot seguido de um log vazio.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BenchmarkEventos {
+
+	@Param({ "1000" })
+	public int quantidade;
+
+	private File arquivo;
+
+	private RepositorioContasArquivoBin repositorio;
+
+	private Banco bancoArquivo;
+
+	private File snapshot;
+
+	private File log;
+
+	private BancoEventos bancoEventos;
+
+	private int i;
+
+	@Setup
+	public void criarBancos() throws Exception {
+		this.arquivo = File.createTempFile("contas", ".dat");
+		this.arquivo.delete();
+		this.repositorio = new RepositorioContasArquivoBin(this.arquivo,
+				ModoGravacao.IMEDIATO);
+		this.bancoArquivo = new Banco(null, this.repositorio);
+		this.snapshot = File.createTempFile("eventos", ".snap");
+		this.snapshot.delete();
+		this.log = new File(this.snapshot.getPath() + ".log");
+		this.bancoEventos = new BancoEventos(new RepositorioEventos(
+				this.snapshot, this.log, ModoGravacao.IMEDIATO,
+				RepositorioEventos.LIMITE_SNAPSHOT_PADRAO));
+		for (int i = 0; i < this.quantidade; i++) {
+			this.bancoArquivo.cadastrar(new Conta(Integer.toString(i), 1e9));
+			this.bancoEventos.cadastrar(new Conta(Integer.toString(i), 1e9));
+		}
+	}
+
+	@TearDown
+	public void apagarArquivos() throws Exception {
+		this.repositorio.fechar();
+		this.bancoEventos.fechar();
+		this.arquivo.delete();
+		this.snapshot.delete();
+		this.log.delete();
+	}
+
+	private String proxima() {
+		this.i = (this.i + 1) % this.quantidade;
+		return Integer.toString(this.i);
+	}
+
+	@Benchmark
+	public void debitarArquivo() throws Exception {
+		this.bancoArquivo.debitar(
+				this.bancoArquivo.procurarConta(this.proxima()), 0.01);
+	}
+
+	@Benchmark
+	public void debitarEventos() throws Exception {
+		this.bancoEventos.debitar(
+				this.bancoEventos.procurarConta(this.proxima()), 0.01);
+	}
+
+	/**
+	 * Log com os cadastros e dez debitos por conta, incorporado ou nao a um
+	 * snapshot.
+	 */
+	@State(Scope.Thread)
+	public static class Recuperacao {
+
+		@Param({ "1000" })
+		public int quantidade;
+
+		@Param({ "false", "true" })
+		public boolean comSnapshot;
+
+		private File snapshot;
+
+		private File log;
+
+		@Setup
+		public void criarLog() throws Exception {
+			this.snapshot = File.createTempFile("recuperacao", ".snap");
+			this.snapshot.delete();
+			this.log = new File(this.snapshot.getPath() + ".log");
+			BancoEventos banco = new BancoEventos(this.repositorio());
+			for (int i = 0; i < this.quantidade; i++) {
+				banco.cadastrar(new Conta(Integer.toString(i), 1e9));
+			}
+			for (int j = 0; j < 10; j++) {
+				for (int i = 0; i < this.quantidade; i++) {
+					banco.debitar(banco.procurarConta(Integer.toString(i)), 1);
+				}
+			}
+			if (this.comSnapshot)
+				banco.gravarSnapshot();
+			banco.fechar();
+		}
+
+		RepositorioEventos repositorio() {
+			return new RepositorioEventos(this.snapshot, this.log,
+					ModoGravacao.IMEDIATO,
+					RepositorioEventos.LIMITE_SNAPSHOT_PADRAO);
+		}
+
+		@TearDown
+		public void apagarArquivos() {
+			this.snapshot.delete();
+			this.log.delete();
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object recuperar(Recuperacao recuperacao) throws Exception {
+		BancoEventos banco = new BancoEventos(recuperacao.repositorio());
+		banco.fechar();
+		return banco;
+	}
+}
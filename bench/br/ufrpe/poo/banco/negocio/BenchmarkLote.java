@@ -0,0 +1,94 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ufrpe.poo.banco.dados.ModoGravacao;
+import br.ufrpe.poo.banco.dados.RepositorioContasArquivoBin;
+
+/**
+ * Compara transferencias feitas uma a uma com as mesmas transferencias feitas
+ * num lote, sobre o repositorio de contas em arquivo binario. Uma a uma, cada
+ * transferencia regrava o arquivo duas vezes; no lote, o arquivo eh gravado
+ * uma vez.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BenchmarkLote {
+
+	@Param({ "1000" })
+	public int quantidade;
+
+	@Param({ "100" })
+	public int operacoes;
+
+	private File arquivo;
+
+	private RepositorioContasArquivoBin repositorio;
+
+	private Banco banco;
+
+	private ContaAbstrata[] contas;
+
+	private List<OperacaoLote> lote;
+
+	@Setup
+	public void criarBanco() throws Exception {
+		this.arquivo = File.createTempFile("contas", ".dat");
+		this.arquivo.delete();
+		this.repositorio = new RepositorioContasArquivoBin(this.arquivo,
+				ModoGravacao.IMEDIATO);
+		this.banco = new Banco(null, this.repositorio);
+		this.contas = new ContaAbstrata[this.quantidade];
+		for (int i = 0; i < this.quantidade; i++) {
+			this.contas[i] = new Conta(Integer.toString(i), 1e9);
+			this.banco.cadastrar(this.contas[i]);
+		}
+		this.lote = new ArrayList<OperacaoLote>();
+		for (int i = 0; i < this.operacoes; i++) {
+			this.lote.add(OperacaoLote.transferencia(
+					this.contas[i % this.quantidade].getNumero(),
+					this.contas[(i + 1) % this.quantidade].getNumero(),
+					Dinheiro.deCentavos(1)));
+		}
+	}
+
+	@TearDown
+	public void apagarArquivo() {
+		this.repositorio.fechar();
+		this.arquivo.delete();
+	}
+
+	@Benchmark
+	public void umaAUma() throws Exception {
+		for (int i = 0; i < this.operacoes; i++) {
+			this.banco.transferir(this.contas[i % this.quantidade],
+					this.contas[(i + 1) % this.quantidade],
+					Dinheiro.deCentavos(1));
+		}
+	}
+
+	@Benchmark
+	public Object lote() throws Exception {
+		return this.banco.executarLote(this.lote);
+	}
+}
@@ -0,0 +1,480 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+import br.ufrpe.poo.banco.negocio.ConjuntoContas;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.ContaImposto;
+import br.ufrpe.poo.banco.negocio.Dinheiro;
+import br.ufrpe.poo.banco.negocio.Evento;
+import br.ufrpe.poo.banco.negocio.Lancamento;
+import br.ufrpe.poo.banco.negocio.Poupanca;
+
+/**
+ * Codificacao binaria compacta das contas e clientes gravados em arquivo.
+ *
+ * Substitui a serializacao Java: cada registro guarda apenas os dados, sem
+ * descritores de classe. Os arquivos comecam com um cabecalho com um numero
+ * magico e a versao do formato, de modo que versoes futuras continuem lendo
+ * arquivos antigos.
+ * <p>
+ * Conta: tipo (byte) numero (UTF) saldo (long) [bonus (long)]
+ * <p>
+ * Cliente: nome (UTF) cpf (UTF) quantidade de contas (int) numeros (UTF)
+ * <p>
+ * Lancamento: tipo (byte) instante (long) numero (UTF) valor (long) saldo
+ * (long) tem contrapartida (boolean) [contrapartida (UTF)]
+ * <p>
+ * Evento: tipo (byte) seguido dos campos do tipo: cliente (registro de
+ * cliente), cpf (UTF), conta (registro de conta), numero (UTF), destino (UTF)
+ * e valor (long), nessa ordem, quando o tipo os possui.
+ * <p>
+ * tipo e 0 - Conta, 1 - Poupanca, 2 - ContaImposto e 3 - ContaEspecial. O
+ * bonus so existe para ContaEspecial. Saldo e bonus sao gravados em centavos.
+ * <p>
+ * Cada registro dos logs (contas, eventos e lancamentos) eh precedido pelo
+ * seu tamanho (int) e pelo CRC32 (int) do tamanho e do registro, de modo que
+ * um fim de log rasgado ou preenchido com zeros numa queda eh reconhecido e
+ * descartado na leitura.
+ */
+public final class CodecRegistros {
+
+	/** Numero magico no inicio dos arquivos ("BNCO"). */
+	public static final int MAGICO = 0x424E434F;
+
+	/** Versao atual do formato. */
+	public static final int VERSAO = 1;
+
+	/** Tamanho da moldura de um registro de log: tamanho e CRC32. */
+	public static final int TAMANHO_MOLDURA = 8;
+
+	/** Tamanho do cabecalho em bytes. */
+	public static final int TAMANHO_CABECALHO = 6;
+
+	/** Primeiros bytes de um arquivo gravado com serializacao Java. */
+	private static final int MAGICO_SERIALIZACAO = 0xACED;
+
+	private CodecRegistros() {
+	}
+
+	/**
+	 * Escreve o cabecalho do arquivo com a versao atual.
+	 *
+	 * @param out
+	 *            destino do cabecalho.
+	 * @throws IOException
+	 *             lancada em caso de erro na escrita.
+	 */
+	public static void escreverCabecalho(DataOutput out) throws IOException {
+		out.writeInt(MAGICO);
+		out.writeShort(VERSAO);
+	}
+
+	/**
+	 * Le e valida o cabecalho do arquivo.
+	 *
+	 * @param in
+	 *            origem do cabecalho.
+	 * @return versao do formato do arquivo.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 * @throws RepositorioException
+	 *             lancada se o arquivo nao tem o formato esperado.
+	 */
+	public static int lerCabecalho(DataInput in) throws IOException,
+			RepositorioException {
+		if (in.readInt() != MAGICO)
+			throw new RepositorioException("Formato de arquivo desconhecido!");
+		int versao = in.readUnsignedShort();
+		if (versao < 1 || versao > VERSAO)
+			throw new RepositorioException("Versao de arquivo nao suportada: "
+					+ versao);
+		return versao;
+	}
+
+	/**
+	 * Indica se o arquivo foi gravado com serializacao Java (formato anterior
+	 * a este codec).
+	 *
+	 * @param arquivo
+	 *            arquivo a ser verificado.
+	 * @return se o arquivo comeca com o numero magico da serializacao Java.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 */
+	public static boolean ehSerializacaoJava(File arquivo) throws IOException {
+		if (arquivo.length() < 2)
+			return false;
+		try (DataInputStream in = new DataInputStream(new FileInputStream(
+				arquivo))) {
+			return in.readUnsignedShort() == MAGICO_SERIALIZACAO;
+		}
+	}
+
+	/**
+	 * Escreve um registro de log com a sua moldura: tamanho e CRC32.
+	 *
+	 * @param out
+	 *            destino do registro.
+	 * @param registro
+	 *            bytes do registro, sem a moldura.
+	 * @throws IOException
+	 *             lancada em caso de erro na escrita.
+	 */
+	public static void escreverRegistro(DataOutput out,
+			ByteArrayOutputStream registro) throws IOException {
+		byte[] bytes = registro.toByteArray();
+		out.writeInt(bytes.length);
+		out.writeInt(crc(bytes));
+		out.write(bytes);
+	}
+
+	/**
+	 * Le a moldura do proximo registro de um log e retorna a origem do
+	 * registro.
+	 *
+	 * @param in
+	 *            origem dos registros do log.
+	 * @param restantes
+	 *            quantidade de bytes que restam no log.
+	 * @return origem do registro ou <code>null</code> se o registro esta
+	 *         incompleto ou o CRC32 nao confere; o log deve ser truncado no
+	 *         inicio dele.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 */
+	public static DataInputStream lerRegistro(DataInputStream in,
+			int restantes) throws IOException {
+		if (restantes < TAMANHO_MOLDURA)
+			return null;
+		int tamanho = in.readInt();
+		int esperado = in.readInt();
+		if (tamanho <= 0 || tamanho > restantes - TAMANHO_MOLDURA)
+			return null;
+		byte[] bytes = new byte[tamanho];
+		in.readFully(bytes);
+		if (crc(bytes) != esperado)
+			return null;
+		return new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Calcula o CRC32 do tamanho e dos bytes de um registro. Com o tamanho no
+	 * calculo, uma moldura zerada nao confere.
+	 */
+	private static int crc(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes.length >>> 24);
+		crc.update(bytes.length >>> 16);
+		crc.update(bytes.length >>> 8);
+		crc.update(bytes.length);
+		crc.update(bytes, 0, bytes.length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Retorna o codigo do tipo de uma conta.
+	 *
+	 * @param conta
+	 *            conta cujo tipo eh retornado.
+	 * @return 0 - Conta, 1 - Poupanca, 2 - ContaImposto e 3 - ContaEspecial.
+	 * @throws RepositorioException
+	 *             lancada se o tipo da conta nao eh suportado.
+	 */
+	public static int tipo(ContaAbstrata conta) throws RepositorioException {
+		if (conta instanceof Poupanca) {
+			return 1;
+		} else if (conta instanceof ContaEspecial) {
+			return 3;
+		} else if (conta instanceof Conta) {
+			return 0;
+		} else if (conta instanceof ContaImposto) {
+			return 2;
+		}
+		throw new RepositorioException("Tipo de conta nao suportado!");
+	}
+
+	/**
+	 * Cria uma conta do tipo indicado.
+	 *
+	 * @param tipo
+	 *            codigo do tipo da conta.
+	 * @param numero
+	 *            numero da conta.
+	 * @param saldo
+	 *            saldo da conta.
+	 * @param bonus
+	 *            bonus, usado apenas por ContaEspecial.
+	 * @return conta criada.
+	 * @throws RepositorioException
+	 *             lancada se o tipo nao existe.
+	 */
+	public static ContaAbstrata criarConta(int tipo, String numero,
+			Dinheiro saldo, Dinheiro bonus) throws RepositorioException {
+		switch (tipo) {
+		case 0:
+			return new Conta(numero, saldo);
+		case 1:
+			return new Poupanca(numero, saldo);
+		case 2:
+			return new ContaImposto(numero, saldo);
+		case 3:
+			ContaEspecial especial = new ContaEspecial(numero, saldo);
+			especial.setBonus(bonus);
+			return especial;
+		default:
+			throw new RepositorioException("Tipo de conta inexistente!");
+		}
+	}
+
+	/**
+	 * Escreve o registro de uma conta.
+	 *
+	 * @param out
+	 *            destino do registro.
+	 * @param conta
+	 *            conta a ser escrita.
+	 * @throws IOException
+	 *             lancada em caso de erro na escrita.
+	 * @throws RepositorioException
+	 *             lancada se o tipo da conta nao eh suportado.
+	 */
+	public static void escreverConta(DataOutput out, ContaAbstrata conta)
+			throws IOException, RepositorioException {
+		int tipo = tipo(conta);
+		out.writeByte(tipo);
+		out.writeUTF(conta.getNumero());
+		out.writeLong(conta.getSaldoDinheiro().getCentavos());
+		if (tipo == 3)
+			out.writeLong(((ContaEspecial) conta).getBonusDinheiro()
+					.getCentavos());
+	}
+
+	/**
+	 * Le o registro de uma conta.
+	 *
+	 * @param in
+	 *            origem do registro.
+	 * @param versao
+	 *            versao do formato do arquivo.
+	 * @return conta lida.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 * @throws RepositorioException
+	 *             lancada se o tipo da conta nao existe.
+	 */
+	public static ContaAbstrata lerConta(DataInput in, int versao)
+			throws IOException, RepositorioException {
+		int tipo = in.readByte();
+		String numero = in.readUTF();
+		Dinheiro saldo = Dinheiro.deCentavos(in.readLong());
+		Dinheiro bonus = tipo == 3 ? Dinheiro.deCentavos(in.readLong())
+				: Dinheiro.ZERO;
+		return criarConta(tipo, numero, saldo, bonus);
+	}
+
+	/**
+	 * Escreve o registro de um cliente.
+	 *
+	 * @param out
+	 *            destino do registro.
+	 * @param cliente
+	 *            cliente a ser escrito.
+	 * @throws IOException
+	 *             lancada em caso de erro na escrita.
+	 */
+	public static void escreverCliente(DataOutput out, Cliente cliente)
+			throws IOException {
+		out.writeUTF(cliente.getNome());
+		out.writeUTF(cliente.getCpf());
+		ConjuntoContas contas = cliente.getContas();
+		int quantidade = contas == null ? 0 : contas.size();
+		out.writeInt(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			out.writeUTF(contas.get(i));
+		}
+	}
+
+	/**
+	 * Le o registro de um cliente.
+	 *
+	 * @param in
+	 *            origem do registro.
+	 * @param versao
+	 *            versao do formato do arquivo.
+	 * @return cliente lido.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 */
+	public static Cliente lerCliente(DataInput in, int versao)
+			throws IOException {
+		Cliente cliente = new Cliente(in.readUTF(), in.readUTF());
+		int quantidade = in.readInt();
+		ConjuntoContas contas = cliente.getContas();
+		contas.garantirCapacidade(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			contas.add(in.readUTF());
+		}
+		return cliente;
+	}
+
+	/**
+	 * Escreve o registro de um lancamento.
+	 *
+	 * @param out
+	 *            destino do registro.
+	 * @param lancamento
+	 *            lancamento a ser escrito.
+	 * @throws IOException
+	 *             lancada em caso de erro na escrita.
+	 */
+	public static void escreverLancamento(DataOutput out, Lancamento lancamento)
+			throws IOException {
+		out.writeByte(lancamento.getTipo().getCodigo());
+		out.writeLong(lancamento.getInstante());
+		out.writeUTF(lancamento.getNumeroConta());
+		out.writeLong(lancamento.getValor().getCentavos());
+		out.writeLong(lancamento.getSaldo().getCentavos());
+		out.writeBoolean(lancamento.getContrapartida() != null);
+		if (lancamento.getContrapartida() != null)
+			out.writeUTF(lancamento.getContrapartida());
+	}
+
+	/**
+	 * Le o registro de um lancamento.
+	 *
+	 * @param in
+	 *            origem do registro.
+	 * @return lancamento lido.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 * @throws RepositorioException
+	 *             lancada se o tipo do lancamento nao existe.
+	 */
+	public static Lancamento lerLancamento(DataInput in) throws IOException,
+			RepositorioException {
+		Lancamento.Tipo tipo = Lancamento.Tipo.doCodigo(in.readUnsignedByte());
+		if (tipo == null)
+			throw new RepositorioException("Tipo de lancamento inexistente!");
+		long instante = in.readLong();
+		String numero = in.readUTF();
+		Dinheiro valor = Dinheiro.deCentavos(in.readLong());
+		Dinheiro saldo = Dinheiro.deCentavos(in.readLong());
+		String contrapartida = in.readBoolean() ? in.readUTF() : null;
+		return new Lancamento(instante, numero, tipo, valor, saldo,
+				contrapartida);
+	}
+
+	/**
+	 * Escreve o registro de um evento.
+	 *
+	 * @param out
+	 *            destino do registro.
+	 * @param evento
+	 *            evento a ser escrito.
+	 * @throws IOException
+	 *             lancada em caso de erro na escrita.
+	 * @throws RepositorioException
+	 *             lancada se o tipo da conta cadastrada nao eh suportado.
+	 */
+	public static void escreverEvento(DataOutput out, Evento evento)
+			throws IOException, RepositorioException {
+		out.writeByte(evento.getTipo().getCodigo());
+		switch (evento.getTipo()) {
+		case CLIENTE_CADASTRADO:
+		case CLIENTE_ATUALIZADO:
+			escreverCliente(out, evento.getCliente());
+			break;
+		case CLIENTE_REMOVIDO:
+			out.writeUTF(evento.getCpf());
+			break;
+		case CONTA_CADASTRADA:
+			escreverConta(out, evento.getConta());
+			break;
+		case CONTA_ASSOCIADA:
+			out.writeUTF(evento.getCpf());
+			out.writeUTF(evento.getNumero());
+			break;
+		case TRANSFERIDO:
+			out.writeUTF(evento.getNumero());
+			out.writeUTF(evento.getNumeroDestino());
+			out.writeLong(evento.getValor().getCentavos());
+			break;
+		case CREDITADO:
+		case DEBITADO:
+		case JUROS_CREDITADOS:
+		case BONUS_CREDITADO:
+			out.writeUTF(evento.getNumero());
+			out.writeLong(evento.getValor().getCentavos());
+			break;
+		case CONTA_REMOVIDA:
+			out.writeUTF(evento.getNumero());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Le o registro de um evento.
+	 *
+	 * @param in
+	 *            origem do registro.
+	 * @param versao
+	 *            versao do formato do arquivo.
+	 * @return evento lido.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 * @throws RepositorioException
+	 *             lancada se o tipo do evento ou da conta nao existe.
+	 */
+	public static Evento lerEvento(DataInput in, int versao)
+			throws IOException, RepositorioException {
+		Evento.Tipo tipo = Evento.Tipo.doCodigo(in.readUnsignedByte());
+		if (tipo == null)
+			throw new RepositorioException("Tipo de evento inexistente!");
+		switch (tipo) {
+		case CLIENTE_CADASTRADO:
+			return Evento.clienteCadastrado(lerCliente(in, versao));
+		case CLIENTE_ATUALIZADO:
+			return Evento.clienteAtualizado(lerCliente(in, versao));
+		case CLIENTE_REMOVIDO:
+			return Evento.clienteRemovido(in.readUTF());
+		case CONTA_CADASTRADA:
+			return Evento.contaCadastrada(lerConta(in, versao));
+		case CONTA_ASSOCIADA:
+			return Evento.contaAssociada(in.readUTF(), in.readUTF());
+		case CONTA_REMOVIDA:
+			return Evento.contaRemovida(in.readUTF());
+		case CREDITADO:
+			return Evento.creditado(in.readUTF(),
+					Dinheiro.deCentavos(in.readLong()));
+		case DEBITADO:
+			return Evento.debitado(in.readUTF(),
+					Dinheiro.deCentavos(in.readLong()));
+		case TRANSFERIDO:
+			return Evento.transferido(in.readUTF(), in.readUTF(),
+					Dinheiro.deCentavos(in.readLong()));
+		case JUROS_CREDITADOS:
+			return Evento.jurosCreditados(in.readUTF(),
+					Dinheiro.deCentavos(in.readLong()));
+		case BONUS_CREDITADO:
+			return Evento.bonusCreditado(in.readUTF(),
+					Dinheiro.deCentavos(in.readLong()));
+		default:
+			throw new RepositorioException("Tipo de evento inexistente!");
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package br.ufrpe.poo.banco.dados;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Confirmacao em grupo (group commit) das alteracoes de um repositorio.
+ *
+ * As threads que alteram o repositorio aplicam a alteracao em memoria e
+ * chamam <code>confirmar()</code>. Uma unica thread de escrita descarrega
+ * todas as alteracoes pendentes de uma vez e libera juntas as threads que
+ * aguardavam aquele grupo. Enquanto um grupo eh descarregado, as novas
+ * alteracoes formam o grupo seguinte, de modo que o numero de descargas nao
+ * cresce com o numero de threads.
+ */
+public class ConfirmacaoEmGrupo {
+
+	/**
+	 * Operacao que grava no disco tudo o que foi alterado ate o momento.
+	 */
+	public interface Descarga {
+
+		/**
+		 * Grava e forca no disco as alteracoes pendentes.
+		 *
+		 * @throws RepositorioException
+		 *             lancada em caso de erro na gravacao.
+		 */
+		void descarregar() throws RepositorioException;
+	}
+
+	/**
+	 * Grupo de alteracoes descarregadas juntas.
+	 */
+	private static class Grupo {
+
+		/** Quantidade de alteracoes no grupo. */
+		private int alteracoes;
+
+		/** Indica se o grupo ja foi descarregado. */
+		private boolean concluido;
+
+		/** Erro da descarga do grupo, se houve. */
+		private RepositorioException falha;
+
+		synchronized void concluir(RepositorioException falha) {
+			this.falha = falha;
+			this.concluido = true;
+			this.notifyAll();
+		}
+
+		synchronized void aguardar() throws RepositorioException {
+			boolean interrompida = false;
+			while (!this.concluido) {
+				try {
+					this.wait();
+				} catch (InterruptedException e) {
+					interrompida = true;
+				}
+			}
+			if (interrompida)
+				Thread.currentThread().interrupt();
+			if (this.falha != null)
+				throw new RepositorioException(this.falha);
+		}
+	}
+
+	/** Operacao que descarrega as alteracoes. */
+	private final Descarga descarga;
+
+	/** Grupo que recebe as novas alteracoes. */
+	private Grupo aberto;
+
+	/** Indica se a confirmacao foi encerrada. */
+	private boolean fechada;
+
+	/** Thread que descarrega os grupos. */
+	private final Thread escritor;
+
+	/** Quantidade de descargas realizadas. */
+	private long descargas;
+
+	/** Quantidade de alteracoes confirmadas. */
+	private long alteracoes;
+
+	/**
+	 * Cria a confirmacao em grupo e inicia a thread de escrita.
+	 *
+	 * @param nome
+	 *            nome da thread de escrita.
+	 * @param descarga
+	 *            operacao que descarrega as alteracoes.
+	 */
+	public ConfirmacaoEmGrupo(String nome, Descarga descarga) {
+		this.descarga = descarga;
+		this.aberto = new Grupo();
+		this.escritor = new Thread(this::escrever, nome);
+		this.escritor.setDaemon(true);
+		this.escritor.start();
+	}
+
+	/**
+	 * Registra uma alteracao ja aplicada em memoria e aguarda ate que ela seja
+	 * descarregada no disco.
+	 *
+	 * @throws RepositorioException
+	 *             lancada se a descarga do grupo falhou ou se a confirmacao ja
+	 *             foi encerrada.
+	 */
+	public void confirmar() throws RepositorioException {
+		Grupo grupo;
+		synchronized (this) {
+			if (this.fechada)
+				throw new RepositorioException("Repositorio fechado!");
+			grupo = this.aberto;
+			grupo.alteracoes = grupo.alteracoes + 1;
+			this.notifyAll();
+		}
+		grupo.aguardar();
+	}
+
+	/**
+	 * Laco da thread de escrita: espera alteracoes, fecha o grupo aberto e o
+	 * descarrega.
+	 */
+	private void escrever() {
+		while (true) {
+			Grupo grupo;
+			synchronized (this) {
+				while (this.aberto.alteracoes == 0 && !this.fechada) {
+					try {
+						this.wait();
+					} catch (InterruptedException e) {
+						// o laco so termina quando a confirmacao eh fechada
+					}
+				}
+				if (this.aberto.alteracoes == 0)
+					return;
+				grupo = this.aberto;
+				this.aberto = new Grupo();
+			}
+			RepositorioException falha = null;
+			try {
+				this.descarga.descarregar();
+			} catch (RepositorioException e) {
+				falha = e;
+			} catch (RuntimeException e) {
+				falha = new RepositorioException(e);
+			}
+			synchronized (this) {
+				this.descargas = this.descargas + 1;
+				this.alteracoes = this.alteracoes + grupo.alteracoes;
+			}
+			grupo.concluir(falha);
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de descargas realizadas.
+	 *
+	 * @return quantidade de descargas.
+	 */
+	public synchronized long getDescargas() {
+		return this.descargas;
+	}
+
+	/**
+	 * Retorna a quantidade de alteracoes confirmadas.
+	 *
+	 * @return quantidade de alteracoes.
+	 */
+	public synchronized long getAlteracoes() {
+		return this.alteracoes;
+	}
+
+	/**
+	 * Descarrega as alteracoes pendentes e encerra a thread de escrita.
+	 */
+	public void fechar() {
+		synchronized (this) {
+			this.fechada = true;
+			this.notifyAll();
+		}
+		boolean interrompida = false;
+		while (this.escritor.isAlive()) {
+			try {
+				this.escritor.join();
+			} catch (InterruptedException e) {
+				interrompida = true;
+			}
+		}
+		if (interrompida)
+			Thread.currentThread().interrupt();
+	}
+}
@@ -0,0 +1,280 @@
+package br.ufrpe.poo.banco.dados;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Gravacao em segundo plano (write-behind) das alteracoes de um repositorio.
+ *
+ * As threads que alteram o repositorio aplicam a alteracao em memoria, chamam
+ * <code>alterado()</code> e retornam sem esperar pelo disco. Uma thread de
+ * escrita descarrega todas as alteracoes pendentes de uma vez quando a mais
+ * antiga delas atinge o intervalo maximo ou quando a quantidade de alteracoes
+ * pendentes atinge um limite. Em caso de queda, perdem-se no maximo as
+ * alteracoes desse intervalo.
+ *
+ * Uma descarga que falha mantem as alteracoes pendentes, que sao tentadas de
+ * novo na descarga seguinte.
+ */
+public class GravacaoAssincrona {
+
+	/** Intervalo maximo padrao entre uma alteracao e a sua descarga. */
+	public static final long INTERVALO_PADRAO = 200;
+
+	/** Quantidade padrao de alteracoes pendentes que antecipa a descarga. */
+	public static final int LIMITE_PADRAO = 1000;
+
+	/** Operacao que descarrega as alteracoes. */
+	private final ConfirmacaoEmGrupo.Descarga descarga;
+
+	/** Intervalo maximo, em milissegundos, entre alteracao e descarga. */
+	private final long intervalo;
+
+	/** Quantidade de alteracoes pendentes que antecipa a descarga. */
+	private final int limite;
+
+	/** Alteracoes ainda nao descarregadas. */
+	private int pendentes;
+
+	/** Momento (<code>System.nanoTime</code>) da alteracao pendente mais antiga. */
+	private long inicioPendentes;
+
+	/** Indica se a gravacao foi encerrada. */
+	private boolean fechada;
+
+	/** Thread que descarrega as alteracoes. */
+	private final Thread escritor;
+
+	/** Serializa as descargas da thread de escrita e de <code>descarregar</code>. */
+	private final Object descarregando = new Object();
+
+	/** Quantidade de descargas realizadas. */
+	private long descargas;
+
+	/** Quantidade de alteracoes descarregadas. */
+	private long alteracoes;
+
+	/** Atraso, em milissegundos, da alteracao mais antiga da ultima descarga. */
+	private long ultimoAtraso;
+
+	/** Erro da ultima descarga, ou <code>null</code> se ela foi bem sucedida. */
+	private RepositorioException ultimaFalha;
+
+	/**
+	 * Cria a gravacao em segundo plano e inicia a thread de escrita.
+	 *
+	 * @param nome
+	 *            nome da thread de escrita.
+	 * @param descarga
+	 *            operacao que descarrega as alteracoes.
+	 * @param intervalo
+	 *            intervalo maximo, em milissegundos, entre uma alteracao e a
+	 *            sua descarga.
+	 * @param limite
+	 *            quantidade de alteracoes pendentes que antecipa a descarga.
+	 */
+	public GravacaoAssincrona(String nome,
+			ConfirmacaoEmGrupo.Descarga descarga, long intervalo, int limite) {
+		this.descarga = descarga;
+		this.intervalo = intervalo;
+		this.limite = Math.max(limite, 1);
+		this.escritor = new Thread(this::escrever, nome);
+		this.escritor.setDaemon(true);
+		this.escritor.start();
+	}
+
+	/**
+	 * Registra uma alteracao ja aplicada em memoria. Retorna sem esperar pela
+	 * descarga.
+	 *
+	 * @throws RepositorioException
+	 *             lancada se a gravacao ja foi encerrada.
+	 */
+	public synchronized void alterado() throws RepositorioException {
+		if (this.fechada)
+			throw new RepositorioException("Repositorio fechado!");
+		if (this.pendentes == 0)
+			this.inicioPendentes = System.nanoTime();
+		this.pendentes = this.pendentes + 1;
+		if (this.pendentes == 1 || this.pendentes == this.limite)
+			this.notifyAll();
+	}
+
+	/**
+	 * Laco da thread de escrita: espera o intervalo da alteracao mais antiga
+	 * ou o limite de alteracoes e descarrega.
+	 */
+	private void escrever() {
+		while (true) {
+			synchronized (this) {
+				while (true) {
+					if (this.pendentes == 0) {
+						if (this.fechada)
+							return;
+						this.aguardar(0);
+						continue;
+					}
+					if (this.fechada || this.pendentes >= this.limite)
+						break;
+					long espera = this.intervalo
+							- (System.nanoTime() - this.inicioPendentes)
+							/ 1000000;
+					if (espera <= 0)
+						break;
+					this.aguardar(espera);
+				}
+			}
+			try {
+				this.descarregar();
+			} catch (RepositorioException e) {
+				// registrada em ultimaFalha; tenta de novo no proximo intervalo
+				synchronized (this) {
+					if (!this.fechada)
+						this.aguardar(this.intervalo);
+					else
+						return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Espera ser notificado ou o tempo em milissegundos (0 para sem limite).
+	 */
+	private void aguardar(long tempo) {
+		try {
+			this.wait(tempo);
+		} catch (InterruptedException e) {
+			// o laco so termina quando a gravacao eh fechada
+		}
+	}
+
+	/**
+	 * Descarrega agora as alteracoes pendentes, na thread que chama. Deve ser
+	 * usado antes de encerrar a aplicacao ou quando uma alteracao precisa
+	 * estar no disco.
+	 *
+	 * @throws RepositorioException
+	 *             lancada se a descarga falhou; as alteracoes continuam
+	 *             pendentes.
+	 */
+	public void descarregar() throws RepositorioException {
+		synchronized (this.descarregando) {
+			int descarregadas;
+			long inicio;
+			synchronized (this) {
+				descarregadas = this.pendentes;
+				inicio = this.inicioPendentes;
+				if (descarregadas == 0)
+					return;
+				// alteracoes feitas durante a descarga ficam para a proxima
+				this.pendentes = 0;
+			}
+			RepositorioException falha = null;
+			try {
+				this.descarga.descarregar();
+			} catch (RepositorioException e) {
+				falha = e;
+			} catch (RuntimeException e) {
+				falha = new RepositorioException(e);
+			}
+			synchronized (this) {
+				this.ultimaFalha = falha;
+				if (falha != null) {
+					if (this.pendentes == 0 || inicio - this.inicioPendentes < 0)
+						this.inicioPendentes = inicio;
+					this.pendentes = this.pendentes + descarregadas;
+					throw falha;
+				}
+				this.descargas = this.descargas + 1;
+				this.alteracoes = this.alteracoes + descarregadas;
+				this.ultimoAtraso = (System.nanoTime() - inicio) / 1000000;
+			}
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de alteracoes ainda nao descarregadas.
+	 *
+	 * @return alteracoes pendentes.
+	 */
+	public synchronized int getPendentes() {
+		return this.pendentes;
+	}
+
+	/**
+	 * Retorna ha quanto tempo a alteracao pendente mais antiga espera pela
+	 * descarga, ou seja, quanto o arquivo esta atrasado em relacao a memoria.
+	 *
+	 * @return atraso em milissegundos, ou 0 se nao ha alteracoes pendentes.
+	 */
+	public synchronized long getAtraso() {
+		if (this.pendentes == 0)
+			return 0;
+		return (System.nanoTime() - this.inicioPendentes) / 1000000;
+	}
+
+	/**
+	 * Retorna o atraso, no momento em que foi descarregada, da alteracao mais
+	 * antiga da ultima descarga.
+	 *
+	 * @return atraso em milissegundos.
+	 */
+	public synchronized long getUltimoAtraso() {
+		return this.ultimoAtraso;
+	}
+
+	/**
+	 * Retorna a quantidade de descargas realizadas.
+	 *
+	 * @return quantidade de descargas.
+	 */
+	public synchronized long getDescargas() {
+		return this.descargas;
+	}
+
+	/**
+	 * Retorna a quantidade de alteracoes descarregadas.
+	 *
+	 * @return quantidade de alteracoes.
+	 */
+	public synchronized long getAlteracoes() {
+		return this.alteracoes;
+	}
+
+	/**
+	 * Retorna o erro da ultima descarga.
+	 *
+	 * @return erro ou <code>null</code> se a ultima descarga foi bem
+	 *         sucedida.
+	 */
+	public synchronized RepositorioException getUltimaFalha() {
+		return this.ultimaFalha;
+	}
+
+	/**
+	 * Descarrega as alteracoes pendentes e encerra a thread de escrita. Se a
+	 * ultima descarga falhar, o erro fica em <code>getUltimaFalha()</code>;
+	 * quem precisa tratar o erro deve chamar <code>descarregar()</code> antes.
+	 */
+	public void fechar() {
+		synchronized (this) {
+			this.fechada = true;
+			this.notifyAll();
+		}
+		boolean interrompida = false;
+		while (this.escritor.isAlive()) {
+			try {
+				this.escritor.join();
+			} catch (InterruptedException e) {
+				interrompida = true;
+			}
+		}
+		if (interrompida)
+			Thread.currentThread().interrupt();
+		try {
+			this.descarregar();
+		} catch (RepositorioException e) {
+			// mantida em ultimaFalha
+		}
+	}
+}
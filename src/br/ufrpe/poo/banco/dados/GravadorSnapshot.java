@@ -0,0 +1,117 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Gravacao segura de arquivos que sao regravados por inteiro (snapshots).
+ *
+ * O conteudo eh gravado num arquivo temporario ao lado do arquivo final,
+ * seguido de um rodape com o CRC32 do conteudo, e o temporario eh renomeado
+ * atomicamente sobre o arquivo final. Uma falha no meio da gravacao deixa o
+ * arquivo anterior intacto. A leitura valida o CRC32 e rejeita um arquivo
+ * corrompido em vez de carregar apenas parte dos registros.
+ * <p>
+ * Rodape: CRC32 do conteudo (int) marca "CRC!" (int)
+ */
+public final class GravadorSnapshot {
+
+	/** Marca no fim do rodape ("CRC!"). */
+	private static final int MARCA_RODAPE = 0x43524321;
+
+	/** Tamanho do rodape em bytes. */
+	public static final int TAMANHO_RODAPE = 8;
+
+	private GravadorSnapshot() {
+	}
+
+	/**
+	 * Grava o conteudo com rodape num temporario e o renomeia sobre o arquivo.
+	 *
+	 * @param arquivo
+	 *            arquivo a ser substituido.
+	 * @param conteudo
+	 *            conteudo completo do arquivo.
+	 * @param sincronizar
+	 *            se o temporario e o diretorio devem ser forcados no disco, de
+	 *            modo que o arquivo sobreviva tambem a uma queda do sistema e
+	 *            nao apenas a uma falha do processo.
+	 * @throws IOException
+	 *             lancada em caso de erro na gravacao; o arquivo anterior
+	 *             permanece intacto.
+	 */
+	public static void gravar(File arquivo, byte[] conteudo,
+			boolean sincronizar) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(conteudo, 0, conteudo.length);
+		ByteBuffer rodape = ByteBuffer.allocate(TAMANHO_RODAPE);
+		rodape.putInt((int) crc.getValue());
+		rodape.putInt(MARCA_RODAPE);
+		File temporario = new File(arquivo.getPath() + ".tmp");
+		try (FileOutputStream out = new FileOutputStream(temporario)) {
+			out.write(conteudo);
+			out.write(rodape.array());
+			if (sincronizar)
+				out.getChannel().force(true);
+		}
+		Files.move(temporario.toPath(), arquivo.toPath(),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		if (sincronizar)
+			sincronizarDiretorio(arquivo);
+	}
+
+	/**
+	 * Forca no disco a entrada do diretorio criada pela renomeacao.
+	 */
+	private static void sincronizarDiretorio(File arquivo) {
+		File diretorio = arquivo.getAbsoluteFile().getParentFile();
+		try (FileChannel canal = FileChannel.open(diretorio.toPath(),
+				StandardOpenOption.READ)) {
+			canal.force(true);
+		} catch (IOException e) {
+			// nem todo sistema permite abrir um diretorio para sincronizar
+		}
+	}
+
+	/**
+	 * Le o conteudo de um arquivo gravado por <code>gravar</code>, validando
+	 * o CRC32. Um arquivo sem rodape so eh aceito, por inteiro, se o seu
+	 * cabecalho for de uma versao anterior do formato.
+	 *
+	 * @param arquivo
+	 *            arquivo a ser lido.
+	 * @return conteudo do arquivo, sem o rodape.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 * @throws RepositorioException
+	 *             lancada se o CRC32 nao confere com o conteudo ou se falta o
+	 *             rodape.
+	 */
+	public static byte[] ler(File arquivo) throws IOException,
+			RepositorioException {
+		byte[] bytes = Files.readAllBytes(arquivo.toPath());
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		int tamanho = bytes.length - TAMANHO_RODAPE;
+		if (tamanho < 0 || buffer.getInt(tamanho + 4) != MARCA_RODAPE)
+			throw new RepositorioException("Arquivo " + arquivo.getName()
+					+ " sem rodape!");
+		int esperado = buffer.getInt(tamanho);
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, tamanho);
+		if ((int) crc.getValue() != esperado)
+			throw new RepositorioException("Arquivo " + arquivo.getName()
+					+ " corrompido!");
+		return Arrays.copyOf(bytes, tamanho);
+	}
+}
@@ -1,5 +1,8 @@
 package br.ufrpe.poo.banco.dados;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.iterator.IteratorCliente;
 import br.ufrpe.poo.banco.negocio.Cliente;
@@ -83,4 +86,60 @@ public interface IRepositorioClientes {
 	 */
 	IteratorCliente getIterator();
 
+	/**
+	 * Retorna uma pagina dos clientes do repositorio, a partir de um cursor.
+	 * 
+	 * A implementacao padrao percorre o iterador desde o inicio. Repositorios
+	 * mantidos em array sobrescrevem este metodo para copiar apenas os
+	 * clientes da pagina.
+	 * 
+	 * @param cursor
+	 *            posicao do primeiro cliente, 0 para a primeira pagina ou o
+	 *            cursor retornado pela pagina anterior.
+	 * @param tamanho
+	 *            quantidade maxima de clientes da pagina.
+	 * @return pagina de clientes.
+	 */
+	default Pagina<Cliente> pagina(int cursor, int tamanho) {
+		Pagina.validar(cursor, tamanho);
+		ArrayList<Cliente> itens = new ArrayList<Cliente>();
+		IteratorCliente it = this.getIterator();
+		int total = 0;
+		while (it.hasNext()) {
+			Cliente cliente = it.next();
+			if (total >= cursor && itens.size() < tamanho)
+				itens.add(cliente);
+			total = total + 1;
+		}
+		int fim = cursor + itens.size();
+		return new Pagina<Cliente>(itens, fim < total ? fim : Pagina.FIM,
+				total);
+	}
+
+	/**
+	 * Busca os primeiros clientes cujo cpf comeca com a consulta ou cujo nome
+	 * tem palavras que comecam com cada palavra da consulta, pelas regras de
+	 * <code>IndiceClientes.buscar</code>.
+	 * 
+	 * A implementacao padrao percorre todo o repositorio e retorna os clientes
+	 * na ordem do iterador. <code>RepositorioClientesIndexado</code> responde
+	 * pelo indice, sem percorrer o repositorio.
+	 * 
+	 * @param consulta
+	 *            texto digitado pelo operador.
+	 * @param quantidade
+	 *            quantidade maxima de clientes retornados.
+	 * @return clientes encontrados.
+	 */
+	default List<Cliente> buscar(String consulta, int quantidade) {
+		ArrayList<Cliente> encontrados = new ArrayList<Cliente>();
+		IteratorCliente it = this.getIterator();
+		while (it.hasNext() && encontrados.size() < quantidade) {
+			Cliente cliente = it.next();
+			if (IndiceClientes.corresponde(cliente, consulta))
+				encontrados.add(cliente);
+		}
+		return encontrados;
+	}
+
 }
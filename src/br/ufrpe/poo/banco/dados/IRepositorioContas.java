@@ -1,5 +1,8 @@
 package br.ufrpe.poo.banco.dados;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
 import br.ufrpe.poo.banco.negocio.ContaAbstrata;
@@ -58,6 +61,29 @@ public interface IRepositorioContas {
 	 */
 	boolean atualizar(ContaAbstrata conta) throws RepositorioException;
 
+	/**
+	 * Atualiza varias contas no repositorio como um unico lote.
+	 * 
+	 * Repositorios em arquivo sobrescrevem este metodo para gravar o lote de
+	 * uma so vez, em vez de uma gravacao por conta.
+	 * 
+	 * @param contas
+	 *            contas a serem atualizadas.
+	 * @return quantidade de contas atualizadas. Contas que nao existem no
+	 *         repositorio sao ignoradas.
+	 * @throws RepositorioException
+	 *             levantada quando ocorre erro no repositorio.
+	 */
+	default int atualizarTodas(Collection<? extends ContaAbstrata> contas)
+			throws RepositorioException {
+		int atualizadas = 0;
+		for (ContaAbstrata conta : contas) {
+			if (this.atualizar(conta))
+				atualizadas = atualizadas + 1;
+		}
+		return atualizadas;
+	}
+
 	/**
 	 * Indica se existe uma conta no repositorio.
 	 * 
@@ -78,4 +104,34 @@ public interface IRepositorioContas {
 	 *             levantada quando ocorre erro no repositorio.
 	 */
 	IteratorContaAbstrata getIterator();
+
+	/**
+	 * Retorna uma pagina das contas do repositorio, a partir de um cursor.
+	 * 
+	 * A implementacao padrao percorre o iterador desde o inicio. Repositorios
+	 * mantidos em array sobrescrevem este metodo para copiar apenas as contas
+	 * da pagina.
+	 * 
+	 * @param cursor
+	 *            posicao da primeira conta, 0 para a primeira pagina ou o
+	 *            cursor retornado pela pagina anterior.
+	 * @param tamanho
+	 *            quantidade maxima de contas da pagina.
+	 * @return pagina de contas.
+	 */
+	default Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		Pagina.validar(cursor, tamanho);
+		ArrayList<ContaAbstrata> itens = new ArrayList<ContaAbstrata>();
+		IteratorContaAbstrata it = this.getIterator();
+		int total = 0;
+		while (it.hasNext()) {
+			ContaAbstrata conta = it.next();
+			if (total >= cursor && itens.size() < tamanho)
+				itens.add(conta);
+			total = total + 1;
+		}
+		int fim = cursor + itens.size();
+		return new Pagina<ContaAbstrata>(itens, fim < total ? fim
+				: Pagina.FIM, total);
+	}
 }
@@ -0,0 +1,70 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Collection;
+import java.util.List;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Lancamento;
+
+/**
+ * Interface do repositorio de lancamentos, onde os lancamentos sao apenas
+ * acrescentados e consultados pelo numero da conta.
+ *
+ * Os lancamentos de uma conta sao mantidos na ordem em que foram registrados.
+ * Um lancamento com instante anterior ao ultimo lancamento da conta (por
+ * exemplo, se o relogio do sistema voltou) eh registrado com o instante do
+ * ultimo, para que as consultas por periodo continuem validas.
+ */
+public interface IRepositorioLancamentos {
+
+	/**
+	 * Registra um lancamento.
+	 *
+	 * @param lancamento
+	 *            lancamento a ser registrado.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na gravacao.
+	 */
+	void registrar(Lancamento lancamento) throws RepositorioException;
+
+	/**
+	 * Registra varios lancamentos de uma vez.
+	 *
+	 * @param lancamentos
+	 *            lancamentos a serem registrados, na ordem da colecao.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na gravacao.
+	 */
+	default void registrarTodos(Collection<Lancamento> lancamentos)
+			throws RepositorioException {
+		for (Lancamento lancamento : lancamentos) {
+			this.registrar(lancamento);
+		}
+	}
+
+	/**
+	 * Retorna os ultimos lancamentos de uma conta.
+	 *
+	 * @param numero
+	 *            numero da conta.
+	 * @param quantidade
+	 *            quantidade maxima de lancamentos.
+	 * @return lancamentos em ordem cronologica; vazia se a conta nao tem
+	 *         lancamentos.
+	 */
+	List<Lancamento> ultimos(String numero, int quantidade);
+
+	/**
+	 * Retorna os lancamentos de uma conta num periodo.
+	 *
+	 * @param numero
+	 *            numero da conta.
+	 * @param inicio
+	 *            inicio do periodo em milissegundos desde 1970, inclusive.
+	 * @param fim
+	 *            fim do periodo em milissegundos desde 1970, inclusive.
+	 * @return lancamentos em ordem cronologica; vazia se nao ha lancamentos
+	 *         no periodo.
+	 */
+	List<Lancamento> entre(String numero, long inicio, long fim);
+}
@@ -0,0 +1,256 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Indice de busca de clientes por prefixo do cpf e por prefixo das palavras do
+ * nome, para sugestoes enquanto o operador digita.
+ *
+ * O indice mantem dois mapas ordenados: um pelos digitos do cpf e outro pelas
+ * palavras normalizadas do nome (minusculas, sem acentos), com uma entrada
+ * por palavra de cada cliente. Todas as chaves que comecam com um prefixo
+ * estao juntas no mapa, de modo que uma busca custa O(log n) para achar o
+ * inicio mais o numero de entradas percorridas ate juntar os resultados, e
+ * nao depende da quantidade de clientes.
+ *
+ * As buscas nao usam travas e podem ser feitas por varias threads junto com as
+ * alteracoes. As alteracoes sao serializadas entre si; durante a alteracao de
+ * um cliente, uma busca pode ainda nao encontra-lo com o nome novo.
+ */
+public class IndiceClientes {
+
+	/** Separa a palavra ou os digitos do cpf do cpf original na chave. */
+	private static final char SEPARADOR = '\u0000';
+
+	/** Sinais diacriticos deixados pela decomposicao Unicode. */
+	private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+	/** Caracteres que separam as palavras do nome. */
+	private static final Pattern SEPARADORES = Pattern
+			.compile("[^\\p{L}\\p{N}]+");
+
+	/** Clientes pelos digitos do cpf. */
+	private final ConcurrentSkipListMap<String, Cliente> porCpf = new ConcurrentSkipListMap<String, Cliente>();
+
+	/** Clientes por palavra do nome, uma entrada por palavra de cada cliente. */
+	private final ConcurrentSkipListMap<String, Cliente> porNome = new ConcurrentSkipListMap<String, Cliente>();
+
+	/** Palavras indexadas de cada cliente, pelo cpf. */
+	private final Map<String, String[]> palavras = new ConcurrentHashMap<String, String[]>();
+
+	/**
+	 * Retorna apenas os digitos de um cpf, de modo que "123.456" e "123456"
+	 * sejam buscados da mesma forma.
+	 *
+	 * @param cpf
+	 *            cpf, com ou sem pontuacao.
+	 * @return digitos do cpf.
+	 */
+	public static String digitos(String cpf) {
+		StringBuilder sb = new StringBuilder(cpf.length());
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9')
+				sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Separa um texto em palavras minusculas e sem acentos.
+	 *
+	 * @param texto
+	 *            nome ou consulta.
+	 * @return palavras normalizadas, sem repeticao.
+	 */
+	public static String[] palavras(String texto) {
+		if (texto == null)
+			return new String[0];
+		String normalizado = ACENTOS.matcher(
+				Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+		ArrayList<String> palavras = new ArrayList<String>();
+		for (String palavra : SEPARADORES.split(normalizado)) {
+			if (!palavra.isEmpty() && !palavras.contains(palavra))
+				palavras.add(palavra);
+		}
+		return palavras.toArray(new String[palavras.size()]);
+	}
+
+	/**
+	 * Indica se uma consulta eh por cpf: tem digitos e nenhuma letra.
+	 *
+	 * @param consulta
+	 *            texto digitado.
+	 * @return se a consulta eh por cpf.
+	 */
+	public static boolean isConsultaCpf(String consulta) {
+		boolean digito = false;
+		for (int i = 0; i < consulta.length(); i++) {
+			char c = consulta.charAt(i);
+			if (Character.isLetter(c))
+				return false;
+			if (c >= '0' && c <= '9')
+				digito = true;
+		}
+		return digito;
+	}
+
+	/**
+	 * Indica se um cliente corresponde a uma consulta, pelas mesmas regras de
+	 * <code>buscar</code>, sem usar o indice.
+	 *
+	 * @param cliente
+	 *            cliente.
+	 * @param consulta
+	 *            texto digitado.
+	 * @return se o cliente corresponde a consulta.
+	 */
+	public static boolean corresponde(Cliente cliente, String consulta) {
+		if (isConsultaCpf(consulta))
+			return digitos(cliente.getCpf()).startsWith(digitos(consulta));
+		String[] termos = palavras(consulta);
+		return termos.length > 0
+				&& contemPrefixos(palavras(cliente.getNome()), termos);
+	}
+
+	/**
+	 * Indica se cada termo eh prefixo de alguma das palavras.
+	 */
+	private static boolean contemPrefixos(String[] palavras, String[] termos) {
+		for (String termo : termos) {
+			boolean achou = false;
+			for (String palavra : palavras) {
+				if (palavra.startsWith(termo)) {
+					achou = true;
+					break;
+				}
+			}
+			if (!achou)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Inclui ou substitui um cliente no indice.
+	 *
+	 * @param cliente
+	 *            cliente a ser indexado.
+	 */
+	public synchronized void indexar(Cliente cliente) {
+		String cpf = cliente.getCpf();
+		this.remover(cpf);
+		String[] palavras = palavras(cliente.getNome());
+		this.porCpf.put(digitos(cpf) + SEPARADOR + cpf, cliente);
+		for (String palavra : palavras) {
+			this.porNome.put(palavra + SEPARADOR + cpf, cliente);
+		}
+		this.palavras.put(cpf, palavras);
+	}
+
+	/**
+	 * Retira um cliente do indice.
+	 *
+	 * @param cpf
+	 *            cpf do cliente.
+	 */
+	public synchronized void remover(String cpf) {
+		String[] palavras = this.palavras.remove(cpf);
+		if (palavras == null)
+			return;
+		this.porCpf.remove(digitos(cpf) + SEPARADOR + cpf);
+		for (String palavra : palavras) {
+			this.porNome.remove(palavra + SEPARADOR + cpf);
+		}
+	}
+
+	/**
+	 * Busca os primeiros clientes que correspondem ao texto digitado.
+	 *
+	 * Uma consulta sem letras eh um prefixo dos digitos do cpf, e os clientes
+	 * sao retornados em ordem de cpf. Nas demais, cada palavra da consulta deve
+	 * ser prefixo de uma palavra do nome ("jo sil" encontra "Joao da Silva").
+	 * Com uma palavra, os clientes sao retornados em ordem da palavra do nome,
+	 * de modo que palavras completas vem antes das mais longas ("ana" antes de
+	 * "anabela").
+	 *
+	 * Com varias palavras, as entradas de cada palavra sao percorridas
+	 * alternadamente e a busca termina quando uma delas acaba, pois todo
+	 * cliente encontrado aparece nas entradas de todas as palavras. Assim o
+	 * custo fica limitado pela palavra mais rara, e os clientes sao retornados
+	 * na ordem em que sao encontrados.
+	 *
+	 * @param consulta
+	 *            texto digitado.
+	 * @param quantidade
+	 *            quantidade maxima de clientes retornados.
+	 * @return clientes encontrados, no maximo <code>quantidade</code>.
+	 */
+	public List<Cliente> buscar(String consulta, int quantidade) {
+		ArrayList<Cliente> encontrados = new ArrayList<Cliente>();
+		if (quantidade < 1)
+			return encontrados;
+		if (isConsultaCpf(consulta)) {
+			String prefixo = digitos(consulta);
+			for (Cliente cliente : this.comPrefixo(this.porCpf, prefixo)) {
+				encontrados.add(cliente);
+				if (encontrados.size() == quantidade)
+					break;
+			}
+			return encontrados;
+		}
+		String[] termos = palavras(consulta);
+		if (termos.length == 0)
+			return encontrados;
+		List<Iterator<Cliente>> entradas = new ArrayList<Iterator<Cliente>>(
+				termos.length);
+		for (String termo : termos) {
+			entradas.add(this.comPrefixo(this.porNome, termo).iterator());
+		}
+		HashSet<String> vistos = new HashSet<String>();
+		for (int i = 0; entradas.get(i).hasNext(); i = (i + 1)
+				% entradas.size()) {
+			Cliente cliente = entradas.get(i).next();
+			String[] palavras = this.palavras.get(cliente.getCpf());
+			if (palavras == null || !contemPrefixos(palavras, termos)
+					|| !vistos.add(cliente.getCpf()))
+				continue;
+			encontrados.add(cliente);
+			if (encontrados.size() == quantidade)
+				break;
+		}
+		return encontrados;
+	}
+
+	/**
+	 * Retorna os clientes cujas chaves comecam com o prefixo, em ordem.
+	 */
+	private Iterable<Cliente> comPrefixo(
+			ConcurrentSkipListMap<String, Cliente> mapa, String prefixo) {
+		if (prefixo.isEmpty())
+			return mapa.values();
+		// toda chave com o prefixo vem antes do prefixo seguido de U+FFFF
+		return mapa.subMap(prefixo, prefixo + Character.MAX_VALUE).values();
+	}
+
+	/**
+	 * Retorna a quantidade de clientes indexados.
+	 *
+	 * @return quantidade de clientes.
+	 */
+	public int getQuantidade() {
+		return this.palavras.size();
+	}
+}
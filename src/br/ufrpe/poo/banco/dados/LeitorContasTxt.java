@@ -0,0 +1,274 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.Dinheiro;
+
+/**
+ * Leitor do arquivo texto de contas de <code>RepositorioContasArquivoTxt</code>.
+ *
+ * Cada linha segue o padrao <code>tipoConta numero saldo [bonus]</code> ou,
+ * para uma conta removida, <code>R numero</code>. O leitor percorre um buffer
+ * de bytes uma unica vez, sem expressoes regulares e sem criar objetos
+ * intermediarios alem do numero da conta: saldo e bonus sao convertidos
+ * direto para centavos. Valores com mais de duas casas decimais ou em notacao
+ * cientifica (gravados por versoes anteriores a partir de <code>double</code>)
+ * sao convertidos por <code>Dinheiro.de</code>.
+ */
+public class LeitorContasTxt implements Closeable {
+
+	/** Tamanho do buffer de leitura. */
+	private static final int TAMANHO_BUFFER = 1 << 16;
+
+	/** Indica o fim do arquivo. */
+	private static final int FIM = -1;
+
+	/** Marca que inicia a linha de remocao de uma conta. */
+	public static final char MARCA_REMOCAO = 'R';
+
+	/** Codificacao do arquivo, usada tambem na escrita. */
+	public static final Charset CODIFICACAO = StandardCharsets.UTF_8;
+
+	/** Origem dos bytes. */
+	private final InputStream in;
+
+	/** Nome do arquivo, usado nas mensagens de erro. */
+	private final String nome;
+
+	/** Buffer de leitura. */
+	private final byte[] buffer = new byte[TAMANHO_BUFFER];
+
+	/** Posicao do proximo byte no buffer. */
+	private int posicao;
+
+	/** Quantidade de bytes validos no buffer. */
+	private int limite;
+
+	/** Bytes do token atual. */
+	private byte[] token = new byte[64];
+
+	/** Tamanho do token atual. */
+	private int tamanhoToken;
+
+	/** Numero da linha atual, usado nas mensagens de erro. */
+	private int linha = 1;
+
+	/** Conta do ultimo registro lido, ou <code>null</code> numa remocao. */
+	private ContaAbstrata conta;
+
+	/** Numero da conta do ultimo registro lido. */
+	private String numero;
+
+	/**
+	 * Cria um leitor.
+	 *
+	 * @param in
+	 *            origem do texto.
+	 * @param nome
+	 *            nome do arquivo, usado nas mensagens de erro.
+	 */
+	public LeitorContasTxt(InputStream in, String nome) {
+		this.in = in;
+		this.nome = nome;
+	}
+
+	/**
+	 * Le o proximo registro do arquivo.
+	 *
+	 * @return se um registro foi lido; <code>false</code> no fim do arquivo.
+	 * @throws IOException
+	 *             lancada em caso de erro na leitura.
+	 * @throws RepositorioException
+	 *             lancada se a linha nao segue o formato esperado.
+	 */
+	public boolean proximo() throws IOException, RepositorioException {
+		if (!this.lerToken(true))
+			return false;
+		boolean remocao = this.tamanhoToken == 1
+				&& this.token[0] == MARCA_REMOCAO;
+		int tipo = remocao ? 0 : (int) this.inteiroDoToken();
+		if (!this.lerToken(false))
+			throw this.linhaInvalida();
+		this.numero = new String(this.token, 0, this.tamanhoToken,
+				CODIFICACAO);
+		if (remocao) {
+			this.conta = null;
+		} else {
+			if (!this.lerToken(false))
+				throw this.linhaInvalida();
+			Dinheiro saldo = this.valorDoToken();
+			Dinheiro bonus = Dinheiro.ZERO;
+			if (this.lerToken(false))
+				bonus = this.valorDoToken();
+			this.conta = CodecRegistros.criarConta(tipo, this.numero, saldo,
+					bonus);
+		}
+		if (this.lerToken(false))
+			throw this.linhaInvalida();
+		return true;
+	}
+
+	/**
+	 * Retorna a conta do ultimo registro lido.
+	 *
+	 * @return conta lida ou <code>null</code> se o registro eh uma remocao.
+	 */
+	public ContaAbstrata getConta() {
+		return this.conta;
+	}
+
+	/**
+	 * Retorna o numero da conta do ultimo registro lido.
+	 *
+	 * @return numero da conta lida ou removida.
+	 */
+	public String getNumero() {
+		return this.numero;
+	}
+
+	/**
+	 * Le o proximo byte, recarregando o buffer quando necessario.
+	 */
+	private int ler() throws IOException {
+		if (this.posicao == this.limite) {
+			this.limite = this.in.read(this.buffer, 0, this.buffer.length);
+			this.posicao = 0;
+			if (this.limite <= 0) {
+				this.limite = 0;
+				return FIM;
+			}
+		}
+		return this.buffer[this.posicao++] & 0xFF;
+	}
+
+	/**
+	 * Devolve o ultimo byte lido ao buffer.
+	 */
+	private void devolver() {
+		this.posicao--;
+	}
+
+	/**
+	 * Le o proximo token separado por espacos.
+	 *
+	 * @param cruzarLinhas
+	 *            se o token pode estar nas linhas seguintes; caso contrario o
+	 *            fim da linha encerra a busca.
+	 * @return se um token foi lido.
+	 */
+	private boolean lerToken(boolean cruzarLinhas) throws IOException {
+		int b;
+		while (true) {
+			b = this.ler();
+			if (b == ' ' || b == '\t' || b == '\r')
+				continue;
+			if (b == '\n') {
+				if (!cruzarLinhas) {
+					this.devolver();
+					return false;
+				}
+				this.linha++;
+				continue;
+			}
+			break;
+		}
+		if (b == FIM)
+			return false;
+		this.tamanhoToken = 0;
+		while (b != FIM && b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+			if (this.tamanhoToken == this.token.length) {
+				byte[] aux = new byte[this.token.length * 2];
+				System.arraycopy(this.token, 0, aux, 0, this.tamanhoToken);
+				this.token = aux;
+			}
+			this.token[this.tamanhoToken++] = (byte) b;
+			b = this.ler();
+		}
+		if (b != FIM)
+			this.devolver();
+		return true;
+	}
+
+	/**
+	 * Converte o token atual num inteiro nao negativo.
+	 */
+	private long inteiroDoToken() throws RepositorioException {
+		if (this.tamanhoToken == 0 || this.tamanhoToken > 9)
+			throw this.linhaInvalida();
+		long valor = 0;
+		for (int i = 0; i < this.tamanhoToken; i++) {
+			int digito = this.token[i] - '0';
+			if (digito < 0 || digito > 9)
+				throw this.linhaInvalida();
+			valor = valor * 10 + digito;
+		}
+		return valor;
+	}
+
+	/**
+	 * Converte o token atual num valor em centavos.
+	 */
+	private Dinheiro valorDoToken() throws RepositorioException {
+		int i = 0;
+		boolean negativo = false;
+		if (this.token[0] == '-' || this.token[0] == '+') {
+			negativo = this.token[0] == '-';
+			i = 1;
+		}
+		long inteiro = 0;
+		int digitosInteiros = 0;
+		for (; i < this.tamanhoToken; i++) {
+			int digito = this.token[i] - '0';
+			if (digito < 0 || digito > 9)
+				break;
+			inteiro = inteiro * 10 + digito;
+			digitosInteiros++;
+		}
+		long fracao = 0;
+		int digitosFracao = 0;
+		if (i < this.tamanhoToken && this.token[i] == '.') {
+			for (i = i + 1; i < this.tamanhoToken; i++) {
+				int digito = this.token[i] - '0';
+				if (digito < 0 || digito > 9)
+					break;
+				fracao = fracao * 10 + digito;
+				digitosFracao++;
+			}
+		}
+		if (i < this.tamanhoToken || digitosFracao > 2 || digitosInteiros > 16
+				|| digitosInteiros + digitosFracao == 0)
+			return this.valorDoTokenLento();
+		if (digitosFracao == 1)
+			fracao = fracao * 10;
+		long centavos = inteiro * Dinheiro.CENTAVOS_POR_UNIDADE + fracao;
+		return Dinheiro.deCentavos(negativo ? -centavos : centavos);
+	}
+
+	/**
+	 * Converte o token atual por meio de <code>Double.parseDouble</code>.
+	 */
+	private Dinheiro valorDoTokenLento() throws RepositorioException {
+		try {
+			return Dinheiro.de(Double.parseDouble(new String(this.token, 0,
+					this.tamanhoToken, CODIFICACAO)));
+		} catch (NumberFormatException e) {
+			throw this.linhaInvalida();
+		}
+	}
+
+	private RepositorioException linhaInvalida() {
+		return new RepositorioException("Linha " + this.linha
+				+ " invalida no arquivo " + this.nome + "!");
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+}
@@ -0,0 +1,34 @@
+package br.ufrpe.poo.banco.dados;
+
+/**
+ * Modo como um repositorio em arquivo grava as alteracoes no disco.
+ */
+public enum ModoGravacao {
+
+	/**
+	 * Cada alteracao eh gravada no arquivo antes de a operacao retornar, sem
+	 * forcar a descarga no disco.
+	 */
+	IMEDIATO,
+
+	/**
+	 * Cada alteracao eh gravada e forcada no disco (fsync) antes de a operacao
+	 * retornar.
+	 */
+	SINCRONIZADO,
+
+	/**
+	 * Alteracoes concorrentes sao agrupadas e gravadas por uma unica thread
+	 * com uma unica descarga no disco. Cada operacao retorna apenas depois que
+	 * o grupo que a contem foi descarregado.
+	 */
+	EM_GRUPO,
+
+	/**
+	 * Cada alteracao eh aplicada apenas em memoria e a operacao retorna
+	 * imediatamente. Uma thread grava e forca no disco as alteracoes pendentes
+	 * em intervalos, de modo que uma queda perde no maximo as alteracoes do
+	 * ultimo intervalo.
+	 */
+	ASSINCRONO
+}
@@ -0,0 +1,110 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pagina de uma listagem de repositorio.
+ *
+ * O cursor eh a posicao do primeiro item na ordem interna do repositorio. A
+ * pagina seguinte comeca no cursor retornado por <code>getProximo()</code>.
+ * Nos repositorios mantidos em array, ir direto para qualquer cursor custa o
+ * mesmo que ir para o primeiro, de modo que uma tabela pode buscar apenas as
+ * paginas visiveis. A listagem nao eh um retrato do repositorio: uma remocao
+ * entre duas paginas move a ultima conta ou cliente para a posicao removida.
+ *
+ * @param <T>
+ *            tipo dos itens.
+ */
+public final class Pagina<T> {
+
+	/** Cursor que indica que nao ha pagina seguinte. */
+	public static final int FIM = -1;
+
+	/** Itens da pagina. */
+	private final List<T> itens;
+
+	/** Cursor da pagina seguinte, ou <code>FIM</code>. */
+	private final int proximo;
+
+	/** Quantidade de itens do repositorio quando a pagina foi lida. */
+	private final int total;
+
+	/**
+	 * Cria uma pagina.
+	 *
+	 * @param itens
+	 *            itens da pagina.
+	 * @param proximo
+	 *            cursor da pagina seguinte, ou <code>FIM</code>.
+	 * @param total
+	 *            quantidade de itens do repositorio.
+	 */
+	public Pagina(List<T> itens, int proximo, int total) {
+		this.itens = Collections.unmodifiableList(itens);
+		this.proximo = proximo;
+		this.total = total;
+	}
+
+	/**
+	 * Verifica os argumentos de uma listagem.
+	 *
+	 * @throws IllegalArgumentException
+	 *             lancada se o cursor for negativo ou o tamanho menor que 1.
+	 */
+	static void validar(int cursor, int tamanho) {
+		if (cursor < 0 || tamanho < 1)
+			throw new IllegalArgumentException("cursor=" + cursor
+					+ " tamanho=" + tamanho);
+	}
+
+	/**
+	 * Copia uma pagina das primeiras <code>quantidade</code> posicoes de um
+	 * array. Deve ser chamado com a trava do repositorio.
+	 */
+	static <T> Pagina<T> deArray(T[] array, int quantidade, int cursor,
+			int tamanho) {
+		validar(cursor, tamanho);
+		int inicio = Math.min(cursor, quantidade);
+		int fim = inicio + Math.min(tamanho, quantidade - inicio);
+		List<T> itens = Arrays.asList(Arrays.copyOfRange(array, inicio, fim));
+		return new Pagina<T>(itens, fim < quantidade ? fim : FIM, quantidade);
+	}
+
+	/**
+	 * Retorna os itens da pagina.
+	 *
+	 * @return lista nao modificavel dos itens.
+	 */
+	public List<T> getItens() {
+		return this.itens;
+	}
+
+	/**
+	 * Retorna o cursor da pagina seguinte.
+	 *
+	 * @return cursor da pagina seguinte, ou <code>FIM</code>.
+	 */
+	public int getProximo() {
+		return this.proximo;
+	}
+
+	/**
+	 * Indica se existe pagina seguinte.
+	 *
+	 * @return se existe pagina seguinte.
+	 */
+	public boolean temProxima() {
+		return this.proximo != FIM;
+	}
+
+	/**
+	 * Retorna a quantidade de itens do repositorio quando a pagina foi lida.
+	 *
+	 * @return quantidade de itens.
+	 */
+	public int getTotal() {
+		return this.total;
+	}
+}
@@ -1,16 +1,19 @@
 package br.ufrpe.poo.banco.dados;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.iterator.IteratorCliente;
+import br.ufrpe.poo.banco.metricas.MetricaMetodo;
 import br.ufrpe.poo.banco.negocio.Cliente;
 
 /**
@@ -25,7 +28,7 @@ public class RepositorioClientesArquivoBin implements IRepositorioClientes {
 	/**
 	 * Clientes do arquivo sao guardadas em memoria num repositorio de clientes.
 	 */
-	private RepositorioClientesArray clientes;
+	private RepositorioClientesHash clientes;
 
 	/**
 	 * Caminho para arquivo que guarda as informacoes das clientes.
@@ -37,6 +40,36 @@ public class RepositorioClientesArquivoBin implements IRepositorioClientes {
 	 */
 	private File arquivoClientes;
 
+	/**
+	 * Tamanho inicial do buffer de escrita do arquivo.
+	 */
+	private static final int TAMANHO_BUFFER = 1 << 16;
+
+	/**
+	 * Trava que serializa as gravacoes do arquivo.
+	 */
+	private final Object gravacao = new Object();
+
+	/**
+	 * Modo de gravacao das alteracoes.
+	 */
+	private final ModoGravacao modo;
+
+	/**
+	 * Confirmacao das alteracoes no modo <code>EM_GRUPO</code>.
+	 */
+	private ConfirmacaoEmGrupo confirmacao;
+
+	/**
+	 * Gravacao em segundo plano das alteracoes no modo <code>ASSINCRONO</code>.
+	 */
+	private GravacaoAssincrona assincrona;
+
+	/**
+	 * Metrica das gravacoes do arquivo.
+	 */
+	private volatile MetricaMetodo metricaGravacao = MetricaMetodo.NENHUMA;
+
 	/**
 	 * Constroi um repositorio a partir de clientes armazenadas em arquivo.
 	 * 
@@ -44,24 +77,104 @@ public class RepositorioClientesArquivoBin implements IRepositorioClientes {
 	 *             Lancada quando ocorre erro no repositorio.
 	 */
 	public RepositorioClientesArquivoBin() throws RepositorioException {
+		this(null, ModoGravacao.IMEDIATO);
+	}
+
+	/**
+	 * Constroi um repositorio a partir de clientes armazenadas em arquivo.
+	 * 
+	 * @param arquivo
+	 *            arquivo dos clientes ou <code>null</code> para clientes.dat.
+	 * @param modo
+	 *            modo de gravacao das alteracoes.
+	 * @throws RepositorioException
+	 *             Lancada quando ocorre erro no repositorio.
+	 */
+	public RepositorioClientesArquivoBin(File arquivo, ModoGravacao modo)
+			throws RepositorioException {
+		this(arquivo, modo, GravacaoAssincrona.INTERVALO_PADRAO,
+				GravacaoAssincrona.LIMITE_PADRAO);
+	}
+
+	/**
+	 * Constroi um repositorio a partir de clientes armazenados em arquivo.
+	 * 
+	 * No modo <code>ASSINCRONO</code>, as alteracoes sao aplicadas em memoria
+	 * e gravadas por uma thread no maximo <code>intervalo</code> milissegundos
+	 * depois, ou assim que <code>limite</code> alteracoes estiverem pendentes.
+	 * 
+	 * @param arquivo
+	 *            arquivo dos clientes ou <code>null</code> para clientes.dat.
+	 * @param modo
+	 *            modo de gravacao das alteracoes.
+	 * @param intervalo
+	 *            atraso maximo da gravacao no modo <code>ASSINCRONO</code>, em
+	 *            milissegundos.
+	 * @param limite
+	 *            quantidade de alteracoes pendentes que antecipa a gravacao no
+	 *            modo <code>ASSINCRONO</code>.
+	 * @throws RepositorioException
+	 *             Lancada quando ocorre erro no repositorio.
+	 */
+	public RepositorioClientesArquivoBin(File arquivo, ModoGravacao modo,
+			long intervalo, int limite) throws RepositorioException {
+		this.modo = modo;
 		try {
-			this.clientes = new RepositorioClientesArray();
-			arquivoClientes = new File(this.ARQUIVO);
+			this.clientes = new RepositorioClientesHash();
+			arquivoClientes = arquivo != null ? arquivo
+					: new File(this.ARQUIVO);
 			arquivoClientes.createNewFile();
 			if (arquivoClientes.length() != 0)
 				this.lerArquivo();
 		} catch (IOException e) {
 			throw new RepositorioException(e);
 		}
+		if (modo == ModoGravacao.EM_GRUPO) {
+			this.confirmacao = new ConfirmacaoEmGrupo("gravacao-clientes",
+					() -> this.gravarArquivo(true));
+		} else if (modo == ModoGravacao.ASSINCRONO) {
+			this.assincrona = new GravacaoAssincrona("gravacao-clientes",
+					() -> this.gravarArquivo(true), intervalo, limite);
+		}
 	}
 
 	/**
 	 * Le os clientes a partir do arquivo.
 	 * 
+	 * Um arquivo gravado com serializacao Java (formato anterior) eh lido uma
+	 * unica vez e regravado no formato de <code>CodecRegistros</code>.
+	 * 
 	 * @throws RepositorioException
 	 *             Lancada em caso de erro na leitura do arquivo.
 	 */
 	private void lerArquivo() throws RepositorioException {
+		try {
+			if (CodecRegistros.ehSerializacaoJava(this.arquivoClientes)) {
+				this.lerArquivoSerializado();
+				this.gravarArquivo();
+				return;
+			}
+			try (DataInputStream in = new DataInputStream(
+					new ByteArrayInputStream(
+							GravadorSnapshot.ler(this.arquivoClientes)))) {
+				int versao = CodecRegistros.lerCabecalho(in);
+				int quantidade = in.readInt();
+				for (int i = 0; i < quantidade; i++) {
+					this.clientes.inserir(CodecRegistros.lerCliente(in, versao));
+				}
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Le os clientes de um arquivo gravado com serializacao Java.
+	 * 
+	 * @throws RepositorioException
+	 *             Lancada em caso de erro na leitura do arquivo.
+	 */
+	private void lerArquivoSerializado() throws RepositorioException {
 		FileInputStream fisBanco = null;
 		ObjectInputStream oisBanco = null;
 		try {
@@ -92,73 +205,178 @@ public class RepositorioClientesArquivoBin implements IRepositorioClientes {
 	}
 
 	/**
-	 * Serializa todos os clientes do array em um arquivo.
+	 * Grava todos os clientes em um arquivo no formato de
+	 * <code>CodecRegistros</code>.
 	 * 
 	 * @throws RepositorioException
-	 *             Lancada caso ocorre um erro com o arquivo.
+	 *             Lancada no caso de um erro com o arquivo.
 	 */
 	public void gravarArquivo() throws RepositorioException {
-		FileOutputStream fosBanco = null;
-		ObjectOutputStream oosBanco = null;
-		try {
-			fosBanco = new FileOutputStream(this.arquivoClientes, false);
-			oosBanco = new ObjectOutputStream(fosBanco);
-			IteratorCliente it = this.clientes.getIterator();
-			while (it.hasNext()) {
-				Cliente cliente = it.next();
-				oosBanco.writeObject(cliente);
-			}
-		} catch (FileNotFoundException e) {
-			throw new RepositorioException(e);
-		} catch (IOException e) {
-			throw new RepositorioException(e);
-		} finally {
+		this.gravarArquivo(this.modo != ModoGravacao.IMEDIATO);
+	}
+
+	/**
+	 * Grava todos os clientes no arquivo por meio de
+	 * <code>GravadorSnapshot</code>, de modo que uma falha no meio da gravacao
+	 * preserva o arquivo anterior.
+	 * 
+	 * Os clientes sao codificados em memoria sob a trava do repositorio e o
+	 * arquivo eh gravado fora dela, sem bloquear as buscas. Cada gravacao
+	 * codifica os clientes depois de obter a trava de gravacao, entao um estado
+	 * mais antigo nunca substitui um mais novo.
+	 * 
+	 * @param sincronizar
+	 *            se o arquivo deve ser forcado no disco antes de retornar.
+	 * @throws RepositorioException
+	 *             Lancada no caso de um erro com o arquivo.
+	 */
+	private void gravarArquivo(boolean sincronizar)
+			throws RepositorioException {
+		synchronized (this.gravacao) {
+			MetricaMetodo metrica = this.metricaGravacao;
+			long inicio = metrica.iniciar();
 			try {
-				fosBanco.close();
-				oosBanco.close();
+				GravadorSnapshot.gravar(this.arquivoClientes, this.estadoAtual(),
+						sincronizar);
+				metrica.sucesso(inicio);
 			} catch (IOException e) {
+				metrica.falha(inicio, e);
 				throw new RepositorioException(e);
 			}
 		}
 	}
 
+	/**
+	 * Codifica todos os clientes no formato do arquivo.
+	 * 
+	 * @return bytes do arquivo, sem o rodape.
+	 */
+	private synchronized byte[] estadoAtual() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(TAMANHO_BUFFER);
+		DataOutputStream out = new DataOutputStream(bytes);
+		CodecRegistros.escreverCabecalho(out);
+		out.writeInt(this.clientes.getQuantidade());
+		IteratorCliente it = this.clientes.getIterator();
+		while (it.hasNext()) {
+			CodecRegistros.escreverCliente(out, it.next());
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Persiste uma alteracao ja aplicada em memoria, conforme o modo de
+	 * gravacao.
+	 * 
+	 * @throws RepositorioException
+	 *             Lancada no caso de um erro com o arquivo.
+	 */
+	private void persistir() throws RepositorioException {
+		if (this.confirmacao != null) {
+			this.confirmacao.confirmar();
+		} else if (this.assincrona != null) {
+			this.assincrona.alterado();
+		} else {
+			this.gravarArquivo();
+		}
+	}
+
+	/**
+	 * Grava agora as alteracoes ainda pendentes no modo <code>ASSINCRONO</code>.
+	 * Nos demais modos as alteracoes ja foram gravadas e nada eh feito.
+	 * 
+	 * @throws RepositorioException
+	 *             Lancada no caso de um erro com o arquivo.
+	 */
+	public void descarregar() throws RepositorioException {
+		if (this.assincrona != null)
+			this.assincrona.descarregar();
+	}
+
+	/**
+	 * Encerra a thread de escrita dos modos <code>EM_GRUPO</code> e
+	 * <code>ASSINCRONO</code>, depois de gravar as alteracoes pendentes. Para
+	 * tratar um erro nessa ultima gravacao, chame <code>descarregar()</code>
+	 * antes.
+	 */
+	public void fechar() {
+		if (this.confirmacao != null)
+			this.confirmacao.fechar();
+		if (this.assincrona != null)
+			this.assincrona.fechar();
+	}
+
+	/**
+	 * Retorna a gravacao em segundo plano usada pelo repositorio, com as
+	 * metricas de alteracoes pendentes e de atraso.
+	 * 
+	 * @return gravacao em segundo plano ou <code>null</code> se o modo nao for
+	 *         <code>ASSINCRONO</code>.
+	 */
+	public GravacaoAssincrona getGravacaoAssincrona() {
+		return this.assincrona;
+	}
+
+	/**
+	 * Define a metrica em que as gravacoes do arquivo sao registradas.
+	 * 
+	 * @param metrica
+	 *            metrica das gravacoes.
+	 */
+	public void setMetricaGravacao(MetricaMetodo metrica) {
+		this.metricaGravacao = metrica;
+	}
+
 	@Override
 	public boolean inserir(Cliente cliente) throws RepositorioException {
-		boolean sucesso = this.clientes.inserir(cliente);
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = this.clientes.inserir(cliente);
+		}
 		if (sucesso) {
-			this.gravarArquivo();
+			this.persistir();
 		}
 		return sucesso;
 	}
 
 	@Override
-	public Cliente procurar(String cpf) {
+	public synchronized Cliente procurar(String cpf) {
 		return this.clientes.procurar(cpf);
 	}
 
 	@Override
 	public boolean remover(String cpf) throws RepositorioException {
-		boolean sucesso = this.clientes.remover(cpf);
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = this.clientes.remover(cpf);
+		}
 		if (sucesso) {
-			this.gravarArquivo();
+			this.persistir();
 		}
 		return sucesso;
 	}
 
 	@Override
 	public boolean atualizar(Cliente cliente) throws RepositorioException {
-		boolean sucesso = this.clientes.atualizar(cliente);
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = this.clientes.atualizar(cliente);
+		}
 		if (sucesso) {
-			this.gravarArquivo();
+			this.persistir();
 		}
 		return sucesso;
 	}
 
 	@Override
-	public boolean existe(String cpf) {
+	public synchronized boolean existe(String cpf) {
 		return this.clientes.existe(cpf);
 	}
 
+	@Override
+	public Pagina<Cliente> pagina(int cursor, int tamanho) {
+		return this.clientes.pagina(cursor, tamanho);
+	}
+
 	@Override
 	public IteratorCliente getIterator() {
 		return this.clientes.getIterator();
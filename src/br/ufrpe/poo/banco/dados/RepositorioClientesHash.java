@@ -0,0 +1,302 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.HashMap;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorCliente;
+import br.ufrpe.poo.banco.iterator.IteratorClienteArray;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Implementacao do repositorio de clientes que mantem os clientes em array,
+ * indexados pelo cpf em uma tabela hash de enderecamento aberto.
+ *
+ * Um cpf numerico (ate 17 digitos) eh convertido em uma chave
+ * <code>long</code>, de modo que a busca nao calcula hash de
+ * <code>String</code> nem aloca objetos. Cpfs com outros caracteres (por
+ * exemplo com pontos e traco) sao indexados num mapa auxiliar.
+ */
+public class RepositorioClientesHash implements IRepositorioClientes {
+
+	/** Chave de um cpf que nao eh numerico. */
+	private static final long SEM_CHAVE = -1;
+
+	/** Posicao vazia na tabela. */
+	private static final int VAZIO = 0;
+
+	/** Array que mantem os clientes. */
+	private Cliente[] clientes;
+
+	/** Chave de cada cliente, na mesma posicao do array de clientes. */
+	private long[] chavesClientes;
+
+	/** Chaves da tabela de enderecamento aberto (sondagem linear). */
+	private long[] chaves;
+
+	/**
+	 * Indice do cliente no array mais um para cada chave da tabela, ou
+	 * <code>VAZIO</code>.
+	 */
+	private int[] posicoes;
+
+	/** Indice no array dos clientes cujo cpf nao eh numerico. */
+	private HashMap<String, Integer> outros;
+
+	/** Proxima posicao livre do array. */
+	private int indice;
+
+	/**
+	 * Constroi um repositorio com hash.
+	 *
+	 * Tamanho inicial do array sao 100 posicoes.
+	 */
+	public RepositorioClientesHash() {
+		this(100);
+	}
+
+	/**
+	 * Constroi um repositorio com hash dimensionado para uma quantidade
+	 * esperada de clientes.
+	 *
+	 * @param capacidade
+	 *            quantidade de clientes esperada.
+	 */
+	public RepositorioClientesHash(int capacidade) {
+		capacidade = Math.max(capacidade, 16);
+		this.clientes = new Cliente[capacidade];
+		this.chavesClientes = new long[capacidade];
+		int tamanho = tamanhoTabela(capacidade);
+		this.chaves = new long[tamanho];
+		this.posicoes = new int[tamanho];
+		this.outros = new HashMap<String, Integer>();
+		this.indice = 0;
+	}
+
+	/**
+	 * Menor potencia de dois que mantem a tabela no maximo meio cheia.
+	 */
+	private static int tamanhoTabela(int capacidade) {
+		return Integer.highestOneBit(capacidade * 2 - 1) << 1;
+	}
+
+	/**
+	 * Converte um cpf numerico em chave. O valor dos digitos eh combinado com a
+	 * quantidade de digitos, para que "0123" e "123" tenham chaves diferentes.
+	 *
+	 * @param cpf
+	 *            cpf a ser convertido.
+	 * @return chave do cpf ou <code>SEM_CHAVE</code> se o cpf nao for
+	 *         numerico.
+	 */
+	static long chave(String cpf) {
+		int tamanho = cpf.length();
+		if (tamanho == 0 || tamanho > 17)
+			return SEM_CHAVE;
+		long valor = 0;
+		for (int i = 0; i < tamanho; i++) {
+			int digito = cpf.charAt(i) - '0';
+			if (digito < 0 || digito > 9)
+				return SEM_CHAVE;
+			valor = valor * 10 + digito;
+		}
+		return (valor << 5) | tamanho;
+	}
+
+	/**
+	 * Espalha os bits da chave para a posicao inicial na tabela.
+	 */
+	private static int hash(long chave) {
+		long h = chave * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Retorna a posicao da tabela que contem a chave.
+	 *
+	 * @return posicao na tabela ou -1 caso a chave nao exista.
+	 */
+	private int getPosicao(long chave) {
+		int mascara = this.chaves.length - 1;
+		int i = hash(chave) & mascara;
+		while (this.posicoes[i] != VAZIO) {
+			if (this.chaves[i] == chave)
+				return i;
+			i = (i + 1) & mascara;
+		}
+		return -1;
+	}
+
+	/**
+	 * Retorna o indice do cliente no array.
+	 *
+	 * @param cpf
+	 *            Numero do cpf cujo indice eh retornado.
+	 * @return indice do cliente no array ou -1 caso o cliente nao exista.
+	 */
+	private int getIndice(String cpf) {
+		long chave = chave(cpf);
+		if (chave == SEM_CHAVE) {
+			Integer i = this.outros.get(cpf);
+			return i == null ? -1 : i;
+		}
+		int posicao = this.getPosicao(chave);
+		return posicao == -1 ? -1 : this.posicoes[posicao] - 1;
+	}
+
+	/**
+	 * Grava na tabela a chave do cliente no indice do array.
+	 */
+	private void indexar(long chave, int indiceCliente) {
+		int mascara = this.chaves.length - 1;
+		int i = hash(chave) & mascara;
+		while (this.posicoes[i] != VAZIO) {
+			i = (i + 1) & mascara;
+		}
+		this.chaves[i] = chave;
+		this.posicoes[i] = indiceCliente + 1;
+	}
+
+	/**
+	 * Apaga uma posicao da tabela deslocando para tras as entradas seguintes
+	 * da mesma sequencia de sondagem.
+	 */
+	private void desindexar(int posicao) {
+		int mascara = this.chaves.length - 1;
+		int vazio = posicao;
+		int i = posicao;
+		while (true) {
+			i = (i + 1) & mascara;
+			if (this.posicoes[i] == VAZIO)
+				break;
+			int ideal = hash(this.chaves[i]) & mascara;
+			if (((i - ideal) & mascara) >= ((i - vazio) & mascara)) {
+				this.chaves[vazio] = this.chaves[i];
+				this.posicoes[vazio] = this.posicoes[i];
+				vazio = i;
+			}
+		}
+		this.posicoes[vazio] = VAZIO;
+	}
+
+	/**
+	 * Dobra o array de clientes e a tabela, reindexando todos os clientes.
+	 */
+	private void crescer() {
+		int capacidade = this.clientes.length * 2;
+		Cliente[] aux = new Cliente[capacidade];
+		long[] auxChaves = new long[capacidade];
+		System.arraycopy(this.clientes, 0, aux, 0, this.indice);
+		System.arraycopy(this.chavesClientes, 0, auxChaves, 0, this.indice);
+		this.clientes = aux;
+		this.chavesClientes = auxChaves;
+		int tamanho = tamanhoTabela(capacidade);
+		if (tamanho != this.chaves.length) {
+			this.chaves = new long[tamanho];
+			this.posicoes = new int[tamanho];
+			for (int i = 0; i < this.indice; i++) {
+				if (this.chavesClientes[i] != SEM_CHAVE)
+					this.indexar(this.chavesClientes[i], i);
+			}
+		}
+	}
+
+	/**
+	 * Aponta o indice de um cliente para uma nova posicao do array.
+	 */
+	private void reindexar(Cliente cliente, long chave, int novoIndice) {
+		if (chave == SEM_CHAVE) {
+			this.outros.put(cliente.getCpf(), novoIndice);
+		} else {
+			this.posicoes[this.getPosicao(chave)] = novoIndice + 1;
+		}
+	}
+
+	@Override
+	public synchronized boolean inserir(Cliente cliente)
+			throws RepositorioException {
+		if (this.existe(cliente.getCpf())) {
+			return false;
+		}
+		if (this.clientes.length == this.indice) {
+			this.crescer();
+		}
+		long chave = chave(cliente.getCpf());
+		this.clientes[this.indice] = cliente;
+		this.chavesClientes[this.indice] = chave;
+		if (chave == SEM_CHAVE) {
+			this.outros.put(cliente.getCpf(), this.indice);
+		} else {
+			this.indexar(chave, this.indice);
+		}
+		this.indice = this.indice + 1;
+		return true;
+	}
+
+	@Override
+	public synchronized Cliente procurar(String cpf) {
+		int i = this.getIndice(cpf);
+		return i == -1 ? null : this.clientes[i];
+	}
+
+	@Override
+	public synchronized boolean remover(String cpf)
+			throws RepositorioException {
+		int i = this.getIndice(cpf);
+		if (i == -1) {
+			return false;
+		}
+		long chave = this.chavesClientes[i];
+		if (chave == SEM_CHAVE) {
+			this.outros.remove(cpf);
+		} else {
+			this.desindexar(this.getPosicao(chave));
+		}
+		this.indice = this.indice - 1;
+		if (i != this.indice) {
+			// o ultimo cliente ocupa o lugar do removido, como no array
+			Cliente ultimo = this.clientes[this.indice];
+			long chaveUltimo = this.chavesClientes[this.indice];
+			this.clientes[i] = ultimo;
+			this.chavesClientes[i] = chaveUltimo;
+			this.reindexar(ultimo, chaveUltimo, i);
+		}
+		this.clientes[this.indice] = null;
+		return true;
+	}
+
+	@Override
+	public synchronized boolean atualizar(Cliente cliente)
+			throws RepositorioException {
+		int i = this.getIndice(cliente.getCpf());
+		if (i != -1) {
+			this.clientes[i] = cliente;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized boolean existe(String cpf) {
+		return this.getIndice(cpf) != -1;
+	}
+
+	/**
+	 * Retorna a quantidade de clientes no repositorio.
+	 *
+	 * @return quantidade de clientes.
+	 */
+	public synchronized int getQuantidade() {
+		return this.indice;
+	}
+
+	@Override
+	public synchronized Pagina<Cliente> pagina(int cursor, int tamanho) {
+		return Pagina.deArray(this.clientes, this.indice, cursor, tamanho);
+	}
+
+	@Override
+	public IteratorCliente getIterator() {
+		return new IteratorClienteArray(this.clientes);
+	}
+
+}
@@ -0,0 +1,114 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.List;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorCliente;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Decorador de repositorio de clientes que mantem um
+ * <code>IndiceClientes</code> para buscas por prefixo do cpf e do nome.
+ *
+ * O indice eh montado a partir dos clientes do repositorio decorado na
+ * criacao e atualizado a cada <code>inserir</code>, <code>atualizar</code> e
+ * <code>remover</code> bem sucedido. As alteracoes devem passar por este
+ * decorador; alteracoes feitas diretamente no repositorio decorado nao
+ * aparecem nas buscas.
+ */
+public class RepositorioClientesIndexado implements IRepositorioClientes {
+
+	/** Repositorio decorado. */
+	private final IRepositorioClientes repositorio;
+
+	/** Indice dos clientes do repositorio. */
+	private final IndiceClientes indice = new IndiceClientes();
+
+	/**
+	 * Cria o decorador e indexa os clientes do repositorio.
+	 *
+	 * @param repositorio
+	 *            repositorio decorado.
+	 */
+	public RepositorioClientesIndexado(IRepositorioClientes repositorio) {
+		this.repositorio = repositorio;
+		IteratorCliente it = repositorio.getIterator();
+		while (it.hasNext()) {
+			this.indice.indexar(it.next());
+		}
+	}
+
+	/**
+	 * Retorna o repositorio decorado.
+	 *
+	 * @return repositorio decorado.
+	 */
+	public IRepositorioClientes getRepositorio() {
+		return this.repositorio;
+	}
+
+	/**
+	 * Retorna o indice dos clientes.
+	 *
+	 * @return indice.
+	 */
+	public IndiceClientes getIndice() {
+		return this.indice;
+	}
+
+	/**
+	 * As alteracoes sao serializadas para que o indice fique na mesma ordem
+	 * que o repositorio.
+	 */
+	@Override
+	public synchronized boolean inserir(Cliente cliente)
+			throws RepositorioException {
+		boolean inserido = this.repositorio.inserir(cliente);
+		if (inserido)
+			this.indice.indexar(cliente);
+		return inserido;
+	}
+
+	@Override
+	public Cliente procurar(String cpf) {
+		return this.repositorio.procurar(cpf);
+	}
+
+	@Override
+	public synchronized boolean remover(String cpf)
+			throws RepositorioException {
+		boolean removido = this.repositorio.remover(cpf);
+		if (removido)
+			this.indice.remover(cpf);
+		return removido;
+	}
+
+	@Override
+	public synchronized boolean atualizar(Cliente cliente)
+			throws RepositorioException {
+		boolean atualizado = this.repositorio.atualizar(cliente);
+		if (atualizado)
+			this.indice.indexar(cliente);
+		return atualizado;
+	}
+
+	@Override
+	public boolean existe(String cpf) {
+		return this.repositorio.existe(cpf);
+	}
+
+	@Override
+	public IteratorCliente getIterator() {
+		return this.repositorio.getIterator();
+	}
+
+	@Override
+	public Pagina<Cliente> pagina(int cursor, int tamanho) {
+		return this.repositorio.pagina(cursor, tamanho);
+	}
+
+	@Override
+	public List<Cliente> buscar(String consulta, int quantidade) {
+		return this.indice.buscar(consulta, quantidade);
+	}
+}
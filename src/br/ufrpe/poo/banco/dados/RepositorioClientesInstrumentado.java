@@ -0,0 +1,200 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.List;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorCliente;
+import br.ufrpe.poo.banco.metricas.MetricaMetodo;
+import br.ufrpe.poo.banco.metricas.Metricas;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Decorador de repositorio de clientes que registra, para cada metodo, a
+ * quantidade de chamadas, os erros por tipo de excecao e o histograma de
+ * latencias.
+ *
+ * Os metodos sao registrados com o prefixo dado, por exemplo
+ * <code>clientes.procurar</code>. Se o repositorio decorado for um
+ * <code>RepositorioClientesArquivoBin</code>, as gravacoes do arquivo, que
+ * acontecem dentro das alteracoes ou numa thread de escrita, sao registradas
+ * como <code>clientes.gravarArquivo</code>.
+ */
+public class RepositorioClientesInstrumentado implements IRepositorioClientes {
+
+	/** Prefixo padrao dos nomes das metricas. */
+	public static final String PREFIXO_PADRAO = "clientes";
+
+	/** Repositorio decorado. */
+	private final IRepositorioClientes repositorio;
+
+	private final MetricaMetodo inserir;
+
+	private final MetricaMetodo procurar;
+
+	private final MetricaMetodo remover;
+
+	private final MetricaMetodo atualizar;
+
+	private final MetricaMetodo existe;
+
+	private final MetricaMetodo getIterator;
+
+	private final MetricaMetodo pagina;
+
+	private final MetricaMetodo buscar;
+
+	/**
+	 * Cria o decorador com o prefixo padrao.
+	 *
+	 * @param repositorio
+	 *            repositorio decorado.
+	 * @param metricas
+	 *            conjunto em que as metricas sao registradas.
+	 */
+	public RepositorioClientesInstrumentado(IRepositorioClientes repositorio,
+			Metricas metricas) {
+		this(repositorio, metricas, PREFIXO_PADRAO);
+	}
+
+	/**
+	 * Cria o decorador.
+	 *
+	 * @param repositorio
+	 *            repositorio decorado.
+	 * @param metricas
+	 *            conjunto em que as metricas sao registradas.
+	 * @param prefixo
+	 *            prefixo dos nomes das metricas.
+	 */
+	public RepositorioClientesInstrumentado(IRepositorioClientes repositorio,
+			Metricas metricas, String prefixo) {
+		this.repositorio = repositorio;
+		this.inserir = metricas.metodo(prefixo + ".inserir");
+		this.procurar = metricas.metodo(prefixo + ".procurar");
+		this.remover = metricas.metodo(prefixo + ".remover");
+		this.atualizar = metricas.metodo(prefixo + ".atualizar");
+		this.existe = metricas.metodo(prefixo + ".existe");
+		this.getIterator = metricas.metodo(prefixo + ".getIterator");
+		this.pagina = metricas.metodo(prefixo + ".pagina");
+		this.buscar = metricas.metodo(prefixo + ".buscar");
+		if (repositorio instanceof RepositorioClientesArquivoBin) {
+			((RepositorioClientesArquivoBin) repositorio)
+					.setMetricaGravacao(metricas.metodo(prefixo
+							+ ".gravarArquivo"));
+		}
+	}
+
+	/**
+	 * Retorna o repositorio decorado.
+	 *
+	 * @return repositorio decorado.
+	 */
+	public IRepositorioClientes getRepositorio() {
+		return this.repositorio;
+	}
+
+	@Override
+	public boolean inserir(Cliente cliente) throws RepositorioException {
+		long medicao = this.inserir.iniciar();
+		try {
+			boolean sucesso = this.repositorio.inserir(cliente);
+			this.inserir.sucesso(medicao);
+			return sucesso;
+		} catch (RepositorioException | RuntimeException e) {
+			this.inserir.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Cliente procurar(String cpf) {
+		long medicao = this.procurar.iniciar();
+		try {
+			Cliente cliente = this.repositorio.procurar(cpf);
+			this.procurar.sucesso(medicao);
+			return cliente;
+		} catch (RuntimeException e) {
+			this.procurar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean remover(String cpf) throws RepositorioException {
+		long medicao = this.remover.iniciar();
+		try {
+			boolean sucesso = this.repositorio.remover(cpf);
+			this.remover.sucesso(medicao);
+			return sucesso;
+		} catch (RepositorioException | RuntimeException e) {
+			this.remover.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean atualizar(Cliente cliente) throws RepositorioException {
+		long medicao = this.atualizar.iniciar();
+		try {
+			boolean sucesso = this.repositorio.atualizar(cliente);
+			this.atualizar.sucesso(medicao);
+			return sucesso;
+		} catch (RepositorioException | RuntimeException e) {
+			this.atualizar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean existe(String cpf) {
+		long medicao = this.existe.iniciar();
+		try {
+			boolean existe = this.repositorio.existe(cpf);
+			this.existe.sucesso(medicao);
+			return existe;
+		} catch (RuntimeException e) {
+			this.existe.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public IteratorCliente getIterator() {
+		long medicao = this.getIterator.iniciar();
+		try {
+			IteratorCliente iterador = this.repositorio.getIterator();
+			this.getIterator.sucesso(medicao);
+			return iterador;
+		} catch (RuntimeException e) {
+			this.getIterator.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Pagina<Cliente> pagina(int cursor, int tamanho) {
+		long medicao = this.pagina.iniciar();
+		try {
+			Pagina<Cliente> pagina = this.repositorio.pagina(cursor, tamanho);
+			this.pagina.sucesso(medicao);
+			return pagina;
+		} catch (RuntimeException e) {
+			this.pagina.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public List<Cliente> buscar(String consulta, int quantidade) {
+		long medicao = this.buscar.iniciar();
+		try {
+			List<Cliente> encontrados = this.repositorio.buscar(consulta,
+					quantidade);
+			this.buscar.sucesso(medicao);
+			return encontrados;
+		} catch (RuntimeException e) {
+			this.buscar.falha(medicao, e);
+			throw e;
+		}
+	}
+}
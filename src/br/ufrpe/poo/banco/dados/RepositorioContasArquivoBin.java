@@ -1,16 +1,20 @@
 package br.ufrpe.poo.banco.dados;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.util.Collection;
 
 import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.metricas.MetricaMetodo;
 import br.ufrpe.poo.banco.negocio.ContaAbstrata;
 
 /**
@@ -21,7 +25,7 @@ import br.ufrpe.poo.banco.negocio.ContaAbstrata;
 public class RepositorioContasArquivoBin implements IRepositorioContas {
 
 	/** Contas do arquivo sao guardadas em memoria num repositorio de contas. */
-	private RepositorioContasArray contas;
+	private RepositorioContasHash contas;
 
 	/** Caminho para arquivo que guarda as informacoes das contas. */
 	private final String ARQUIVO = "contas.dat";
@@ -29,6 +33,24 @@ public class RepositorioContasArquivoBin implements IRepositorioContas {
 	/** Arquivo que armazena as contas. */
 	private File arquivoContas;
 
+	/** Tamanho inicial do buffer de escrita do arquivo. */
+	private static final int TAMANHO_BUFFER = 1 << 16;
+
+	/** Trava que serializa as gravacoes do arquivo. */
+	private final Object gravacao = new Object();
+
+	/** Modo de gravacao das alteracoes. */
+	private final ModoGravacao modo;
+
+	/** Confirmacao das alteracoes no modo <code>EM_GRUPO</code>. */
+	private ConfirmacaoEmGrupo confirmacao;
+
+	/** Gravacao em segundo plano das alteracoes no modo <code>ASSINCRONO</code>. */
+	private GravacaoAssincrona assincrona;
+
+	/** Metrica das gravacoes do arquivo. */
+	private volatile MetricaMetodo metricaGravacao = MetricaMetodo.NENHUMA;
+
 	/**
 	 * Constroi um repositorio a partir de contas armazenadas em arquivo.
 	 * 
@@ -36,24 +58,107 @@ public class RepositorioContasArquivoBin implements IRepositorioContas {
 	 *             Lancada quando ocorre erro no repositorio.
 	 */
 	public RepositorioContasArquivoBin() throws RepositorioException {
+		this(null, ModoGravacao.IMEDIATO);
+	}
+
+	/**
+	 * Constroi um repositorio a partir de contas armazenadas em arquivo.
+	 * 
+	 * No modo <code>EM_GRUPO</code>, alteracoes concorrentes sao gravadas
+	 * juntas por uma thread de escrita, com uma unica regravacao do arquivo e
+	 * uma unica descarga no disco por grupo.
+	 * 
+	 * @param arquivo
+	 *            arquivo das contas ou <code>null</code> para contas.dat.
+	 * @param modo
+	 *            modo de gravacao das alteracoes.
+	 * @throws RepositorioException
+	 *             Lancada quando ocorre erro no repositorio.
+	 */
+	public RepositorioContasArquivoBin(File arquivo, ModoGravacao modo)
+			throws RepositorioException {
+		this(arquivo, modo, GravacaoAssincrona.INTERVALO_PADRAO,
+				GravacaoAssincrona.LIMITE_PADRAO);
+	}
+
+	/**
+	 * Constroi um repositorio a partir de contas armazenadas em arquivo.
+	 * 
+	 * No modo <code>ASSINCRONO</code>, as alteracoes sao aplicadas em memoria
+	 * e gravadas por uma thread no maximo <code>intervalo</code> milissegundos
+	 * depois, ou assim que <code>limite</code> alteracoes estiverem pendentes.
+	 * 
+	 * @param arquivo
+	 *            arquivo das contas ou <code>null</code> para contas.dat.
+	 * @param modo
+	 *            modo de gravacao das alteracoes.
+	 * @param intervalo
+	 *            atraso maximo da gravacao no modo <code>ASSINCRONO</code>, em
+	 *            milissegundos.
+	 * @param limite
+	 *            quantidade de alteracoes pendentes que antecipa a gravacao no
+	 *            modo <code>ASSINCRONO</code>.
+	 * @throws RepositorioException
+	 *             Lancada quando ocorre erro no repositorio.
+	 */
+	public RepositorioContasArquivoBin(File arquivo, ModoGravacao modo, long intervalo,
+			int limite) throws RepositorioException {
+		this.modo = modo;
 		try {
-			contas = new RepositorioContasArray();
-			arquivoContas = new File(this.ARQUIVO);
+			contas = new RepositorioContasHash();
+			arquivoContas = arquivo != null ? arquivo : new File(this.ARQUIVO);
 			arquivoContas.createNewFile();
 			if (arquivoContas.length() != 0)
 				this.lerArquivo();
 		} catch (IOException e) {
 			throw new RepositorioException(e);
 		}
+		if (modo == ModoGravacao.EM_GRUPO) {
+			this.confirmacao = new ConfirmacaoEmGrupo("gravacao-contas",
+					() -> this.gravarArquivo(true));
+		} else if (modo == ModoGravacao.ASSINCRONO) {
+			this.assincrona = new GravacaoAssincrona("gravacao-contas",
+					() -> this.gravarArquivo(true), intervalo, limite);
+		}
 	}
 
 	/**
 	 * Le as contas a partir do arquivo.
 	 * 
+	 * Um arquivo gravado com serializacao Java (formato anterior) eh lido uma
+	 * unica vez e regravado no formato de <code>CodecRegistros</code>.
+	 * 
 	 * @throws RepositorioException
 	 *             lancada em caso de erro na leitura do arquivo.
 	 */
 	private void lerArquivo() throws RepositorioException {
+		try {
+			if (CodecRegistros.ehSerializacaoJava(this.arquivoContas)) {
+				this.lerArquivoSerializado();
+				this.gravarArquivo();
+				return;
+			}
+			try (DataInputStream in = new DataInputStream(
+					new ByteArrayInputStream(
+							GravadorSnapshot.ler(this.arquivoContas)))) {
+				int versao = CodecRegistros.lerCabecalho(in);
+				int quantidade = in.readInt();
+				for (int i = 0; i < quantidade; i++) {
+					this.contas.inserir(CodecRegistros.lerConta(in, versao));
+				}
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Le as contas de um arquivo gravado com serializacao Java.
+	 * 
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura do arquivo.
+	 */
+	private void lerArquivoSerializado() throws RepositorioException {
 		FileInputStream fisBanco = null;
 		ObjectInputStream oisBanco = null;
 		try {
@@ -84,73 +189,208 @@ public class RepositorioContasArquivoBin implements IRepositorioContas {
 	}
 
 	/**
-	 * Serializa todas as contas do array em um arquivo.
+	 * Grava todas as contas em um arquivo no formato de
+	 * <code>CodecRegistros</code>.
 	 * 
 	 * @throws RepositorioException
-	 *             levantada no caso de um erro com o arquivo.
+	 *             lancada no caso de um erro com o arquivo.
 	 */
 	public void gravarArquivo() throws RepositorioException {
-		FileOutputStream fosBanco = null;
-		ObjectOutputStream oosBanco = null;
-		try {
-			fosBanco = new FileOutputStream(this.arquivoContas, false);
-			oosBanco = new ObjectOutputStream(fosBanco);
-			IteratorContaAbstrata it = contas.getIterator();
-			while (it.hasNext()) {
-				ContaAbstrata c = it.next();
-				oosBanco.writeObject(c);
-			}
-		} catch (FileNotFoundException e) {
-			throw new RepositorioException(e);
-		} catch (IOException e) {
-			throw new RepositorioException(e);
-		} finally {
+		this.gravarArquivo(this.modo != ModoGravacao.IMEDIATO);
+	}
+
+	/**
+	 * Grava todas as contas no arquivo por meio de
+	 * <code>GravadorSnapshot</code>, de modo que uma falha no meio da gravacao
+	 * preserva o arquivo anterior.
+	 * 
+	 * As contas sao codificadas em memoria sob a trava do repositorio e o
+	 * arquivo eh gravado fora dela, sem bloquear as buscas. Cada gravacao
+	 * codifica as contas depois de obter a trava de gravacao, entao um estado
+	 * mais antigo nunca substitui um mais novo.
+	 * 
+	 * @param sincronizar
+	 *            se o arquivo deve ser forcado no disco antes de retornar.
+	 * @throws RepositorioException
+	 *             lancada no caso de um erro com o arquivo.
+	 */
+	private void gravarArquivo(boolean sincronizar)
+			throws RepositorioException {
+		synchronized (this.gravacao) {
+			MetricaMetodo metrica = this.metricaGravacao;
+			long inicio = metrica.iniciar();
 			try {
-				fosBanco.close();
-				oosBanco.close();
+				GravadorSnapshot.gravar(this.arquivoContas, this.estadoAtual(),
+						sincronizar);
+				metrica.sucesso(inicio);
 			} catch (IOException e) {
+				metrica.falha(inicio, e);
 				throw new RepositorioException(e);
 			}
 		}
 	}
 
+	/**
+	 * Codifica todas as contas no formato do arquivo.
+	 * 
+	 * @return bytes do arquivo, sem o rodape.
+	 */
+	private synchronized byte[] estadoAtual() throws IOException,
+			RepositorioException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(TAMANHO_BUFFER);
+		DataOutputStream out = new DataOutputStream(bytes);
+		CodecRegistros.escreverCabecalho(out);
+		out.writeInt(this.contas.getQuantidade());
+		IteratorContaAbstrata it = this.contas.getIterator();
+		while (it.hasNext()) {
+			CodecRegistros.escreverConta(out, it.next());
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Persiste uma alteracao ja aplicada em memoria, conforme o modo de
+	 * gravacao.
+	 * 
+	 * @throws RepositorioException
+	 *             lancada no caso de um erro com o arquivo.
+	 */
+	private void persistir() throws RepositorioException {
+		if (this.confirmacao != null) {
+			this.confirmacao.confirmar();
+		} else if (this.assincrona != null) {
+			this.assincrona.alterado();
+		} else {
+			this.gravarArquivo();
+		}
+	}
+
+	/**
+	 * Grava agora as alteracoes ainda pendentes no modo <code>ASSINCRONO</code>.
+	 * Nos demais modos as alteracoes ja foram gravadas e nada eh feito.
+	 * 
+	 * @throws RepositorioException
+	 *             lancada no caso de um erro com o arquivo.
+	 */
+	public void descarregar() throws RepositorioException {
+		if (this.assincrona != null)
+			this.assincrona.descarregar();
+	}
+
+	/**
+	 * Encerra a thread de escrita dos modos <code>EM_GRUPO</code> e
+	 * <code>ASSINCRONO</code>, depois de gravar as alteracoes pendentes. Para
+	 * tratar um erro nessa ultima gravacao, chame <code>descarregar()</code>
+	 * antes.
+	 */
+	public void fechar() {
+		if (this.confirmacao != null)
+			this.confirmacao.fechar();
+		if (this.assincrona != null)
+			this.assincrona.fechar();
+	}
+
+	/**
+	 * Retorna a gravacao em segundo plano usada pelo repositorio, com as
+	 * metricas de alteracoes pendentes e de atraso.
+	 * 
+	 * @return gravacao em segundo plano ou <code>null</code> se o modo nao for
+	 *         <code>ASSINCRONO</code>.
+	 */
+	public GravacaoAssincrona getGravacaoAssincrona() {
+		return this.assincrona;
+	}
+
+	/**
+	 * Define a metrica em que as gravacoes do arquivo sao registradas.
+	 * 
+	 * @param metrica
+	 *            metrica das gravacoes.
+	 */
+	public void setMetricaGravacao(MetricaMetodo metrica) {
+		this.metricaGravacao = metrica;
+	}
+
+	/**
+	 * Retorna a confirmacao em grupo usada pelo repositorio.
+	 * 
+	 * @return confirmacao em grupo ou <code>null</code> se o modo nao for
+	 *         <code>EM_GRUPO</code>.
+	 */
+	public ConfirmacaoEmGrupo getConfirmacao() {
+		return this.confirmacao;
+	}
+
 	@Override
 	public boolean inserir(ContaAbstrata conta) throws RepositorioException {
-		boolean sucesso = contas.inserir(conta);
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = contas.inserir(conta);
+		}
 		if (sucesso) {
-			this.gravarArquivo();
+			this.persistir();
 		}
 		return sucesso;
 	}
 
 	@Override
-	public ContaAbstrata procurar(String numero) {
+	public synchronized ContaAbstrata procurar(String numero) {
 		return contas.procurar(numero);
 	}
 
 	@Override
 	public boolean remover(String numero) throws RepositorioException {
-		boolean sucesso = contas.remover(numero);
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = contas.remover(numero);
+		}
 		if (sucesso) {
-			this.gravarArquivo();
+			this.persistir();
 		}
 		return sucesso;
 	}
 
 	@Override
 	public boolean atualizar(ContaAbstrata conta) throws RepositorioException {
-		boolean sucesso = contas.atualizar(conta);
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = contas.atualizar(conta);
+		}
 		if (sucesso) {
-			this.gravarArquivo();
+			this.persistir();
 		}
 		return sucesso;
 	}
 
+	/**
+	 * Atualiza as contas em memoria e grava o arquivo uma unica vez.
+	 */
 	@Override
-	public boolean existe(String numero) {
+	public int atualizarTodas(Collection<? extends ContaAbstrata> lista)
+			throws RepositorioException {
+		int atualizadas = 0;
+		synchronized (this) {
+			for (ContaAbstrata conta : lista) {
+				if (contas.atualizar(conta))
+					atualizadas = atualizadas + 1;
+			}
+		}
+		if (atualizadas > 0) {
+			this.persistir();
+		}
+		return atualizadas;
+	}
+
+	@Override
+	public synchronized boolean existe(String numero) {
 		return contas.existe(numero);
 	}
 
+	public Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		return contas.pagina(cursor, tamanho);
+	}
+
+	@Override
 	public IteratorContaAbstrata getIterator() {
 		return contas.getIterator();
 	}
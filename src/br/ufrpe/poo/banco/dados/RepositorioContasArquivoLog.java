@@ -0,0 +1,638 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+
+/**
+ * Implementacao de repositorio de contas que persiste as alteracoes em um log
+ * de escrita antecipada (write-ahead log).
+ *
+ * Cada insercao, remocao ou atualizacao acrescenta um unico registro compacto
+ * no fim do log, em vez de regravar todas as contas como faz
+ * <code>RepositorioContasArquivoBin</code>. Na inicializacao o snapshot eh
+ * lido e o log eh reaplicado sobre ele. Quando o log atinge um limite de
+ * registros, o estado atual eh gravado em um novo snapshot em segundo plano e
+ * o log eh descartado.
+ *
+ * No modo <code>EM_GRUPO</code> os registros de alteracoes concorrentes sao
+ * acumulados em memoria e uma thread de escrita os acrescenta no log com uma
+ * unica escrita e uma unica descarga no disco por grupo.
+ */
+public class RepositorioContasArquivoLog implements IRepositorioContas {
+
+	/** Registro que grava (insere ou atualiza) uma conta. */
+	private static final byte OP_GRAVAR = 'G';
+
+	/** Registro que remove uma conta. */
+	private static final byte OP_REMOVER = 'R';
+
+	/** Quantidade padrao de registros no log que dispara a compactacao. */
+	public static final int LIMITE_COMPACTACAO_PADRAO = 10000;
+
+	/** Contas sao mantidas em memoria num repositorio de contas. */
+	private RepositorioContasHash contas;
+
+	/** Arquivo com o snapshot das contas. */
+	private File arquivoSnapshot;
+
+	/** Arquivo com o log de alteracoes posteriores ao snapshot. */
+	private File arquivoLog;
+
+	/** Log que esta sendo compactado em segundo plano. */
+	private File arquivoLogAnterior;
+
+	/** Fluxo de escrita no fim do log. */
+	private FileOutputStream log;
+
+	/** Modo de gravacao dos registros. */
+	private ModoGravacao modo;
+
+	/** Registros ainda nao escritos no log, no modo <code>EM_GRUPO</code>. */
+	private ByteArrayOutputStream pendentes;
+
+	/** Confirmacao dos registros no modo <code>EM_GRUPO</code>. */
+	private ConfirmacaoEmGrupo confirmacao;
+
+	/** Quantidade de registros no log que dispara a compactacao. */
+	private int limiteCompactacao;
+
+	/** Quantidade de registros no log atual. */
+	private int registrosNoLog;
+
+	/** Indica se existe uma compactacao em andamento. */
+	private boolean compactando;
+
+	/**
+	 * Erro da ultima compactacao ainda nao informado, ou <code>null</code>.
+	 */
+	private RepositorioException falhaCompactacao;
+
+	/** Executa a compactacao fora da thread que alterou as contas. */
+	private ExecutorService compactador;
+
+	/**
+	 * Constroi um repositorio com os arquivos padrao
+	 * <code>contas.snap</code> e <code>contas.log</code>.
+	 *
+	 * @throws RepositorioException
+	 *             lancada quando ocorre erro no repositorio.
+	 */
+	public RepositorioContasArquivoLog() throws RepositorioException {
+		this(new File("contas.snap"), new File("contas.log"), false,
+				LIMITE_COMPACTACAO_PADRAO);
+	}
+
+	/**
+	 * Constroi um repositorio a partir de um snapshot e de um log.
+	 *
+	 * @param arquivoSnapshot
+	 *            arquivo com o snapshot das contas.
+	 * @param arquivoLog
+	 *            arquivo com o log de alteracoes.
+	 * @param sincronizar
+	 *            se cada registro acrescentado deve ser forcado ao disco.
+	 * @param limiteCompactacao
+	 *            quantidade de registros no log que dispara a compactacao.
+	 * @throws RepositorioException
+	 *             lancada quando ocorre erro na leitura dos arquivos.
+	 */
+	public RepositorioContasArquivoLog(File arquivoSnapshot, File arquivoLog,
+			boolean sincronizar, int limiteCompactacao)
+			throws RepositorioException {
+		this(arquivoSnapshot, arquivoLog, sincronizar ? ModoGravacao.SINCRONIZADO
+				: ModoGravacao.IMEDIATO, limiteCompactacao);
+	}
+
+	/**
+	 * Constroi um repositorio a partir de um snapshot e de um log.
+	 *
+	 * @param arquivoSnapshot
+	 *            arquivo com o snapshot das contas.
+	 * @param arquivoLog
+	 *            arquivo com o log de alteracoes.
+	 * @param modo
+	 *            modo de gravacao dos registros.
+	 * @param limiteCompactacao
+	 *            quantidade de registros no log que dispara a compactacao.
+	 * @throws RepositorioException
+	 *             lancada quando ocorre erro na leitura dos arquivos.
+	 */
+	public RepositorioContasArquivoLog(File arquivoSnapshot, File arquivoLog,
+			ModoGravacao modo, int limiteCompactacao)
+			throws RepositorioException {
+		this.contas = new RepositorioContasHash();
+		this.arquivoSnapshot = arquivoSnapshot;
+		this.arquivoLog = arquivoLog;
+		this.arquivoLogAnterior = new File(arquivoLog.getPath() + ".1");
+		this.modo = modo;
+		this.pendentes = new ByteArrayOutputStream();
+		this.limiteCompactacao = limiteCompactacao;
+		this.compactador = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "compactador-" + arquivoLog.getName());
+			t.setDaemon(true);
+			return t;
+		});
+		if (this.arquivoSnapshot.exists())
+			this.reaplicar(this.arquivoSnapshot);
+		if (this.arquivoLogAnterior.exists())
+			this.reaplicar(this.arquivoLogAnterior);
+		if (this.arquivoLog.exists())
+			this.registrosNoLog = this.reaplicar(this.arquivoLog);
+		this.abrirLog();
+		if (modo == ModoGravacao.EM_GRUPO) {
+			this.confirmacao = new ConfirmacaoEmGrupo("gravacao-"
+					+ arquivoLog.getName(), this::descarregar);
+		}
+	}
+
+	/**
+	 * Le os registros de um arquivo e aplica sobre as contas em memoria.
+	 *
+	 * O arquivo eh truncado no primeiro registro incompleto ou com CRC32 que
+	 * nao confere, que so pode ser o fim de uma escrita interrompida por uma
+	 * queda; os registros seguintes, se houver, sao lixo da mesma escrita.
+	 *
+	 * @param arquivo
+	 *            arquivo a ser lido.
+	 * @return quantidade de registros aplicados.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura do arquivo.
+	 */
+	private int reaplicar(File arquivo) throws RepositorioException {
+		int registros = 0;
+		long fimValido = 0;
+		try {
+			byte[] conteudo = arquivo == this.arquivoSnapshot ? GravadorSnapshot
+					.ler(arquivo) : Files.readAllBytes(arquivo.toPath());
+			if (conteudo.length < CodecRegistros.TAMANHO_CABECALHO) {
+				// arquivo criado mas cabecalho nao gravado por completo
+				Files.delete(arquivo.toPath());
+				return 0;
+			}
+			ByteArrayInputStream bytes = new ByteArrayInputStream(conteudo);
+			DataInputStream in = new DataInputStream(bytes);
+			int versao = CodecRegistros.lerCabecalho(in);
+			fimValido = CodecRegistros.TAMANHO_CABECALHO;
+			try {
+				while (bytes.available() > 0) {
+					DataInputStream registro = CodecRegistros.lerRegistro(in,
+							bytes.available());
+					if (registro == null) {
+						this.truncar(arquivo, fimValido);
+						break;
+					}
+					int op = registro.readByte();
+					if (op == OP_GRAVAR) {
+						ContaAbstrata conta = CodecRegistros.lerConta(
+								registro, versao);
+						if (!this.contas.atualizar(conta))
+							this.contas.inserir(conta);
+					} else if (op == OP_REMOVER) {
+						this.contas.remover(registro.readUTF());
+					} else {
+						throw new RepositorioException(
+								"Registro invalido no arquivo "
+										+ arquivo.getName() + "!");
+					}
+					fimValido = conteudo.length - bytes.available();
+					registros = registros + 1;
+				}
+			} catch (EOFException e) {
+				this.truncar(arquivo, fimValido);
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		return registros;
+	}
+
+	/**
+	 * Descarta o final de um arquivo a partir de uma posicao.
+	 *
+	 * @param arquivo
+	 *            arquivo a ser truncado.
+	 * @param tamanho
+	 *            novo tamanho do arquivo.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	private void truncar(File arquivo, long tamanho)
+			throws RepositorioException {
+		try (RandomAccessFile raf = new RandomAccessFile(arquivo, "rw")) {
+			raf.setLength(tamanho);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Escreve um registro de gravacao para uma conta.
+	 */
+	private static void escreverConta(DataOutputStream out, ContaAbstrata conta)
+			throws IOException, RepositorioException {
+		ByteArrayOutputStream registro = new ByteArrayOutputStream(64);
+		DataOutputStream dados = new DataOutputStream(registro);
+		dados.writeByte(OP_GRAVAR);
+		CodecRegistros.escreverConta(dados, conta);
+		CodecRegistros.escreverRegistro(out, registro);
+	}
+
+	/**
+	 * Abre o log para acrescentar registros no seu fim. Um log novo comeca com
+	 * o cabecalho de <code>CodecRegistros</code>.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	private void abrirLog() throws RepositorioException {
+		try {
+			boolean novo = this.arquivoLog.length() == 0;
+			this.log = new FileOutputStream(this.arquivoLog, true);
+			if (novo) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				CodecRegistros.escreverCabecalho(new DataOutputStream(bytes));
+				this.log.write(bytes.toByteArray());
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Acrescenta um registro no fim do log com uma unica escrita.
+	 *
+	 * @param registro
+	 *            bytes do registro.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	private void acrescentar(byte[] registro) throws RepositorioException {
+		this.acrescentar(registro, 1);
+	}
+
+	/**
+	 * Acrescenta um ou mais registros consecutivos no fim do log com uma
+	 * unica escrita.
+	 *
+	 * @param registro
+	 *            bytes dos registros.
+	 * @param quantidade
+	 *            quantidade de registros.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	private void acrescentar(byte[] registro, int quantidade)
+			throws RepositorioException {
+		try {
+			if (this.modo == ModoGravacao.EM_GRUPO) {
+				this.pendentes.write(registro);
+			} else {
+				this.log.write(registro);
+				if (this.modo == ModoGravacao.SINCRONIZADO)
+					this.log.getChannel().force(false);
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.registrosNoLog = this.registrosNoLog + quantidade;
+		if (this.registrosNoLog >= this.limiteCompactacao)
+			this.iniciarCompactacao();
+	}
+
+	/**
+	 * Escreve no log os registros pendentes do modo <code>EM_GRUPO</code>.
+	 */
+	private void escreverPendentes() throws IOException {
+		if (this.pendentes.size() > 0) {
+			this.pendentes.writeTo(this.log);
+			this.pendentes.reset();
+		}
+	}
+
+	/**
+	 * Descarga de um grupo: escreve os registros pendentes com uma unica
+	 * escrita e forca o log no disco. A descarga no disco eh feita fora da
+	 * trava do repositorio, de modo que as alteracoes do proximo grupo
+	 * continuam sendo aplicadas enquanto ela acontece.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	private void descarregar() throws RepositorioException {
+		FileChannel canal;
+		try {
+			synchronized (this) {
+				this.escreverPendentes();
+				canal = this.log.getChannel();
+			}
+			canal.force(false);
+		} catch (ClosedChannelException e) {
+			// o log foi separado pela compactacao, que ja o forcou no disco
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Aguarda ate que os registros das alteracoes ja feitas estejam no disco,
+	 * no modo <code>EM_GRUPO</code>.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	private void confirmar() throws RepositorioException {
+		if (this.confirmacao != null)
+			this.confirmacao.confirmar();
+	}
+
+	/**
+	 * Acrescenta no log o registro de gravacao de uma conta.
+	 */
+	private void registrarGravacao(ContaAbstrata conta)
+			throws RepositorioException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			escreverConta(new DataOutputStream(bytes), conta);
+			this.acrescentar(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Acrescenta no log o registro de remocao de uma conta.
+	 */
+	private void registrarRemocao(String numero) throws RepositorioException {
+		try {
+			ByteArrayOutputStream registro = new ByteArrayOutputStream(32);
+			DataOutputStream dados = new DataOutputStream(registro);
+			dados.writeByte(OP_REMOVER);
+			dados.writeUTF(numero);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(40);
+			CodecRegistros.escreverRegistro(new DataOutputStream(bytes),
+					registro);
+			this.acrescentar(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Inicia a compactacao do log em segundo plano.
+	 *
+	 * O estado atual das contas eh copiado em memoria e o log atual eh
+	 * separado, de modo que novas alteracoes continuam sendo acrescentadas num
+	 * log novo enquanto o snapshot eh gravado.
+	 *
+	 * Se a compactacao anterior falhou, o erro eh lancado e nenhuma
+	 * compactacao eh iniciada; a proxima chamada tenta de novo.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com os arquivos.
+	 */
+	private synchronized void iniciarCompactacao() throws RepositorioException {
+		if (this.compactando)
+			return;
+		this.lancarFalhaCompactacao();
+		final byte[] estado;
+		try {
+			estado = this.estadoAtual();
+			this.escreverPendentes();
+			if (this.modo != ModoGravacao.IMEDIATO)
+				this.log.getChannel().force(false);
+			this.log.close();
+			this.separarLog();
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.abrirLog();
+		this.registrosNoLog = 0;
+		this.compactando = true;
+		this.compactador.execute(() -> this.gravarSnapshot(estado));
+	}
+
+	/**
+	 * Codifica o estado atual de todas as contas no formato do snapshot.
+	 *
+	 * @return bytes do snapshot.
+	 */
+	private byte[] estadoAtual() throws IOException, RepositorioException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		CodecRegistros.escreverCabecalho(out);
+		IteratorContaAbstrata it = this.contas.getIterator();
+		while (it.hasNext()) {
+			escreverConta(out, it.next());
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Move o log atual para o log anterior. Se o log anterior ainda existe (uma
+	 * compactacao anterior falhou) os registros do log atual sao concatenados a
+	 * ele.
+	 */
+	private void separarLog() throws IOException {
+		if (!this.arquivoLogAnterior.exists()) {
+			Files.move(this.arquivoLog.toPath(),
+					this.arquivoLogAnterior.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+		} else {
+			byte[] registros = Files.readAllBytes(this.arquivoLog.toPath());
+			try (FileOutputStream anterior = new FileOutputStream(
+					this.arquivoLogAnterior, true)) {
+				anterior.write(registros, CodecRegistros.TAMANHO_CABECALHO,
+						registros.length - CodecRegistros.TAMANHO_CABECALHO);
+				anterior.getChannel().force(false);
+			}
+			Files.delete(this.arquivoLog.toPath());
+		}
+	}
+
+	/**
+	 * Grava o snapshot com <code>GravadorSnapshot</code>. Apenas depois disso o
+	 * log anterior eh apagado. Um erro fica em <code>falhaCompactacao</code>.
+	 *
+	 * @param estado
+	 *            registros de todas as contas.
+	 */
+	private void gravarSnapshot(byte[] estado) {
+		try {
+			GravadorSnapshot.gravar(this.arquivoSnapshot, estado, true);
+			synchronized (this) {
+				Files.deleteIfExists(this.arquivoLogAnterior.toPath());
+			}
+		} catch (IOException e) {
+			// o log anterior eh mantido e sera reaplicado na inicializacao
+			synchronized (this) {
+				this.falhaCompactacao = new RepositorioException(e);
+			}
+		} finally {
+			synchronized (this) {
+				this.compactando = false;
+			}
+		}
+	}
+
+	/**
+	 * Lanca o erro da ultima compactacao, se houver, e o descarta.
+	 */
+	private synchronized void lancarFalhaCompactacao()
+			throws RepositorioException {
+		RepositorioException falha = this.falhaCompactacao;
+		if (falha != null) {
+			this.falhaCompactacao = null;
+			throw falha;
+		}
+	}
+
+	/**
+	 * Retorna o erro da ultima compactacao que ainda nao foi lancado por uma
+	 * alteracao ou por <code>fechar</code>.
+	 *
+	 * @return erro ou <code>null</code>.
+	 */
+	public synchronized RepositorioException getFalhaCompactacao() {
+		return this.falhaCompactacao;
+	}
+
+	/**
+	 * Aguarda a compactacao em andamento e fecha o log.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo ou se a ultima
+	 *             compactacao falhou.
+	 */
+	public void fechar() throws RepositorioException {
+		if (this.confirmacao != null)
+			this.confirmacao.fechar();
+		this.compactador.shutdown();
+		try {
+			this.compactador.awaitTermination(1, TimeUnit.MINUTES);
+			synchronized (this) {
+				this.escreverPendentes();
+				this.log.close();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RepositorioException(e);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.lancarFalhaCompactacao();
+	}
+
+	@Override
+	public boolean inserir(ContaAbstrata conta) throws RepositorioException {
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = this.contas.inserir(conta);
+			if (sucesso) {
+				this.registrarGravacao(conta);
+			}
+		}
+		if (sucesso) {
+			this.confirmar();
+		}
+		return sucesso;
+	}
+
+	@Override
+	public synchronized ContaAbstrata procurar(String numero) {
+		return this.contas.procurar(numero);
+	}
+
+	@Override
+	public boolean remover(String numero) throws RepositorioException {
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = this.contas.remover(numero);
+			if (sucesso) {
+				this.registrarRemocao(numero);
+			}
+		}
+		if (sucesso) {
+			this.confirmar();
+		}
+		return sucesso;
+	}
+
+	@Override
+	public boolean atualizar(ContaAbstrata conta) throws RepositorioException {
+		boolean sucesso;
+		synchronized (this) {
+			sucesso = this.contas.atualizar(conta);
+			if (sucesso) {
+				this.registrarGravacao(conta);
+			}
+		}
+		if (sucesso) {
+			this.confirmar();
+		}
+		return sucesso;
+	}
+
+	/**
+	 * Atualiza as contas em memoria e acrescenta todos os registros no log
+	 * com uma unica escrita.
+	 */
+	@Override
+	public int atualizarTodas(Collection<? extends ContaAbstrata> lista)
+			throws RepositorioException {
+		int atualizadas = 0;
+		synchronized (this) {
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				for (ContaAbstrata conta : lista) {
+					if (this.contas.atualizar(conta)) {
+						escreverConta(out, conta);
+						atualizadas = atualizadas + 1;
+					}
+				}
+				if (atualizadas > 0)
+					this.acrescentar(bytes.toByteArray(), atualizadas);
+			} catch (IOException e) {
+				throw new RepositorioException(e);
+			}
+		}
+		if (atualizadas > 0) {
+			this.confirmar();
+		}
+		return atualizadas;
+	}
+
+	@Override
+	public synchronized boolean existe(String numero) {
+		return this.contas.existe(numero);
+	}
+
+	@Override
+	public Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		return this.contas.pagina(cursor, tamanho);
+	}
+
+	@Override
+	public IteratorContaAbstrata getIterator() {
+		return this.contas.getIterator();
+	}
+}
@@ -1,18 +1,21 @@
 package br.ufrpe.poo.banco.dados;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 
 import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
-import br.ufrpe.poo.banco.negocio.Conta;
 import br.ufrpe.poo.banco.negocio.ContaAbstrata;
 import br.ufrpe.poo.banco.negocio.ContaEspecial;
-import br.ufrpe.poo.banco.negocio.ContaImposto;
-import br.ufrpe.poo.banco.negocio.Poupanca;
 
 /**
  * Implementacao de repositorio de contas que persiste contas em arquivo texto.
@@ -22,16 +25,55 @@ import br.ufrpe.poo.banco.negocio.Poupanca;
  * tipoConta numero saldo bonus
  * <p>
  * tipoConta e um valor inteiro para o tipo da conta: 0 - Conta, 1 - Poupanca, 2
- * - ContaImposto e 3 - ContaEspecial
+ * - ContaImposto e 3 - ContaEspecial. O bonus so existe para ContaEspecial.
+ * <p>
+ * No modo incremental, atualizar e remover tambem apenas acrescentam linhas
+ * no fim do arquivo: a ultima linha de uma conta substitui as anteriores e a
+ * linha <code>R numero</code> marca a conta como removida. Uma thread de
+ * compactacao regrava o arquivo so com as contas vivas quando as linhas
+ * obsoletas passam a ser maioria.
  */
 public class RepositorioContasArquivoTxt implements IRepositorioContas {
 
+	/** Quantidade minima de linhas obsoletas para compactar o arquivo. */
+	public static final int MINIMO_OBSOLETAS = 1000;
+
 	/** Contas do arquivo sao mantidas em memoria. */
-	private RepositorioContasArray contas;
+	private RepositorioContasHash contas;
 
 	/** Arquivo que armazena as contas. */
 	private File arquivo;
 
+	/** Indica se atualizacoes e remocoes sao acrescentadas ao arquivo. */
+	private final boolean incremental;
+
+	/** Quantidade de linhas no arquivo. */
+	private int linhas;
+
+	/**
+	 * Quantidade de linhas na ultima compactacao que falhou; a compactacao
+	 * automatica so eh tentada de novo depois de novas linhas.
+	 */
+	private int linhasNaFalha;
+
+	/**
+	 * Erro da ultima compactacao automatica ainda nao informado, ou
+	 * <code>null</code>.
+	 */
+	private RepositorioException falhaCompactacao;
+
+	/** Quantidade de compactacoes realizadas. */
+	private long compactacoes;
+
+	/** Garante uma unica compactacao por vez. */
+	private final Object travaCompactacao = new Object();
+
+	/** Thread que compacta o arquivo no modo incremental. */
+	private Thread compactador;
+
+	/** Indica se o repositorio foi fechado. */
+	private boolean fechado;
+
 	/**
 	 * Constroi um repositorio que mantem contas em arquivo texto.
 	 * 
@@ -43,8 +85,26 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 	 */
 	public RepositorioContasArquivoTxt(File arquivo)
 			throws RepositorioException {
-		contas = new RepositorioContasArray();
+		this(arquivo, false);
+	}
+
+	/**
+	 * Constroi um repositorio que mantem contas em arquivo texto.
+	 * 
+	 * @param arquivo
+	 *            arquivo texto com informacoes sobre as contas. Se arquivo nao
+	 *            existe, sera criado um vazio.
+	 * @param incremental
+	 *            se atualizacoes e remocoes sao acrescentadas ao arquivo em vez
+	 *            de regrava-lo.
+	 * @throws RepositorioException
+	 *             lancada caso o arquivo nao existe e nao pode ser criado.
+	 */
+	public RepositorioContasArquivoTxt(File arquivo, boolean incremental)
+			throws RepositorioException {
+		contas = new RepositorioContasHash();
 		this.arquivo = arquivo;
+		this.incremental = incremental;
 		if (!arquivo.exists()) {
 			try {
 				arquivo.createNewFile();
@@ -56,48 +116,65 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 			}
 		}
 		this.lerArquivo();
+		if (incremental) {
+			this.compactador = new Thread(this::compactarQuandoNecessario,
+					"compactador-" + arquivo.getName());
+			this.compactador.setDaemon(true);
+			this.compactador.start();
+		}
 	}
 
 	/**
-	 * Le todas as contas do arquivo e guarda no repositorio de array.
+	 * Le todas as contas do arquivo e guarda no repositorio de array. Linhas
+	 * posteriores de uma conta substituem as anteriores.
 	 * 
 	 * @throws RepositorioException
 	 *             lancada em caso de erro na leitura do arquivo.
 	 */
 	private void lerArquivo() throws RepositorioException {
-		Scanner s = null;
-		ContaAbstrata conta = null;
-		try {
-			s = new Scanner(arquivo);
-			while (s.hasNext()) {
-				int tipoConta = s.nextInt();
-				String numero = s.next();
-				double saldo = Double.parseDouble(s.next());
-				switch (tipoConta) {
-				case 0:
-					conta = new Conta(numero, saldo);
-					break;
-				case 1:
-					conta = new Poupanca(numero, saldo);
-					break;
-				case 2:
-					conta = new ContaImposto(numero, saldo);
-					break;
-				case 3:
-					conta = new ContaEspecial(numero, saldo);
-					break;
-				default:
-					throw new RepositorioException("Tipo de conta inexistente!");
+		try (LeitorContasTxt leitor = new LeitorContasTxt(new FileInputStream(
+				arquivo), arquivo.getName())) {
+			while (leitor.proximo()) {
+				this.linhas = this.linhas + 1;
+				ContaAbstrata conta = leitor.getConta();
+				if (conta == null) {
+					this.contas.remover(leitor.getNumero());
+				} else if (!this.contas.inserir(conta)) {
+					this.contas.atualizar(conta);
 				}
-				this.contas.inserir(conta);
 			}
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
 			throw new RepositorioException(e);
-		} finally {
-			s.close();
 		}
 	}
 
+	/**
+	 * Escreve a linha de uma conta.
+	 * 
+	 * @param out
+	 *            destino da linha.
+	 * @param conta
+	 *            conta a ser escrita.
+	 * @throws IOException
+	 *             levantada no caso de erro na escrita.
+	 * @throws RepositorioException
+	 *             levantada se o tipo da conta nao eh suportado.
+	 */
+	private static void escreverLinha(Appendable out, ContaAbstrata conta)
+			throws IOException, RepositorioException {
+		int tipo = CodecRegistros.tipo(conta);
+		out.append(Integer.toString(tipo));
+		out.append(' ');
+		out.append(conta.getNumero());
+		out.append(' ');
+		out.append(conta.getSaldoDinheiro().toString());
+		if (tipo == 3) {
+			out.append(' ');
+			out.append(((ContaEspecial) conta).getBonusDinheiro().toString());
+		}
+		out.append('\n');
+	}
+
 	/**
 	 * Concatena as informacoes da conta no fim do arquivo.
 	 * 
@@ -108,22 +185,32 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 	 */
 	private void concatenarEmArquivo(ContaAbstrata conta)
 			throws RepositorioException {
+		StringBuilder texto = new StringBuilder();
+		try {
+			escreverLinha(texto, conta);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.concatenarEmArquivo(texto, 1);
+	}
+
+	/**
+	 * Concatena linhas no fim do arquivo e, no modo incremental, avisa a
+	 * thread de compactacao se o arquivo tem linhas obsoletas demais.
+	 * 
+	 * @param texto
+	 *            linhas a serem escritas.
+	 * @param quantidade
+	 *            quantidade de linhas do texto.
+	 * @throws RepositorioException
+	 *             levantada no caso de erro com o arquivo.
+	 */
+	private void concatenarEmArquivo(CharSequence texto, int quantidade)
+			throws RepositorioException {
 		FileWriter fw = null;
 		try {
-			fw = new FileWriter(arquivo, true);
-			if (conta instanceof Poupanca) {
-				fw.write("1 " + conta.getNumero() + " " + conta.getSaldo());
-			} else if (conta instanceof ContaImposto) {
-				fw.write("2 " + conta.getNumero() + " " + conta.getSaldo());
-			} else if (conta instanceof ContaEspecial) {
-				fw.write("3 " + conta.getNumero() + " " + conta.getSaldo()
-						+ " " + ((ContaEspecial) conta).getBonus());
-			} else if (conta instanceof Conta) {
-				fw.write("0 " + conta.getNumero() + " " + conta.getSaldo());
-			} else {
-				throw new RepositorioException(new Exception("Erro interno!"));
-			}
-			fw.write("\n");
+			fw = new FileWriter(arquivo, LeitorContasTxt.CODIFICACAO, true);
+			fw.append(texto);
 		} catch (IOException e) {
 			throw new RepositorioException(e);
 		} finally {
@@ -133,6 +220,10 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 				throw new RepositorioException(e);
 			}
 		}
+		this.linhas = this.linhas + quantidade;
+		if (this.incremental && this.precisaCompactar()) {
+			this.notifyAll();
+		}
 	}
 
 	/**
@@ -142,26 +233,13 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 	 *             levantada no caso de um erro com o arquivo.
 	 */
 	private void gravarArquivo() throws RepositorioException {
-		FileWriter fw = null;
+		Writer fw = null;
 		try {
-			fw = new FileWriter(arquivo);
+			fw = new BufferedWriter(new FileWriter(arquivo,
+					LeitorContasTxt.CODIFICACAO), 1 << 16);
 			IteratorContaAbstrata it = contas.getIterator();
 			while (it.hasNext()) {
-				ContaAbstrata c = it.next();
-				if (c instanceof Conta) {
-					fw.write("0 " + c.getNumero() + " " + c.getSaldo());
-				} else if (c instanceof Poupanca) {
-					fw.write("1 " + c.getNumero() + " " + c.getSaldo());
-				} else if (c instanceof ContaImposto) {
-					fw.write("2 " + c.getNumero() + " " + c.getSaldo());
-				} else if (c instanceof ContaEspecial) {
-					fw.write("3 " + c.getNumero() + " " + c.getSaldo() + " "
-							+ ((ContaEspecial) c).getBonus());
-				} else {
-					throw new RepositorioException(new Exception(
-							"Tipo de conta nao suportado!"));
-				}
-				fw.write("\n");
+				escreverLinha(fw, it.next());
 			}
 		} catch (IOException e) {
 			throw new RepositorioException(e);
@@ -172,10 +250,184 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 				throw new RepositorioException(e);
 			}
 		}
+		this.linhas = contas.getQuantidade();
+	}
+
+	/**
+	 * Indica se as linhas obsoletas passaram do limite de compactacao.
+	 */
+	private boolean precisaCompactar() {
+		int vivas = contas.getQuantidade();
+		int obsoletas = this.linhas - vivas;
+		return obsoletas >= Math.max(MINIMO_OBSOLETAS, vivas)
+				&& this.linhas > this.linhasNaFalha;
+	}
+
+	/**
+	 * Laco da thread de compactacao: espera o arquivo acumular linhas
+	 * obsoletas e o compacta.
+	 */
+	private void compactarQuandoNecessario() {
+		while (true) {
+			synchronized (this) {
+				while (!this.fechado && !this.precisaCompactar()) {
+					try {
+						this.wait();
+					} catch (InterruptedException e) {
+						// o laco so termina quando o repositorio eh fechado
+					}
+				}
+				if (this.fechado)
+					return;
+			}
+			try {
+				this.compactarArquivo();
+			} catch (RepositorioException e) {
+				synchronized (this) {
+					this.linhasNaFalha = this.linhas;
+					this.falhaCompactacao = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Regrava o arquivo somente com a linha atual de cada conta viva.
+	 * 
+	 * As contas sao copiadas para a memoria com o repositorio travado, mas o
+	 * arquivo temporario eh gravado sem a trava. Depois, com a trava, as
+	 * linhas acrescentadas durante a gravacao sao copiadas para o fim do
+	 * temporario, que substitui o arquivo.
+	 * 
+	 * Se a ultima compactacao automatica falhou, o erro eh lancado e o arquivo
+	 * nao eh compactado; a proxima chamada tenta de novo.
+	 * 
+	 * @throws RepositorioException
+	 *             levantada no caso de um erro com o arquivo.
+	 */
+	public void compactar() throws RepositorioException {
+		this.lancarFalhaCompactacao();
+		this.compactarArquivo();
+	}
+
+	/**
+	 * Regrava o arquivo; usado por <code>compactar</code> e pela thread de
+	 * compactacao.
+	 */
+	private void compactarArquivo() throws RepositorioException {
+		synchronized (this.travaCompactacao) {
+			StringBuilder texto = new StringBuilder();
+			long tamanho;
+			int vivas;
+			int linhasAntes;
+			synchronized (this) {
+				try {
+					IteratorContaAbstrata it = contas.getIterator();
+					while (it.hasNext()) {
+						escreverLinha(texto, it.next());
+					}
+				} catch (IOException e) {
+					throw new RepositorioException(e);
+				}
+				tamanho = arquivo.length();
+				vivas = contas.getQuantidade();
+				linhasAntes = this.linhas;
+			}
+			File temporario = new File(arquivo.getPath() + ".tmp");
+			try {
+				try (Writer out = new BufferedWriter(new FileWriter(temporario,
+						LeitorContasTxt.CODIFICACAO), 1 << 16)) {
+					out.append(texto);
+				}
+				synchronized (this) {
+					try (FileChannel origem = FileChannel.open(
+							arquivo.toPath(), StandardOpenOption.READ);
+							FileChannel destino = FileChannel.open(
+									temporario.toPath(),
+									StandardOpenOption.WRITE,
+									StandardOpenOption.APPEND)) {
+						long posicao = tamanho;
+						long fim = origem.size();
+						while (posicao < fim) {
+							posicao = posicao
+									+ origem.transferTo(posicao, fim - posicao,
+											destino);
+						}
+						destino.force(true);
+					}
+					Files.move(temporario.toPath(), arquivo.toPath(),
+							StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+					this.linhas = vivas + this.linhas - linhasAntes;
+					this.compactacoes = this.compactacoes + 1;
+				}
+			} catch (IOException e) {
+				temporario.delete();
+				throw new RepositorioException(e);
+			}
+		}
+	}
+
+	/**
+	 * Lanca o erro da ultima compactacao automatica, se houver, e o descarta.
+	 */
+	private synchronized void lancarFalhaCompactacao()
+			throws RepositorioException {
+		RepositorioException falha = this.falhaCompactacao;
+		if (falha != null) {
+			this.falhaCompactacao = null;
+			throw falha;
+		}
+	}
+
+	/**
+	 * Retorna o erro da ultima compactacao automatica que ainda nao foi
+	 * lancado por <code>compactar</code> ou <code>fechar</code>.
+	 * 
+	 * @return erro ou <code>null</code>.
+	 */
+	public synchronized RepositorioException getFalhaCompactacao() {
+		return this.falhaCompactacao;
+	}
+
+	/**
+	 * Retorna a quantidade de compactacoes realizadas.
+	 * 
+	 * @return quantidade de compactacoes.
+	 */
+	public synchronized long getCompactacoes() {
+		return this.compactacoes;
+	}
+
+	/**
+	 * Encerra a thread de compactacao.
+	 * 
+	 * @throws RepositorioException
+	 *             lancada se a ultima compactacao automatica falhou.
+	 */
+	public void fechar() throws RepositorioException {
+		synchronized (this) {
+			this.fechado = true;
+			this.notifyAll();
+		}
+		if (this.compactador == null)
+			return;
+		boolean interrompida = false;
+		while (this.compactador.isAlive()) {
+			try {
+				this.compactador.join();
+			} catch (InterruptedException e) {
+				interrompida = true;
+			}
+		}
+		if (interrompida)
+			Thread.currentThread().interrupt();
+		this.lancarFalhaCompactacao();
 	}
 
 	@Override
-	public boolean inserir(ContaAbstrata conta) throws RepositorioException {
+	public synchronized boolean inserir(ContaAbstrata conta)
+			throws RepositorioException {
 		boolean sucesso = contas.inserir(conta);
 		if (sucesso) {
 			this.concatenarEmArquivo(conta);
@@ -184,33 +436,81 @@ public class RepositorioContasArquivoTxt implements IRepositorioContas {
 	}
 
 	@Override
-	public ContaAbstrata procurar(String numero) {
+	public synchronized ContaAbstrata procurar(String numero) {
 		return contas.procurar(numero);
 	}
 
 	@Override
-	public boolean remover(String numero) throws RepositorioException {
+	public synchronized boolean remover(String numero)
+			throws RepositorioException {
 		boolean sucesso = contas.remover(numero);
 		if (sucesso) {
-			this.gravarArquivo();
+			if (this.incremental) {
+				this.concatenarEmArquivo(LeitorContasTxt.MARCA_REMOCAO + " "
+						+ numero + "\n", 1);
+			} else {
+				this.gravarArquivo();
+			}
 		}
 		return sucesso;
 	}
 
 	@Override
-	public boolean atualizar(ContaAbstrata conta) throws RepositorioException {
+	public synchronized boolean atualizar(ContaAbstrata conta)
+			throws RepositorioException {
 		boolean sucesso = contas.atualizar(conta);
 		if (sucesso) {
-			this.gravarArquivo();
+			if (this.incremental) {
+				this.concatenarEmArquivo(conta);
+			} else {
+				this.gravarArquivo();
+			}
 		}
 		return sucesso;
 	}
 
+	/**
+	 * Atualiza as contas em memoria e grava o arquivo uma unica vez: no modo
+	 * incremental acrescenta todas as linhas de uma vez, caso contrario
+	 * regrava o arquivo.
+	 */
 	@Override
-	public boolean existe(String numero) {
+	public synchronized int atualizarTodas(
+			Collection<? extends ContaAbstrata> lista)
+			throws RepositorioException {
+		int atualizadas = 0;
+		StringBuilder texto = new StringBuilder();
+		try {
+			for (ContaAbstrata conta : lista) {
+				if (contas.atualizar(conta)) {
+					atualizadas = atualizadas + 1;
+					if (this.incremental)
+						escreverLinha(texto, conta);
+				}
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		if (atualizadas > 0) {
+			if (this.incremental) {
+				this.concatenarEmArquivo(texto, atualizadas);
+			} else {
+				this.gravarArquivo();
+			}
+		}
+		return atualizadas;
+	}
+
+	@Override
+	public synchronized boolean existe(String numero) {
 		return contas.existe(numero);
 	}
 
+	@Override
+	public Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		return contas.pagina(cursor, tamanho);
+	}
+
 	@Override
 	public IteratorContaAbstrata getIterator() {
 		return contas.getIterator();
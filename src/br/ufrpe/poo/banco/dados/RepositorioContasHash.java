@@ -0,0 +1,293 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrataArray;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+
+/**
+ * Implementacao de repositorio que mantem as contas na memoria em um array
+ * indexado por uma tabela hash de enderecamento aberto.
+ *
+ * As contas ficam contiguas no array, como em
+ * <code>RepositorioContasArray</code>, e a tabela guarda para cada numero de
+ * conta a sua posicao no array. Procurar, inserir, atualizar e remover custam
+ * tempo constante em vez de percorrer todas as contas.
+ */
+public class RepositorioContasHash implements IRepositorioContas {
+
+	/** Posicao vazia na tabela. */
+	private static final int VAZIO = 0;
+
+	/** Array que mantem as contas. */
+	private ContaAbstrata[] contas;
+
+	/** Hash do numero de cada conta, na mesma posicao do array de contas. */
+	private int[] hashes;
+
+	/**
+	 * Tabela de enderecamento aberto (sondagem linear). Cada posicao guarda o
+	 * indice da conta no array mais um, ou <code>VAZIO</code>.
+	 */
+	private int[] tabela;
+
+	/** Proxima posicao livre no array. */
+	private int indice;
+
+	/**
+	 * Trava que permite buscas e atualizacoes concorrentes; insercoes e
+	 * remocoes, que alteram a tabela, sao exclusivas.
+	 */
+	private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+	/**
+	 * Constroi um repositorio com hash.
+	 *
+	 * Tamanho inicial do array sao 100 posicoes.
+	 */
+	public RepositorioContasHash() {
+		this(100);
+	}
+
+	/**
+	 * Constroi um repositorio com hash dimensionado para uma quantidade
+	 * esperada de contas.
+	 *
+	 * @param capacidade
+	 *            quantidade de contas esperada.
+	 */
+	public RepositorioContasHash(int capacidade) {
+		capacidade = Math.max(capacidade, 16);
+		this.contas = new ContaAbstrata[capacidade];
+		this.hashes = new int[capacidade];
+		this.tabela = new int[tamanhoTabela(capacidade)];
+		this.indice = 0;
+	}
+
+	/**
+	 * Menor potencia de dois que mantem a tabela no maximo meio cheia.
+	 */
+	private static int tamanhoTabela(int capacidade) {
+		return Integer.highestOneBit(capacidade * 2 - 1) << 1;
+	}
+
+	/**
+	 * Espalha os bits do hash do numero para reduzir colisoes nos bits baixos.
+	 */
+	private static int hash(String numero) {
+		int h = numero.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Retorna a posicao da tabela que referencia a conta com o numero.
+	 *
+	 * @param numero
+	 *            numero da conta procurada.
+	 * @param h
+	 *            hash do numero.
+	 * @return posicao na tabela ou -1 caso a conta nao exista.
+	 */
+	private int getPosicao(String numero, int h) {
+		int mascara = this.tabela.length - 1;
+		int i = h & mascara;
+		int p;
+		while ((p = this.tabela[i]) != VAZIO) {
+			p = p - 1;
+			if (this.hashes[p] == h && this.contas[p].getNumero().equals(numero))
+				return i;
+			i = (i + 1) & mascara;
+		}
+		return -1;
+	}
+
+	/**
+	 * Retorna o indice da conta no array.
+	 *
+	 * @param numero
+	 *            numero da conta cujo indice e retornado.
+	 * @return indice da conta no array ou -1 caso a conta nao exista.
+	 */
+	private int getIndice(String numero) {
+		int i = this.getPosicao(numero, hash(numero));
+		return i == -1 ? -1 : this.tabela[i] - 1;
+	}
+
+	/**
+	 * Grava na tabela a referencia para a conta no indice do array.
+	 */
+	private void indexar(int h, int indiceConta) {
+		int mascara = this.tabela.length - 1;
+		int i = h & mascara;
+		while (this.tabela[i] != VAZIO) {
+			i = (i + 1) & mascara;
+		}
+		this.tabela[i] = indiceConta + 1;
+	}
+
+	/**
+	 * Apaga uma posicao da tabela deslocando para tras as entradas seguintes
+	 * da mesma sequencia de sondagem, de modo que nao sao necessarias marcas de
+	 * remocao.
+	 */
+	private void desindexar(int posicao) {
+		int mascara = this.tabela.length - 1;
+		int vazio = posicao;
+		int i = posicao;
+		while (true) {
+			i = (i + 1) & mascara;
+			int p = this.tabela[i];
+			if (p == VAZIO)
+				break;
+			int ideal = this.hashes[p - 1] & mascara;
+			// a entrada em i pode ocupar o buraco se o buraco estiver entre a
+			// sua posicao ideal e i (considerando a volta circular)
+			if (((i - ideal) & mascara) >= ((i - vazio) & mascara)) {
+				this.tabela[vazio] = p;
+				vazio = i;
+			}
+		}
+		this.tabela[vazio] = VAZIO;
+	}
+
+	/**
+	 * Dobra o array de contas e a tabela, reindexando todas as contas.
+	 */
+	private void crescer() {
+		int capacidade = this.contas.length * 2;
+		ContaAbstrata[] auxContas = new ContaAbstrata[capacidade];
+		int[] auxHashes = new int[capacidade];
+		System.arraycopy(this.contas, 0, auxContas, 0, this.indice);
+		System.arraycopy(this.hashes, 0, auxHashes, 0, this.indice);
+		this.contas = auxContas;
+		this.hashes = auxHashes;
+		int tamanho = tamanhoTabela(capacidade);
+		if (tamanho != this.tabela.length) {
+			this.tabela = new int[tamanho];
+			for (int i = 0; i < this.indice; i++) {
+				this.indexar(this.hashes[i], i);
+			}
+		}
+	}
+
+	@Override
+	public boolean inserir(ContaAbstrata conta) throws RepositorioException {
+		int h = hash(conta.getNumero());
+		this.trava.writeLock().lock();
+		try {
+			if (this.getPosicao(conta.getNumero(), h) != -1) {
+				return false;
+			}
+			if (this.contas.length == this.indice) {
+				this.crescer();
+			}
+			this.contas[this.indice] = conta;
+			this.hashes[this.indice] = h;
+			this.indexar(h, this.indice);
+			this.indice = this.indice + 1;
+			return true;
+		} finally {
+			this.trava.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public ContaAbstrata procurar(String numero) {
+		this.trava.readLock().lock();
+		try {
+			int i = this.getIndice(numero);
+			return i == -1 ? null : this.contas[i];
+		} finally {
+			this.trava.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean remover(String numero) throws RepositorioException {
+		int h = hash(numero);
+		this.trava.writeLock().lock();
+		try {
+			int posicao = this.getPosicao(numero, h);
+			if (posicao == -1) {
+				return false;
+			}
+			int i = this.tabela[posicao] - 1;
+			this.desindexar(posicao);
+			this.indice = this.indice - 1;
+			if (i != this.indice) {
+				// a ultima conta ocupa o lugar da removida, como no array
+				ContaAbstrata ultima = this.contas[this.indice];
+				int posicaoUltima = this.getPosicao(ultima.getNumero(),
+						this.hashes[this.indice]);
+				this.contas[i] = ultima;
+				this.hashes[i] = this.hashes[this.indice];
+				this.tabela[posicaoUltima] = i + 1;
+			}
+			this.contas[this.indice] = null;
+			return true;
+		} finally {
+			this.trava.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Substitui a conta na sua posicao do array. Como a estrutura da tabela nao
+	 * muda, basta a trava de leitura: atualizacoes de contas diferentes
+	 * escrevem em posicoes diferentes.
+	 */
+	@Override
+	public boolean atualizar(ContaAbstrata conta) throws RepositorioException {
+		this.trava.readLock().lock();
+		try {
+			int i = this.getIndice(conta.getNumero());
+			if (i != -1) {
+				this.contas[i] = conta;
+				return true;
+			}
+			return false;
+		} finally {
+			this.trava.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean existe(String numero) {
+		this.trava.readLock().lock();
+		try {
+			return this.getIndice(numero) != -1;
+		} finally {
+			this.trava.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de contas no repositorio.
+	 *
+	 * @return quantidade de contas.
+	 */
+	public int getQuantidade() {
+		this.trava.readLock().lock();
+		try {
+			return this.indice;
+		} finally {
+			this.trava.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		this.trava.readLock().lock();
+		try {
+			return Pagina.deArray(this.contas, this.indice, cursor, tamanho);
+		} finally {
+			this.trava.readLock().unlock();
+		}
+	}
+
+	@Override
+	public IteratorContaAbstrata getIterator() {
+		return new IteratorContaAbstrataArray(this.contas);
+	}
+}
@@ -0,0 +1,200 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Collection;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.metricas.MetricaMetodo;
+import br.ufrpe.poo.banco.metricas.Metricas;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+
+/**
+ * Decorador de repositorio de contas que registra, para cada metodo, a
+ * quantidade de chamadas, os erros por tipo de excecao e o histograma de
+ * latencias.
+ *
+ * Os metodos sao registrados com o prefixo dado, por exemplo
+ * <code>contas.procurar</code>. Se o repositorio decorado for um
+ * <code>RepositorioContasArquivoBin</code>, as gravacoes do arquivo, que
+ * acontecem dentro das alteracoes ou numa thread de escrita, sao registradas
+ * como <code>contas.gravarArquivo</code>.
+ */
+public class RepositorioContasInstrumentado implements IRepositorioContas {
+
+	/** Prefixo padrao dos nomes das metricas. */
+	public static final String PREFIXO_PADRAO = "contas";
+
+	/** Repositorio decorado. */
+	private final IRepositorioContas repositorio;
+
+	private final MetricaMetodo inserir;
+
+	private final MetricaMetodo procurar;
+
+	private final MetricaMetodo remover;
+
+	private final MetricaMetodo atualizar;
+
+	private final MetricaMetodo atualizarTodas;
+
+	private final MetricaMetodo existe;
+
+	private final MetricaMetodo getIterator;
+
+	private final MetricaMetodo pagina;
+
+	/**
+	 * Cria o decorador com o prefixo padrao.
+	 *
+	 * @param repositorio
+	 *            repositorio decorado.
+	 * @param metricas
+	 *            conjunto em que as metricas sao registradas.
+	 */
+	public RepositorioContasInstrumentado(IRepositorioContas repositorio,
+			Metricas metricas) {
+		this(repositorio, metricas, PREFIXO_PADRAO);
+	}
+
+	/**
+	 * Cria o decorador.
+	 *
+	 * @param repositorio
+	 *            repositorio decorado.
+	 * @param metricas
+	 *            conjunto em que as metricas sao registradas.
+	 * @param prefixo
+	 *            prefixo dos nomes das metricas.
+	 */
+	public RepositorioContasInstrumentado(IRepositorioContas repositorio,
+			Metricas metricas, String prefixo) {
+		this.repositorio = repositorio;
+		this.inserir = metricas.metodo(prefixo + ".inserir");
+		this.procurar = metricas.metodo(prefixo + ".procurar");
+		this.remover = metricas.metodo(prefixo + ".remover");
+		this.atualizar = metricas.metodo(prefixo + ".atualizar");
+		this.atualizarTodas = metricas.metodo(prefixo + ".atualizarTodas");
+		this.existe = metricas.metodo(prefixo + ".existe");
+		this.getIterator = metricas.metodo(prefixo + ".getIterator");
+		this.pagina = metricas.metodo(prefixo + ".pagina");
+		if (repositorio instanceof RepositorioContasArquivoBin) {
+			((RepositorioContasArquivoBin) repositorio)
+					.setMetricaGravacao(metricas.metodo(prefixo
+							+ ".gravarArquivo"));
+		}
+	}
+
+	/**
+	 * Retorna o repositorio decorado.
+	 *
+	 * @return repositorio decorado.
+	 */
+	public IRepositorioContas getRepositorio() {
+		return this.repositorio;
+	}
+
+	@Override
+	public boolean inserir(ContaAbstrata conta) throws RepositorioException {
+		long medicao = this.inserir.iniciar();
+		try {
+			boolean sucesso = this.repositorio.inserir(conta);
+			this.inserir.sucesso(medicao);
+			return sucesso;
+		} catch (RepositorioException | RuntimeException e) {
+			this.inserir.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public ContaAbstrata procurar(String numero) {
+		long medicao = this.procurar.iniciar();
+		try {
+			ContaAbstrata conta = this.repositorio.procurar(numero);
+			this.procurar.sucesso(medicao);
+			return conta;
+		} catch (RuntimeException e) {
+			this.procurar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean remover(String numero) throws RepositorioException {
+		long medicao = this.remover.iniciar();
+		try {
+			boolean sucesso = this.repositorio.remover(numero);
+			this.remover.sucesso(medicao);
+			return sucesso;
+		} catch (RepositorioException | RuntimeException e) {
+			this.remover.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean atualizar(ContaAbstrata conta) throws RepositorioException {
+		long medicao = this.atualizar.iniciar();
+		try {
+			boolean sucesso = this.repositorio.atualizar(conta);
+			this.atualizar.sucesso(medicao);
+			return sucesso;
+		} catch (RepositorioException | RuntimeException e) {
+			this.atualizar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public int atualizarTodas(Collection<? extends ContaAbstrata> contas)
+			throws RepositorioException {
+		long medicao = this.atualizarTodas.iniciar();
+		try {
+			int atualizadas = this.repositorio.atualizarTodas(contas);
+			this.atualizarTodas.sucesso(medicao);
+			return atualizadas;
+		} catch (RepositorioException | RuntimeException e) {
+			this.atualizarTodas.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean existe(String numero) {
+		long medicao = this.existe.iniciar();
+		try {
+			boolean existe = this.repositorio.existe(numero);
+			this.existe.sucesso(medicao);
+			return existe;
+		} catch (RuntimeException e) {
+			this.existe.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public IteratorContaAbstrata getIterator() {
+		long medicao = this.getIterator.iniciar();
+		try {
+			IteratorContaAbstrata iterador = this.repositorio.getIterator();
+			this.getIterator.sucesso(medicao);
+			return iterador;
+		} catch (RuntimeException e) {
+			this.getIterator.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		long medicao = this.pagina.iniciar();
+		try {
+			Pagina<ContaAbstrata> pagina = this.repositorio.pagina(cursor, tamanho);
+			this.pagina.sucesso(medicao);
+			return pagina;
+		} catch (RuntimeException e) {
+			this.pagina.falha(medicao, e);
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,385 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.Dinheiro;
+
+/**
+ * Implementacao de repositorio de contas que guarda cada conta numa posicao
+ * (slot) de tamanho fixo de um arquivo mapeado em memoria.
+ *
+ * Atualizar o saldo de uma conta escreve apenas o saldo (e o bonus de uma
+ * ContaEspecial) no lugar, sem serializar as demais contas. A gravacao no
+ * disco fica a cargo do sistema operacional, exceto quando a politica de
+ * sincronizacao forca a descarga a cada N escritas.
+ * <p>
+ * Layout de cada slot de 64 bytes: estado (byte) tipo (byte) tamanho do
+ * numero (byte) reservado (5 bytes) saldo (8 bytes) bonus (8 bytes) numero
+ * (ate 40 bytes UTF-8). Saldo e bonus sao gravados em centavos. O arquivo
+ * comeca com um cabecalho do tamanho de um slot.
+ */
+public class RepositorioContasMapeado implements IRepositorioContas {
+
+	/** Numero magico no inicio do arquivo ("BNCM"). */
+	private static final int MAGICO = 0x424E434D;
+
+	/** Versao do layout do arquivo. */
+	private static final int VERSAO = 1;
+
+	/** Tamanho de cada slot em bytes. */
+	private static final int TAMANHO_SLOT = 64;
+
+	/** Maior numero de conta, em bytes UTF-8, que cabe num slot. */
+	public static final int TAMANHO_MAXIMO_NUMERO = 40;
+
+	/** Capacidade inicial do arquivo em slots. */
+	private static final int CAPACIDADE_INICIAL = 1024;
+
+	private static final int LIVRE = 0;
+	private static final int OCUPADO = 1;
+
+	private static final int POS_ESTADO = 0;
+	private static final int POS_TIPO = 1;
+	private static final int POS_TAMANHO_NUMERO = 2;
+	private static final int POS_SALDO = 8;
+	private static final int POS_BONUS = 16;
+	private static final int POS_NUMERO = 24;
+
+	/** Contas sao mantidas em memoria num repositorio de contas. */
+	private RepositorioContasHash contas;
+
+	/** Slot de cada conta no arquivo. */
+	private HashMap<String, Integer> slots;
+
+	/** Pilha de slots livres. */
+	private int[] livres;
+
+	/** Quantidade de slots na pilha de livres. */
+	private int quantidadeLivres;
+
+	/** Quantidade de slots do arquivo. */
+	private int capacidade;
+
+	/** Arquivo que armazena as contas. */
+	private RandomAccessFile arquivo;
+
+	/** Regiao do arquivo mapeada em memoria. */
+	private MappedByteBuffer mapa;
+
+	/**
+	 * Quantidade de escritas entre descargas forcadas no disco. Zero deixa a
+	 * descarga a cargo do sistema operacional.
+	 */
+	private int forcarACada;
+
+	/** Escritas desde a ultima descarga forcada. */
+	private int escritasPendentes;
+
+	/**
+	 * Constroi um repositorio que mantem contas num arquivo mapeado em
+	 * memoria.
+	 *
+	 * @param arquivo
+	 *            arquivo das contas. Se arquivo nao existe, sera criado.
+	 * @param forcarACada
+	 *            quantidade de escritas entre descargas forcadas no disco; 1
+	 *            forca a cada escrita e 0 nunca forca.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura do arquivo.
+	 */
+	public RepositorioContasMapeado(File arquivo, int forcarACada)
+			throws RepositorioException {
+		this.contas = new RepositorioContasHash();
+		this.slots = new HashMap<String, Integer>();
+		this.forcarACada = forcarACada;
+		try {
+			boolean novo = !arquivo.exists() || arquivo.length() == 0;
+			// o arquivo tem ao menos o cabecalho e um slot
+			if (!novo && arquivo.length() < 2 * TAMANHO_SLOT)
+				throw new RepositorioException(
+						"Formato de arquivo desconhecido!");
+			this.arquivo = new RandomAccessFile(arquivo, "rw");
+			if (novo) {
+				this.mapear(CAPACIDADE_INICIAL);
+				this.mapa.putInt(0, MAGICO);
+				this.mapa.putShort(4, (short) VERSAO);
+				this.mapa.putShort(6, (short) TAMANHO_SLOT);
+				this.livres = new int[CAPACIDADE_INICIAL];
+				this.empilharLivres(0, CAPACIDADE_INICIAL);
+			} else {
+				this.mapear((int) (arquivo.length() / TAMANHO_SLOT) - 1);
+				if (this.mapa.getInt(0) != MAGICO
+						|| this.mapa.getShort(6) != TAMANHO_SLOT)
+					throw new RepositorioException(
+							"Formato de arquivo desconhecido!");
+				int versao = this.mapa.getShort(4);
+				if (versao != VERSAO)
+					throw new RepositorioException(
+							"Versao de arquivo nao suportada: " + versao);
+				this.lerArquivo();
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Mapeia o arquivo em memoria com a capacidade em slots indicada,
+	 * estendendo o arquivo se necessario.
+	 */
+	private void mapear(int capacidade) throws IOException,
+			RepositorioException {
+		long tamanho = (long) (capacidade + 1) * TAMANHO_SLOT;
+		if (tamanho > Integer.MAX_VALUE)
+			throw new RepositorioException("Capacidade do arquivo excedida!");
+		this.mapa = this.arquivo.getChannel().map(
+				FileChannel.MapMode.READ_WRITE, 0, tamanho);
+		this.capacidade = capacidade;
+	}
+
+	/**
+	 * Empilha como livres os slots do intervalo, do maior para o menor, para
+	 * que os menores sejam usados primeiro.
+	 */
+	private void empilharLivres(int inicio, int fim) {
+		for (int slot = fim - 1; slot >= inicio; slot--) {
+			this.livres[this.quantidadeLivres] = slot;
+			this.quantidadeLivres = this.quantidadeLivres + 1;
+		}
+	}
+
+	/**
+	 * Posicao do inicio de um slot no arquivo.
+	 */
+	private static int posicao(int slot) {
+		return (slot + 1) * TAMANHO_SLOT;
+	}
+
+	/**
+	 * Le todas as contas dos slots ocupados do arquivo.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de slot invalido.
+	 */
+	private void lerArquivo() throws RepositorioException {
+		this.livres = new int[this.capacidade];
+		for (int slot = this.capacidade - 1; slot >= 0; slot--) {
+			int p = posicao(slot);
+			if (this.mapa.get(p + POS_ESTADO) != OCUPADO) {
+				this.livres[this.quantidadeLivres] = slot;
+				this.quantidadeLivres = this.quantidadeLivres + 1;
+				continue;
+			}
+			int tamanho = this.mapa.get(p + POS_TAMANHO_NUMERO);
+			if (tamanho < 0 || tamanho > TAMANHO_MAXIMO_NUMERO)
+				throw new RepositorioException(
+						"Formato de arquivo desconhecido!");
+			byte[] numero = new byte[tamanho];
+			this.mapa.get(p + POS_NUMERO, numero);
+			ContaAbstrata conta = CodecRegistros.criarConta(
+					this.mapa.get(p + POS_TIPO), new String(numero,
+							StandardCharsets.UTF_8), Dinheiro.deCentavos(this.mapa
+							.getLong(p + POS_SALDO)), Dinheiro
+							.deCentavos(this.mapa.getLong(p + POS_BONUS)));
+			this.contas.inserir(conta);
+			this.slots.put(conta.getNumero(), slot);
+		}
+	}
+
+	/**
+	 * Dobra a capacidade do arquivo.
+	 */
+	private void crescer() throws RepositorioException {
+		try {
+			int anterior = this.capacidade;
+			this.mapa.force();
+			this.mapear(anterior * 2);
+			int[] aux = new int[this.capacidade];
+			System.arraycopy(this.livres, 0, aux, 0, this.quantidadeLivres);
+			this.livres = aux;
+			this.empilharLivres(anterior, this.capacidade);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Escreve todos os campos de uma conta no seu slot.
+	 */
+	private void escreverSlot(int slot, ContaAbstrata conta)
+			throws RepositorioException {
+		byte[] numero = conta.getNumero().getBytes(StandardCharsets.UTF_8);
+		if (numero.length > TAMANHO_MAXIMO_NUMERO)
+			throw new RepositorioException("Numero de conta excede "
+					+ TAMANHO_MAXIMO_NUMERO + " bytes!");
+		int p = posicao(slot);
+		this.mapa.put(p + POS_TIPO, (byte) CodecRegistros.tipo(conta));
+		this.mapa.put(p + POS_TAMANHO_NUMERO, (byte) numero.length);
+		this.mapa.put(p + POS_NUMERO, numero);
+		this.mapa.putLong(p + POS_BONUS, 0);
+		this.escreverSaldo(slot, conta);
+		// o estado eh marcado por ultimo, depois dos demais campos
+		this.mapa.put(p + POS_ESTADO, (byte) OCUPADO);
+	}
+
+	/**
+	 * Escreve no lugar apenas o saldo e o bonus de uma conta.
+	 */
+	private void escreverSaldo(int slot, ContaAbstrata conta) {
+		int p = posicao(slot);
+		this.mapa.putLong(p + POS_SALDO, conta.getSaldoDinheiro()
+				.getCentavos());
+		if (conta instanceof ContaEspecial)
+			this.mapa.putLong(p + POS_BONUS, ((ContaEspecial) conta)
+					.getBonusDinheiro().getCentavos());
+	}
+
+	/**
+	 * Aplica a politica de sincronizacao depois de uma escrita.
+	 */
+	private void escritaRealizada() {
+		if (this.forcarACada <= 0)
+			return;
+		this.escritasPendentes = this.escritasPendentes + 1;
+		if (this.escritasPendentes >= this.forcarACada) {
+			this.mapa.force();
+			this.escritasPendentes = 0;
+		}
+	}
+
+	/**
+	 * Forca a gravacao no disco de todas as escritas pendentes.
+	 */
+	public synchronized void sincronizar() {
+		this.mapa.force();
+		this.escritasPendentes = 0;
+	}
+
+	/**
+	 * Forca as escritas pendentes e fecha o arquivo.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public synchronized void fechar() throws RepositorioException {
+		this.sincronizar();
+		try {
+			this.arquivo.close();
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	@Override
+	public synchronized boolean inserir(ContaAbstrata conta)
+			throws RepositorioException {
+		if (this.contas.existe(conta.getNumero())) {
+			return false;
+		}
+		if (this.quantidadeLivres == 0) {
+			this.crescer();
+		}
+		int slot = this.livres[this.quantidadeLivres - 1];
+		this.escreverSlot(slot, conta);
+		this.quantidadeLivres = this.quantidadeLivres - 1;
+		this.contas.inserir(conta);
+		this.slots.put(conta.getNumero(), slot);
+		this.escritaRealizada();
+		return true;
+	}
+
+	@Override
+	public synchronized ContaAbstrata procurar(String numero) {
+		return this.contas.procurar(numero);
+	}
+
+	@Override
+	public synchronized boolean remover(String numero)
+			throws RepositorioException {
+		Integer slot = this.slots.remove(numero);
+		if (slot == null) {
+			return false;
+		}
+		this.contas.remover(numero);
+		this.mapa.put(posicao(slot) + POS_ESTADO, (byte) LIVRE);
+		this.livres[this.quantidadeLivres] = slot;
+		this.quantidadeLivres = this.quantidadeLivres + 1;
+		this.escritaRealizada();
+		return true;
+	}
+
+	@Override
+	public synchronized boolean atualizar(ContaAbstrata conta)
+			throws RepositorioException {
+		if (!this.atualizarSlot(conta)) {
+			return false;
+		}
+		this.escritaRealizada();
+		return true;
+	}
+
+	/**
+	 * Atualiza todas as contas no lugar e, se a politica de sincronizacao
+	 * forca descargas, descarrega o arquivo uma unica vez no fim.
+	 */
+	@Override
+	public synchronized int atualizarTodas(
+			Collection<? extends ContaAbstrata> lista)
+			throws RepositorioException {
+		int atualizadas = 0;
+		for (ContaAbstrata conta : lista) {
+			if (this.atualizarSlot(conta))
+				atualizadas = atualizadas + 1;
+		}
+		if (atualizadas > 0 && this.forcarACada > 0)
+			this.sincronizar();
+		return atualizadas;
+	}
+
+	/**
+	 * Escreve a conta no seu slot e a atualiza em memoria.
+	 *
+	 * @return se a conta existe.
+	 */
+	private boolean atualizarSlot(ContaAbstrata conta)
+			throws RepositorioException {
+		Integer slot = this.slots.get(conta.getNumero());
+		if (slot == null) {
+			return false;
+		}
+		ContaAbstrata atual = this.contas.procurar(conta.getNumero());
+		if (atual.getClass() == conta.getClass()) {
+			this.escreverSaldo(slot, conta);
+		} else {
+			this.escreverSlot(slot, conta);
+		}
+		this.contas.atualizar(conta);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean existe(String numero) {
+		return this.contas.existe(numero);
+	}
+
+	@Override
+	public Pagina<ContaAbstrata> pagina(int cursor, int tamanho) {
+		return this.contas.pagina(cursor, tamanho);
+	}
+
+	@Override
+	public IteratorContaAbstrata getIterator() {
+		return this.contas.getIterator();
+	}
+}
@@ -0,0 +1,617 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorCliente;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.negocio.Evento;
+
+/**
+ * Log de eventos do banco com snapshots periodicos.
+ *
+ * Os eventos sao apenas acrescentados no fim do log. Quando o log atinge um
+ * limite de eventos, o estado de todos os clientes e contas eh gravado num
+ * snapshot compacto em segundo plano e o log eh descartado, de modo que a
+ * inicializacao le o snapshot e reaplica apenas os eventos posteriores a ele.
+ *
+ * Cada log guarda, depois do cabecalho, a sua geracao, e o snapshot guarda a
+ * geracao do ultimo log que ele contem. Como reaplicar um evento nao eh
+ * idempotente (um credito reaplicado duas vezes credita duas vezes), na
+ * inicializacao sao reaplicados apenas os logs de geracao posterior a do
+ * snapshot.
+ *
+ * O repositorio nao conhece as regras de negocio: quem o usa reaplica os
+ * eventos lidos e garante que nenhum evento eh registrado enquanto o estado eh
+ * copiado para o snapshot.
+ */
+public class RepositorioEventos {
+
+	/**
+	 * Aplica sobre o estado um evento lido do log.
+	 */
+	public interface Reaplicador {
+
+		/**
+		 * Reaplica um evento.
+		 *
+		 * @param evento
+		 *            evento lido do log.
+		 * @throws RepositorioException
+		 *             lancada se o evento nao pode ser aplicado.
+		 */
+		void reaplicar(Evento evento) throws RepositorioException;
+	}
+
+	/** Registro de um cliente no snapshot. */
+	private static final byte REGISTRO_CLIENTE = 'C';
+
+	/** Registro de uma conta no snapshot. */
+	private static final byte REGISTRO_CONTA = 'G';
+
+	/** Quantidade padrao de eventos no log que dispara o snapshot. */
+	public static final int LIMITE_SNAPSHOT_PADRAO = 100000;
+
+	/** Tamanho do cabecalho de um log: cabecalho do codec e geracao. */
+	private static final int TAMANHO_CABECALHO_LOG = CodecRegistros.TAMANHO_CABECALHO
+			+ 8;
+
+	/** Arquivo com o snapshot. */
+	private File arquivoSnapshot;
+
+	/** Arquivo com os eventos posteriores ao snapshot. */
+	private File arquivoLog;
+
+	/** Log que esta sendo incorporado a um snapshot em segundo plano. */
+	private File arquivoLogAnterior;
+
+	/** Fluxo de escrita no fim do log. */
+	private FileOutputStream log;
+
+	/** Modo de gravacao dos eventos. */
+	private ModoGravacao modo;
+
+	/** Eventos ainda nao escritos no log, no modo <code>EM_GRUPO</code>. */
+	private ByteArrayOutputStream pendentes;
+
+	/** Confirmacao dos eventos no modo <code>EM_GRUPO</code>. */
+	private ConfirmacaoEmGrupo confirmacao;
+
+	/** Quantidade de eventos no log que dispara o snapshot. */
+	private int limiteSnapshot;
+
+	/** Quantidade de eventos no log atual. */
+	private int eventosNoLog;
+
+	/** Geracao do log atual. */
+	private long geracao;
+
+	/** Geracao do ultimo log contido no snapshot gravado. */
+	private long geracaoSnapshot;
+
+	/** Indica se existe um snapshot sendo gravado. */
+	private boolean gravandoSnapshot;
+
+	/**
+	 * Erro da gravacao do ultimo snapshot ainda nao informado, ou
+	 * <code>null</code>.
+	 */
+	private RepositorioException falhaSnapshot;
+
+	/** Quantidade de snapshots gravados. */
+	private int snapshots;
+
+	/** Grava os snapshots fora da thread que registrou os eventos. */
+	private ExecutorService gravador;
+
+	/**
+	 * Constroi um repositorio com os arquivos padrao
+	 * <code>eventos.snap</code> e <code>eventos.log</code>.
+	 */
+	public RepositorioEventos() {
+		this(new File("eventos.snap"), new File("eventos.log"),
+				ModoGravacao.IMEDIATO, LIMITE_SNAPSHOT_PADRAO);
+	}
+
+	/**
+	 * Constroi um repositorio de eventos. Os arquivos sao lidos por
+	 * <code>carregar</code>.
+	 *
+	 * @param arquivoSnapshot
+	 *            arquivo com o snapshot.
+	 * @param arquivoLog
+	 *            arquivo com o log de eventos.
+	 * @param modo
+	 *            modo de gravacao dos eventos.
+	 * @param limiteSnapshot
+	 *            quantidade de eventos no log que dispara o snapshot.
+	 */
+	public RepositorioEventos(File arquivoSnapshot, File arquivoLog,
+			ModoGravacao modo, int limiteSnapshot) {
+		this.arquivoSnapshot = arquivoSnapshot;
+		this.arquivoLog = arquivoLog;
+		this.arquivoLogAnterior = new File(arquivoLog.getPath() + ".1");
+		this.modo = modo;
+		this.pendentes = new ByteArrayOutputStream();
+		this.limiteSnapshot = limiteSnapshot;
+		this.gravador = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "snapshot-" + arquivoLog.getName());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Carrega o snapshot nos repositorios, reaplica os eventos posteriores a
+	 * ele e abre o log para novos eventos.
+	 *
+	 * @param clientes
+	 *            repositorio vazio que recebe os clientes do snapshot.
+	 * @param contas
+	 *            repositorio vazio que recebe as contas do snapshot.
+	 * @param reaplicador
+	 *            reaplica os eventos do log sobre os repositorios.
+	 * @return quantidade de eventos reaplicados.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura dos arquivos ou na
+	 *             reaplicacao de um evento.
+	 */
+	public synchronized int carregar(IRepositorioClientes clientes,
+			IRepositorioContas contas, Reaplicador reaplicador)
+			throws RepositorioException {
+		if (this.arquivoSnapshot.exists())
+			this.lerSnapshot(clientes, contas);
+		int reaplicados = 0;
+		this.geracao = this.geracaoSnapshot;
+		if (this.arquivoLogAnterior.exists())
+			reaplicados = reaplicados
+					+ this.reaplicar(this.arquivoLogAnterior, reaplicador);
+		if (this.arquivoLog.exists()) {
+			this.eventosNoLog = this.reaplicar(this.arquivoLog, reaplicador);
+			reaplicados = reaplicados + this.eventosNoLog;
+		}
+		this.abrirLog();
+		if (this.modo == ModoGravacao.EM_GRUPO && this.confirmacao == null) {
+			this.confirmacao = new ConfirmacaoEmGrupo("eventos-"
+					+ this.arquivoLog.getName(), this::descarregar);
+		}
+		return reaplicados;
+	}
+
+	/**
+	 * Le o snapshot para os repositorios.
+	 */
+	private void lerSnapshot(IRepositorioClientes clientes,
+			IRepositorioContas contas) throws RepositorioException {
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(GravadorSnapshot
+						.ler(this.arquivoSnapshot)))) {
+			int versao = CodecRegistros.lerCabecalho(in);
+			this.geracaoSnapshot = in.readLong();
+			while (in.available() > 0) {
+				int registro = in.readByte();
+				if (registro == REGISTRO_CLIENTE) {
+					clientes.inserir(CodecRegistros.lerCliente(in, versao));
+				} else if (registro == REGISTRO_CONTA) {
+					contas.inserir(CodecRegistros.lerConta(in, versao));
+				} else {
+					throw new RepositorioException(
+							"Registro invalido no arquivo "
+									+ this.arquivoSnapshot.getName() + "!");
+				}
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Reaplica os eventos de um log posterior ao snapshot. Um log ja contido no
+	 * snapshot (a gravacao terminou mas o log nao chegou a ser apagado) eh
+	 * apagado sem ser reaplicado. O log eh truncado no primeiro evento
+	 * incompleto ou com CRC32 que nao confere, deixado por uma escrita
+	 * interrompida.
+	 *
+	 * @param arquivo
+	 *            log a ser lido.
+	 * @param reaplicador
+	 *            reaplica os eventos lidos.
+	 * @return quantidade de eventos reaplicados.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura do arquivo.
+	 */
+	private int reaplicar(File arquivo, Reaplicador reaplicador)
+			throws RepositorioException {
+		int eventos = 0;
+		try {
+			byte[] conteudo = Files.readAllBytes(arquivo.toPath());
+			if (conteudo.length < TAMANHO_CABECALHO_LOG) {
+				// arquivo criado mas cabecalho nao gravado por completo
+				Files.delete(arquivo.toPath());
+				return 0;
+			}
+			ByteArrayInputStream bytes = new ByteArrayInputStream(conteudo);
+			DataInputStream in = new DataInputStream(bytes);
+			int versao = CodecRegistros.lerCabecalho(in);
+			long geracaoLog = in.readLong();
+			if (geracaoLog <= this.geracaoSnapshot) {
+				Files.delete(arquivo.toPath());
+				return 0;
+			}
+			this.geracao = Math.max(this.geracao, geracaoLog);
+			long fimValido = TAMANHO_CABECALHO_LOG;
+			try {
+				while (bytes.available() > 0) {
+					DataInputStream registro = CodecRegistros.lerRegistro(in,
+							bytes.available());
+					if (registro == null) {
+						this.truncar(arquivo, fimValido);
+						break;
+					}
+					Evento evento = CodecRegistros.lerEvento(registro, versao);
+					reaplicador.reaplicar(evento);
+					fimValido = conteudo.length - bytes.available();
+					eventos = eventos + 1;
+				}
+			} catch (EOFException e) {
+				this.truncar(arquivo, fimValido);
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		return eventos;
+	}
+
+	/**
+	 * Descarta o final de um arquivo a partir de uma posicao.
+	 */
+	private void truncar(File arquivo, long tamanho)
+			throws RepositorioException {
+		try (RandomAccessFile raf = new RandomAccessFile(arquivo, "rw")) {
+			raf.setLength(tamanho);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Abre o log para acrescentar eventos no seu fim. Um log novo recebe a
+	 * geracao seguinte a do ultimo log lido.
+	 */
+	private void abrirLog() throws RepositorioException {
+		try {
+			boolean novo = this.arquivoLog.length() == 0;
+			this.log = new FileOutputStream(this.arquivoLog, true);
+			if (novo) {
+				this.geracao = this.geracao + 1;
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				CodecRegistros.escreverCabecalho(out);
+				out.writeLong(this.geracao);
+				this.log.write(bytes.toByteArray());
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Acrescenta um evento no fim do log. O evento eh codificado
+	 * imediatamente, de modo que um cliente ou conta alterado depois nao muda
+	 * o evento.
+	 *
+	 * No modo <code>EM_GRUPO</code> o evento so esta no disco depois de
+	 * <code>confirmar()</code>.
+	 *
+	 * @param evento
+	 *            evento a ser registrado.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public void registrar(Evento evento) throws RepositorioException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(72);
+			escreverEvento(new DataOutputStream(bytes), evento);
+			this.acrescentar(bytes, 1);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Acrescenta varios eventos, em ordem, com uma unica escrita.
+	 *
+	 * @param eventos
+	 *            eventos a serem registrados.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public void registrarTodos(Collection<Evento> eventos)
+			throws RepositorioException {
+		if (eventos.isEmpty())
+			return;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			for (Evento evento : eventos) {
+				escreverEvento(out, evento);
+			}
+			this.acrescentar(bytes, eventos.size());
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Escreve um evento com a moldura de registro de log.
+	 */
+	private static void escreverEvento(DataOutputStream out, Evento evento)
+			throws IOException, RepositorioException {
+		ByteArrayOutputStream registro = new ByteArrayOutputStream(64);
+		CodecRegistros.escreverEvento(new DataOutputStream(registro), evento);
+		CodecRegistros.escreverRegistro(out, registro);
+	}
+
+	/**
+	 * Acrescenta eventos codificados no fim do log.
+	 */
+	private synchronized void acrescentar(ByteArrayOutputStream registros,
+			int quantidade) throws IOException {
+		if (this.modo == ModoGravacao.EM_GRUPO) {
+			registros.writeTo(this.pendentes);
+		} else {
+			registros.writeTo(this.log);
+			if (this.modo == ModoGravacao.SINCRONIZADO)
+				this.log.getChannel().force(false);
+		}
+		this.eventosNoLog = this.eventosNoLog + quantidade;
+	}
+
+	/**
+	 * Escreve no log os eventos pendentes do modo <code>EM_GRUPO</code>.
+	 */
+	private void escreverPendentes() throws IOException {
+		if (this.pendentes.size() > 0) {
+			this.pendentes.writeTo(this.log);
+			this.pendentes.reset();
+		}
+	}
+
+	/**
+	 * Descarga de um grupo: escreve os eventos pendentes com uma unica escrita
+	 * e forca o log no disco fora da trava do repositorio.
+	 */
+	private void descarregar() throws RepositorioException {
+		FileChannel canal;
+		try {
+			synchronized (this) {
+				this.escreverPendentes();
+				canal = this.log.getChannel();
+			}
+			canal.force(false);
+		} catch (ClosedChannelException e) {
+			// o log foi separado pelo snapshot, que ja o forcou no disco
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Aguarda ate que os eventos ja registrados estejam no disco, no modo
+	 * <code>EM_GRUPO</code>. Nos outros modos retorna imediatamente.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public void confirmar() throws RepositorioException {
+		if (this.confirmacao != null)
+			this.confirmacao.confirmar();
+	}
+
+	/**
+	 * Indica se o log atingiu o limite de eventos e nenhum snapshot esta
+	 * sendo gravado.
+	 *
+	 * @return se um snapshot deve ser iniciado.
+	 */
+	public synchronized boolean precisaSnapshot() {
+		return !this.gravandoSnapshot
+				&& this.eventosNoLog >= this.limiteSnapshot;
+	}
+
+	/**
+	 * Inicia a gravacao de um snapshot em segundo plano.
+	 *
+	 * O estado dos repositorios eh copiado em memoria e o log atual eh
+	 * separado, de modo que novos eventos continuam sendo acrescentados num
+	 * log novo enquanto o snapshot eh gravado. Quem chama deve garantir que
+	 * nenhum evento eh registrado nem aplicado durante a chamada.
+	 *
+	 * Se a gravacao do snapshot anterior falhou, o erro eh lancado e nenhum
+	 * snapshot eh iniciado; a proxima chamada tenta de novo.
+	 *
+	 * @param clientes
+	 *            repositorio com todos os clientes.
+	 * @param contas
+	 *            repositorio com todas as contas.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com os arquivos.
+	 */
+	public synchronized void iniciarSnapshot(IRepositorioClientes clientes,
+			IRepositorioContas contas) throws RepositorioException {
+		if (this.gravandoSnapshot)
+			return;
+		this.lancarFalhaSnapshot();
+		final byte[] estado;
+		final long geracaoEstado = this.geracao;
+		try {
+			estado = estadoAtual(clientes, contas, geracaoEstado);
+			this.escreverPendentes();
+			if (this.modo != ModoGravacao.IMEDIATO)
+				this.log.getChannel().force(false);
+			this.log.close();
+			this.separarLog();
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.abrirLog();
+		this.eventosNoLog = 0;
+		this.gravandoSnapshot = true;
+		this.gravador.execute(() -> this.gravarSnapshot(estado, geracaoEstado));
+	}
+
+	/**
+	 * Codifica todos os clientes e contas no formato do snapshot.
+	 */
+	private static byte[] estadoAtual(IRepositorioClientes clientes,
+			IRepositorioContas contas, long geracao) throws IOException,
+			RepositorioException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		CodecRegistros.escreverCabecalho(out);
+		out.writeLong(geracao);
+		IteratorCliente itClientes = clientes.getIterator();
+		while (itClientes.hasNext()) {
+			out.writeByte(REGISTRO_CLIENTE);
+			CodecRegistros.escreverCliente(out, itClientes.next());
+		}
+		IteratorContaAbstrata itContas = contas.getIterator();
+		while (itContas.hasNext()) {
+			out.writeByte(REGISTRO_CONTA);
+			CodecRegistros.escreverConta(out, itContas.next());
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Move o log atual para o log anterior. Se o log anterior ainda existe (a
+	 * gravacao de um snapshot falhou) os eventos do log atual sao
+	 * concatenados a ele; o log anterior mantem a sua geracao, a menor das
+	 * duas.
+	 */
+	private void separarLog() throws IOException {
+		if (!this.arquivoLogAnterior.exists()) {
+			Files.move(this.arquivoLog.toPath(),
+					this.arquivoLogAnterior.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+		} else {
+			byte[] eventos = Files.readAllBytes(this.arquivoLog.toPath());
+			try (FileOutputStream anterior = new FileOutputStream(
+					this.arquivoLogAnterior, true)) {
+				anterior.write(eventos, TAMANHO_CABECALHO_LOG, eventos.length
+						- TAMANHO_CABECALHO_LOG);
+				anterior.getChannel().force(false);
+			}
+			Files.delete(this.arquivoLog.toPath());
+		}
+	}
+
+	/**
+	 * Grava o snapshot com <code>GravadorSnapshot</code>. Apenas depois disso o
+	 * log anterior eh apagado. Um erro fica em <code>falhaSnapshot</code>.
+	 */
+	private void gravarSnapshot(byte[] estado, long geracaoEstado) {
+		try {
+			GravadorSnapshot.gravar(this.arquivoSnapshot, estado, true);
+			synchronized (this) {
+				this.geracaoSnapshot = geracaoEstado;
+				this.snapshots = this.snapshots + 1;
+				Files.deleteIfExists(this.arquivoLogAnterior.toPath());
+			}
+		} catch (IOException e) {
+			// o log anterior eh mantido e sera reaplicado na inicializacao
+			synchronized (this) {
+				this.falhaSnapshot = new RepositorioException(e);
+			}
+		} finally {
+			synchronized (this) {
+				this.gravandoSnapshot = false;
+			}
+		}
+	}
+
+	/**
+	 * Lanca o erro da gravacao do ultimo snapshot, se houver, e o descarta.
+	 */
+	private synchronized void lancarFalhaSnapshot()
+			throws RepositorioException {
+		RepositorioException falha = this.falhaSnapshot;
+		if (falha != null) {
+			this.falhaSnapshot = null;
+			throw falha;
+		}
+	}
+
+	/**
+	 * Retorna o erro da gravacao do ultimo snapshot que ainda nao foi lancado
+	 * por <code>iniciarSnapshot</code> ou <code>fechar</code>.
+	 *
+	 * @return erro ou <code>null</code>.
+	 */
+	public synchronized RepositorioException getFalhaSnapshot() {
+		return this.falhaSnapshot;
+	}
+
+	/**
+	 * Retorna a quantidade de eventos no log atual.
+	 *
+	 * @return eventos registrados desde o ultimo snapshot.
+	 */
+	public synchronized int getEventosNoLog() {
+		return this.eventosNoLog;
+	}
+
+	/**
+	 * Retorna a quantidade de snapshots gravados desde a criacao do
+	 * repositorio.
+	 *
+	 * @return quantidade de snapshots.
+	 */
+	public synchronized int getSnapshots() {
+		return this.snapshots;
+	}
+
+	/**
+	 * Aguarda o snapshot em andamento e fecha o log.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo ou se a gravacao do
+	 *             ultimo snapshot falhou.
+	 */
+	public void fechar() throws RepositorioException {
+		if (this.confirmacao != null)
+			this.confirmacao.fechar();
+		this.gravador.shutdown();
+		try {
+			this.gravador.awaitTermination(1, TimeUnit.MINUTES);
+			synchronized (this) {
+				if (this.log != null) {
+					this.escreverPendentes();
+					this.log.close();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RepositorioException(e);
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.lancarFalhaSnapshot();
+	}
+}
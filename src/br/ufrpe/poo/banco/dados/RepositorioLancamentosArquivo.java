@@ -0,0 +1,169 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Lancamento;
+
+/**
+ * Implementacao do repositorio de lancamentos que acrescenta cada lancamento
+ * no fim de um arquivo binario e mantem o indice por conta na memoria.
+ *
+ * O arquivo nunca eh regravado: na inicializacao os lancamentos sao lidos em
+ * ordem para reconstruir o indice, e o arquivo eh truncado no primeiro
+ * registro incompleto ou com CRC32 que nao confere (gravacao interrompida).
+ * As consultas usam apenas o indice, como em
+ * <code>RepositorioLancamentosMemoria</code>.
+ */
+public class RepositorioLancamentosArquivo implements IRepositorioLancamentos {
+
+	/** Arquivo padrao dos lancamentos. */
+	public static final String ARQUIVO_PADRAO = "lancamentos.dat";
+
+	/** Indice dos lancamentos por conta. */
+	private final RepositorioLancamentosMemoria indice;
+
+	/** Arquivo dos lancamentos. */
+	private final File arquivo;
+
+	/** Saida aberta no fim do arquivo. */
+	private DataOutputStream out;
+
+	/**
+	 * Constroi um repositorio sobre o arquivo padrao.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public RepositorioLancamentosArquivo() throws RepositorioException {
+		this(new File(ARQUIVO_PADRAO));
+	}
+
+	/**
+	 * Constroi um repositorio sobre um arquivo de lancamentos.
+	 *
+	 * @param arquivo
+	 *            arquivo dos lancamentos. Se nao existe, sera criado.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public RepositorioLancamentosArquivo(File arquivo)
+			throws RepositorioException {
+		this.indice = new RepositorioLancamentosMemoria();
+		this.arquivo = arquivo;
+		try {
+			boolean novo = !arquivo.exists()
+					|| arquivo.length() < CodecRegistros.TAMANHO_CABECALHO;
+			if (!novo)
+				this.lerArquivo();
+			this.out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(arquivo, !novo)));
+			if (novo) {
+				CodecRegistros.escreverCabecalho(this.out);
+				this.out.flush();
+			}
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+
+	/**
+	 * Le os lancamentos do arquivo para o indice.
+	 */
+	private void lerArquivo() throws IOException, RepositorioException {
+		byte[] conteudo = Files.readAllBytes(this.arquivo.toPath());
+		ByteArrayInputStream bytes = new ByteArrayInputStream(conteudo);
+		DataInputStream in = new DataInputStream(bytes);
+		int versao = CodecRegistros.lerCabecalho(in);
+		long fimValido = CodecRegistros.TAMANHO_CABECALHO;
+		while (bytes.available() > 0) {
+			DataInputStream registro = CodecRegistros.lerRegistro(in,
+					bytes.available());
+			if (registro == null)
+				break;
+			this.indice.registrar(CodecRegistros.lerLancamento(registro));
+			fimValido = conteudo.length - bytes.available();
+		}
+		if (fimValido < conteudo.length) {
+			try (RandomAccessFile raf = new RandomAccessFile(this.arquivo,
+					"rw")) {
+				raf.setLength(fimValido);
+			}
+		}
+	}
+
+	/**
+	 * Escreve um lancamento com a moldura de registro de log.
+	 */
+	private static void escreverLancamento(DataOutputStream out,
+			Lancamento lancamento) throws IOException {
+		ByteArrayOutputStream registro = new ByteArrayOutputStream(48);
+		CodecRegistros.escreverLancamento(new DataOutputStream(registro),
+				lancamento);
+		CodecRegistros.escreverRegistro(out, registro);
+	}
+
+	@Override
+	public synchronized void registrar(Lancamento lancamento)
+			throws RepositorioException {
+		try {
+			escreverLancamento(this.out, lancamento);
+			this.out.flush();
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.indice.registrar(lancamento);
+	}
+
+	/**
+	 * Escreve todos os lancamentos com uma unica descarga.
+	 */
+	@Override
+	public synchronized void registrarTodos(Collection<Lancamento> lancamentos)
+			throws RepositorioException {
+		try {
+			for (Lancamento lancamento : lancamentos) {
+				escreverLancamento(this.out, lancamento);
+			}
+			this.out.flush();
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+		this.indice.registrarTodos(lancamentos);
+	}
+
+	@Override
+	public List<Lancamento> ultimos(String numero, int quantidade) {
+		return this.indice.ultimos(numero, quantidade);
+	}
+
+	@Override
+	public List<Lancamento> entre(String numero, long inicio, long fim) {
+		return this.indice.entre(numero, inicio, fim);
+	}
+
+	/**
+	 * Fecha o arquivo.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro ao fechar o arquivo.
+	 */
+	public synchronized void fechar() throws RepositorioException {
+		try {
+			this.out.close();
+		} catch (IOException e) {
+			throw new RepositorioException(e);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package br.ufrpe.poo.banco.dados;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import br.ufrpe.poo.banco.negocio.Lancamento;
+
+/**
+ * Implementacao do repositorio de lancamentos que mantem os lancamentos na
+ * memoria, indexados pelo numero da conta.
+ *
+ * Cada conta tem o seu proprio array de lancamentos em ordem cronologica. Os
+ * ultimos N lancamentos sao o fim do array, e os lancamentos de um periodo
+ * sao localizados por busca binaria no instante, sem percorrer os demais
+ * lancamentos da conta nem os das outras contas.
+ */
+public class RepositorioLancamentosMemoria implements IRepositorioLancamentos {
+
+	/**
+	 * Lancamentos de uma conta.
+	 */
+	private static final class Extrato {
+
+		private Lancamento[] lancamentos = new Lancamento[8];
+
+		private int tamanho;
+
+		synchronized void adicionar(Lancamento lancamento) {
+			if (this.tamanho > 0) {
+				long ultimo = this.lancamentos[this.tamanho - 1].getInstante();
+				if (lancamento.getInstante() < ultimo)
+					lancamento = lancamento.comInstante(ultimo);
+			}
+			if (this.tamanho == this.lancamentos.length)
+				this.lancamentos = Arrays.copyOf(this.lancamentos,
+						this.tamanho * 2);
+			this.lancamentos[this.tamanho] = lancamento;
+			this.tamanho = this.tamanho + 1;
+		}
+
+		synchronized List<Lancamento> ultimos(int quantidade) {
+			int inicio = Math.max(0, this.tamanho - Math.max(quantidade, 0));
+			return this.copia(inicio, this.tamanho);
+		}
+
+		synchronized List<Lancamento> entre(long inicio, long fim) {
+			int de = this.primeiro(inicio, false);
+			int ate = this.primeiro(fim, true);
+			return this.copia(de, Math.max(de, ate));
+		}
+
+		/**
+		 * Indice do primeiro lancamento com instante maior ou igual ao
+		 * informado ou, se <code>apos</code>, estritamente maior.
+		 */
+		private int primeiro(long instante, boolean apos) {
+			int baixo = 0;
+			int alto = this.tamanho;
+			while (baixo < alto) {
+				int meio = (baixo + alto) >>> 1;
+				long atual = this.lancamentos[meio].getInstante();
+				if (atual < instante || (apos && atual == instante)) {
+					baixo = meio + 1;
+				} else {
+					alto = meio;
+				}
+			}
+			return baixo;
+		}
+
+		private List<Lancamento> copia(int de, int ate) {
+			return Collections.unmodifiableList(Arrays.asList(Arrays
+					.copyOfRange(this.lancamentos, de, ate)));
+		}
+	}
+
+	/** Extrato de cada conta, pelo numero. */
+	private final ConcurrentHashMap<String, Extrato> extratos = new ConcurrentHashMap<String, Extrato>();
+
+	@Override
+	public void registrar(Lancamento lancamento) {
+		this.extratos.computeIfAbsent(lancamento.getNumeroConta(),
+				numero -> new Extrato()).adicionar(lancamento);
+	}
+
+	@Override
+	public List<Lancamento> ultimos(String numero, int quantidade) {
+		Extrato extrato = this.extratos.get(numero);
+		if (extrato == null)
+			return Collections.emptyList();
+		return extrato.ultimos(quantidade);
+	}
+
+	@Override
+	public List<Lancamento> entre(String numero, long inicio, long fim) {
+		Extrato extrato = this.extratos.get(numero);
+		if (extrato == null || fim < inicio)
+			return Collections.emptyList();
+		return extrato.entre(inicio, fim);
+	}
+}
@@ -3,6 +3,10 @@ package br.ufrpe.poo.banco.exceptions;
 /**
  * Excessao que representa um erro no debito de um valor no saldo da conta.
  * 
+ * Debitos recusados sao frequentes (por exemplo, tentativas repetidas de
+ * pagamento), por isso a excecao nao captura a pilha de chamadas e a mensagem
+ * so eh formatada quando for pedida.
+ * 
  * @author
  * 
  */
@@ -10,9 +14,40 @@ public class SaldoInsuficienteException extends Exception {
 
 	private static final long serialVersionUID = 1L;
 
+	/** Numero da conta sem saldo. */
+	private final String numero;
+
+	/** Saldo da conta no momento do debito. */
+	private final double saldo;
+
 	public SaldoInsuficienteException(String numero, double saldo) {
-		super(String.format(
+		super(null, null, false, false);
+		this.numero = numero;
+		this.saldo = saldo;
+	}
+
+	/**
+	 * Retorna o numero da conta sem saldo.
+	 * 
+	 * @return numero da conta.
+	 */
+	public String getNumero() {
+		return this.numero;
+	}
+
+	/**
+	 * Retorna o saldo da conta no momento do debito.
+	 * 
+	 * @return saldo da conta.
+	 */
+	public double getSaldo() {
+		return this.saldo;
+	}
+
+	@Override
+	public String getMessage() {
+		return String.format(
 				"Saldo insuficiente! O saldo atual da conta %s eh R$%.2f",
-				numero, saldo));
+				this.numero, this.saldo);
 	}
 }
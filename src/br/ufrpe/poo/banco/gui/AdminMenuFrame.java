@@ -26,6 +26,7 @@ public class AdminMenuFrame extends JFrame {
 	private ConsultarClienteFrame consultarClienteFrame;
 	private RemoverClienteFrame removerClienteFrame;
 	private RemoverContaFrame removerContaFrame;
+	private NavegarBancoFrame navegarBancoFrame;
 
 	public static IGerencia getBanco() {
 		return banco;
@@ -39,6 +40,7 @@ public class AdminMenuFrame extends JFrame {
 	private JButton atualizarClienteButton;
 	private JButton removerClienteButton;
 	private JButton removerContaButton;
+	private JButton navegarBancoButton;
 	private GridLayout gridLayout;
 	//teste commit
 
@@ -73,7 +75,7 @@ public class AdminMenuFrame extends JFrame {
 		this.setTitle("Gerencia Banco");
 		this.setResizable(false);
 		this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
-		this.setBounds(0, 0, 500, 200);
+		this.setBounds(0, 0, 640, 200);
 		this.setLocationRelativeTo(null);
 		this.setContentPane(getPanelGerenciaMenu());
 	}
@@ -88,6 +90,7 @@ public class AdminMenuFrame extends JFrame {
 			this.panelGerenciaMenu.add(getAtualizarClienteButton());
 			this.panelGerenciaMenu.add(getRemoverClienteButton());
 			this.panelGerenciaMenu.add(getRemoverContaButton());
+			this.panelGerenciaMenu.add(getNavegarBancoButton());
 		}
 		return this.panelGerenciaMenu;
 	}
@@ -189,9 +192,26 @@ public class AdminMenuFrame extends JFrame {
 		return this.removerContaButton;
 	}
 
+	private JButton getNavegarBancoButton() {
+		if (this.navegarBancoButton == null) {
+			this.navegarBancoButton = new JButton();
+			this.navegarBancoButton.setText("Listar Clientes e Contas");
+			this.navegarBancoButton.addActionListener(new ActionListener() {
+
+				@Override
+				public void actionPerformed(ActionEvent arg0) {
+					navegarBancoFrame = NavegarBancoFrame
+							.getInstanceNavegarBancoFrame();
+					navegarBancoFrame.setVisible(true);
+				}
+			});
+		}
+		return this.navegarBancoButton;
+	}
+
 	private GridLayout getGridLayout() {
 		if (this.gridLayout == null) {
-			this.gridLayout = new GridLayout(2, 3, 5, 5);
+			this.gridLayout = new GridLayout(2, 4, 5, 5);
 		}
 		return this.gridLayout;
 	}
@@ -220,4 +240,8 @@ public class AdminMenuFrame extends JFrame {
 		return removerContaFrame;
 	}
 
+	public NavegarBancoFrame getNavegarBancoFrame() {
+		return navegarBancoFrame;
+	}
+
 }
@@ -18,11 +18,6 @@ import javax.swing.JTextField;
 import javax.swing.WindowConstants;
 
 import br.ufrpe.poo.banco.exceptions.CampoVazioException;
-import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
-import br.ufrpe.poo.banco.exceptions.ClienteNaoCadastradoException;
-import br.ufrpe.poo.banco.exceptions.ContaJaAssociadaException;
-import br.ufrpe.poo.banco.exceptions.ContaJaCadastradaException;
-import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.negocio.Conta;
 import br.ufrpe.poo.banco.negocio.ContaAbstrata;
 import br.ufrpe.poo.banco.negocio.ContaEspecial;
@@ -47,6 +42,7 @@ public class AssociarContaFrame extends JFrame {
 	private JRadioButton tipoImpostoRadioButton;
 	private JLabel tipoContasLabel;
 	private ContaAbstrata tipoConta = new Conta("", 0);
+	private transient ExecutorBanco.Tarefa<?> tarefa;
 
 	public AssociarContaFrame() {
 		super();
@@ -84,6 +80,7 @@ public class AssociarContaFrame extends JFrame {
 
 			@Override
 			public void windowClosed(WindowEvent e) {
+				cancelarTarefa();
 				esvaziarCampos();
 			}
 
@@ -167,24 +164,25 @@ public class AssociarContaFrame extends JFrame {
 						if (numeroConta.equals(""))
 							throw new CampoVazioException("numero da conta");
 
-						AdminMenuFrame.banco.associarConta(cpf, numeroConta);
-
-						tipoConta.setNumero(numeroConta);
-						tipoConta.setSaldo(0);
-
-						AdminMenuFrame.banco.cadastrar(tipoConta);
-
-						JOptionPane.showMessageDialog(null,
-								"Conta associada ao cliente com sucesso!",
-								"Sucesso", JOptionPane.INFORMATION_MESSAGE);
-						System.out.println(tipoConta.getClass());
-						esvaziarCampos();
-					} catch (ClienteNaoCadastradoException
-							| ClienteJaPossuiContaException
-							| ContaJaAssociadaException | RepositorioException
-							| ContaJaCadastradaException e) {
-						JOptionPane.showMessageDialog(null, e.getMessage(),
-								"Erro", JOptionPane.ERROR_MESSAGE);
+						ContaAbstrata conta = tipoConta;
+						conta.setNumero(numeroConta);
+						conta.setSaldo(0);
+
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								AssociarContaFrame.this, () -> {
+									AdminMenuFrame.banco.associarConta(cpf,
+											numeroConta);
+									AdminMenuFrame.banco.cadastrar(conta);
+								}, () -> {
+									JOptionPane.showMessageDialog(null,
+											"Conta associada ao cliente com sucesso!",
+											"Sucesso",
+											JOptionPane.INFORMATION_MESSAGE);
+									esvaziarCampos();
+								}, e -> JOptionPane.showMessageDialog(null,
+										e.getMessage(), "Erro",
+										JOptionPane.ERROR_MESSAGE),
+								associarContaButton);
 					} catch (CampoVazioException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Alerta", JOptionPane.WARNING_MESSAGE);
@@ -204,6 +202,7 @@ public class AssociarContaFrame extends JFrame {
 
 				@Override
 				public void actionPerformed(ActionEvent arg0) {
+					cancelarTarefa();
 					esvaziarCampos();
 					setVisible(false);
 				}
@@ -297,6 +296,11 @@ public class AssociarContaFrame extends JFrame {
 		}
 	}
 
+	private void cancelarTarefa() {
+		if (this.tarefa != null)
+			this.tarefa.cancelar();
+	}
+
 	private void esvaziarCampos() {
 		getCpfClienteTextField().setText("");
 		getNumeroContaTextField().setText("");
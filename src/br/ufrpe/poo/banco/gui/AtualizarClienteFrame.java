@@ -15,10 +15,8 @@ import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.WindowConstants;
 
-import br.ufrpe.poo.banco.exceptions.AtualizacaoNaoRealizadaException;
 import br.ufrpe.poo.banco.exceptions.CampoVazioException;
 import br.ufrpe.poo.banco.exceptions.ClienteNaoCadastradoException;
-import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.negocio.Cliente;
 
 public class AtualizarClienteFrame extends JFrame {
@@ -32,6 +30,7 @@ public class AtualizarClienteFrame extends JFrame {
 	private JButton cancelarButton;
 	private JTextField novoNomeClienteTextField;
 	private JLabel novoNomeClienteLabel;
+	private transient ExecutorBanco.Tarefa<?> tarefa;
 
 	public AtualizarClienteFrame() {
 		super();
@@ -142,20 +141,22 @@ public class AtualizarClienteFrame extends JFrame {
 										.getText();
 								verificarCampoVazio(novoNome, "Novo nome");
 
-								cliente.setNome(novoNome);
-
-								AdminMenuFrame.banco.atualizarCliente(cliente);
-
-								JOptionPane.showMessageDialog(null,
-										"Cliente atualizado com suceso!");
-								esvaziarCampos();
-								getFormularioDadosClienteTextArea().setText(
-										"Dados:\n\n" + cliente.toString());
-							} catch (RepositorioException
-									| AtualizacaoNaoRealizadaException e) {
-								JOptionPane.showMessageDialog(null,
-										e.getMessage(), "Erro",
-										JOptionPane.ERROR_MESSAGE);
+								tarefa = ExecutorBanco.getPadrao().executarAcao(
+										AtualizarClienteFrame.this, () -> {
+											cliente.setNome(novoNome);
+											AdminMenuFrame.banco
+													.atualizarCliente(cliente);
+										}, () -> {
+											JOptionPane.showMessageDialog(null,
+													"Cliente atualizado com suceso!");
+											esvaziarCampos();
+											getFormularioDadosClienteTextArea()
+													.setText("Dados:\n\n"
+															+ cliente.toString());
+										}, e -> JOptionPane.showMessageDialog(
+												null, e.getMessage(), "Erro",
+												JOptionPane.ERROR_MESSAGE),
+										submeterNovoClienteButton);
 							} catch (CampoVazioException e) {
 								JOptionPane.showMessageDialog(null,
 										e.getMessage(), "Alerta",
@@ -176,6 +177,7 @@ public class AtualizarClienteFrame extends JFrame {
 
 				@Override
 				public void actionPerformed(ActionEvent arg0) {
+					cancelarTarefa();
 					esvaziarCampos();
 					getFormularioDadosClienteTextArea().setText("Dados:\n\n");
 					AtualizarClienteFrame.this.setVisible(false);
@@ -208,6 +210,11 @@ public class AtualizarClienteFrame extends JFrame {
 			throw new CampoVazioException(valor);
 	}
 
+	private void cancelarTarefa() {
+		if (this.tarefa != null)
+			this.tarefa.cancelar();
+	}
+
 	private void esvaziarCampos() {
 		getNovoNomeClienteTextField().setText("");
 		getFormularioDadosClienteTextArea().setText("");
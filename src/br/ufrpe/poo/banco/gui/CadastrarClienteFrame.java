@@ -21,7 +21,6 @@ import br.ufrpe.poo.banco.exceptions.CampoVazioException;
 import br.ufrpe.poo.banco.exceptions.ClienteJaCadastradoException;
 import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
 import br.ufrpe.poo.banco.exceptions.ContaJaCadastradaException;
-import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.negocio.Cliente;
 import br.ufrpe.poo.banco.negocio.Conta;
 import br.ufrpe.poo.banco.negocio.ContaAbstrata;
@@ -51,6 +50,7 @@ public class CadastrarClienteFrame extends JFrame {
 	private JRadioButton tipoImpostoRadioButton;
 	private JLabel tipoContaLabel;
 	private ContaAbstrata tipoConta = new Conta("", 0);
+	private transient ExecutorBanco.Tarefa<?> tarefa;
 
 	public static CadastrarClienteFrame getInstanceCadastroClienteFrame() {
 		if (instanceCadastroClienteFrame == null) {
@@ -95,6 +95,7 @@ public class CadastrarClienteFrame extends JFrame {
 
 			@Override
 			public void windowClosed(WindowEvent e) {
+				cancelarTarefa();
 				esvaziarCampos();
 			}
 
@@ -196,27 +197,34 @@ public class CadastrarClienteFrame extends JFrame {
 						String numeroConta = getContaTextField().getText();
 						verificarCampoVazio(numeroConta, "Numero da Conta");
 
-						if (AdminMenuFrame.banco.procurarCliente(cpf) != null)
-							throw new ClienteJaCadastradoException();
-						if (AdminMenuFrame.banco.procurarConta(numeroConta) != null)
-							throw new ContaJaCadastradaException();
-
-						tipoConta.setNumero(numeroConta);
-						tipoConta.setSaldo(0);
+						ContaAbstrata conta = tipoConta;
+						conta.setNumero(numeroConta);
+						conta.setSaldo(0);
 
 						Cliente cliente = new Cliente(nome, cpf);
 
 						cliente.adicionarConta(numeroConta);
-						AdminMenuFrame.banco.cadastrar(tipoConta);
-						AdminMenuFrame.banco.cadastrarCliente(cliente);
-
-						JOptionPane.showMessageDialog(null,
-								"Cliente cadastrado com sucesso!", "Sucesso",
-								JOptionPane.INFORMATION_MESSAGE);
-						esvaziarCampos();
-					} catch (ClienteJaCadastradoException
-							| ContaJaCadastradaException | RepositorioException
-							| ClienteJaPossuiContaException e) {
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								CadastrarClienteFrame.this, () -> {
+									if (AdminMenuFrame.banco
+											.procurarCliente(cpf) != null)
+										throw new ClienteJaCadastradoException();
+									if (AdminMenuFrame.banco
+											.procurarConta(numeroConta) != null)
+										throw new ContaJaCadastradaException();
+									AdminMenuFrame.banco.cadastrar(conta);
+									AdminMenuFrame.banco.cadastrarCliente(cliente);
+								}, () -> {
+									JOptionPane.showMessageDialog(null,
+											"Cliente cadastrado com sucesso!",
+											"Sucesso",
+											JOptionPane.INFORMATION_MESSAGE);
+									esvaziarCampos();
+								}, e -> JOptionPane.showMessageDialog(null,
+										e.getMessage(), "Erro",
+										JOptionPane.ERROR_MESSAGE),
+								submeterCadastroButton);
+					} catch (ClienteJaPossuiContaException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Erro", JOptionPane.ERROR_MESSAGE);
 					} catch (CampoVazioException e) {
@@ -259,6 +267,7 @@ public class CadastrarClienteFrame extends JFrame {
 
 				@Override
 				public void actionPerformed(ActionEvent arg0) {
+					cancelarTarefa();
 					esvaziarCampos();
 					setVisible(false);
 				}
@@ -352,6 +361,11 @@ public class CadastrarClienteFrame extends JFrame {
 		}
 	}
 
+	private void cancelarTarefa() {
+		if (this.tarefa != null)
+			this.tarefa.cancelar();
+	}
+
 	private void esvaziarCampos() {
 		this.getNomeTextField().setText("");
 		this.getCpfTextField().setText("");
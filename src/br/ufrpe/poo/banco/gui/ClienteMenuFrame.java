@@ -16,9 +16,7 @@ import br.ufrpe.poo.banco.exceptions.ClienteNaoPossuiContaException;
 import br.ufrpe.poo.banco.exceptions.ContaNaoEncontradaException;
 import br.ufrpe.poo.banco.exceptions.ContasOrigemDestinoIguaisException;
 import br.ufrpe.poo.banco.exceptions.EntradaInvalidaException;
-import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
-import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
 import br.ufrpe.poo.banco.negocio.Cliente;
 import br.ufrpe.poo.banco.negocio.ContaAbstrata;
 
@@ -34,6 +32,7 @@ public class ClienteMenuFrame extends JFrame {
 	private Cliente cliente;
 	private JTextArea formularioContasClienteTextArea;
 	private JScrollPane formularioContasClienteScrollPane;
+	private transient ExecutorBanco.Tarefa<?> tarefa;
 
 	public ClienteMenuFrame() {
 		super();
@@ -179,20 +178,22 @@ public class ClienteMenuFrame extends JFrame {
 
 						double valor2 = Double.parseDouble(valor);
 
-						AppletClienteMenuFrame.banco.transferir(contaOrigem,
-								contaDestino, valor2);
-
-						JOptionPane.showMessageDialog(null,
-								"Transferencia realizada com sucesso!",
-								"Sucesso", JOptionPane.INFORMATION_MESSAGE);
-					} catch (EntradaInvalidaException | RepositorioException
-							| ContasOrigemDestinoIguaisException
-							| ValorInvalidoException e) {
+						ContaAbstrata origem = contaOrigem;
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								ClienteMenuFrame.this,
+								() -> AppletClienteMenuFrame.banco.transferir(
+										origem, contaDestino, valor2),
+								() -> JOptionPane.showMessageDialog(null,
+										"Transferencia realizada com sucesso!",
+										"Sucesso",
+										JOptionPane.INFORMATION_MESSAGE),
+								e -> mostrarFalha(e), transferirButton);
+					} catch (EntradaInvalidaException
+							| ContasOrigemDestinoIguaisException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Erro", JOptionPane.ERROR_MESSAGE);
 					} catch (ContaNaoEncontradaException
-							| ClienteNaoPossuiContaException
-							| SaldoInsuficienteException e) {
+							| ClienteNaoPossuiContaException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Alerta", JOptionPane.WARNING_MESSAGE);
 					}
@@ -235,14 +236,17 @@ public class ClienteMenuFrame extends JFrame {
 
 						double valor2 = Double.parseDouble(valor);
 
-						AppletClienteMenuFrame.banco.creditar(achouConta,
-								valor2);
-
-						JOptionPane.showMessageDialog(null,
-								"Deposito realizado com sucesso!", "Sucesso",
-								JOptionPane.INFORMATION_MESSAGE);
-					} catch (EntradaInvalidaException | RepositorioException
-							| ValorInvalidoException e) {
+						ContaAbstrata conta = achouConta;
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								ClienteMenuFrame.this,
+								() -> AppletClienteMenuFrame.banco.creditar(
+										conta, valor2),
+								() -> JOptionPane.showMessageDialog(null,
+										"Deposito realizado com sucesso!",
+										"Sucesso",
+										JOptionPane.INFORMATION_MESSAGE),
+								e -> mostrarFalha(e), creditarButton);
+					} catch (EntradaInvalidaException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Erro", JOptionPane.ERROR_MESSAGE);
 					} catch (ClienteNaoPossuiContaException e) {
@@ -286,18 +290,20 @@ public class ClienteMenuFrame extends JFrame {
 							throw new EntradaInvalidaException();
 						double valor2 = Double.parseDouble(valor);
 
-						AppletClienteMenuFrame.banco
-								.debitar(achouConta, valor2);
-
-						JOptionPane.showMessageDialog(null,
-								"Saque realizado com sucesso!", "Sucesso",
-								JOptionPane.INFORMATION_MESSAGE);
-					} catch (EntradaInvalidaException | RepositorioException
-							| ValorInvalidoException e) {
+						ContaAbstrata conta = achouConta;
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								ClienteMenuFrame.this,
+								() -> AppletClienteMenuFrame.banco.debitar(
+										conta, valor2),
+								() -> JOptionPane.showMessageDialog(null,
+										"Saque realizado com sucesso!",
+										"Sucesso",
+										JOptionPane.INFORMATION_MESSAGE),
+								e -> mostrarFalha(e), saqueButton);
+					} catch (EntradaInvalidaException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Erro", JOptionPane.ERROR_MESSAGE);
-					} catch (ClienteNaoPossuiContaException
-							| SaldoInsuficienteException e) {
+					} catch (ClienteNaoPossuiContaException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Alerta", JOptionPane.WARNING_MESSAGE);
 					}
@@ -307,6 +313,19 @@ public class ClienteMenuFrame extends JFrame {
 		return this.saqueButton;
 	}
 
+	/**
+	 * Mostra o erro de uma operacao executada fora da EDT.
+	 */
+	private void mostrarFalha(Exception e) {
+		if (e instanceof SaldoInsuficienteException
+				|| e instanceof ContaNaoEncontradaException)
+			JOptionPane.showMessageDialog(null, e.getMessage(), "Alerta",
+					JOptionPane.WARNING_MESSAGE);
+		else
+			JOptionPane.showMessageDialog(null, e.getMessage(), "Erro",
+					JOptionPane.ERROR_MESSAGE);
+	}
+
 	private JButton getExitButton() {
 		if (this.exitButton == null) {
 			this.exitButton = new JButton();
@@ -315,6 +334,8 @@ public class ClienteMenuFrame extends JFrame {
 
 				@Override
 				public void actionPerformed(ActionEvent arg0) {
+					if (tarefa != null)
+						tarefa.cancelar();
 					ClienteMenuFrame.this.setVisible(false);
 				}
 			});
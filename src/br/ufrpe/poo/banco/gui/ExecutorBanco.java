@@ -0,0 +1,312 @@
+package br.ufrpe.poo.banco.gui;
+
+import java.awt.Component;
+import java.awt.Cursor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * Executa as operacoes do banco fora da thread de eventos do Swing (EDT).
+ *
+ * As operacoes que alteram o banco regravam os arquivos de dados e podem
+ * demorar em bancos grandes. Executadas em <code>actionPerformed</code>, elas
+ * congelariam todas as janelas. Com <code>executar</code>, a operacao roda numa
+ * thread do pool e o resultado, ou o erro, eh tratado de volta na EDT.
+ * Enquanto a operacao esta em andamento, a janela mostra o cursor de espera e
+ * os componentes indicados ficam desabilitados, o que evita que a mesma
+ * operacao seja enviada duas vezes.
+ *
+ * Uso num <code>actionPerformed</code>:
+ *
+ * <pre>
+ * this.tarefa = ExecutorBanco.getPadrao().executarAcao(this,
+ * 		() -&gt; banco.removerCliente(cpf),
+ * 		() -&gt; mostrarSucesso(),
+ * 		erro -&gt; mostrarErro(erro), removerButton);
+ * </pre>
+ */
+public class ExecutorBanco {
+
+	/**
+	 * Operacao executada numa thread do pool.
+	 *
+	 * @param <T>
+	 *            tipo do resultado.
+	 */
+	public interface Operacao<T> {
+
+		/**
+		 * Executa a operacao.
+		 *
+		 * @return resultado da operacao.
+		 * @throws Exception
+		 *             erro repassado para o tratamento de falha.
+		 */
+		T executar() throws Exception;
+	}
+
+	/**
+	 * Operacao sem resultado executada numa thread do pool.
+	 */
+	public interface Acao {
+
+		/**
+		 * Executa a operacao.
+		 *
+		 * @throws Exception
+		 *             erro repassado para o tratamento de falha.
+		 */
+		void executar() throws Exception;
+	}
+
+	/**
+	 * Tratamento do resultado de uma operacao, executado na EDT.
+	 *
+	 * @param <T>
+	 *            tipo do resultado.
+	 */
+	public interface Sucesso<T> {
+
+		/**
+		 * Aplica o resultado na interface.
+		 *
+		 * @param resultado
+		 *            resultado da operacao.
+		 */
+		void aplicar(T resultado);
+	}
+
+	/**
+	 * Tratamento do erro de uma operacao, executado na EDT.
+	 */
+	public interface Falha {
+
+		/**
+		 * Mostra o erro na interface.
+		 *
+		 * @param erro
+		 *            excecao lancada pela operacao.
+		 */
+		void tratar(Exception erro);
+	}
+
+	/** Quantidade de threads do executor padrao. */
+	public static final int THREADS_PADRAO = 2;
+
+	/** Executor usado pelas janelas. */
+	private static final ExecutorBanco PADRAO = new ExecutorBanco(
+			THREADS_PADRAO);
+
+	/** Threads que executam as operacoes. */
+	private final ExecutorService pool;
+
+	/** Quantidade de operacoes em andamento. */
+	private final AtomicInteger emAndamento = new AtomicInteger();
+
+	/**
+	 * Cria um executor.
+	 *
+	 * @param threads
+	 *            quantidade de threads do pool.
+	 */
+	public ExecutorBanco(int threads) {
+		AtomicInteger contador = new AtomicInteger();
+		this.pool = Executors.newFixedThreadPool(threads, tarefa -> {
+			Thread thread = new Thread(tarefa, "gui-banco-"
+					+ contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Retorna o executor usado pelas janelas.
+	 *
+	 * @return executor padrao.
+	 */
+	public static ExecutorBanco getPadrao() {
+		return PADRAO;
+	}
+
+	/**
+	 * Executa uma operacao numa thread do pool. Deve ser chamado na EDT.
+	 *
+	 * @param janela
+	 *            componente que mostra o cursor de espera, ou
+	 *            <code>null</code>.
+	 * @param operacao
+	 *            operacao executada fora da EDT.
+	 * @param sucesso
+	 *            tratamento do resultado, executado na EDT.
+	 * @param falha
+	 *            tratamento do erro, executado na EDT.
+	 * @param bloqueados
+	 *            componentes desabilitados enquanto a operacao esta em
+	 *            andamento.
+	 * @return tarefa, que pode ser cancelada.
+	 */
+	public <T> Tarefa<T> executar(Component janela, Operacao<T> operacao,
+			Sucesso<? super T> sucesso, Falha falha, Component... bloqueados) {
+		Tarefa<T> tarefa = new Tarefa<T>(this, janela, operacao, sucesso,
+				falha, bloqueados);
+		this.emAndamento.incrementAndGet();
+		this.pool.execute(tarefa);
+		return tarefa;
+	}
+
+	/**
+	 * Executa uma operacao sem resultado numa thread do pool. Deve ser
+	 * chamado na EDT.
+	 *
+	 * @param janela
+	 *            componente que mostra o cursor de espera, ou
+	 *            <code>null</code>.
+	 * @param acao
+	 *            operacao executada fora da EDT.
+	 * @param sucesso
+	 *            tratamento do termino, executado na EDT.
+	 * @param falha
+	 *            tratamento do erro, executado na EDT.
+	 * @param bloqueados
+	 *            componentes desabilitados enquanto a operacao esta em
+	 *            andamento.
+	 * @return tarefa, que pode ser cancelada.
+	 */
+	public Tarefa<Void> executarAcao(Component janela, Acao acao,
+			Runnable sucesso, Falha falha, Component... bloqueados) {
+		return this.executar(janela, () -> {
+			acao.executar();
+			return null;
+		}, resultado -> sucesso.run(), falha, bloqueados);
+	}
+
+	/**
+	 * Retorna a quantidade de operacoes enviadas e ainda nao terminadas nem
+	 * canceladas.
+	 *
+	 * @return operacoes em andamento.
+	 */
+	public int getEmAndamento() {
+		return this.emAndamento.get();
+	}
+
+	/**
+	 * Operacao enviada ao executor.
+	 *
+	 * @param <T>
+	 *            tipo do resultado.
+	 */
+	public static class Tarefa<T> extends SwingWorker<T, Void> {
+
+		private final ExecutorBanco executor;
+
+		private final Component janela;
+
+		private final Operacao<T> operacao;
+
+		private final Sucesso<? super T> sucesso;
+
+		private final Falha falha;
+
+		private final Component[] bloqueados;
+
+		/** Estado de cada componente antes de ser desabilitado. */
+		private final boolean[] habilitados;
+
+		/** Cursor da janela antes do cursor de espera. */
+		private final Cursor cursor;
+
+		/** Indica se os indicadores ja foram restaurados. */
+		private boolean restaurada;
+
+		Tarefa(ExecutorBanco executor, Component janela, Operacao<T> operacao,
+				Sucesso<? super T> sucesso, Falha falha, Component[] bloqueados) {
+			this.executor = executor;
+			this.janela = janela;
+			this.operacao = operacao;
+			this.sucesso = sucesso;
+			this.falha = falha;
+			this.bloqueados = bloqueados;
+			this.habilitados = new boolean[bloqueados.length];
+			for (int i = 0; i < bloqueados.length; i++) {
+				this.habilitados[i] = bloqueados[i].isEnabled();
+				bloqueados[i].setEnabled(false);
+			}
+			if (janela != null) {
+				this.cursor = janela.getCursor();
+				janela.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+			} else {
+				this.cursor = null;
+			}
+		}
+
+		@Override
+		protected T doInBackground() throws Exception {
+			return this.operacao.executar();
+		}
+
+		@Override
+		protected void done() {
+			this.restaurar();
+			if (this.isCancelled())
+				return;
+			try {
+				this.sucesso.aplicar(this.get());
+			} catch (ExecutionException e) {
+				Throwable causa = e.getCause();
+				if (causa instanceof Exception)
+					this.falha.tratar((Exception) causa);
+				else
+					throw (Error) causa;
+			} catch (InterruptedException e) {
+				// done eh chamado depois do termino: get nao espera
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Restaura o cursor e os componentes desabilitados.
+		 */
+		private void restaurar() {
+			if (this.restaurada)
+				return;
+			this.restaurada = true;
+			this.executor.emAndamento.decrementAndGet();
+			for (int i = 0; i < this.bloqueados.length; i++) {
+				this.bloqueados[i].setEnabled(this.habilitados[i]);
+			}
+			if (this.janela != null)
+				this.janela.setCursor(this.cursor);
+		}
+
+		/**
+		 * Cancela a tarefa e restaura a janela imediatamente. Uma operacao que
+		 * ainda nao comecou nao eh executada. Uma operacao ja em andamento nao
+		 * eh interrompida, pois interromper uma gravacao deixaria o arquivo
+		 * diferente da memoria: ela termina em segundo plano e o seu resultado
+		 * eh descartado. Deve ser chamado na EDT.
+		 *
+		 * @return se a tarefa foi cancelada antes de terminar.
+		 */
+		public boolean cancelar() {
+			boolean cancelada = this.cancel(false);
+			if (cancelada && SwingUtilities.isEventDispatchThread())
+				this.restaurar();
+			return cancelada;
+		}
+
+		/**
+		 * Indica se a tarefa ainda nao terminou nem foi cancelada.
+		 *
+		 * @return se a tarefa esta em andamento.
+		 */
+		public boolean isEmAndamento() {
+			return !this.isDone();
+		}
+	}
+}
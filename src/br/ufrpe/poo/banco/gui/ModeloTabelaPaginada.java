@@ -0,0 +1,196 @@
+package br.ufrpe.poo.banco.gui;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import br.ufrpe.poo.banco.dados.Pagina;
+
+/**
+ * Modelo de tabela que busca as linhas sob demanda, uma pagina por vez.
+ *
+ * A <code>JTable</code> so pede os valores das linhas visiveis, entao apenas
+ * as paginas que aparecem na tela sao buscadas. As ultimas paginas usadas
+ * ficam em memoria para que a rolagem nao busque a mesma pagina a cada
+ * repintura; as demais sao descartadas. Assim a memoria e o tempo de
+ * desenho dependem das linhas visiveis e nao do tamanho do banco.
+ *
+ * As paginas sao buscadas na EDT. Como a busca so copia as referencias de uma
+ * pagina do repositorio em memoria, ela custa o mesmo que desenhar as linhas.
+ *
+ * @param <T>
+ *            tipo dos itens de cada linha.
+ */
+public abstract class ModeloTabelaPaginada<T> extends AbstractTableModel {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Quantidade padrao de linhas por pagina. */
+	public static final int TAMANHO_PAGINA_PADRAO = 100;
+
+	/** Quantidade padrao de paginas mantidas em memoria. */
+	public static final int PAGINAS_EM_MEMORIA_PADRAO = 4;
+
+	/** Nomes das colunas. */
+	private final String[] colunas;
+
+	/** Quantidade de linhas por pagina. */
+	private final int tamanhoPagina;
+
+	/** Ultimas paginas usadas, da menos para a mais recente. */
+	private final Map<Integer, List<T>> paginas;
+
+	/** Quantidade de linhas, ou -1 se ainda nao foi buscada. */
+	private int total = -1;
+
+	/** Quantidade de paginas buscadas. */
+	private long buscas;
+
+	/**
+	 * Cria o modelo.
+	 *
+	 * @param colunas
+	 *            nomes das colunas.
+	 * @param tamanhoPagina
+	 *            quantidade de linhas por pagina.
+	 * @param paginasEmMemoria
+	 *            quantidade de paginas mantidas em memoria.
+	 */
+	protected ModeloTabelaPaginada(String[] colunas, int tamanhoPagina,
+			int paginasEmMemoria) {
+		if (tamanhoPagina < 1 || paginasEmMemoria < 1)
+			throw new IllegalArgumentException();
+		this.colunas = colunas.clone();
+		this.tamanhoPagina = tamanhoPagina;
+		this.paginas = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Integer, List<T>> maisAntiga) {
+				return this.size() > paginasEmMemoria;
+			}
+		};
+	}
+
+	/**
+	 * Busca uma pagina de itens.
+	 *
+	 * @param cursor
+	 *            posicao do primeiro item.
+	 * @param tamanho
+	 *            quantidade maxima de itens.
+	 * @return pagina de itens.
+	 */
+	protected abstract Pagina<T> buscar(int cursor, int tamanho);
+
+	/**
+	 * Retorna o valor de uma coluna para um item.
+	 *
+	 * @param item
+	 *            item da linha.
+	 * @param coluna
+	 *            indice da coluna.
+	 * @return valor mostrado na celula.
+	 */
+	protected abstract Object getValor(T item, int coluna);
+
+	@Override
+	public int getRowCount() {
+		if (this.total < 0)
+			this.getPagina(0);
+		return this.total;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return this.colunas.length;
+	}
+
+	@Override
+	public String getColumnName(int coluna) {
+		return this.colunas[coluna];
+	}
+
+	@Override
+	public Object getValueAt(int linha, int coluna) {
+		T item = this.getItem(linha);
+		return item == null ? null : this.getValor(item, coluna);
+	}
+
+	/**
+	 * Retorna o item de uma linha, buscando a sua pagina se necessario.
+	 *
+	 * @param linha
+	 *            indice da linha.
+	 * @return item ou <code>null</code> se a linha nao existe mais.
+	 */
+	public T getItem(int linha) {
+		List<T> itens = this.getPagina(linha / this.tamanhoPagina);
+		int i = linha % this.tamanhoPagina;
+		return i < itens.size() ? itens.get(i) : null;
+	}
+
+	/**
+	 * Retorna uma pagina, da memoria ou buscando-a.
+	 */
+	private List<T> getPagina(int numero) {
+		List<T> itens = this.paginas.get(numero);
+		if (itens != null)
+			return itens;
+		Pagina<T> pagina = this.buscar(numero * this.tamanhoPagina,
+				this.tamanhoPagina);
+		this.buscas = this.buscas + 1;
+		if (pagina.getTotal() != this.total) {
+			// as paginas guardadas podem ter mudado de posicao
+			boolean conhecido = this.total >= 0;
+			this.paginas.clear();
+			this.total = pagina.getTotal();
+			if (conhecido)
+				SwingUtilities.invokeLater(this::fireTableDataChanged);
+		}
+		this.paginas.put(numero, pagina.getItens());
+		return pagina.getItens();
+	}
+
+	/**
+	 * Descarta as paginas em memoria e redesenha a tabela, que busca de novo
+	 * as linhas visiveis.
+	 */
+	public void atualizar() {
+		this.paginas.clear();
+		this.total = -1;
+		this.fireTableDataChanged();
+	}
+
+	/**
+	 * Retorna a quantidade de linhas por pagina.
+	 *
+	 * @return linhas por pagina.
+	 */
+	public int getTamanhoPagina() {
+		return this.tamanhoPagina;
+	}
+
+	/**
+	 * Retorna a quantidade de paginas em memoria.
+	 *
+	 * @return paginas em memoria.
+	 */
+	public int getPaginasEmMemoria() {
+		return this.paginas.size();
+	}
+
+	/**
+	 * Retorna a quantidade de paginas buscadas desde a criacao do modelo.
+	 *
+	 * @return paginas buscadas.
+	 */
+	public long getBuscas() {
+		return this.buscas;
+	}
+}
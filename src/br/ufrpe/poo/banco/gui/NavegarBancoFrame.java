@@ -0,0 +1,197 @@
+package br.ufrpe.poo.banco.gui;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.WindowConstants;
+
+import br.ufrpe.poo.banco.dados.Pagina;
+import br.ufrpe.poo.banco.negocio.Cliente;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+
+/**
+ * Janela da gerencia que lista todos os clientes e todas as contas do banco em
+ * tabelas. As linhas sao buscadas pagina por pagina, a medida que aparecem na
+ * tela (ver <code>ModeloTabelaPaginada</code>).
+ */
+public class NavegarBancoFrame extends JFrame {
+
+	private static final long serialVersionUID = 1L;
+
+	private static NavegarBancoFrame instanceNavegarBancoFrame;
+	private JTabbedPane abas;
+	private JTable clientesTable;
+	private JTable contasTable;
+	private ModeloClientes modeloClientes;
+	private ModeloContas modeloContas;
+	private JPanel botoesPanel;
+	private JButton atualizarButton;
+	private JButton fecharButton;
+
+	public static NavegarBancoFrame getInstanceNavegarBancoFrame() {
+		if (NavegarBancoFrame.instanceNavegarBancoFrame == null) {
+			NavegarBancoFrame.instanceNavegarBancoFrame = new NavegarBancoFrame();
+		}
+		return NavegarBancoFrame.instanceNavegarBancoFrame;
+	}
+
+	public NavegarBancoFrame() {
+		super();
+		initialize();
+	}
+
+	private void initialize() {
+		this.setTitle("Clientes e contas");
+		this.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+		this.setBounds(0, 0, 500, 400);
+		this.setLocationRelativeTo(null);
+		this.getContentPane().setLayout(new BorderLayout());
+		this.getContentPane().add(getAbas(), BorderLayout.CENTER);
+		this.getContentPane().add(getBotoesPanel(), BorderLayout.SOUTH);
+	}
+
+	private JTabbedPane getAbas() {
+		if (this.abas == null) {
+			this.abas = new JTabbedPane();
+			this.abas.addTab("Clientes", new JScrollPane(getClientesTable()));
+			this.abas.addTab("Contas", new JScrollPane(getContasTable()));
+		}
+		return this.abas;
+	}
+
+	private JTable getClientesTable() {
+		if (this.clientesTable == null) {
+			this.modeloClientes = new ModeloClientes();
+			this.clientesTable = new JTable(this.modeloClientes);
+		}
+		return this.clientesTable;
+	}
+
+	private JTable getContasTable() {
+		if (this.contasTable == null) {
+			this.modeloContas = new ModeloContas();
+			this.contasTable = new JTable(this.modeloContas);
+		}
+		return this.contasTable;
+	}
+
+	private JPanel getBotoesPanel() {
+		if (this.botoesPanel == null) {
+			this.botoesPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+			this.botoesPanel.add(getAtualizarButton());
+			this.botoesPanel.add(getFecharButton());
+		}
+		return this.botoesPanel;
+	}
+
+	private JButton getAtualizarButton() {
+		if (this.atualizarButton == null) {
+			this.atualizarButton = new JButton("Atualizar");
+			this.atualizarButton.addActionListener(new ActionListener() {
+
+				@Override
+				public void actionPerformed(ActionEvent arg0) {
+					atualizar();
+				}
+			});
+		}
+		return this.atualizarButton;
+	}
+
+	private JButton getFecharButton() {
+		if (this.fecharButton == null) {
+			this.fecharButton = new JButton("Fechar");
+			this.fecharButton.addActionListener(new ActionListener() {
+
+				@Override
+				public void actionPerformed(ActionEvent arg0) {
+					setVisible(false);
+				}
+			});
+		}
+		return this.fecharButton;
+	}
+
+	/**
+	 * Busca de novo as linhas visiveis das duas tabelas.
+	 */
+	public void atualizar() {
+		this.modeloClientes.atualizar();
+		this.modeloContas.atualizar();
+	}
+
+	@Override
+	public void setVisible(boolean visivel) {
+		if (visivel)
+			this.atualizar();
+		super.setVisible(visivel);
+	}
+
+	/**
+	 * Modelo da tabela de clientes.
+	 */
+	static class ModeloClientes extends ModeloTabelaPaginada<Cliente> {
+
+		private static final long serialVersionUID = 1L;
+
+		ModeloClientes() {
+			super(new String[] { "CPF", "Nome", "Contas" },
+					TAMANHO_PAGINA_PADRAO, PAGINAS_EM_MEMORIA_PADRAO);
+		}
+
+		@Override
+		protected Pagina<Cliente> buscar(int cursor, int tamanho) {
+			return AdminMenuFrame.banco.listarClientes(cursor, tamanho);
+		}
+
+		@Override
+		protected Object getValor(Cliente cliente, int coluna) {
+			switch (coluna) {
+			case 0:
+				return cliente.getCpf();
+			case 1:
+				return cliente.getNome();
+			default:
+				return cliente.getContas().size();
+			}
+		}
+	}
+
+	/**
+	 * Modelo da tabela de contas.
+	 */
+	static class ModeloContas extends ModeloTabelaPaginada<ContaAbstrata> {
+
+		private static final long serialVersionUID = 1L;
+
+		ModeloContas() {
+			super(new String[] { "Numero", "Tipo", "Saldo" },
+					TAMANHO_PAGINA_PADRAO, PAGINAS_EM_MEMORIA_PADRAO);
+		}
+
+		@Override
+		protected Pagina<ContaAbstrata> buscar(int cursor, int tamanho) {
+			return AdminMenuFrame.banco.listarContas(cursor, tamanho);
+		}
+
+		@Override
+		protected Object getValor(ContaAbstrata conta, int coluna) {
+			switch (coluna) {
+			case 0:
+				return conta.getNumero();
+			case 1:
+				return conta.getClass().getSimpleName();
+			default:
+				return conta.getSaldo();
+			}
+		}
+	}
+}
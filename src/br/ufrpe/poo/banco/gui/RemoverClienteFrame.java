@@ -13,12 +13,8 @@ import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.WindowConstants;
 
-import br.ufrpe.poo.banco.exceptions.AtualizacaoNaoRealizadaException;
 import br.ufrpe.poo.banco.exceptions.CampoVazioException;
 import br.ufrpe.poo.banco.exceptions.ClienteNaoCadastradoException;
-import br.ufrpe.poo.banco.exceptions.ClienteNaoPossuiContaException;
-import br.ufrpe.poo.banco.exceptions.ContaNaoEncontradaException;
-import br.ufrpe.poo.banco.exceptions.RepositorioException;
 
 public class RemoverClienteFrame extends JFrame {
 
@@ -30,6 +26,7 @@ public class RemoverClienteFrame extends JFrame {
 	private JButton cancelarButton;
 	private JTextField cpfClienteTextField;
 	private JLabel cpfClienteLabel;
+	private transient ExecutorBanco.Tarefa<?> tarefa;
 
 	public static RemoverClienteFrame getInstanceRemoverClienteFrame() {
 		if (RemoverClienteFrame.instanceRemoverClienteFrame == null) {
@@ -74,6 +71,7 @@ public class RemoverClienteFrame extends JFrame {
 
 			@Override
 			public void windowClosed(WindowEvent e) {
+				cancelarTarefa();
 				esvaziarCampos();
 			}
 
@@ -108,25 +106,26 @@ public class RemoverClienteFrame extends JFrame {
 						if (cpf.equals(""))
 							throw new CampoVazioException("CPF");
 
-						if (AdminMenuFrame.banco.procurarCliente(cpf) == null)
-							throw new ClienteNaoCadastradoException();
-
-						AdminMenuFrame.banco.removerCliente(cpf);
-
-						JOptionPane
-								.showMessageDialog(
-										null,
-										"Cliente removido com sucesso! Todas as contas associadas a ele tambem foram removidas!",
-										"Sucesso",
-										JOptionPane.INFORMATION_MESSAGE);
-						esvaziarCampos();
-					} catch (RepositorioException | ContaNaoEncontradaException
-							| ClienteNaoPossuiContaException
-							| AtualizacaoNaoRealizadaException
-							| ClienteNaoCadastradoException e) {
-						JOptionPane.showMessageDialog(null, e.getMessage(),
-								"Erro", JOptionPane.ERROR_MESSAGE);
-						esvaziarCampos();
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								RemoverClienteFrame.this, () -> {
+									if (AdminMenuFrame.banco
+											.procurarCliente(cpf) == null)
+										throw new ClienteNaoCadastradoException();
+									AdminMenuFrame.banco.removerCliente(cpf);
+								}, () -> {
+									JOptionPane
+											.showMessageDialog(
+													null,
+													"Cliente removido com sucesso! Todas as contas associadas a ele tambem foram removidas!",
+													"Sucesso",
+													JOptionPane.INFORMATION_MESSAGE);
+									esvaziarCampos();
+								}, e -> {
+									JOptionPane.showMessageDialog(null,
+											e.getMessage(), "Erro",
+											JOptionPane.ERROR_MESSAGE);
+									esvaziarCampos();
+								}, removerClienteButton);
 					} catch (CampoVazioException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Alerta", JOptionPane.WARNING_MESSAGE);
@@ -146,6 +145,7 @@ public class RemoverClienteFrame extends JFrame {
 
 				@Override
 				public void actionPerformed(ActionEvent arg0) {
+					cancelarTarefa();
 					esvaziarCampos();
 					setVisible(false);
 				}
@@ -171,6 +171,11 @@ public class RemoverClienteFrame extends JFrame {
 		return this.cpfClienteLabel;
 	}
 
+	private void cancelarTarefa() {
+		if (this.tarefa != null)
+			this.tarefa.cancelar();
+	}
+
 	private void esvaziarCampos() {
 		getCpfClienteTextField().setText("");
 	}
@@ -15,10 +15,7 @@ import javax.swing.WindowConstants;
 
 import br.ufrpe.poo.banco.exceptions.CampoVazioException;
 import br.ufrpe.poo.banco.exceptions.ClienteNaoCadastradoException;
-import br.ufrpe.poo.banco.exceptions.ClienteNaoPossuiContaException;
-import br.ufrpe.poo.banco.exceptions.ContaNaoEncontradaException;
 import br.ufrpe.poo.banco.exceptions.RemocaoInvalidaException;
-import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.negocio.Cliente;
 
 public class RemoverContaFrame extends JFrame {
@@ -31,6 +28,7 @@ public class RemoverContaFrame extends JFrame {
 	private JTextField numeroContaTextField;
 	private JLabel numeroContaLabel;
 	private Cliente cliente;
+	private transient ExecutorBanco.Tarefa<?> tarefa;
 
 	public RemoverContaFrame() {
 		super();
@@ -93,6 +91,7 @@ public class RemoverContaFrame extends JFrame {
 
 			@Override
 			public void windowClosed(WindowEvent e) {
+				cancelarTarefa();
 				esvaziarCampos();
 			}
 
@@ -131,14 +130,21 @@ public class RemoverContaFrame extends JFrame {
 						if (cliente.getContas().size() == 1)
 							throw new RemocaoInvalidaException();
 
-						AdminMenuFrame.banco.removerConta(cliente, numeroConta);
-						JOptionPane.showMessageDialog(null,
-								"Conta removida com sucesso!", "Sucesso",
-								JOptionPane.INFORMATION_MESSAGE);
-					} catch (ContaNaoEncontradaException
-							| RemocaoInvalidaException
-							| ClienteNaoPossuiContaException
-							| RepositorioException e) {
+						tarefa = ExecutorBanco.getPadrao().executarAcao(
+								RemoverContaFrame.this,
+								() -> AdminMenuFrame.banco.removerConta(cliente,
+										numeroConta),
+								() -> JOptionPane.showMessageDialog(null,
+										"Conta removida com sucesso!",
+										"Sucesso",
+										JOptionPane.INFORMATION_MESSAGE),
+								e -> {
+									JOptionPane.showMessageDialog(null,
+											e.getMessage(), "Erro",
+											JOptionPane.ERROR_MESSAGE);
+									esvaziarCampos();
+								}, removerContaButton);
+					} catch (RemocaoInvalidaException e) {
 						JOptionPane.showMessageDialog(null, e.getMessage(),
 								"Erro", JOptionPane.ERROR_MESSAGE);
 						esvaziarCampos();
@@ -160,6 +166,7 @@ public class RemoverContaFrame extends JFrame {
 
 				@Override
 				public void actionPerformed(ActionEvent arg0) {
+					cancelarTarefa();
 					esvaziarCampos();
 					setVisible(false);
 				}
@@ -185,6 +192,11 @@ public class RemoverContaFrame extends JFrame {
 		return this.numeroContaLabel;
 	}
 
+	private void cancelarTarefa() {
+		if (this.tarefa != null)
+			this.tarefa.cancelar();
+	}
+
 	private void esvaziarCampos() {
 		getNumeroContaTextField().setText("");
 	}
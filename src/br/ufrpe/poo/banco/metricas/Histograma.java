@@ -0,0 +1,153 @@
+package br.ufrpe.poo.banco.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias com precisao relativa fixa, no estilo do
+ * HdrHistogram.
+ *
+ * Valores ate 127 tem uma faixa cada. Acima disso, cada potencia de dois eh
+ * dividida em 64 faixas iguais, de modo que o erro de qualquer percentil eh
+ * menor que 1/64 (1,6%) do valor. Registrar um valor eh um incremento num
+ * contador atomico, sem travas e sem alocacao, e pode ser feito por varias
+ * threads ao mesmo tempo. Valores a partir de 2^41 (cerca de 36 minutos em
+ * nanossegundos) sao registrados na ultima faixa.
+ */
+public class Histograma {
+
+	/** Bits de precisao de cada potencia de dois. */
+	private static final int BITS_SUBFAIXA = 6;
+
+	/** Quantidade de faixas por potencia de dois. */
+	private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+	/** Maior deslocamento representado. */
+	private static final int DESLOCAMENTO_MAXIMO = 40 - BITS_SUBFAIXA;
+
+	/** Quantidade de faixas. */
+	private static final int FAIXAS = 2 * SUBFAIXAS + DESLOCAMENTO_MAXIMO
+			* SUBFAIXAS;
+
+	/** Contagem de valores por faixa. */
+	private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+
+	/** Quantidade de valores registrados. */
+	private final LongAdder total = new LongAdder();
+
+	/** Soma dos valores registrados. */
+	private final LongAdder soma = new LongAdder();
+
+	/** Maior valor registrado. */
+	private final AtomicLong maximo = new AtomicLong();
+
+	/**
+	 * Retorna a faixa de um valor.
+	 */
+	static int faixa(long valor) {
+		if (valor < 2 * SUBFAIXAS)
+			return (int) Math.max(valor, 0);
+		int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBFAIXA;
+		if (deslocamento > DESLOCAMENTO_MAXIMO)
+			return FAIXAS - 1;
+		return 2 * SUBFAIXAS + (deslocamento - 1) * SUBFAIXAS
+				+ (int) (valor >>> deslocamento) - SUBFAIXAS;
+	}
+
+	/**
+	 * Retorna o maior valor contido numa faixa.
+	 */
+	static long limiteSuperior(int faixa) {
+		if (faixa < 2 * SUBFAIXAS)
+			return faixa;
+		int deslocamento = (faixa - 2 * SUBFAIXAS) / SUBFAIXAS + 1;
+		long inicio = (long) ((faixa - 2 * SUBFAIXAS) % SUBFAIXAS
+				+ SUBFAIXAS) << deslocamento;
+		return inicio + (1L << deslocamento) - 1;
+	}
+
+	/**
+	 * Registra um valor.
+	 *
+	 * @param valor
+	 *            valor a ser registrado, normalmente em nanossegundos.
+	 */
+	public void registrar(long valor) {
+		this.contagens.incrementAndGet(faixa(valor));
+		this.total.increment();
+		this.soma.add(valor);
+		long atual = this.maximo.get();
+		while (valor > atual && !this.maximo.compareAndSet(atual, valor)) {
+			atual = this.maximo.get();
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de valores registrados.
+	 *
+	 * @return quantidade de valores.
+	 */
+	public long getTotal() {
+		return this.total.sum();
+	}
+
+	/**
+	 * Retorna o maior valor registrado.
+	 *
+	 * @return maior valor, ou 0 se nenhum valor foi registrado.
+	 */
+	public long getMaximo() {
+		return this.maximo.get();
+	}
+
+	/**
+	 * Retorna a media dos valores registrados.
+	 *
+	 * @return media, ou 0 se nenhum valor foi registrado.
+	 */
+	public double getMedia() {
+		long total = this.total.sum();
+		return total == 0 ? 0 : (double) this.soma.sum() / total;
+	}
+
+	/**
+	 * Retorna o valor abaixo do qual esta a porcentagem dada dos valores
+	 * registrados.
+	 *
+	 * @param porcentagem
+	 *            porcentagem entre 0 e 100, por exemplo 99.9.
+	 * @return limite superior da faixa que contem o percentil, limitado ao
+	 *         maior valor registrado, ou 0 se nenhum valor foi registrado.
+	 */
+	public long percentil(double porcentagem) {
+		long total = 0;
+		long[] contagens = new long[FAIXAS];
+		for (int i = 0; i < FAIXAS; i++) {
+			contagens[i] = this.contagens.get(i);
+			total = total + contagens[i];
+		}
+		if (total == 0)
+			return 0;
+		long alvo = Math.max(1, (long) Math.ceil(porcentagem / 100 * total));
+		long acumulado = 0;
+		for (int i = 0; i < FAIXAS; i++) {
+			acumulado = acumulado + contagens[i];
+			if (acumulado >= alvo)
+				return Math.min(limiteSuperior(i), this.maximo.get());
+		}
+		return this.maximo.get();
+	}
+
+	/**
+	 * Descarta os valores registrados.
+	 */
+	public void zerar() {
+		for (int i = 0; i < FAIXAS; i++) {
+			this.contagens.set(i, 0);
+		}
+		this.total.reset();
+		this.soma.reset();
+		this.maximo.set(0);
+	}
+}
@@ -0,0 +1,181 @@
+package br.ufrpe.poo.banco.metricas;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chamadas, erros por tipo de excecao e histograma de latencias de um metodo.
+ *
+ * Uso num decorador:
+ *
+ * <pre>
+ * long medicao = metrica.iniciar();
+ * try {
+ * 	Object resultado = alvo.metodo();
+ * 	metrica.sucesso(medicao);
+ * 	return resultado;
+ * } catch (Exception e) {
+ * 	metrica.falha(medicao, e);
+ * 	throw e;
+ * }
+ * </pre>
+ *
+ * Com as metricas desabilitadas, <code>iniciar</code> nao le o relogio e
+ * <code>sucesso</code> e <code>falha</code> retornam sem registrar nada.
+ */
+public class MetricaMetodo implements MetricaMetodoMBean {
+
+	/** Inicio devolvido por <code>iniciar</code> com a medicao desabilitada. */
+	private static final long DESABILITADA = Long.MIN_VALUE;
+
+	/** Metrica sempre desabilitada, para componentes nao instrumentados. */
+	public static final MetricaMetodo NENHUMA = new MetricaMetodo("nenhuma",
+			new Metricas(false));
+
+	/** Nome do metodo, por exemplo contas.procurar. */
+	private final String nome;
+
+	/** Conjunto de metricas que indica se a medicao esta habilitada. */
+	private final Metricas metricas;
+
+	/** Erros por nome simples da classe da excecao. */
+	private final ConcurrentHashMap<String, LongAdder> erros =
+			new ConcurrentHashMap<>();
+
+	/** Latencias em nanossegundos; a contagem eh a quantidade de chamadas. */
+	private final Histograma latencias = new Histograma();
+
+	/**
+	 * Cria as metricas de um metodo.
+	 *
+	 * @param nome
+	 *            nome do metodo.
+	 * @param metricas
+	 *            conjunto de metricas ao qual pertence.
+	 */
+	MetricaMetodo(String nome, Metricas metricas) {
+		this.nome = nome;
+		this.metricas = metricas;
+	}
+
+	/**
+	 * Retorna o nome do metodo.
+	 *
+	 * @return nome do metodo.
+	 */
+	public String getNome() {
+		return this.nome;
+	}
+
+	/**
+	 * Marca o inicio de uma chamada.
+	 *
+	 * @return valor a ser passado para <code>sucesso</code> ou
+	 *         <code>falha</code>.
+	 */
+	public long iniciar() {
+		return this.metricas.isHabilitada() ? System.nanoTime() : DESABILITADA;
+	}
+
+	/**
+	 * Registra uma chamada que terminou normalmente.
+	 *
+	 * @param inicio
+	 *            valor retornado por <code>iniciar</code>.
+	 */
+	public void sucesso(long inicio) {
+		if (inicio == DESABILITADA)
+			return;
+		this.latencias.registrar(System.nanoTime() - inicio);
+	}
+
+	/**
+	 * Registra uma chamada que terminou com excecao.
+	 *
+	 * @param inicio
+	 *            valor retornado por <code>iniciar</code>.
+	 * @param erro
+	 *            excecao lancada.
+	 */
+	public void falha(long inicio, Throwable erro) {
+		if (inicio == DESABILITADA)
+			return;
+		this.latencias.registrar(System.nanoTime() - inicio);
+		this.erros.computeIfAbsent(erro.getClass().getSimpleName(),
+				tipo -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Retorna o histograma das latencias, em nanossegundos.
+	 *
+	 * @return histograma das latencias.
+	 */
+	public Histograma getLatencias() {
+		return this.latencias;
+	}
+
+	@Override
+	public long getChamadas() {
+		return this.latencias.getTotal();
+	}
+
+	@Override
+	public long getErros() {
+		long total = 0;
+		for (LongAdder erro : this.erros.values()) {
+			total = total + erro.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public Map<String, Long> getErrosPorTipo() {
+		Map<String, Long> erros = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> erro : this.erros.entrySet()) {
+			erros.put(erro.getKey(), erro.getValue().sum());
+		}
+		return erros;
+	}
+
+	private static double micros(double nanos) {
+		return nanos / 1000;
+	}
+
+	@Override
+	public double getMedia() {
+		return micros(this.latencias.getMedia());
+	}
+
+	@Override
+	public double getPercentil50() {
+		return micros(this.latencias.percentil(50));
+	}
+
+	@Override
+	public double getPercentil90() {
+		return micros(this.latencias.percentil(90));
+	}
+
+	@Override
+	public double getPercentil99() {
+		return micros(this.latencias.percentil(99));
+	}
+
+	@Override
+	public double getPercentil999() {
+		return micros(this.latencias.percentil(99.9));
+	}
+
+	@Override
+	public double getMaximo() {
+		return micros(this.latencias.getMaximo());
+	}
+
+	@Override
+	public void zerar() {
+		this.erros.clear();
+		this.latencias.zerar();
+	}
+}
@@ -0,0 +1,78 @@
+package br.ufrpe.poo.banco.metricas;
+
+import java.util.Map;
+
+/**
+ * Interface JMX das metricas de um metodo. As latencias sao dadas em
+ * microssegundos.
+ */
+public interface MetricaMetodoMBean {
+
+	/**
+	 * Retorna a quantidade de chamadas, com e sem erro.
+	 *
+	 * @return quantidade de chamadas.
+	 */
+	long getChamadas();
+
+	/**
+	 * Retorna a quantidade de chamadas que terminaram com excecao.
+	 *
+	 * @return quantidade de erros.
+	 */
+	long getErros();
+
+	/**
+	 * Retorna a quantidade de erros por tipo de excecao.
+	 *
+	 * @return erros indexados pelo nome simples da classe da excecao.
+	 */
+	Map<String, Long> getErrosPorTipo();
+
+	/**
+	 * Retorna a latencia media.
+	 *
+	 * @return latencia media em microssegundos.
+	 */
+	double getMedia();
+
+	/**
+	 * Retorna a mediana das latencias.
+	 *
+	 * @return percentil 50 em microssegundos.
+	 */
+	double getPercentil50();
+
+	/**
+	 * Retorna o percentil 90 das latencias.
+	 *
+	 * @return percentil 90 em microssegundos.
+	 */
+	double getPercentil90();
+
+	/**
+	 * Retorna o percentil 99 das latencias.
+	 *
+	 * @return percentil 99 em microssegundos.
+	 */
+	double getPercentil99();
+
+	/**
+	 * Retorna o percentil 99,9 das latencias.
+	 *
+	 * @return percentil 99,9 em microssegundos.
+	 */
+	double getPercentil999();
+
+	/**
+	 * Retorna a maior latencia.
+	 *
+	 * @return maior latencia em microssegundos.
+	 */
+	double getMaximo();
+
+	/**
+	 * Descarta as metricas registradas.
+	 */
+	void zerar();
+}
@@ -0,0 +1,234 @@
+package br.ufrpe.poo.banco.metricas;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Conjunto das metricas dos metodos de um ou mais componentes, identificados
+ * por nomes como <code>contas.procurar</code> ou
+ * <code>banco.transferir</code>.
+ *
+ * As metricas podem ser exportadas por JMX, com um MBean para o conjunto e um
+ * para cada metodo, e em texto por <code>getRelatorio</code>. Desabilitar o
+ * conjunto faz com que os decoradores apenas leiam um campo volatil por
+ * chamada.
+ */
+public class Metricas implements MetricasMBean {
+
+	/** Dominio JMX padrao. */
+	public static final String DOMINIO_PADRAO = "br.ufrpe.poo.banco";
+
+	/** Indica se as chamadas estao sendo medidas. */
+	private volatile boolean habilitada;
+
+	/** Metricas por nome do metodo. */
+	private final ConcurrentHashMap<String, MetricaMetodo> metodos =
+			new ConcurrentHashMap<>();
+
+	/** Servidor JMX em que as metricas foram registradas, ou null. */
+	private MBeanServer servidor;
+
+	/** Dominio JMX das metricas registradas. */
+	private String dominio;
+
+	/**
+	 * Nomes das metricas de metodo registradas por este conjunto no servidor
+	 * JMX; um nome registrado por outro conjunto nao entra na lista.
+	 */
+	private final List<ObjectName> registrados = new ArrayList<>();
+
+	/**
+	 * Erro do ultimo registro no JMX das metricas de um metodo criado depois
+	 * de <code>registrarJmx</code>, ou null.
+	 */
+	private JMException falhaJmx;
+
+	/**
+	 * Cria um conjunto de metricas habilitado.
+	 */
+	public Metricas() {
+		this(true);
+	}
+
+	/**
+	 * Cria um conjunto de metricas.
+	 *
+	 * @param habilitada
+	 *            se as chamadas devem ser medidas.
+	 */
+	public Metricas(boolean habilitada) {
+		this.habilitada = habilitada;
+	}
+
+	@Override
+	public boolean isHabilitada() {
+		return this.habilitada;
+	}
+
+	@Override
+	public void setHabilitada(boolean habilitada) {
+		this.habilitada = habilitada;
+	}
+
+	/**
+	 * Retorna as metricas de um metodo, criando-as na primeira chamada.
+	 *
+	 * @param nome
+	 *            nome do metodo, por exemplo <code>contas.procurar</code>.
+	 * @return metricas do metodo.
+	 */
+	public MetricaMetodo metodo(String nome) {
+		MetricaMetodo metrica = this.metodos.get(nome);
+		if (metrica != null)
+			return metrica;
+		synchronized (this) {
+			metrica = this.metodos.get(nome);
+			if (metrica == null) {
+				metrica = new MetricaMetodo(nome, this);
+				this.metodos.put(nome, metrica);
+				if (this.servidor != null) {
+					try {
+						this.registrar(metrica);
+					} catch (JMException e) {
+						// as metricas continuam disponiveis em texto
+						this.falhaJmx = e;
+					}
+				}
+			}
+			return metrica;
+		}
+	}
+
+	/**
+	 * Retorna as metricas de todos os metodos, ordenadas pelo nome.
+	 *
+	 * @return metricas dos metodos.
+	 */
+	public List<MetricaMetodo> getMetodos() {
+		return new ArrayList<>(new TreeMap<>(this.metodos).values());
+	}
+
+	/**
+	 * Retorna as metricas em texto. Cada metodo gera uma linha com chamadas,
+	 * erros e latencias em microssegundos e uma linha por tipo de erro:
+	 *
+	 * <pre>
+	 * contas.procurar chamadas=10 erros=1 media=1.2 p50=1.0 p90=1.9 p99=4.1 p999=4.1 max=4.1
+	 * contas.procurar.erro.RepositorioException 1
+	 * </pre>
+	 */
+	@Override
+	public String getRelatorio() {
+		StringBuilder texto = new StringBuilder();
+		for (MetricaMetodo metrica : this.getMetodos()) {
+			texto.append(String.format(Locale.ROOT, "%s chamadas=%d erros=%d"
+					+ " media=%.1f p50=%.1f p90=%.1f p99=%.1f p999=%.1f"
+					+ " max=%.1f%n", metrica.getNome(), metrica.getChamadas(),
+					metrica.getErros(), metrica.getMedia(),
+					metrica.getPercentil50(), metrica.getPercentil90(),
+					metrica.getPercentil99(), metrica.getPercentil999(),
+					metrica.getMaximo()));
+			for (Map.Entry<String, Long> erro : metrica.getErrosPorTipo()
+					.entrySet()) {
+				texto.append(metrica.getNome()).append(".erro.")
+						.append(erro.getKey()).append(' ')
+						.append(erro.getValue()).append(System.lineSeparator());
+			}
+		}
+		return texto.toString();
+	}
+
+	@Override
+	public void zerar() {
+		for (MetricaMetodo metrica : this.metodos.values()) {
+			metrica.zerar();
+		}
+	}
+
+	/**
+	 * Registra o conjunto e as metricas de cada metodo, inclusive as criadas
+	 * depois, no servidor JMX da plataforma, com os nomes
+	 * <code>dominio:type=Metricas</code> e
+	 * <code>dominio:type=Metodo,name=contas.procurar</code>.
+	 *
+	 * @param dominio
+	 *            dominio JMX, por exemplo <code>DOMINIO_PADRAO</code>.
+	 * @throws JMException
+	 *             lancada se algum nome ja esta registrado; nesse caso nada
+	 *             fica registrado.
+	 */
+	public synchronized void registrarJmx(String dominio) throws JMException {
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		ObjectName nomeConjunto = new ObjectName(dominio + ":type=Metricas");
+		servidor.registerMBean(this, nomeConjunto);
+		this.servidor = servidor;
+		this.dominio = dominio;
+		try {
+			for (MetricaMetodo metrica : this.metodos.values()) {
+				this.registrar(metrica);
+			}
+		} catch (JMException e) {
+			// desfaz apenas os registros feitos por esta chamada
+			for (ObjectName nome : this.registrados) {
+				servidor.unregisterMBean(nome);
+			}
+			this.registrados.clear();
+			servidor.unregisterMBean(nomeConjunto);
+			this.servidor = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Registra as metricas de um metodo no servidor JMX.
+	 */
+	private void registrar(MetricaMetodo metrica) throws JMException {
+		ObjectName nome = this.nomeJmx(metrica);
+		this.servidor.registerMBean(metrica, nome);
+		this.registrados.add(nome);
+	}
+
+	/**
+	 * Retorna o erro do ultimo registro no JMX das metricas de um metodo
+	 * criado depois de <code>registrarJmx</code>, por exemplo porque o nome
+	 * ja estava registrado por outro conjunto.
+	 *
+	 * @return erro ou null se todos os registros foram bem sucedidos.
+	 */
+	public synchronized JMException getFalhaJmx() {
+		return this.falhaJmx;
+	}
+
+	private ObjectName nomeJmx(MetricaMetodo metrica) throws JMException {
+		return new ObjectName(this.dominio + ":type=Metodo,name="
+				+ metrica.getNome());
+	}
+
+	/**
+	 * Remove do servidor JMX o conjunto e as metricas de cada metodo
+	 * registradas por ele.
+	 *
+	 * @throws JMException
+	 *             lancada em caso de erro no servidor JMX.
+	 */
+	public synchronized void removerJmx() throws JMException {
+		if (this.servidor == null)
+			return;
+		this.servidor.unregisterMBean(new ObjectName(this.dominio
+				+ ":type=Metricas"));
+		for (ObjectName nome : this.registrados) {
+			this.servidor.unregisterMBean(nome);
+		}
+		this.registrados.clear();
+		this.servidor = null;
+	}
+}
@@ -0,0 +1,34 @@
+package br.ufrpe.poo.banco.metricas;
+
+/**
+ * Interface JMX do conjunto de metricas.
+ */
+public interface MetricasMBean {
+
+	/**
+	 * Indica se as chamadas estao sendo medidas.
+	 *
+	 * @return se a medicao esta habilitada.
+	 */
+	boolean isHabilitada();
+
+	/**
+	 * Habilita ou desabilita a medicao das chamadas.
+	 *
+	 * @param habilitada
+	 *            se as chamadas devem ser medidas.
+	 */
+	void setHabilitada(boolean habilitada);
+
+	/**
+	 * Retorna as metricas de todos os metodos em texto, uma linha por metrica.
+	 *
+	 * @return relatorio das metricas.
+	 */
+	String getRelatorio();
+
+	/**
+	 * Descarta as metricas registradas de todos os metodos.
+	 */
+	void zerar();
+}
@@ -0,0 +1,5 @@
+/**
+ * Contem as metricas de chamadas, erros e latencias dos repositorios e do
+ * banco, exportadas por JMX e em texto.
+ */
+package br.ufrpe.poo.banco.metricas;
@@ -1,9 +1,21 @@
 package br.ufrpe.poo.banco.negocio;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
 import br.ufrpe.poo.banco.dados.IRepositorioClientes;
 import br.ufrpe.poo.banco.dados.IRepositorioContas;
+import br.ufrpe.poo.banco.dados.IRepositorioLancamentos;
+import br.ufrpe.poo.banco.dados.Pagina;
 import br.ufrpe.poo.banco.dados.RepositorioClientesArquivoBin;
+import br.ufrpe.poo.banco.dados.RepositorioClientesIndexado;
 import br.ufrpe.poo.banco.dados.RepositorioContasArquivoBin;
+import br.ufrpe.poo.banco.dados.RepositorioLancamentosArquivo;
 import br.ufrpe.poo.banco.exceptions.AtualizacaoNaoRealizadaException;
 import br.ufrpe.poo.banco.exceptions.ClienteJaCadastradoException;
 import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
@@ -28,6 +40,17 @@ import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
  */
 public class Banco implements IGerencia, ICliente {
 
+	/**
+	 * Taxa de juros rendida pelas contas poupanca.
+	 */
+	public static final double TAXA_JUROS = 0.5;
+
+	/**
+	 * Propriedade do sistema com o caminho do arquivo de lancamentos da
+	 * instancia unica. Sem ela os lancamentos nao sao registrados.
+	 */
+	public static final String PROPRIEDADE_LANCAMENTOS = "banco.lancamentos";
+
 	/**
 	 * Instancia do repositorio de clientes.
 	 */
@@ -43,13 +66,38 @@ public class Banco implements IGerencia, ICliente {
 	 */
 	protected static Banco instance;
 
+	/**
+	 * Travas por conta que serializam operacoes sobre a mesma conta.
+	 */
+	protected TravasContas travas;
+
+	/**
+	 * Repositorio onde sao registrados os lancamentos das contas, ou
+	 * <code>null</code> se os lancamentos nao sao registrados.
+	 */
+	protected IRepositorioLancamentos lancamentos;
+
+	/**
+	 * Titular de cada conta, pelo numero da conta.
+	 */
+	protected IndiceTitulares titulares;
+
 	protected Banco(IRepositorioClientes clientes, IRepositorioContas contas) {
+		this(clientes, contas, null);
+	}
+
+	protected Banco(IRepositorioClientes clientes, IRepositorioContas contas,
+			IRepositorioLancamentos lancamentos) {
 		this.clientes = clientes;
 		this.contas = contas;
+		this.lancamentos = lancamentos;
+		this.travas = new TravasContas(TravasContas.FAIXAS_PADRAO);
+		this.titulares = new IndiceTitulares(clientes);
 	}
 
 	/**
-	 * Retorna a instancia unica do banco.
+	 * Retorna a instancia unica do banco. Os lancamentos so sao registrados
+	 * se a propriedade <code>banco.lancamentos</code> indica o arquivo.
 	 * 
 	 * @return se o banco nao foi instanciado. Se o banco ja foi instanciado eh
 	 *         retornado <code>null</code>.
@@ -58,11 +106,15 @@ public class Banco implements IGerencia, ICliente {
 	 * @throws InicializacaoSistemaException
 	 *             Lancada quando ocorre erro no repositorio.
 	 */
-	public static Banco getInstance() throws RepositorioException, InicializacaoSistemaException {
+	public static synchronized Banco getInstance() throws RepositorioException, InicializacaoSistemaException {
 
 		if (Banco.instance == null) {
 			try {
-				Banco.instance = new Banco(new RepositorioClientesArquivoBin(), new RepositorioContasArquivoBin());
+				String arquivoLancamentos = System.getProperty(PROPRIEDADE_LANCAMENTOS);
+				Banco.instance = new Banco(new RepositorioClientesIndexado(new RepositorioClientesArquivoBin()),
+						new RepositorioContasArquivoBin(),
+						arquivoLancamentos == null ? null
+								: new RepositorioLancamentosArquivo(new File(arquivoLancamentos)));
 			} catch (RepositorioException e) {
 				throw new InicializacaoSistemaException();
 			}
@@ -74,6 +126,7 @@ public class Banco implements IGerencia, ICliente {
 	public void cadastrarCliente(Cliente cliente) throws RepositorioException, ClienteJaCadastradoException {
 		if (!this.clientes.inserir(cliente))
 			throw new ClienteJaCadastradoException();
+		this.titulares.indexar(cliente);
 	}
 
 	@Override
@@ -92,6 +145,33 @@ public class Banco implements IGerencia, ICliente {
 		return this.contas.procurar(numero);
 	}
 
+	@Override
+	public Pagina<Cliente> listarClientes(int cursor, int tamanho) {
+		return this.clientes.pagina(cursor, tamanho);
+	}
+
+	@Override
+	public Pagina<ContaAbstrata> listarContas(int cursor, int tamanho) {
+		return this.contas.pagina(cursor, tamanho);
+	}
+
+	@Override
+	public List<Cliente> buscarClientes(String consulta, int quantidade) {
+		return this.clientes.buscar(consulta, quantidade);
+	}
+
+	@Override
+	public Cliente procurarTitular(String numeroConta) {
+		String cpf = this.titulares.getTitular(numeroConta);
+		if (cpf == null)
+			return null;
+		Cliente cliente = this.clientes.procurar(cpf);
+		// ignora uma associacao desfeita sem passar pelo banco
+		if (cliente == null || cliente.procurarConta(numeroConta) == -1)
+			return null;
+		return cliente;
+	}
+
 	@Override
 	public void associarConta(String cpf, String numeroConta) throws ClienteJaPossuiContaException,
 			ContaJaAssociadaException, ClienteNaoCadastradoException, RepositorioException {
@@ -101,6 +181,7 @@ public class Banco implements IGerencia, ICliente {
 			if (conta == null) {
 				cliente.adicionarConta(numeroConta);
 				this.clientes.atualizar(cliente);
+				this.titulares.associar(numeroConta, cpf);
 			} else
 				throw new ContaJaAssociadaException();
 		} else
@@ -111,68 +192,243 @@ public class Banco implements IGerencia, ICliente {
 	public void removerCliente(String cpf) throws RepositorioException, ClienteNaoCadastradoException,
 			ContaNaoEncontradaException, ClienteNaoPossuiContaException {
 		Cliente cliente = this.procurarCliente(cpf);
-		int i = 0;
-		while (!cliente.getContas().isEmpty()) {
-			String numeroConta = cliente.consultarNumeroConta(0);
-			i++;
-			this.removerConta(cliente, numeroConta);
-		}
+		this.removerContas(cliente);
 		if (!this.clientes.remover(cpf))
 			throw new ClienteNaoCadastradoException();
 	}
 
+	/**
+	 * Remove todas as contas de um cliente que vai ser removido. As contas sao
+	 * retiradas do fim do conjunto, sem deslocar as demais, e o cliente so eh
+	 * atualizado no repositorio se alguma conta nao for encontrada.
+	 * 
+	 * @param cliente
+	 *            Cliente cujas contas sao removidas.
+	 * @throws RepositorioException
+	 *             Lancada em caso de erro no repositorio.
+	 * @throws ContaNaoEncontradaException
+	 *             Lancada se uma conta do cliente nao esta no repositorio de
+	 *             contas. As contas anteriores a ela ja foram removidas.
+	 */
+	protected void removerContas(Cliente cliente) throws RepositorioException, ContaNaoEncontradaException {
+		ConjuntoContas contas = cliente.getContas();
+		while (!contas.isEmpty()) {
+			String numeroConta = contas.remove(contas.size() - 1);
+			this.titulares.desassociar(numeroConta);
+			if (!this.contas.remover(numeroConta)) {
+				this.clientes.atualizar(cliente);
+				throw new ContaNaoEncontradaException();
+			}
+		}
+	}
+
 	@Override
 	public void removerConta(Cliente cliente, String numeroConta)
 			throws RepositorioException, ContaNaoEncontradaException, ClienteNaoPossuiContaException {
 		cliente.removerConta(numeroConta);
+		this.titulares.desassociar(numeroConta);
 		if (!this.contas.remover(numeroConta))
 			throw new ContaNaoEncontradaException();
 		this.clientes.atualizar(cliente);
 	}
 
 	@Override
-	public void creditar(ContaAbstrata conta, double valor) throws RepositorioException, ValorInvalidoException {
-		if (valor < 0)
+	public void creditar(ContaAbstrata conta, Dinheiro valor) throws RepositorioException, ValorInvalidoException {
+		if (valor.ehNegativo())
 			throw new ValorInvalidoException();
-		conta.creditar(valor);
+		this.travas.travar(conta.getNumero());
+		try {
+			Dinheiro saldoAnterior = this.saldoAnterior(conta);
+			conta.creditar(valor);
+			this.registrar(conta, Lancamento.Tipo.CREDITO, saldoAnterior, null);
+		} finally {
+			this.travas.destravar(conta.getNumero());
+		}
+	}
+
+	/**
+	 * Retorna o saldo da conta antes de uma operacao, se os lancamentos sao
+	 * registrados.
+	 */
+	private Dinheiro saldoAnterior(ContaAbstrata conta) {
+		return this.lancamentos == null ? null : conta.getSaldoDinheiro();
+	}
+
+	/**
+	 * Registra o lancamento de uma operacao que alterou o saldo da conta.
+	 * Deve ser chamado sob a trava da conta.
+	 */
+	private void registrar(ContaAbstrata conta, Lancamento.Tipo tipo, Dinheiro saldoAnterior,
+			String contrapartida) throws RepositorioException {
+		if (this.lancamentos == null || conta.getSaldoDinheiro().equals(saldoAnterior))
+			return;
+		this.lancamentos.registrar(Lancamento.de(conta, tipo, saldoAnterior, contrapartida));
 	}
 
 	@Override
-	public void debitar(ContaAbstrata conta, double valor)
+	public void debitar(ContaAbstrata conta, Dinheiro valor)
 			throws RepositorioException, SaldoInsuficienteException, ValorInvalidoException {
-		if (valor < 0)
+		if (valor.ehNegativo())
 			throw new ValorInvalidoException();
-		if(this.contas.existe(conta.getNumero())){
-			conta.debitar(valor);	
-			this.contas.atualizar(conta);
+		this.travas.travar(conta.getNumero());
+		try {
+			if(this.contas.existe(conta.getNumero())){
+				Dinheiro saldoAnterior = this.saldoAnterior(conta);
+				conta.debitar(valor);	
+				this.contas.atualizar(conta);
+				this.registrar(conta, Lancamento.Tipo.DEBITO, saldoAnterior, null);
+			}
+		} finally {
+			this.travas.destravar(conta.getNumero());
 		}
 	}
 
 	@Override
-	public void transferir(ContaAbstrata contaOrigem, ContaAbstrata contaDestino, double valor)
+	public void transferir(ContaAbstrata contaOrigem, ContaAbstrata contaDestino, Dinheiro valor)
 			throws SaldoInsuficienteException, RepositorioException, ValorInvalidoException {
-		if (this.contas.existe(contaOrigem.getNumero()) && this.contas.existe(contaDestino.getNumero())) {
-			this.debitar(contaOrigem, valor);
-			this.creditar(contaDestino, valor);
-			this.contas.atualizar(contaOrigem);
-			this.contas.atualizar(contaDestino);
+		if (valor.ehNegativo())
+			throw new ValorInvalidoException();
+		this.travas.travar(contaOrigem.getNumero(), contaDestino.getNumero());
+		try {
+			if (this.contas.existe(contaOrigem.getNumero()) && this.contas.existe(contaDestino.getNumero())) {
+				Dinheiro saldoOrigem = this.saldoAnterior(contaOrigem);
+				Dinheiro saldoDestino = this.saldoAnterior(contaDestino);
+				contaOrigem.debitar(valor);
+				contaDestino.creditar(valor);
+				this.contas.atualizar(contaOrigem);
+				this.contas.atualizar(contaDestino);
+				this.registrar(contaOrigem, Lancamento.Tipo.TRANSFERENCIA_ENVIADA, saldoOrigem,
+						contaDestino.getNumero());
+				this.registrar(contaDestino, Lancamento.Tipo.TRANSFERENCIA_RECEBIDA, saldoDestino,
+						contaOrigem.getNumero());
+			}
+		} finally {
+			this.travas.destravar(contaOrigem.getNumero(), contaDestino.getNumero());
+		}
+	}
+
+	@Override
+	public List<ResultadoOperacao> executarLote(List<OperacaoLote> operacoes) throws RepositorioException {
+		List<ResultadoOperacao> resultados = new ArrayList<ResultadoOperacao>(operacoes.size());
+		Map<String, ContaAbstrata> alteradas = new LinkedHashMap<String, ContaAbstrata>();
+		List<Lancamento> lancamentosLote = this.lancamentos == null ? null : new ArrayList<Lancamento>();
+		for (OperacaoLote operacao : operacoes) {
+			resultados.add(this.aplicar(operacao, alteradas, lancamentosLote));
+		}
+		if (!alteradas.isEmpty())
+			this.contas.atualizarTodas(alteradas.values());
+		if (lancamentosLote != null && !lancamentosLote.isEmpty())
+			this.lancamentos.registrarTodos(lancamentosLote);
+		return resultados;
+	}
+
+	/**
+	 * Valida e aplica em memoria uma operacao do lote, sob as travas das contas
+	 * envolvidas.
+	 * 
+	 * @param operacao
+	 *            operacao a ser aplicada.
+	 * @param alteradas
+	 *            contas alteradas pelo lote, pelo numero.
+	 * @param lancamentosLote
+	 *            recebe os lancamentos das operacoes aplicadas, ou
+	 *            <code>null</code> se os lancamentos nao sao registrados.
+	 * @return resultado da operacao.
+	 */
+	private ResultadoOperacao aplicar(OperacaoLote operacao, Map<String, ContaAbstrata> alteradas,
+			List<Lancamento> lancamentosLote) {
+		Dinheiro valor = operacao.getValor();
+		if (valor == null || valor.ehNegativo())
+			return ResultadoOperacao.VALOR_INVALIDO;
+		ContaAbstrata origem = this.contas.procurar(operacao.getNumeroOrigem());
+		if (origem == null)
+			return ResultadoOperacao.CONTA_NAO_ENCONTRADA;
+		if (operacao.getTipo() != OperacaoLote.Tipo.TRANSFERENCIA) {
+			this.travas.travar(origem.getNumero());
+			try {
+				Dinheiro saldoAnterior = origem.getSaldoDinheiro();
+				Lancamento.Tipo tipo;
+				if (operacao.getTipo() == OperacaoLote.Tipo.CREDITO) {
+					origem.creditar(valor);
+					tipo = Lancamento.Tipo.CREDITO;
+				} else {
+					origem.debitar(valor);
+					tipo = Lancamento.Tipo.DEBITO;
+				}
+				if (lancamentosLote != null)
+					lancamentosLote.add(Lancamento.de(origem, tipo, saldoAnterior, null));
+			} catch (SaldoInsuficienteException e) {
+				return ResultadoOperacao.SALDO_INSUFICIENTE;
+			} finally {
+				this.travas.destravar(origem.getNumero());
+			}
+			alteradas.put(origem.getNumero(), origem);
+			return ResultadoOperacao.REALIZADA;
+		}
+		ContaAbstrata destino = this.contas.procurar(operacao.getNumeroDestino());
+		if (destino == null)
+			return ResultadoOperacao.CONTA_NAO_ENCONTRADA;
+		if (origem.getNumero().equals(destino.getNumero()))
+			return ResultadoOperacao.CONTAS_IGUAIS;
+		this.travas.travar(origem.getNumero(), destino.getNumero());
+		try {
+			Dinheiro saldoOrigem = origem.getSaldoDinheiro();
+			Dinheiro saldoDestino = destino.getSaldoDinheiro();
+			origem.debitar(valor);
+			destino.creditar(valor);
+			if (lancamentosLote != null) {
+				lancamentosLote.add(Lancamento.de(origem, Lancamento.Tipo.TRANSFERENCIA_ENVIADA, saldoOrigem,
+						destino.getNumero()));
+				lancamentosLote.add(Lancamento.de(destino, Lancamento.Tipo.TRANSFERENCIA_RECEBIDA, saldoDestino,
+						origem.getNumero()));
+			}
+		} catch (SaldoInsuficienteException e) {
+			return ResultadoOperacao.SALDO_INSUFICIENTE;
+		} finally {
+			this.travas.destravar(origem.getNumero(), destino.getNumero());
 		}
+		alteradas.put(origem.getNumero(), origem);
+		alteradas.put(destino.getNumero(), destino);
+		return ResultadoOperacao.REALIZADA;
+	}
+
+	@Override
+	public List<Lancamento> consultarUltimosLancamentos(String numero, int quantidade) {
+		if (this.lancamentos == null)
+			return Collections.emptyList();
+		return this.lancamentos.ultimos(numero, quantidade);
+	}
+
+	@Override
+	public List<Lancamento> consultarLancamentos(String numero, long inicio, long fim) {
+		if (this.lancamentos == null)
+			return Collections.emptyList();
+		return this.lancamentos.entre(numero, inicio, fim);
 	}
 
 	@Override
 	public void atualizarCliente(Cliente cliente) throws RepositorioException, AtualizacaoNaoRealizadaException {
 		if (!this.clientes.atualizar(cliente))
 			throw new AtualizacaoNaoRealizadaException();
+		// retira do indice as contas que o cliente deixou de ter
+		this.titulares.indexar(cliente);
 	}
 
 	public void renderBonus(ContaAbstrata conta)
 			throws RenderBonusContaEspecialException, RepositorioException, ContaNaoEncontradaException {
 		if (conta instanceof ContaEspecial) {
-			if (this.contas.existe(conta.getNumero())) {
-				((ContaEspecial) conta).renderBonus();
-				this.contas.atualizar(conta);
-			} else {
-				throw new ContaNaoEncontradaException();
+			this.travas.travar(conta.getNumero());
+			try {
+				if (this.contas.existe(conta.getNumero())) {
+					Dinheiro saldoAnterior = this.saldoAnterior(conta);
+					((ContaEspecial) conta).renderBonus();
+					this.contas.atualizar(conta);
+					this.registrar(conta, Lancamento.Tipo.BONUS, saldoAnterior, null);
+				} else {
+					throw new ContaNaoEncontradaException();
+				}
+			} finally {
+				this.travas.destravar(conta.getNumero());
 			}
 		} else {
 			throw new RenderBonusContaEspecialException();
@@ -183,15 +439,39 @@ public class Banco implements IGerencia, ICliente {
 	public void renderJuros(ContaAbstrata conta)
 			throws RenderJurosPoupancaException, ContaNaoEncontradaException, RepositorioException {
 		if (conta instanceof Poupanca) {
-			if (this.contas.existe(conta.getNumero())) {
-				((Poupanca) conta).renderJuros(0.5);
-				this.contas.atualizar(conta);
-			} else {
-				throw new ContaNaoEncontradaException();
+			this.travas.travar(conta.getNumero());
+			try {
+				if (this.contas.existe(conta.getNumero())) {
+					Dinheiro saldoAnterior = this.saldoAnterior(conta);
+					((Poupanca) conta).renderJuros(TAXA_JUROS);
+					this.contas.atualizar(conta);
+					this.registrar(conta, Lancamento.Tipo.JUROS, saldoAnterior, null);
+				} else {
+					throw new ContaNaoEncontradaException();
+				}
+			} finally {
+				this.travas.destravar(conta.getNumero());
 			}
 		} else {
 			throw new RenderJurosPoupancaException();
 		}
 	}
 
+	@Override
+	public int renderJurosTodas(ProcessamentoFimDoDia.Progresso progresso) throws RepositorioException {
+		return this.getProcessamentoFimDoDia().renderJurosTodas(TAXA_JUROS, progresso);
+	}
+
+	@Override
+	public int renderBonusTodas(ProcessamentoFimDoDia.Progresso progresso) throws RepositorioException {
+		return this.getProcessamentoFimDoDia().renderBonusTodas(progresso);
+	}
+
+	/**
+	 * Cria o processamento de fim do dia sobre o repositorio de contas atual.
+	 */
+	private ProcessamentoFimDoDia getProcessamentoFimDoDia() {
+		return new ProcessamentoFimDoDia(this.contas, this.travas, ForkJoinPool.commonPool(), this.lancamentos);
+	}
+
 }
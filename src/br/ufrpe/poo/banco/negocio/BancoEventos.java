@@ -0,0 +1,502 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import br.ufrpe.poo.banco.dados.IRepositorioLancamentos;
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.dados.RepositorioEventos;
+import br.ufrpe.poo.banco.exceptions.AtualizacaoNaoRealizadaException;
+import br.ufrpe.poo.banco.exceptions.ClienteJaCadastradoException;
+import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
+import br.ufrpe.poo.banco.exceptions.ClienteNaoCadastradoException;
+import br.ufrpe.poo.banco.exceptions.ClienteNaoPossuiContaException;
+import br.ufrpe.poo.banco.exceptions.ContaJaAssociadaException;
+import br.ufrpe.poo.banco.exceptions.ContaJaCadastradaException;
+import br.ufrpe.poo.banco.exceptions.ContaNaoEncontradaException;
+import br.ufrpe.poo.banco.exceptions.RenderBonusContaEspecialException;
+import br.ufrpe.poo.banco.exceptions.RenderJurosPoupancaException;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+
+/**
+ * Banco cujo estado eh derivado de um log de eventos.
+ *
+ * Clientes e contas ficam apenas em memoria. Cada operacao que altera o
+ * estado acrescenta um evento no fim de um <code>RepositorioEventos</code>,
+ * em vez de regravar o arquivo de contas. Na inicializacao o ultimo snapshot
+ * eh carregado e os eventos posteriores a ele sao reaplicados pelas mesmas
+ * operacoes de <code>Banco</code>. Juros e bonus sao registrados com o valor
+ * aplicado em cada conta, e a reaplicacao aplica esse valor em vez de
+ * calcula-lo de novo.
+ *
+ * Os eventos de uma conta sao registrados sob a trava da conta, na ordem em
+ * que foram aplicados. Operacoes sobre contas diferentes continuam
+ * concorrentes; cadastros, remocoes, lotes e o processamento de fim do dia,
+ * assim como a copia do estado para um snapshot, sao exclusivos.
+ *
+ * @author
+ *
+ */
+public class BancoEventos extends Banco {
+
+	/** Log de eventos. */
+	private final RepositorioEventos eventos;
+
+	/**
+	 * Trava do estado: operacoes sobre contas obtem a leitura; operacoes
+	 * exclusivas e snapshots obtem a escrita.
+	 */
+	private final ReentrantReadWriteLock estado = new ReentrantReadWriteLock();
+
+	/**
+	 * Cria o banco carregando o estado do log de eventos.
+	 *
+	 * @param eventos
+	 *            log de eventos.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura do log.
+	 */
+	public BancoEventos(RepositorioEventos eventos) throws RepositorioException {
+		this(eventos, null);
+	}
+
+	/**
+	 * Cria o banco carregando o estado do log de eventos.
+	 *
+	 * @param eventos
+	 *            log de eventos.
+	 * @param lancamentos
+	 *            repositorio de lancamentos ou <code>null</code>. Os eventos
+	 *            reaplicados na inicializacao nao geram lancamentos.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na leitura do log.
+	 */
+	public BancoEventos(RepositorioEventos eventos,
+			IRepositorioLancamentos lancamentos) throws RepositorioException {
+		super(new RepositorioClientesHash(), new RepositorioContasHash());
+		this.eventos = eventos;
+		this.eventos.carregar(this.clientes, this.contas, this::reaplicar);
+		this.lancamentos = lancamentos;
+	}
+
+	/**
+	 * Reaplica um evento lido do log pelas operacoes de <code>Banco</code>.
+	 */
+	private void reaplicar(Evento evento) throws RepositorioException {
+		try {
+			switch (evento.getTipo()) {
+			case CLIENTE_CADASTRADO:
+				this.clientes.inserir(evento.getCliente());
+				break;
+			case CLIENTE_ATUALIZADO:
+				this.clientes.atualizar(evento.getCliente());
+				break;
+			case CLIENTE_REMOVIDO:
+				this.clientes.remover(evento.getCpf());
+				break;
+			case CONTA_CADASTRADA:
+				this.contas.inserir(evento.getConta());
+				break;
+			case CONTA_ASSOCIADA:
+				super.associarConta(evento.getCpf(), evento.getNumero());
+				break;
+			case CONTA_REMOVIDA:
+				this.contas.remover(evento.getNumero());
+				break;
+			case CREDITADO:
+				super.creditar(this.conta(evento.getNumero()),
+						evento.getValor());
+				break;
+			case DEBITADO:
+				super.debitar(this.conta(evento.getNumero()), evento.getValor());
+				break;
+			case TRANSFERIDO:
+				super.transferir(this.conta(evento.getNumero()),
+						this.conta(evento.getNumeroDestino()), evento.getValor());
+				break;
+			case JUROS_CREDITADOS: {
+				ContaAbstrata conta = this.conta(evento.getNumero());
+				conta.setSaldo(conta.getSaldoDinheiro().somar(evento.getValor()));
+				this.contas.atualizar(conta);
+				break;
+			}
+			case BONUS_CREDITADO: {
+				ContaEspecial conta = (ContaEspecial) this.conta(evento
+						.getNumero());
+				conta.setSaldo(conta.getSaldoDinheiro().somar(evento.getValor()));
+				conta.setBonus(conta.getBonusDinheiro().subtrair(
+						evento.getValor()));
+				this.contas.atualizar(conta);
+				break;
+			}
+			}
+		} catch (RepositorioException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RepositorioException("Evento invalido no log: " + evento);
+		}
+	}
+
+	/**
+	 * Procura a conta de um evento reaplicado.
+	 */
+	private ContaAbstrata conta(String numero) throws ContaNaoEncontradaException {
+		ContaAbstrata conta = this.contas.procurar(numero);
+		if (conta == null)
+			throw new ContaNaoEncontradaException();
+		return conta;
+	}
+
+	/**
+	 * Aguarda a confirmacao dos eventos registrados e, se o log atingiu o
+	 * limite, grava um snapshot. Deve ser chamado fora das travas.
+	 */
+	private void confirmar() throws RepositorioException {
+		this.eventos.confirmar();
+		if (this.eventos.precisaSnapshot())
+			this.gravarSnapshot();
+	}
+
+	/**
+	 * Copia o estado atual para um snapshot, gravado em segundo plano. As
+	 * operacoes ficam bloqueadas apenas durante a copia em memoria.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com os arquivos.
+	 */
+	public void gravarSnapshot() throws RepositorioException {
+		this.estado.writeLock().lock();
+		try {
+			this.eventos.iniciarSnapshot(this.clientes, this.contas);
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Aguarda o snapshot em andamento e fecha o log de eventos.
+	 *
+	 * @throws RepositorioException
+	 *             lancada em caso de erro com o arquivo.
+	 */
+	public void fechar() throws RepositorioException {
+		this.eventos.fechar();
+	}
+
+	@Override
+	public void cadastrarCliente(Cliente cliente) throws RepositorioException,
+			ClienteJaCadastradoException {
+		this.estado.writeLock().lock();
+		try {
+			super.cadastrarCliente(cliente);
+			this.eventos.registrar(Evento.clienteCadastrado(cliente));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void cadastrar(ContaAbstrata conta) throws RepositorioException,
+			ContaJaCadastradaException {
+		this.estado.writeLock().lock();
+		try {
+			super.cadastrar(conta);
+			this.eventos.registrar(Evento.contaCadastrada(conta));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void associarConta(String cpf, String numeroConta)
+			throws ClienteJaPossuiContaException, ContaJaAssociadaException,
+			ClienteNaoCadastradoException, RepositorioException {
+		this.estado.writeLock().lock();
+		try {
+			super.associarConta(cpf, numeroConta);
+			this.eventos.registrar(Evento.contaAssociada(cpf, numeroConta));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	/**
+	 * A remocao das contas do cliente eh registrada por
+	 * <code>removerContas</code> antes do evento de remocao do cliente.
+	 */
+	@Override
+	public void removerCliente(String cpf) throws RepositorioException,
+			ClienteNaoCadastradoException, ContaNaoEncontradaException,
+			ClienteNaoPossuiContaException {
+		this.estado.writeLock().lock();
+		try {
+			super.removerCliente(cpf);
+			this.eventos.registrar(Evento.clienteRemovido(cpf));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	/**
+	 * Registra a remocao de todas as contas e o novo estado do cliente de uma
+	 * vez, inclusive quando uma conta nao eh encontrada no meio. Chamado por
+	 * <code>removerCliente</code>, que ja tem a trava.
+	 */
+	@Override
+	protected void removerContas(Cliente cliente) throws RepositorioException,
+			ContaNaoEncontradaException {
+		List<String> numeros = new ArrayList<String>(cliente.getContas());
+		try {
+			super.removerContas(cliente);
+		} finally {
+			List<Evento> lista = new ArrayList<Evento>(numeros.size() + 1);
+			for (String numero : numeros) {
+				if (!cliente.getContas().contains(numero))
+					lista.add(Evento.contaRemovida(numero));
+			}
+			lista.add(Evento.clienteAtualizado(cliente));
+			this.eventos.registrarTodos(lista);
+		}
+	}
+
+	/**
+	 * Registra a remocao da conta e o novo estado do cliente, ja que o
+	 * cliente recebido pode nao ser o mesmo objeto mantido pelo banco.
+	 */
+	@Override
+	public void removerConta(Cliente cliente, String numeroConta)
+			throws RepositorioException, ContaNaoEncontradaException,
+			ClienteNaoPossuiContaException {
+		this.estado.writeLock().lock();
+		try {
+			super.removerConta(cliente, numeroConta);
+			List<Evento> lista = new ArrayList<Evento>(2);
+			lista.add(Evento.contaRemovida(numeroConta));
+			lista.add(Evento.clienteAtualizado(cliente));
+			this.eventos.registrarTodos(lista);
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void atualizarCliente(Cliente cliente) throws RepositorioException,
+			AtualizacaoNaoRealizadaException {
+		this.estado.writeLock().lock();
+		try {
+			super.atualizarCliente(cliente);
+			this.eventos.registrar(Evento.clienteAtualizado(cliente));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void creditar(ContaAbstrata conta, Dinheiro valor)
+			throws RepositorioException, ValorInvalidoException {
+		this.estado.readLock().lock();
+		this.travas.travar(conta.getNumero());
+		try {
+			super.creditar(conta, valor);
+			if (this.contas.existe(conta.getNumero()))
+				this.eventos.registrar(Evento.creditado(conta.getNumero(), valor));
+		} finally {
+			this.travas.destravar(conta.getNumero());
+			this.estado.readLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void debitar(ContaAbstrata conta, Dinheiro valor)
+			throws RepositorioException, SaldoInsuficienteException,
+			ValorInvalidoException {
+		this.estado.readLock().lock();
+		this.travas.travar(conta.getNumero());
+		try {
+			super.debitar(conta, valor);
+			if (this.contas.existe(conta.getNumero()))
+				this.eventos.registrar(Evento.debitado(conta.getNumero(), valor));
+		} finally {
+			this.travas.destravar(conta.getNumero());
+			this.estado.readLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void transferir(ContaAbstrata contaOrigem,
+			ContaAbstrata contaDestino, Dinheiro valor)
+			throws SaldoInsuficienteException, RepositorioException,
+			ValorInvalidoException {
+		String origem = contaOrigem.getNumero();
+		String destino = contaDestino.getNumero();
+		this.estado.readLock().lock();
+		this.travas.travar(origem, destino);
+		try {
+			super.transferir(contaOrigem, contaDestino, valor);
+			if (this.contas.existe(origem) && this.contas.existe(destino))
+				this.eventos.registrar(Evento.transferido(origem, destino,
+						valor));
+		} finally {
+			this.travas.destravar(origem, destino);
+			this.estado.readLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void renderJuros(ContaAbstrata conta)
+			throws RenderJurosPoupancaException, ContaNaoEncontradaException,
+			RepositorioException {
+		this.estado.readLock().lock();
+		this.travas.travar(conta.getNumero());
+		try {
+			Dinheiro saldoAnterior = conta.getSaldoDinheiro();
+			super.renderJuros(conta);
+			this.eventos.registrar(Evento.jurosCreditados(conta.getNumero(),
+					conta.getSaldoDinheiro().subtrair(saldoAnterior)));
+		} finally {
+			this.travas.destravar(conta.getNumero());
+			this.estado.readLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	@Override
+	public void renderBonus(ContaAbstrata conta)
+			throws RenderBonusContaEspecialException, RepositorioException,
+			ContaNaoEncontradaException {
+		this.estado.readLock().lock();
+		this.travas.travar(conta.getNumero());
+		try {
+			Dinheiro saldoAnterior = conta.getSaldoDinheiro();
+			super.renderBonus(conta);
+			this.eventos.registrar(Evento.bonusCreditado(conta.getNumero(),
+					conta.getSaldoDinheiro().subtrair(saldoAnterior)));
+		} finally {
+			this.travas.destravar(conta.getNumero());
+			this.estado.readLock().unlock();
+		}
+		this.confirmar();
+	}
+
+	/**
+	 * Executa o lote com exclusividade e registra os eventos das operacoes
+	 * realizadas com uma unica escrita.
+	 */
+	@Override
+	public List<ResultadoOperacao> executarLote(List<OperacaoLote> operacoes)
+			throws RepositorioException {
+		List<ResultadoOperacao> resultados;
+		this.estado.writeLock().lock();
+		try {
+			resultados = super.executarLote(operacoes);
+			List<Evento> lista = new ArrayList<Evento>(operacoes.size());
+			for (int i = 0; i < operacoes.size(); i++) {
+				if (resultados.get(i).foiRealizada())
+					lista.add(evento(operacoes.get(i)));
+			}
+			this.eventos.registrarTodos(lista);
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+		return resultados;
+	}
+
+	/**
+	 * Retorna o evento de uma operacao de lote realizada.
+	 */
+	private static Evento evento(OperacaoLote operacao) {
+		switch (operacao.getTipo()) {
+		case CREDITO:
+			return Evento.creditado(operacao.getNumeroOrigem(),
+					operacao.getValor());
+		case DEBITO:
+			return Evento.debitado(operacao.getNumeroOrigem(),
+					operacao.getValor());
+		default:
+			return Evento.transferido(operacao.getNumeroOrigem(),
+					operacao.getNumeroDestino(), operacao.getValor());
+		}
+	}
+
+	@Override
+	public int renderJurosTodas(ProcessamentoFimDoDia.Progresso progresso)
+			throws RepositorioException {
+		int rendidas;
+		this.estado.writeLock().lock();
+		try {
+			Map<String, Dinheiro> saldos = this.saldos(Poupanca.class);
+			rendidas = super.renderJurosTodas(progresso);
+			this.eventos.registrarTodos(this.creditos(saldos, false));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+		return rendidas;
+	}
+
+	@Override
+	public int renderBonusTodas(ProcessamentoFimDoDia.Progresso progresso)
+			throws RepositorioException {
+		int rendidas;
+		this.estado.writeLock().lock();
+		try {
+			Map<String, Dinheiro> saldos = this.saldos(ContaEspecial.class);
+			rendidas = super.renderBonusTodas(progresso);
+			this.eventos.registrarTodos(this.creditos(saldos, true));
+		} finally {
+			this.estado.writeLock().unlock();
+		}
+		this.confirmar();
+		return rendidas;
+	}
+
+	/**
+	 * Retorna o saldo de cada conta de um tipo, pelo numero da conta.
+	 */
+	private Map<String, Dinheiro> saldos(Class<? extends ContaAbstrata> tipo) {
+		Map<String, Dinheiro> saldos = new HashMap<String, Dinheiro>();
+		IteratorContaAbstrata it = this.contas.getIterator();
+		while (it.hasNext()) {
+			ContaAbstrata conta = it.next();
+			if (tipo.isInstance(conta))
+				saldos.put(conta.getNumero(), conta.getSaldoDinheiro());
+		}
+		return saldos;
+	}
+
+	/**
+	 * Cria os eventos dos juros ou bonus creditados pelo processamento de fim
+	 * do dia, com a diferenca entre o saldo atual e o anterior de cada conta.
+	 * As contas cujo saldo nao mudou nao geram eventos.
+	 */
+	private List<Evento> creditos(Map<String, Dinheiro> saldosAnteriores,
+			boolean bonus) {
+		List<Evento> lista = new ArrayList<Evento>();
+		for (Map.Entry<String, Dinheiro> saldo : saldosAnteriores.entrySet()) {
+			ContaAbstrata conta = this.contas.procurar(saldo.getKey());
+			Dinheiro valor = conta.getSaldoDinheiro().subtrair(saldo.getValue());
+			if (valor.getCentavos() == 0)
+				continue;
+			lista.add(bonus ? Evento.bonusCreditado(conta.getNumero(), valor)
+					: Evento.jurosCreditados(conta.getNumero(), valor));
+		}
+		return lista;
+	}
+}
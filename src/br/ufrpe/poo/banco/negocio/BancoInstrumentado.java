@@ -0,0 +1,400 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.List;
+
+import br.ufrpe.poo.banco.dados.Pagina;
+import br.ufrpe.poo.banco.exceptions.AtualizacaoNaoRealizadaException;
+import br.ufrpe.poo.banco.exceptions.ClienteJaCadastradoException;
+import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
+import br.ufrpe.poo.banco.exceptions.ClienteNaoCadastradoException;
+import br.ufrpe.poo.banco.exceptions.ClienteNaoPossuiContaException;
+import br.ufrpe.poo.banco.exceptions.ContaJaAssociadaException;
+import br.ufrpe.poo.banco.exceptions.ContaJaCadastradaException;
+import br.ufrpe.poo.banco.exceptions.ContaNaoEncontradaException;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
+import br.ufrpe.poo.banco.metricas.MetricaMetodo;
+import br.ufrpe.poo.banco.metricas.Metricas;
+
+/**
+ * Decorador das operacoes do banco que registra, para cada operacao, a
+ * quantidade de chamadas, os erros por tipo de excecao e o histograma de
+ * latencias, com nomes como <code>banco.transferir</code>.
+ *
+ * As operacoes com valor <code>double</code> de <code>ICliente</code> passam
+ * pelas operacoes com <code>Dinheiro</code> e sao registradas junto com elas.
+ */
+public class BancoInstrumentado implements IGerencia {
+
+	/** Prefixo padrao dos nomes das metricas. */
+	public static final String PREFIXO_PADRAO = "banco";
+
+	/** Banco decorado. */
+	private final IGerencia banco;
+
+	private final MetricaMetodo procurarCliente;
+
+	private final MetricaMetodo procurarConta;
+
+	private final MetricaMetodo creditar;
+
+	private final MetricaMetodo debitar;
+
+	private final MetricaMetodo transferir;
+
+	private final MetricaMetodo executarLote;
+
+	private final MetricaMetodo consultarUltimosLancamentos;
+
+	private final MetricaMetodo consultarLancamentos;
+
+	private final MetricaMetodo cadastrarCliente;
+
+	private final MetricaMetodo cadastrar;
+
+	private final MetricaMetodo associarConta;
+
+	private final MetricaMetodo removerCliente;
+
+	private final MetricaMetodo removerConta;
+
+	private final MetricaMetodo atualizarCliente;
+
+	private final MetricaMetodo renderJurosTodas;
+
+	private final MetricaMetodo renderBonusTodas;
+
+	private final MetricaMetodo listarClientes;
+
+	private final MetricaMetodo listarContas;
+
+	private final MetricaMetodo buscarClientes;
+
+	private final MetricaMetodo procurarTitular;
+
+	/**
+	 * Cria o decorador com o prefixo padrao.
+	 *
+	 * @param banco
+	 *            banco decorado.
+	 * @param metricas
+	 *            conjunto em que as metricas sao registradas.
+	 */
+	public BancoInstrumentado(IGerencia banco, Metricas metricas) {
+		this(banco, metricas, PREFIXO_PADRAO);
+	}
+
+	/**
+	 * Cria o decorador.
+	 *
+	 * @param banco
+	 *            banco decorado.
+	 * @param metricas
+	 *            conjunto em que as metricas sao registradas.
+	 * @param prefixo
+	 *            prefixo dos nomes das metricas.
+	 */
+	public BancoInstrumentado(IGerencia banco, Metricas metricas,
+			String prefixo) {
+		this.banco = banco;
+		this.procurarCliente = metricas.metodo(prefixo + ".procurarCliente");
+		this.procurarConta = metricas.metodo(prefixo + ".procurarConta");
+		this.creditar = metricas.metodo(prefixo + ".creditar");
+		this.debitar = metricas.metodo(prefixo + ".debitar");
+		this.transferir = metricas.metodo(prefixo + ".transferir");
+		this.executarLote = metricas.metodo(prefixo + ".executarLote");
+		this.consultarUltimosLancamentos = metricas.metodo(prefixo
+				+ ".consultarUltimosLancamentos");
+		this.consultarLancamentos = metricas.metodo(prefixo
+				+ ".consultarLancamentos");
+		this.cadastrarCliente = metricas.metodo(prefixo + ".cadastrarCliente");
+		this.cadastrar = metricas.metodo(prefixo + ".cadastrar");
+		this.associarConta = metricas.metodo(prefixo + ".associarConta");
+		this.removerCliente = metricas.metodo(prefixo + ".removerCliente");
+		this.removerConta = metricas.metodo(prefixo + ".removerConta");
+		this.atualizarCliente = metricas.metodo(prefixo + ".atualizarCliente");
+		this.renderJurosTodas = metricas.metodo(prefixo + ".renderJurosTodas");
+		this.renderBonusTodas = metricas.metodo(prefixo + ".renderBonusTodas");
+		this.listarClientes = metricas.metodo(prefixo + ".listarClientes");
+		this.listarContas = metricas.metodo(prefixo + ".listarContas");
+		this.buscarClientes = metricas.metodo(prefixo + ".buscarClientes");
+		this.procurarTitular = metricas.metodo(prefixo + ".procurarTitular");
+	}
+
+	@Override
+	public Cliente procurarCliente(String cpf) {
+		long medicao = this.procurarCliente.iniciar();
+		try {
+			Cliente cliente = this.banco.procurarCliente(cpf);
+			this.procurarCliente.sucesso(medicao);
+			return cliente;
+		} catch (RuntimeException e) {
+			this.procurarCliente.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public ContaAbstrata procurarConta(String numero) {
+		long medicao = this.procurarConta.iniciar();
+		try {
+			ContaAbstrata conta = this.banco.procurarConta(numero);
+			this.procurarConta.sucesso(medicao);
+			return conta;
+		} catch (RuntimeException e) {
+			this.procurarConta.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void creditar(ContaAbstrata conta, Dinheiro valor)
+			throws RepositorioException, ValorInvalidoException {
+		long medicao = this.creditar.iniciar();
+		try {
+			this.banco.creditar(conta, valor);
+			this.creditar.sucesso(medicao);
+		} catch (Exception e) {
+			this.creditar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void debitar(ContaAbstrata conta, Dinheiro valor)
+			throws RepositorioException, SaldoInsuficienteException,
+			ValorInvalidoException {
+		long medicao = this.debitar.iniciar();
+		try {
+			this.banco.debitar(conta, valor);
+			this.debitar.sucesso(medicao);
+		} catch (Exception e) {
+			this.debitar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void transferir(ContaAbstrata contaOrigem,
+			ContaAbstrata contaDestino, Dinheiro valor)
+			throws SaldoInsuficienteException,
+			RepositorioException, ValorInvalidoException {
+		long medicao = this.transferir.iniciar();
+		try {
+			this.banco.transferir(contaOrigem, contaDestino, valor);
+			this.transferir.sucesso(medicao);
+		} catch (Exception e) {
+			this.transferir.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public List<ResultadoOperacao> executarLote(List<OperacaoLote> operacoes)
+			throws RepositorioException {
+		long medicao = this.executarLote.iniciar();
+		try {
+			List<ResultadoOperacao> resultado = this.banco
+					.executarLote(operacoes);
+			this.executarLote.sucesso(medicao);
+			return resultado;
+		} catch (Exception e) {
+			this.executarLote.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public List<Lancamento> consultarUltimosLancamentos(String numero,
+			int quantidade) {
+		long medicao = this.consultarUltimosLancamentos.iniciar();
+		try {
+			List<Lancamento> resultado = this.banco
+					.consultarUltimosLancamentos(numero, quantidade);
+			this.consultarUltimosLancamentos.sucesso(medicao);
+			return resultado;
+		} catch (RuntimeException e) {
+			this.consultarUltimosLancamentos.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public List<Lancamento> consultarLancamentos(String numero, long inicio,
+			long fim) {
+		long medicao = this.consultarLancamentos.iniciar();
+		try {
+			List<Lancamento> resultado = this.banco.consultarLancamentos(
+					numero, inicio, fim);
+			this.consultarLancamentos.sucesso(medicao);
+			return resultado;
+		} catch (RuntimeException e) {
+			this.consultarLancamentos.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void cadastrarCliente(Cliente cliente) throws RepositorioException,
+			ClienteJaCadastradoException {
+		long medicao = this.cadastrarCliente.iniciar();
+		try {
+			this.banco.cadastrarCliente(cliente);
+			this.cadastrarCliente.sucesso(medicao);
+		} catch (Exception e) {
+			this.cadastrarCliente.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void cadastrar(ContaAbstrata conta) throws RepositorioException,
+			ContaJaCadastradaException {
+		long medicao = this.cadastrar.iniciar();
+		try {
+			this.banco.cadastrar(conta);
+			this.cadastrar.sucesso(medicao);
+		} catch (Exception e) {
+			this.cadastrar.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void associarConta(String cpf, String numeroConta)
+			throws ClienteJaPossuiContaException, ContaJaAssociadaException,
+			ClienteNaoCadastradoException, RepositorioException {
+		long medicao = this.associarConta.iniciar();
+		try {
+			this.banco.associarConta(cpf, numeroConta);
+			this.associarConta.sucesso(medicao);
+		} catch (Exception e) {
+			this.associarConta.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void removerCliente(String cpf) throws RepositorioException,
+			ClienteNaoCadastradoException, AtualizacaoNaoRealizadaException,
+			ContaNaoEncontradaException, ClienteNaoPossuiContaException {
+		long medicao = this.removerCliente.iniciar();
+		try {
+			this.banco.removerCliente(cpf);
+			this.removerCliente.sucesso(medicao);
+		} catch (Exception e) {
+			this.removerCliente.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void removerConta(Cliente cliente, String numeroConta)
+			throws RepositorioException, ContaNaoEncontradaException,
+			ClienteNaoPossuiContaException {
+		long medicao = this.removerConta.iniciar();
+		try {
+			this.banco.removerConta(cliente, numeroConta);
+			this.removerConta.sucesso(medicao);
+		} catch (Exception e) {
+			this.removerConta.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public void atualizarCliente(Cliente cliente) throws RepositorioException,
+			AtualizacaoNaoRealizadaException {
+		long medicao = this.atualizarCliente.iniciar();
+		try {
+			this.banco.atualizarCliente(cliente);
+			this.atualizarCliente.sucesso(medicao);
+		} catch (Exception e) {
+			this.atualizarCliente.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public int renderJurosTodas(ProcessamentoFimDoDia.Progresso progresso)
+			throws RepositorioException {
+		long medicao = this.renderJurosTodas.iniciar();
+		try {
+			int alteradas = this.banco.renderJurosTodas(progresso);
+			this.renderJurosTodas.sucesso(medicao);
+			return alteradas;
+		} catch (Exception e) {
+			this.renderJurosTodas.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public int renderBonusTodas(ProcessamentoFimDoDia.Progresso progresso)
+			throws RepositorioException {
+		long medicao = this.renderBonusTodas.iniciar();
+		try {
+			int alteradas = this.banco.renderBonusTodas(progresso);
+			this.renderBonusTodas.sucesso(medicao);
+			return alteradas;
+		} catch (Exception e) {
+			this.renderBonusTodas.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Pagina<Cliente> listarClientes(int cursor, int tamanho) {
+		long medicao = this.listarClientes.iniciar();
+		try {
+			Pagina<Cliente> pagina = this.banco.listarClientes(cursor, tamanho);
+			this.listarClientes.sucesso(medicao);
+			return pagina;
+		} catch (RuntimeException e) {
+			this.listarClientes.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Pagina<ContaAbstrata> listarContas(int cursor, int tamanho) {
+		long medicao = this.listarContas.iniciar();
+		try {
+			Pagina<ContaAbstrata> pagina = this.banco.listarContas(cursor,
+					tamanho);
+			this.listarContas.sucesso(medicao);
+			return pagina;
+		} catch (RuntimeException e) {
+			this.listarContas.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public List<Cliente> buscarClientes(String consulta, int quantidade) {
+		long medicao = this.buscarClientes.iniciar();
+		try {
+			List<Cliente> encontrados = this.banco.buscarClientes(consulta,
+					quantidade);
+			this.buscarClientes.sucesso(medicao);
+			return encontrados;
+		} catch (RuntimeException e) {
+			this.buscarClientes.falha(medicao, e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Cliente procurarTitular(String numeroConta) {
+		long medicao = this.procurarTitular.iniciar();
+		try {
+			Cliente cliente = this.banco.procurarTitular(numeroConta);
+			this.procurarTitular.sucesso(medicao);
+			return cliente;
+		} catch (RuntimeException e) {
+			this.procurarTitular.falha(medicao, e);
+			throw e;
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package br.ufrpe.poo.banco.negocio;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collection;
 
 import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
 import br.ufrpe.poo.banco.exceptions.ClienteNaoPossuiContaException;
@@ -27,9 +29,9 @@ public class Cliente implements Serializable {
 	protected String cpf;
 
 	/**
-	 * Array de numero de contas a qual o cliente possui.
+	 * Conjunto dos numeros das contas que o cliente possui.
 	 */
-	protected ArrayList<String> contas;
+	protected ConjuntoContas contas;
 
 	/**
 	 * Inicializa cliente.
@@ -42,7 +44,7 @@ public class Cliente implements Serializable {
 	public Cliente(String nome, String cpf) {
 		this.nome = nome;
 		this.cpf = cpf;
-		this.contas = new ArrayList<String>();
+		this.contas = new ConjuntoContas();
 	}
 
 	public String getNome() {
@@ -61,7 +63,7 @@ public class Cliente implements Serializable {
 		this.cpf = cpf;
 	}
 
-	public ArrayList<String> getContas() {
+	public ConjuntoContas getContas() {
 		return this.contas;
 	}
 
@@ -76,9 +78,8 @@ public class Cliente implements Serializable {
 	 */
 	public void adicionarConta(String numeroConta)
 			throws ClienteJaPossuiContaException {
-		if (procurarConta(numeroConta) != -1)
+		if (!this.contas.add(numeroConta))
 			throw new ClienteJaPossuiContaException();
-		this.contas.add(numeroConta);
 
 	}
 
@@ -93,10 +94,8 @@ public class Cliente implements Serializable {
 	 */
 	public void removerConta(String numeroConta)
 			throws ClienteNaoPossuiContaException {
-		int index = procurarConta(numeroConta);
-		if (index == -1)
+		if (!this.contas.remove(numeroConta))
 			throw new ClienteNaoPossuiContaException();
-		this.contas.remove(index);
 	}
 
 	/**
@@ -121,6 +120,22 @@ public class Cliente implements Serializable {
 		return this.contas.get(i);
 	}
 
+	/**
+	 * Le o cliente aceitando tambem o formato anterior, em que as contas eram
+	 * gravadas como um <code>ArrayList</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField campos = in.readFields();
+		this.nome = (String) campos.get("nome", null);
+		this.cpf = (String) campos.get("cpf", null);
+		Object contas = campos.get("contas", null);
+		if (contas instanceof ConjuntoContas)
+			this.contas = (ConjuntoContas) contas;
+		else if (contas != null)
+			this.contas = new ConjuntoContas((Collection<String>) contas);
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (o instanceof Cliente) {
@@ -0,0 +1,330 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Conjunto dos numeros das contas de um cliente.
+ *
+ * Os numeros ficam num array, na ordem em que foram adicionados, e uma tabela
+ * de enderecamento aberto guarda a posicao de cada numero no array. Assim
+ * <code>contains</code>, <code>indexOf</code>, a inclusao e a remocao custam
+ * O(1), em vez de percorrer todos os numeros como num
+ * <code>ArrayList</code>. A tabela eh um <code>int[]</code> e so eh criada
+ * quando o cliente passa de {@value #LIMITE_LINEAR} contas; abaixo disso a
+ * busca percorre o array, que para poucas contas eh mais rapido.
+ *
+ * Para nao deslocar os numeros seguintes, a remocao de um numero, por
+ * <code>remove</code> ou pelo iterador, move o ultimo numero para a posicao
+ * liberada: a ordem dos numeros nao eh mantida depois de uma remocao, ao
+ * contrario do contrato de <code>List</code>. Esvaziar o conjunto a partir do
+ * fim nunca move nenhum numero. A remocao de um intervalo, como em
+ * <code>subList(de, ate).clear()</code>, desloca os numeros seguintes e
+ * remove exatamente os numeros do intervalo. Um iterador que remove numeros
+ * ainda passa uma vez por cada numero que continua no conjunto.
+ *
+ * Um numero aparece no maximo uma vez: <code>add</code> de um numero que ja
+ * esta no conjunto retorna <code>false</code> e nao o altera. Inserir numa
+ * posicao, com <code>add(int, String)</code>, nao eh suportado.
+ *
+ * Na serializacao Java so sao gravados a quantidade e os numeros; a tabela eh
+ * montada de novo na leitura.
+ */
+public class ConjuntoContas extends AbstractList<String> implements
+		RandomAccess, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Quantidade de contas ate a qual a busca percorre o array. */
+	static final int LIMITE_LINEAR = 8;
+
+	/** Numeros das contas, nas posicoes de 0 a <code>tamanho - 1</code>. */
+	private transient String[] numeros;
+
+	/** Quantidade de contas. */
+	private transient int tamanho;
+
+	/**
+	 * Posicao mais um de cada numero, pelo hash do numero; zero marca uma
+	 * entrada vazia. Nulo enquanto o conjunto tem poucas contas.
+	 */
+	private transient int[] tabela;
+
+	/**
+	 * Cria um conjunto vazio.
+	 */
+	public ConjuntoContas() {
+		this.numeros = new String[4];
+	}
+
+	/**
+	 * Cria um conjunto com os numeros de uma colecao, sem repeticao.
+	 *
+	 * @param numeros
+	 *            numeros das contas.
+	 */
+	public ConjuntoContas(Collection<String> numeros) {
+		this.numeros = new String[Math.max(4, numeros.size())];
+		for (String numero : numeros) {
+			this.add(numero);
+		}
+	}
+
+	/**
+	 * Garante espaco para uma quantidade de contas sem realocar o array.
+	 *
+	 * @param capacidade
+	 *            quantidade de contas.
+	 */
+	public void garantirCapacidade(int capacidade) {
+		if (capacidade > this.numeros.length)
+			this.numeros = Arrays.copyOf(this.numeros, capacidade);
+		if (capacidade > LIMITE_LINEAR && this.tabela != null
+				&& capacidade * 2 > this.tabela.length)
+			this.montarTabela(capacidade);
+	}
+
+	@Override
+	public String get(int posicao) {
+		Objects.checkIndex(posicao, this.tamanho);
+		return this.numeros[posicao];
+	}
+
+	@Override
+	public int size() {
+		return this.tamanho;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return this.indexOf(o) != -1;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof String))
+			return -1;
+		if (this.tabela == null) {
+			for (int i = 0; i < this.tamanho; i++) {
+				if (this.numeros[i].equals(o))
+					return i;
+			}
+			return -1;
+		}
+		int mascara = this.tabela.length - 1;
+		for (int i = espalhar(o.hashCode()) & mascara; this.tabela[i] != 0; i = (i + 1)
+				& mascara) {
+			int posicao = this.tabela[i] - 1;
+			if (this.numeros[posicao].equals(o))
+				return posicao;
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return this.indexOf(o);
+	}
+
+	/**
+	 * Adiciona um numero ao fim do conjunto.
+	 *
+	 * @param numero
+	 *            numero da conta.
+	 * @return <code>false</code> se o numero ja esta no conjunto.
+	 */
+	@Override
+	public boolean add(String numero) {
+		Objects.requireNonNull(numero);
+		if (this.indexOf(numero) != -1)
+			return false;
+		if (this.tamanho == this.numeros.length)
+			this.numeros = Arrays.copyOf(this.numeros, this.tamanho * 2);
+		this.numeros[this.tamanho] = numero;
+		this.tamanho++;
+		if (this.tabela != null) {
+			if (this.tamanho * 2 > this.tabela.length)
+				this.montarTabela(this.tamanho);
+			else
+				this.incluirNaTabela(this.tamanho - 1);
+		} else if (this.tamanho > LIMITE_LINEAR) {
+			this.montarTabela(this.tamanho);
+		}
+		this.modCount++;
+		return true;
+	}
+
+	/**
+	 * Substitui o numero de uma posicao.
+	 *
+	 * @throws IllegalArgumentException
+	 *             se o novo numero ja esta em outra posicao.
+	 */
+	@Override
+	public String set(int posicao, String numero) {
+		Objects.requireNonNull(numero);
+		String anterior = this.get(posicao);
+		int existente = this.indexOf(numero);
+		if (existente == posicao)
+			return anterior;
+		if (existente != -1)
+			throw new IllegalArgumentException(numero);
+		if (this.tabela != null)
+			this.retirarDaTabela(this.entradaDe(posicao));
+		this.numeros[posicao] = numero;
+		if (this.tabela != null)
+			this.incluirNaTabela(posicao);
+		return anterior;
+	}
+
+	/**
+	 * Remove o numero de uma posicao, colocando o ultimo numero no lugar dele.
+	 */
+	@Override
+	public String remove(int posicao) {
+		String numero = this.get(posicao);
+		int ultima = this.tamanho - 1;
+		if (this.tabela != null) {
+			this.retirarDaTabela(this.entradaDe(posicao));
+			if (posicao != ultima)
+				this.tabela[this.entradaDe(ultima)] = posicao + 1;
+		}
+		this.numeros[posicao] = this.numeros[ultima];
+		this.numeros[ultima] = null;
+		this.tamanho--;
+		this.modCount++;
+		return numero;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int posicao = this.indexOf(o);
+		if (posicao == -1)
+			return false;
+		this.remove(posicao);
+		return true;
+	}
+
+	/**
+	 * Remove os numeros das posicoes de <code>inicio</code> ate
+	 * <code>fim - 1</code>, deslocando os seguintes, e monta a tabela de novo.
+	 */
+	@Override
+	protected void removeRange(int inicio, int fim) {
+		Objects.checkFromToIndex(inicio, fim, this.tamanho);
+		if (inicio == fim)
+			return;
+		System.arraycopy(this.numeros, fim, this.numeros, inicio, this.tamanho
+				- fim);
+		int novoTamanho = this.tamanho - (fim - inicio);
+		Arrays.fill(this.numeros, novoTamanho, this.tamanho, null);
+		this.tamanho = novoTamanho;
+		this.tabela = null;
+		if (this.tamanho > LIMITE_LINEAR)
+			this.montarTabela(this.tamanho);
+		this.modCount++;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.numeros, 0, this.tamanho, null);
+		this.tamanho = 0;
+		this.tabela = null;
+		this.modCount++;
+	}
+
+	/**
+	 * Espalha os bits altos do hash para os bits usados pela mascara.
+	 */
+	private static int espalhar(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Cria a tabela com espaco para a quantidade de contas, no maximo meio
+	 * cheia, e inclui nela todos os numeros.
+	 */
+	private void montarTabela(int capacidade) {
+		this.tabela = new int[Integer.highestOneBit(capacidade * 2 - 1) << 1];
+		for (int i = 0; i < this.tamanho; i++) {
+			this.incluirNaTabela(i);
+		}
+	}
+
+	/**
+	 * Inclui na tabela o numero de uma posicao do array.
+	 */
+	private void incluirNaTabela(int posicao) {
+		int mascara = this.tabela.length - 1;
+		int i = espalhar(this.numeros[posicao].hashCode()) & mascara;
+		while (this.tabela[i] != 0) {
+			i = (i + 1) & mascara;
+		}
+		this.tabela[i] = posicao + 1;
+	}
+
+	/**
+	 * Retorna a entrada da tabela que aponta para uma posicao do array.
+	 */
+	private int entradaDe(int posicao) {
+		int mascara = this.tabela.length - 1;
+		int i = espalhar(this.numeros[posicao].hashCode()) & mascara;
+		while (this.tabela[i] != posicao + 1) {
+			i = (i + 1) & mascara;
+		}
+		return i;
+	}
+
+	/**
+	 * Esvazia uma entrada da tabela e traz para tras as entradas seguintes que
+	 * ficariam inalcancaveis, para que nenhuma busca pare antes da hora.
+	 */
+	private void retirarDaTabela(int entrada) {
+		int mascara = this.tabela.length - 1;
+		int vazia = entrada;
+		int i = entrada;
+		while (true) {
+			i = (i + 1) & mascara;
+			if (this.tabela[i] == 0)
+				break;
+			int ideal = espalhar(this.numeros[this.tabela[i] - 1].hashCode())
+					& mascara;
+			// a entrada pode ficar se o seu lugar ideal esta entre a vazia e ela
+			boolean fica = vazia <= i ? vazia < ideal && ideal <= i
+					: vazia < ideal || ideal <= i;
+			if (!fica) {
+				this.tabela[vazia] = this.tabela[i];
+				vazia = i;
+			}
+		}
+		this.tabela[vazia] = 0;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(this.tamanho);
+		for (int i = 0; i < this.tamanho; i++) {
+			out.writeUTF(this.numeros[i]);
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		int quantidade = in.readInt();
+		if (quantidade < 0)
+			throw new InvalidObjectException("quantidade de contas negativa");
+		this.numeros = new String[Math.max(4, quantidade)];
+		for (int i = 0; i < quantidade; i++) {
+			this.add(in.readUTF());
+		}
+	}
+}
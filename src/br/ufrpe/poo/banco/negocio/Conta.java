@@ -13,18 +13,22 @@ public class Conta extends ContaAbstrata {
 	private static final long serialVersionUID = 1L;
 
 	public Conta(String numero, double valor) {
+		this(numero, Dinheiro.de(valor));
+	}
+
+	public Conta(String numero, Dinheiro valor) {
 		super(numero, valor);
-		if(valor < 0) {
-			this.setSaldo(0);
+		if(valor.ehNegativo()) {
+			this.setSaldo(Dinheiro.ZERO);
 		}
 	}
 
 	@Override
-	public void debitar(double valor) throws SaldoInsuficienteException {
-		if (this.getSaldo() < valor)
+	public void debitar(Dinheiro valor) throws SaldoInsuficienteException {
+		if (this.getSaldoDinheiro().menorQue(valor))
 			throw new SaldoInsuficienteException(this.getNumero(),
 					this.getSaldo());
-		this.setSaldo(this.getSaldo() - valor);
+		this.setSaldo(this.getSaldoDinheiro().subtrair(valor));
 	}
 
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package br.ufrpe.poo.banco.negocio;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
@@ -7,6 +11,10 @@ import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
 /**
  * Classe abstrata de uma conta bancaria.
  * 
+ * O saldo eh mantido em centavos (ver <code>Dinheiro</code>). Os metodos que
+ * recebem e retornam <code>double</code> sao adaptadores que arredondam o
+ * valor para o centavo mais proximo.
+ * 
  * @author
  * 
  */
@@ -14,15 +22,23 @@ public abstract class ContaAbstrata implements Serializable {
 
 	protected static final long serialVersionUID = 1L;
 
+	/**
+	 * Campos gravados pela serializacao Java, mantidos como no formato
+	 * anterior (saldo em <code>double</code>).
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("numero", String.class),
+			new ObjectStreamField("saldo", double.class) };
+
 	/**
 	 * Numero da conta bancaria.
 	 */
 	protected String numero;
 
 	/**
-	 * Valor do saldo da conta bancaria.
+	 * Valor do saldo da conta bancaria em centavos.
 	 */
-	protected double saldo;
+	protected transient long saldoCentavos;
 
 	/**
 	 * Inicializa um conta.
@@ -33,12 +49,28 @@ public abstract class ContaAbstrata implements Serializable {
 	 *            Valor do saldo da conta.
 	 */
 	public ContaAbstrata(String numero, double valor) {
+		this(numero, Dinheiro.de(valor));
+	}
+
+	/**
+	 * Inicializa um conta.
+	 * 
+	 * @param numero
+	 *            Numero da conta.
+	 * @param valor
+	 *            Valor do saldo da conta.
+	 */
+	public ContaAbstrata(String numero, Dinheiro valor) {
 		this.numero = numero;
-		this.saldo = valor;
+		this.saldoCentavos = valor.getCentavos();
 	}
 
 	public void setSaldo(double saldo) {
-		this.saldo = saldo;
+		this.setSaldo(Dinheiro.de(saldo));
+	}
+
+	public void setSaldo(Dinheiro saldo) {
+		this.saldoCentavos = saldo.getCentavos();
 	}
 
 	public void setNumero(String numero) {
@@ -50,7 +82,11 @@ public abstract class ContaAbstrata implements Serializable {
 	}
 
 	public double getSaldo() {
-		return this.saldo;
+		return this.saldoCentavos / (double) Dinheiro.CENTAVOS_POR_UNIDADE;
+	}
+
+	public Dinheiro getSaldoDinheiro() {
+		return Dinheiro.deCentavos(this.saldoCentavos);
 	}
 
 	/**
@@ -60,8 +96,19 @@ public abstract class ContaAbstrata implements Serializable {
 	 *            Valor a ser creditado a conta.
 	 */
 	public void creditar(double valor) {
-		if(valor > 0)
-			this.saldo = this.saldo + valor;
+		this.creditar(Dinheiro.de(valor));
+	}
+
+	/**
+	 * Credita um valor a conta bancaria.
+	 * 
+	 * @param valor
+	 *            Valor a ser creditado a conta.
+	 */
+	public void creditar(Dinheiro valor) {
+		if (valor.ehPositivo())
+			this.saldoCentavos = Math.addExact(this.saldoCentavos,
+					valor.getCentavos());
 	}
 
 	/**
@@ -74,7 +121,21 @@ public abstract class ContaAbstrata implements Serializable {
 	 *             atual da conta.
 	 * 
 	 */
-	public abstract void debitar(double valor)
+	public void debitar(double valor) throws SaldoInsuficienteException {
+		this.debitar(Dinheiro.de(valor));
+	}
+
+	/**
+	 * Debita um valor da conta bancaria.
+	 * 
+	 * @param valor
+	 *            Valor a ser debita da conta.
+	 * @throws SaldoInsuficienteException
+	 *             Lancada caso o valor a ser debitado exceda o valor do saldo
+	 *             atual da conta.
+	 * 
+	 */
+	public abstract void debitar(Dinheiro valor)
 			throws SaldoInsuficienteException;
 
 	@Override
@@ -85,4 +146,19 @@ public abstract class ContaAbstrata implements Serializable {
 		}
 		return false;
 	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField campos = out.putFields();
+		campos.put("numero", this.numero);
+		campos.put("saldo", this.getSaldo());
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		ObjectInputStream.GetField campos = in.readFields();
+		this.numero = (String) campos.get("numero", null);
+		this.saldoCentavos = Dinheiro.de(campos.get("saldo", 0.0))
+				.getCentavos();
+	}
 }
@@ -1,5 +1,10 @@
 package br.ufrpe.poo.banco.negocio;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 /**
  * Conta bancaria do tipo conta especial.
  * 
@@ -11,31 +16,73 @@ public class ContaEspecial extends Conta {
 	private static final long serialVersionUID = 1L;
 
 	/**
-	 * Valor do bonus.
+	 * Taxa do bonus sobre cada credito.
+	 */
+	public static final double TAXA_BONUS = 0.01;
+
+	/**
+	 * Campo gravado pela serializacao Java, mantido como no formato anterior
+	 * (bonus em <code>double</code>).
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField(
+			"bonus", double.class) };
+
+	/**
+	 * Valor do bonus em centavos.
 	 */
-	protected double bonus;
+	protected transient long bonusCentavos;
 
 	public ContaEspecial(String numero, double saldo) {
+		this(numero, Dinheiro.de(saldo));
+	}
+
+	public ContaEspecial(String numero, Dinheiro saldo) {
 		super(numero, saldo);
-		this.bonus = 0;
+		this.bonusCentavos = 0;
 	}
 
 	public double getBonus() {
-		return this.bonus;
+		return this.bonusCentavos / (double) Dinheiro.CENTAVOS_POR_UNIDADE;
+	}
+
+	public Dinheiro getBonusDinheiro() {
+		return Dinheiro.deCentavos(this.bonusCentavos);
+	}
+
+	public void setBonus(double bonus) {
+		this.setBonus(Dinheiro.de(bonus));
+	}
+
+	public void setBonus(Dinheiro bonus) {
+		this.bonusCentavos = bonus.getCentavos();
 	}
 
 	@Override
-	public void creditar(double valor) {
+	public void creditar(Dinheiro valor) {
 		super.creditar(valor);
-		this.bonus = this.bonus + (valor * 0.01);
+		this.setBonus(this.getBonusDinheiro().somar(
+				valor.multiplicar(TAXA_BONUS)));
 	}
 
 	/**
 	 * Credita valor de um bonus a conta especial.
 	 */
 	public void renderBonus() {
-		super.creditar(this.bonus);
-		bonus = 0;
+		super.creditar(this.getBonusDinheiro());
+		this.bonusCentavos = 0;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField campos = out.putFields();
+		campos.put("bonus", this.getBonus());
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		ObjectInputStream.GetField campos = in.readFields();
+		this.bonusCentavos = Dinheiro.de(campos.get("bonus", 0.0))
+				.getCentavos();
 	}
 
 }
\ No newline at end of file
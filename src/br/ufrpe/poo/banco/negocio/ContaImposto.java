@@ -21,14 +21,18 @@ public class ContaImposto extends ContaAbstrata {
 		super(numero, valor);
 	}
 
+	public ContaImposto(String numero, Dinheiro valor) {
+		super(numero, valor);
+	}
+
 	@Override
-	public void debitar(double valor) throws SaldoInsuficienteException {
-		if (this.getSaldo() < valor)
+	public void debitar(Dinheiro valor) throws SaldoInsuficienteException {
+		if (this.getSaldoDinheiro().menorQue(valor))
 			throw new SaldoInsuficienteException(this.getNumero(),
 					this.getSaldo());
-		double imposto = valor * CPMF;
-		double total = valor + imposto;
-		this.setSaldo(this.getSaldo() - total);
+		Dinheiro imposto = valor.multiplicar(CPMF);
+		Dinheiro total = valor.somar(imposto);
+		this.setSaldo(this.getSaldoDinheiro().subtrair(total));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetario em ponto fixo, guardado como uma quantidade inteira de
+ * centavos.
+ *
+ * Somas e subtracoes sao exatas. Multiplicacoes por uma taxa (juros, CPMF,
+ * bonus) sao arredondadas para o centavo mais proximo, de modo que o saldo
+ * nunca acumula fracoes de centavo como acontece com <code>double</code>.
+ * Os objetos sao imutaveis.
+ *
+ * @author
+ *
+ */
+public final class Dinheiro implements Comparable<Dinheiro>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Quantidade de centavos em uma unidade. */
+	public static final int CENTAVOS_POR_UNIDADE = 100;
+
+	/** Valor zero. */
+	public static final Dinheiro ZERO = new Dinheiro(0);
+
+	/**
+	 * Valor em centavos.
+	 */
+	private final long centavos;
+
+	private Dinheiro(long centavos) {
+		this.centavos = centavos;
+	}
+
+	/**
+	 * Cria um valor a partir de uma quantidade de centavos.
+	 *
+	 * @param centavos
+	 *            quantidade de centavos.
+	 * @return valor correspondente.
+	 */
+	public static Dinheiro deCentavos(long centavos) {
+		return centavos == 0 ? ZERO : new Dinheiro(centavos);
+	}
+
+	/**
+	 * Cria um valor a partir de um <code>double</code>, arredondado para o
+	 * centavo mais proximo. Adaptador para as assinaturas que recebem
+	 * <code>double</code>.
+	 *
+	 * @param valor
+	 *            valor em unidades monetarias.
+	 * @return valor correspondente.
+	 */
+	public static Dinheiro de(double valor) {
+		return deCentavos(Math.round(valor * CENTAVOS_POR_UNIDADE));
+	}
+
+	/**
+	 * Retorna o valor em centavos.
+	 *
+	 * @return quantidade de centavos.
+	 */
+	public long getCentavos() {
+		return this.centavos;
+	}
+
+	/**
+	 * Retorna o valor como <code>double</code>, para as assinaturas que ainda
+	 * usam <code>double</code>.
+	 *
+	 * @return valor em unidades monetarias.
+	 */
+	public double paraDouble() {
+		return this.centavos / (double) CENTAVOS_POR_UNIDADE;
+	}
+
+	/**
+	 * Soma dois valores.
+	 *
+	 * @param outro
+	 *            valor a ser somado.
+	 * @return soma dos valores.
+	 * @throws ArithmeticException
+	 *             lancada se a soma excede a capacidade de um
+	 *             <code>long</code>.
+	 */
+	public Dinheiro somar(Dinheiro outro) {
+		return deCentavos(Math.addExact(this.centavos, outro.centavos));
+	}
+
+	/**
+	 * Subtrai um valor deste.
+	 *
+	 * @param outro
+	 *            valor a ser subtraido.
+	 * @return diferenca dos valores.
+	 * @throws ArithmeticException
+	 *             lancada se a diferenca excede a capacidade de um
+	 *             <code>long</code>.
+	 */
+	public Dinheiro subtrair(Dinheiro outro) {
+		return deCentavos(Math.subtractExact(this.centavos, outro.centavos));
+	}
+
+	/**
+	 * Multiplica o valor por uma taxa, arredondando o resultado para o centavo
+	 * mais proximo (empates para o centavo par). A taxa eh considerada pela
+	 * sua representacao decimal, de modo que 0.0038 vale exatamente 38
+	 * decimos de milesimo.
+	 *
+	 * @param taxa
+	 *            fator de multiplicacao.
+	 * @return valor multiplicado.
+	 * @throws ArithmeticException
+	 *             lancada se o resultado excede a capacidade de um
+	 *             <code>long</code>.
+	 */
+	public Dinheiro multiplicar(double taxa) {
+		if (this.centavos == 0 || taxa == 0)
+			return ZERO;
+		BigDecimal resultado = BigDecimal.valueOf(this.centavos).multiply(
+				BigDecimal.valueOf(taxa));
+		return deCentavos(resultado.setScale(0, RoundingMode.HALF_EVEN)
+				.longValueExact());
+	}
+
+	/**
+	 * Indica se o valor eh maior que zero.
+	 *
+	 * @return se o valor eh positivo.
+	 */
+	public boolean ehPositivo() {
+		return this.centavos > 0;
+	}
+
+	/**
+	 * Indica se o valor eh menor que zero.
+	 *
+	 * @return se o valor eh negativo.
+	 */
+	public boolean ehNegativo() {
+		return this.centavos < 0;
+	}
+
+	/**
+	 * Indica se este valor eh menor que outro.
+	 *
+	 * @param outro
+	 *            valor comparado.
+	 * @return se este valor eh menor.
+	 */
+	public boolean menorQue(Dinheiro outro) {
+		return this.centavos < outro.centavos;
+	}
+
+	@Override
+	public int compareTo(Dinheiro outro) {
+		return Long.compare(this.centavos, outro.centavos);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof Dinheiro) {
+			return ((Dinheiro) obj).centavos == this.centavos;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(this.centavos);
+	}
+
+	/**
+	 * Retorna o valor com duas casas decimais, por exemplo "-12.05".
+	 */
+	@Override
+	public String toString() {
+		long absoluto = Math.abs(this.centavos);
+		long centavosResto = absoluto % CENTAVOS_POR_UNIDADE;
+		return (this.centavos < 0 ? "-" : "") + absoluto
+				/ CENTAVOS_POR_UNIDADE + (centavosResto < 10 ? ".0" : ".")
+				+ centavosResto;
+	}
+}
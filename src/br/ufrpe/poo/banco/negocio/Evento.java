@@ -0,0 +1,241 @@
+package br.ufrpe.poo.banco.negocio;
+
+/**
+ * Evento que alterou o estado do banco, registrado em ordem num log de
+ * eventos.
+ *
+ * Cadastros e atualizacoes guardam o estado do cliente ou da conta no momento
+ * do evento. Creditos, debitos e transferencias guardam apenas os seus
+ * argumentos e sao reaplicados pelas mesmas regras de negocio que os
+ * executaram, o que mantem o log compacto. Juros e bonus guardam o valor
+ * aplicado em cada conta, para que uma mudanca na taxa de juros ou na regra
+ * do bonus nao mude o resultado da reaplicacao do historico.
+ *
+ * @author
+ *
+ */
+public final class Evento {
+
+	/**
+	 * Eventos registrados.
+	 */
+	public enum Tipo {
+		/** Cliente cadastrado, com o seu estado. */
+		CLIENTE_CADASTRADO(0),
+		/** Cliente atualizado, com o seu novo estado. */
+		CLIENTE_ATUALIZADO(1),
+		/** Cliente removido, depois da remocao de cada uma das suas contas. */
+		CLIENTE_REMOVIDO(2),
+		/** Conta cadastrada, com o seu estado. */
+		CONTA_CADASTRADA(3),
+		/** Numero de conta associado a um cliente. */
+		CONTA_ASSOCIADA(4),
+		/** Conta removida. */
+		CONTA_REMOVIDA(5),
+		/** Credito numa conta. */
+		CREDITADO(6),
+		/** Debito numa conta. */
+		DEBITADO(7),
+		/** Transferencia entre duas contas. */
+		TRANSFERIDO(8),
+		/** Juros creditados numa poupanca, com o valor creditado. */
+		JUROS_CREDITADOS(9),
+		/**
+		 * Bonus de uma conta especial passado para o saldo, com o valor
+		 * passado.
+		 */
+		BONUS_CREDITADO(10);
+
+		/** Codigo gravado nos arquivos; nao deve mudar. */
+		private final int codigo;
+
+		private Tipo(int codigo) {
+			this.codigo = codigo;
+		}
+
+		/**
+		 * Retorna o codigo gravado nos arquivos para este tipo.
+		 *
+		 * @return codigo do tipo.
+		 */
+		public int getCodigo() {
+			return this.codigo;
+		}
+
+		/**
+		 * Retorna o tipo de um codigo lido de um arquivo.
+		 *
+		 * @param codigo
+		 *            codigo do tipo.
+		 * @return tipo ou <code>null</code> se o codigo nao existe.
+		 */
+		public static Tipo doCodigo(int codigo) {
+			switch (codigo) {
+			case 0:
+				return CLIENTE_CADASTRADO;
+			case 1:
+				return CLIENTE_ATUALIZADO;
+			case 2:
+				return CLIENTE_REMOVIDO;
+			case 3:
+				return CONTA_CADASTRADA;
+			case 4:
+				return CONTA_ASSOCIADA;
+			case 5:
+				return CONTA_REMOVIDA;
+			case 6:
+				return CREDITADO;
+			case 7:
+				return DEBITADO;
+			case 8:
+				return TRANSFERIDO;
+			case 9:
+				return JUROS_CREDITADOS;
+			case 10:
+				return BONUS_CREDITADO;
+			default:
+				return null;
+			}
+		}
+	}
+
+	/** Tipo do evento. */
+	private final Tipo tipo;
+
+	/** Cpf do cliente, nos eventos de cliente e de associacao. */
+	private final String cpf;
+
+	/** Numero da conta, ou da conta de origem de uma transferencia. */
+	private final String numero;
+
+	/** Numero da conta de destino de uma transferencia. */
+	private final String numeroDestino;
+
+	/** Valor de um credito, debito, transferencia, juros ou bonus. */
+	private final Dinheiro valor;
+
+	/** Estado do cliente cadastrado ou atualizado. */
+	private final Cliente cliente;
+
+	/** Estado da conta cadastrada. */
+	private final ContaAbstrata conta;
+
+	private Evento(Tipo tipo, String cpf, String numero, String numeroDestino,
+			Dinheiro valor, Cliente cliente, ContaAbstrata conta) {
+		this.tipo = tipo;
+		this.cpf = cpf;
+		this.numero = numero;
+		this.numeroDestino = numeroDestino;
+		this.valor = valor;
+		this.cliente = cliente;
+		this.conta = conta;
+	}
+
+	/** Cria o evento do cadastro de um cliente. */
+	public static Evento clienteCadastrado(Cliente cliente) {
+		return new Evento(Tipo.CLIENTE_CADASTRADO, cliente.getCpf(), null,
+				null, null, cliente, null);
+	}
+
+	/** Cria o evento da atualizacao de um cliente. */
+	public static Evento clienteAtualizado(Cliente cliente) {
+		return new Evento(Tipo.CLIENTE_ATUALIZADO, cliente.getCpf(), null,
+				null, null, cliente, null);
+	}
+
+	/** Cria o evento da remocao de um cliente. */
+	public static Evento clienteRemovido(String cpf) {
+		return new Evento(Tipo.CLIENTE_REMOVIDO, cpf, null, null, null, null,
+				null);
+	}
+
+	/** Cria o evento do cadastro de uma conta. */
+	public static Evento contaCadastrada(ContaAbstrata conta) {
+		return new Evento(Tipo.CONTA_CADASTRADA, null, conta.getNumero(),
+				null, null, null, conta);
+	}
+
+	/** Cria o evento da associacao de uma conta a um cliente. */
+	public static Evento contaAssociada(String cpf, String numero) {
+		return new Evento(Tipo.CONTA_ASSOCIADA, cpf, numero, null, null, null,
+				null);
+	}
+
+	/** Cria o evento da remocao de uma conta. */
+	public static Evento contaRemovida(String numero) {
+		return new Evento(Tipo.CONTA_REMOVIDA, null, numero, null, null, null,
+				null);
+	}
+
+	/** Cria o evento de um credito. */
+	public static Evento creditado(String numero, Dinheiro valor) {
+		return new Evento(Tipo.CREDITADO, null, numero, null, valor, null,
+				null);
+	}
+
+	/** Cria o evento de um debito. */
+	public static Evento debitado(String numero, Dinheiro valor) {
+		return new Evento(Tipo.DEBITADO, null, numero, null, valor, null, null);
+	}
+
+	/** Cria o evento de uma transferencia. */
+	public static Evento transferido(String numeroOrigem,
+			String numeroDestino, Dinheiro valor) {
+		return new Evento(Tipo.TRANSFERIDO, null, numeroOrigem, numeroDestino,
+				valor, null, null);
+	}
+
+	/** Cria o evento dos juros creditados numa poupanca. */
+	public static Evento jurosCreditados(String numero, Dinheiro valor) {
+		return new Evento(Tipo.JUROS_CREDITADOS, null, numero, null, valor,
+				null, null);
+	}
+
+	/** Cria o evento do bonus passado para o saldo de uma conta especial. */
+	public static Evento bonusCreditado(String numero, Dinheiro valor) {
+		return new Evento(Tipo.BONUS_CREDITADO, null, numero, null, valor,
+				null, null);
+	}
+
+	public Tipo getTipo() {
+		return this.tipo;
+	}
+
+	public String getCpf() {
+		return this.cpf;
+	}
+
+	public String getNumero() {
+		return this.numero;
+	}
+
+	public String getNumeroDestino() {
+		return this.numeroDestino;
+	}
+
+	public Dinheiro getValor() {
+		return this.valor;
+	}
+
+	public Cliente getCliente() {
+		return this.cliente;
+	}
+
+	public ContaAbstrata getConta() {
+		return this.conta;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder texto = new StringBuilder(this.tipo.name());
+		if (this.cpf != null)
+			texto.append(" cpf=").append(this.cpf);
+		if (this.numero != null)
+			texto.append(" conta=").append(this.numero);
+		if (this.numeroDestino != null)
+			texto.append(" destino=").append(this.numeroDestino);
+		if (this.valor != null)
+			texto.append(" valor=").append(this.valor);
+		return texto.toString();
+	}
+}
@@ -1,5 +1,7 @@
 package br.ufrpe.poo.banco.negocio;
 
+import java.util.List;
+
 import br.ufrpe.poo.banco.exceptions.RepositorioException;
 import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
 import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
@@ -42,9 +44,28 @@ public interface ICliente {
 	 * @throws ValorInvalidoException
 	 *             Lancada caso o valor do credito seja invalido.
 	 */
-	void creditar(ContaAbstrata conta, double valor)
+	void creditar(ContaAbstrata conta, Dinheiro valor)
 			throws RepositorioException, ValorInvalidoException;
 
+	/**
+	 * Credita um valor a conta de um cliente. Adaptador que arredonda o valor
+	 * para o centavo mais proximo; valores negativos, NaN e infinitos sao
+	 * rejeitados antes do arredondamento.
+	 * 
+	 * @param conta
+	 *            Conta do cliente a ser creditada.
+	 * @param valor
+	 *            Valor do credito.
+	 * @throws RepositorioException
+	 *             Lancada caso ocorra erro na atualizacao do repositorio.
+	 * @throws ValorInvalidoException
+	 *             Lancada caso o valor do credito seja invalido.
+	 */
+	default void creditar(ContaAbstrata conta, double valor)
+			throws RepositorioException, ValorInvalidoException {
+		this.creditar(conta, valorValido(valor));
+	}
+
 	/**
 	 * Debita um valor da conta de um cliente.
 	 * 
@@ -60,10 +81,33 @@ public interface ICliente {
 	 * @throws ValorInvalidoException
 	 *             Lancada caso o valor do debito seja invalido.
 	 */
-	void debitar(ContaAbstrata conta, double valor)
+	void debitar(ContaAbstrata conta, Dinheiro valor)
 			throws RepositorioException, SaldoInsuficienteException,
 			ValorInvalidoException;
 
+	/**
+	 * Debita um valor da conta de um cliente. Adaptador que arredonda o valor
+	 * para o centavo mais proximo; valores negativos, NaN e infinitos sao
+	 * rejeitados antes do arredondamento.
+	 * 
+	 * @param conta
+	 *            Conta do cliente a ser debitada.
+	 * @param valor
+	 *            Valor do debito.
+	 * @throws RepositorioException
+	 *             Lancada caso ocorra erro na atualizacao do repositorio.
+	 * @throws SaldoInsuficienteException
+	 *             Lancada caso o valor do debito ultrapasse o valor do saldo da
+	 *             conta do cliente.
+	 * @throws ValorInvalidoException
+	 *             Lancada caso o valor do debito seja invalido.
+	 */
+	default void debitar(ContaAbstrata conta, double valor)
+			throws RepositorioException, SaldoInsuficienteException,
+			ValorInvalidoException {
+		this.debitar(conta, valorValido(valor));
+	}
+
 	/**
 	 * Transfere um valor da conta de origem para uma conta de destino.
 	 * 
@@ -82,7 +126,91 @@ public interface ICliente {
 	 *             Lancada caso o valor da transferencia seja invalido.
 	 */
 	void transferir(ContaAbstrata contaOrigem, ContaAbstrata contaDestino,
-			double valor) throws SaldoInsuficienteException,
+			Dinheiro valor) throws SaldoInsuficienteException,
 			RepositorioException, ValorInvalidoException;
 
+	/**
+	 * Transfere um valor da conta de origem para uma conta de destino.
+	 * Adaptador que arredonda o valor para o centavo mais proximo; valores
+	 * negativos, NaN e infinitos sao rejeitados antes do arredondamento.
+	 * 
+	 * @param contaOrigem
+	 *            Conta a ser debitada.
+	 * @param contaDestino
+	 *            Conta a ser creditada.
+	 * @param valor
+	 *            Valor da transferencia.
+	 * @throws SaldoInsuficienteException
+	 *             Lancada caso o valor do debito ultrapasse o valor do saldo da
+	 *             conta do cliente.
+	 * @throws RepositorioException
+	 *             Lancada caso ocorra erro na atualizacao do repositorio.
+	 * @throws ValorInvalidoException
+	 *             Lancada caso o valor da transferencia seja invalido.
+	 */
+	default void transferir(ContaAbstrata contaOrigem,
+			ContaAbstrata contaDestino, double valor)
+			throws SaldoInsuficienteException, RepositorioException,
+			ValorInvalidoException {
+		this.transferir(contaOrigem, contaDestino, valorValido(valor));
+	}
+
+	/**
+	 * Converte o valor de um adaptador, rejeitando o <code>double</code>
+	 * original: arredondado, -0.004 ou NaN passariam como zero.
+	 * 
+	 * @param valor
+	 *            valor recebido.
+	 * @return valor arredondado para o centavo mais proximo.
+	 * @throws ValorInvalidoException
+	 *             Lancada caso o valor seja negativo, NaN ou infinito.
+	 */
+	static Dinheiro valorValido(double valor) throws ValorInvalidoException {
+		if (valor < 0 || Double.isNaN(valor) || Double.isInfinite(valor))
+			throw new ValorInvalidoException();
+		return Dinheiro.de(valor);
+	}
+
+	/**
+	 * Executa um lote de creditos, debitos e transferencias na ordem da lista
+	 * e grava as contas alteradas uma unica vez no fim.
+	 * 
+	 * Uma operacao recusada nao lanca excecao nem interrompe o lote: o motivo
+	 * fica no resultado da operacao.
+	 * 
+	 * @param operacoes
+	 *            operacoes a serem executadas.
+	 * @return resultado de cada operacao, na mesma ordem da lista.
+	 * @throws RepositorioException
+	 *             Lancada caso ocorra erro na atualizacao do repositorio.
+	 */
+	List<ResultadoOperacao> executarLote(List<OperacaoLote> operacoes)
+			throws RepositorioException;
+
+	/**
+	 * Consulta os ultimos lancamentos de uma conta.
+	 * 
+	 * @param numero
+	 *            numero da conta.
+	 * @param quantidade
+	 *            quantidade maxima de lancamentos.
+	 * @return lancamentos em ordem cronologica. Retorna uma lista vazia se a
+	 *         conta nao tem lancamentos ou se o banco nao registra lancamentos.
+	 */
+	List<Lancamento> consultarUltimosLancamentos(String numero, int quantidade);
+
+	/**
+	 * Consulta os lancamentos de uma conta num periodo.
+	 * 
+	 * @param numero
+	 *            numero da conta.
+	 * @param inicio
+	 *            inicio do periodo em milissegundos desde 1970, inclusive.
+	 * @param fim
+	 *            fim do periodo em milissegundos desde 1970, inclusive.
+	 * @return lancamentos em ordem cronologica. Retorna uma lista vazia se nao
+	 *         ha lancamentos no periodo ou se o banco nao registra lancamentos.
+	 */
+	List<Lancamento> consultarLancamentos(String numero, long inicio, long fim);
+
 }
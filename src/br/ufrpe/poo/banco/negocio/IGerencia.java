@@ -1,5 +1,8 @@
 package br.ufrpe.poo.banco.negocio;
 
+import java.util.List;
+
+import br.ufrpe.poo.banco.dados.Pagina;
 import br.ufrpe.poo.banco.exceptions.AtualizacaoNaoRealizadaException;
 import br.ufrpe.poo.banco.exceptions.ClienteJaCadastradoException;
 import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
@@ -136,4 +139,76 @@ public interface IGerencia extends ICliente {
 	void atualizarCliente(Cliente cliente) throws RepositorioException,
 			AtualizacaoNaoRealizadaException;
 
+	/**
+	 * Rende juros de todas as contas poupanca do banco, gravando as contas
+	 * alteradas de uma so vez.
+	 * 
+	 * @param progresso
+	 *            Recebe o progresso do processamento.
+	 * @return Quantidade de contas atualizadas.
+	 * @throws RepositorioException
+	 *             Lancada caso ocorra erro de gravacao do repositorio.
+	 */
+	int renderJurosTodas(ProcessamentoFimDoDia.Progresso progresso)
+			throws RepositorioException;
+
+	/**
+	 * Rende o bonus de todas as contas especiais do banco, gravando as contas
+	 * alteradas de uma so vez.
+	 * 
+	 * @param progresso
+	 *            Recebe o progresso do processamento.
+	 * @return Quantidade de contas atualizadas.
+	 * @throws RepositorioException
+	 *             Lancada caso ocorra erro de gravacao do repositorio.
+	 */
+	int renderBonusTodas(ProcessamentoFimDoDia.Progresso progresso)
+			throws RepositorioException;
+
+	/**
+	 * Lista uma pagina dos clientes do banco.
+	 * 
+	 * @param cursor
+	 *            0 para a primeira pagina ou o cursor retornado pela pagina
+	 *            anterior.
+	 * @param tamanho
+	 *            Quantidade maxima de clientes da pagina.
+	 * @return Pagina de clientes.
+	 */
+	Pagina<Cliente> listarClientes(int cursor, int tamanho);
+
+	/**
+	 * Lista uma pagina das contas do banco.
+	 * 
+	 * @param cursor
+	 *            0 para a primeira pagina ou o cursor retornado pela pagina
+	 *            anterior.
+	 * @param tamanho
+	 *            Quantidade maxima de contas da pagina.
+	 * @return Pagina de contas.
+	 */
+	Pagina<ContaAbstrata> listarContas(int cursor, int tamanho);
+
+	/**
+	 * Busca clientes por prefixo do cpf ou das palavras do nome, para
+	 * sugestoes enquanto o operador digita.
+	 * 
+	 * @param consulta
+	 *            Texto digitado: digitos do cpf ou partes do nome.
+	 * @param quantidade
+	 *            Quantidade maxima de clientes retornados.
+	 * @return Clientes encontrados.
+	 */
+	List<Cliente> buscarClientes(String consulta, int quantidade);
+
+	/**
+	 * Procura o titular de uma conta.
+	 * 
+	 * @param numeroConta
+	 *            Numero da conta.
+	 * @return Cliente titular da conta. Retorna null se a conta nao estiver
+	 *         associada a nenhum cliente.
+	 */
+	Cliente procurarTitular(String numeroConta);
+
 }
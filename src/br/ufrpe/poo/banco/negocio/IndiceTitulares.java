@@ -0,0 +1,176 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import br.ufrpe.poo.banco.dados.IRepositorioClientes;
+import br.ufrpe.poo.banco.iterator.IteratorCliente;
+
+/**
+ * Indice reverso do numero de cada conta para o cpf do seu titular.
+ *
+ * <code>Cliente</code> guarda os numeros das suas contas, mas nada leva de uma
+ * conta ao seu cliente. Sem o indice, achar o titular de uma conta exige
+ * percorrer todos os clientes e procurar a conta em cada um. O indice eh
+ * mantido pelo <code>Banco</code> a cada cadastro, associacao e remocao, e a
+ * consulta custa uma busca num mapa de hash.
+ *
+ * O indice so eh montado a partir do repositorio de clientes na primeira
+ * consulta, de modo que criar o banco nao percorre todos os clientes. Os
+ * clientes incluidos diretamente no repositorio antes disso, como os
+ * reaplicados do log de eventos, tambem entram no indice.
+ *
+ * O indice tambem guarda as contas indexadas de cada titular, de modo que
+ * indexar de novo um cliente alterado retira as contas que ele deixou de ter,
+ * mesmo que o cliente tenha sido alterado no lugar.
+ *
+ * Pode ser usado por varias threads ao mesmo tempo.
+ */
+public class IndiceTitulares {
+
+	/** Cpf do titular pelo numero da conta. */
+	private final ConcurrentHashMap<String, String> titulares = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Numeros das contas indexadas de cada titular, pelo cpf. Cada conjunto so
+	 * eh alterado dentro de <code>compute</code> do mapa, com a chave travada.
+	 */
+	private final ConcurrentHashMap<String, Set<String>> indexadas = new ConcurrentHashMap<String, Set<String>>();
+
+	/** Repositorio de onde o indice eh montado. */
+	private final IRepositorioClientes clientes;
+
+	/** Se os clientes do repositorio ja foram indexados. */
+	private volatile boolean montado;
+
+	/**
+	 * Cria o indice dos clientes de um repositorio.
+	 *
+	 * @param clientes
+	 *            repositorio de clientes.
+	 */
+	public IndiceTitulares(IRepositorioClientes clientes) {
+		this.clientes = clientes;
+	}
+
+	/**
+	 * Registra o cliente como titular de uma conta.
+	 *
+	 * @param numeroConta
+	 *            numero da conta.
+	 * @param cpf
+	 *            cpf do titular.
+	 */
+	public void associar(String numeroConta, String cpf) {
+		this.trocarTitular(numeroConta, cpf);
+		this.indexadas.compute(cpf, (chave, numeros) -> {
+			if (numeros == null)
+				numeros = new HashSet<String>();
+			numeros.add(numeroConta);
+			return numeros;
+		});
+	}
+
+	/**
+	 * Retira uma conta do indice.
+	 *
+	 * @param numeroConta
+	 *            numero da conta.
+	 */
+	public void desassociar(String numeroConta) {
+		String cpf = this.titulares.remove(numeroConta);
+		if (cpf != null)
+			this.retirar(cpf, numeroConta);
+	}
+
+	/**
+	 * Registra o cliente como titular de todas as suas contas e retira do
+	 * indice as contas indexadas antes que ele nao tem mais.
+	 *
+	 * @param cliente
+	 *            cliente a ser indexado.
+	 */
+	public void indexar(Cliente cliente) {
+		String cpf = cliente.getCpf();
+		ConjuntoContas contas = cliente.getContas();
+		Set<String> retiradas = new HashSet<String>();
+		this.indexadas.compute(cpf, (chave, numeros) -> {
+			if (numeros != null) {
+				for (String numeroConta : numeros) {
+					if (!contas.contains(numeroConta))
+						retiradas.add(numeroConta);
+				}
+			}
+			Set<String> atuais = new HashSet<String>(contas);
+			return atuais.isEmpty() ? null : atuais;
+		});
+		for (String numeroConta : retiradas) {
+			this.titulares.remove(numeroConta, cpf);
+		}
+		for (String numeroConta : contas) {
+			this.trocarTitular(numeroConta, cpf);
+		}
+	}
+
+	/**
+	 * Registra o titular de uma conta e a retira das contas indexadas do
+	 * titular anterior, se havia outro.
+	 */
+	private void trocarTitular(String numeroConta, String cpf) {
+		String anterior = this.titulares.put(numeroConta, cpf);
+		if (anterior != null && !anterior.equals(cpf))
+			this.retirar(anterior, numeroConta);
+	}
+
+	/**
+	 * Retira uma conta das contas indexadas de um titular.
+	 */
+	private void retirar(String cpf, String numeroConta) {
+		this.indexadas.computeIfPresent(cpf, (chave, numeros) -> {
+			numeros.remove(numeroConta);
+			return numeros.isEmpty() ? null : numeros;
+		});
+	}
+
+	/**
+	 * Indexa todos os clientes do repositorio, uma unica vez. As alteracoes
+	 * feitas antes ja estao no repositorio e sao indexadas de novo; uma conta
+	 * desassociada enquanto o indice eh montado pode voltar ao indice, e por
+	 * isso quem consulta confere o titular no cliente.
+	 */
+	private synchronized void montar() {
+		if (this.montado)
+			return;
+		IteratorCliente it = this.clientes.getIterator();
+		while (it.hasNext()) {
+			this.indexar(it.next());
+		}
+		this.montado = true;
+	}
+
+	/**
+	 * Retorna o cpf do titular de uma conta.
+	 *
+	 * @param numeroConta
+	 *            numero da conta.
+	 * @return cpf do titular ou <code>null</code> se a conta nao esta
+	 *         associada a nenhum cliente.
+	 */
+	public String getTitular(String numeroConta) {
+		if (!this.montado)
+			this.montar();
+		return this.titulares.get(numeroConta);
+	}
+
+	/**
+	 * Retorna a quantidade de contas associadas a algum cliente.
+	 *
+	 * @return quantidade de contas no indice.
+	 */
+	public int getQuantidade() {
+		if (!this.montado)
+			this.montar();
+		return this.titulares.size();
+	}
+}
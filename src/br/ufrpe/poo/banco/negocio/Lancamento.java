@@ -0,0 +1,190 @@
+package br.ufrpe.poo.banco.negocio;
+
+/**
+ * Lancamento do extrato de uma conta: uma operacao que alterou o saldo.
+ *
+ * O valor eh a variacao do saldo causada pela operacao (negativo para
+ * debitos), de modo que inclui, por exemplo, a CPMF de
+ * <code>ContaImposto</code>. Uma transferencia gera um lancamento em cada
+ * conta, cada um com o numero da outra conta como contrapartida.
+ *
+ * @author
+ *
+ */
+public final class Lancamento {
+
+	/**
+	 * Operacoes registradas.
+	 */
+	public enum Tipo {
+		/** Credito na conta. */
+		CREDITO(0),
+		/** Debito na conta. */
+		DEBITO(1),
+		/** Debito de uma transferencia para a contrapartida. */
+		TRANSFERENCIA_ENVIADA(2),
+		/** Credito de uma transferencia vinda da contrapartida. */
+		TRANSFERENCIA_RECEBIDA(3),
+		/** Juros rendidos por uma poupanca. */
+		JUROS(4),
+		/** Bonus creditado numa conta especial. */
+		BONUS(5);
+
+		/** Codigo gravado nos arquivos; nao deve mudar. */
+		private final int codigo;
+
+		private Tipo(int codigo) {
+			this.codigo = codigo;
+		}
+
+		/**
+		 * Retorna o codigo gravado nos arquivos para este tipo.
+		 *
+		 * @return codigo do tipo.
+		 */
+		public int getCodigo() {
+			return this.codigo;
+		}
+
+		/**
+		 * Retorna o tipo de um codigo lido de um arquivo.
+		 *
+		 * @param codigo
+		 *            codigo do tipo.
+		 * @return tipo ou <code>null</code> se o codigo nao existe.
+		 */
+		public static Tipo doCodigo(int codigo) {
+			switch (codigo) {
+			case 0:
+				return CREDITO;
+			case 1:
+				return DEBITO;
+			case 2:
+				return TRANSFERENCIA_ENVIADA;
+			case 3:
+				return TRANSFERENCIA_RECEBIDA;
+			case 4:
+				return JUROS;
+			case 5:
+				return BONUS;
+			default:
+				return null;
+			}
+		}
+	}
+
+	/** Momento da operacao em milissegundos desde 1970. */
+	private final long instante;
+
+	/** Numero da conta alterada. */
+	private final String numeroConta;
+
+	/** Tipo da operacao. */
+	private final Tipo tipo;
+
+	/** Variacao do saldo. */
+	private final Dinheiro valor;
+
+	/** Saldo apos a operacao. */
+	private final Dinheiro saldo;
+
+	/** Numero da outra conta de uma transferencia. */
+	private final String contrapartida;
+
+	/**
+	 * Cria um lancamento.
+	 *
+	 * @param instante
+	 *            momento da operacao em milissegundos desde 1970.
+	 * @param numeroConta
+	 *            numero da conta alterada.
+	 * @param tipo
+	 *            tipo da operacao.
+	 * @param valor
+	 *            variacao do saldo.
+	 * @param saldo
+	 *            saldo apos a operacao.
+	 * @param contrapartida
+	 *            numero da outra conta de uma transferencia ou
+	 *            <code>null</code>.
+	 */
+	public Lancamento(long instante, String numeroConta, Tipo tipo,
+			Dinheiro valor, Dinheiro saldo, String contrapartida) {
+		this.instante = instante;
+		this.numeroConta = numeroConta;
+		this.tipo = tipo;
+		this.valor = valor;
+		this.saldo = saldo;
+		this.contrapartida = contrapartida;
+	}
+
+	/**
+	 * Cria o lancamento da alteracao de uma conta, a partir do saldo anterior.
+	 *
+	 * @param conta
+	 *            conta ja alterada.
+	 * @param tipo
+	 *            tipo da operacao.
+	 * @param saldoAnterior
+	 *            saldo antes da operacao.
+	 * @param contrapartida
+	 *            numero da outra conta de uma transferencia ou
+	 *            <code>null</code>.
+	 * @return lancamento criado.
+	 */
+	public static Lancamento de(ContaAbstrata conta, Tipo tipo,
+			Dinheiro saldoAnterior, String contrapartida) {
+		Dinheiro saldo = conta.getSaldoDinheiro();
+		return new Lancamento(System.currentTimeMillis(), conta.getNumero(),
+				tipo, saldo.subtrair(saldoAnterior), saldo, contrapartida);
+	}
+
+	public long getInstante() {
+		return this.instante;
+	}
+
+	public String getNumeroConta() {
+		return this.numeroConta;
+	}
+
+	public Tipo getTipo() {
+		return this.tipo;
+	}
+
+	public Dinheiro getValor() {
+		return this.valor;
+	}
+
+	public Dinheiro getSaldo() {
+		return this.saldo;
+	}
+
+	/**
+	 * Retorna o numero da outra conta de uma transferencia.
+	 *
+	 * @return numero da conta ou <code>null</code> se o lancamento nao eh de
+	 *         transferencia.
+	 */
+	public String getContrapartida() {
+		return this.contrapartida;
+	}
+
+	/**
+	 * Retorna uma copia do lancamento com outro instante.
+	 *
+	 * @param novoInstante
+	 *            instante da copia.
+	 * @return copia do lancamento.
+	 */
+	public Lancamento comInstante(long novoInstante) {
+		return new Lancamento(novoInstante, this.numeroConta, this.tipo,
+				this.valor, this.saldo, this.contrapartida);
+	}
+
+	@Override
+	public String toString() {
+		return this.instante + " " + this.numeroConta + " " + this.tipo + " "
+				+ this.valor + " " + this.saldo
+				+ (this.contrapartida == null ? "" : " " + this.contrapartida);
+	}
+}
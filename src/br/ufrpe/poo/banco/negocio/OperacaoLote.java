@@ -0,0 +1,116 @@
+package br.ufrpe.poo.banco.negocio;
+
+/**
+ * Operacao de credito, debito ou transferencia executada em lote por
+ * <code>ICliente.executarLote</code>. As contas sao identificadas pelo numero,
+ * como nos arquivos de folha de pagamento e de liquidacao.
+ *
+ * @author
+ *
+ */
+public final class OperacaoLote {
+
+	/**
+	 * Tipos de operacao.
+	 */
+	public enum Tipo {
+		/** Credito na conta de origem. */
+		CREDITO,
+		/** Debito na conta de origem. */
+		DEBITO,
+		/** Transferencia da conta de origem para a conta de destino. */
+		TRANSFERENCIA
+	}
+
+	/** Tipo da operacao. */
+	private final Tipo tipo;
+
+	/** Numero da conta creditada, debitada ou de origem da transferencia. */
+	private final String numeroOrigem;
+
+	/** Numero da conta de destino da transferencia. */
+	private final String numeroDestino;
+
+	/** Valor da operacao. */
+	private final Dinheiro valor;
+
+	private OperacaoLote(Tipo tipo, String numeroOrigem, String numeroDestino,
+			Dinheiro valor) {
+		this.tipo = tipo;
+		this.numeroOrigem = numeroOrigem;
+		this.numeroDestino = numeroDestino;
+		this.valor = valor;
+	}
+
+	/**
+	 * Cria um credito.
+	 *
+	 * @param numero
+	 *            numero da conta creditada.
+	 * @param valor
+	 *            valor do credito.
+	 * @return operacao criada.
+	 */
+	public static OperacaoLote credito(String numero, Dinheiro valor) {
+		return new OperacaoLote(Tipo.CREDITO, numero, null, valor);
+	}
+
+	/**
+	 * Cria um debito.
+	 *
+	 * @param numero
+	 *            numero da conta debitada.
+	 * @param valor
+	 *            valor do debito.
+	 * @return operacao criada.
+	 */
+	public static OperacaoLote debito(String numero, Dinheiro valor) {
+		return new OperacaoLote(Tipo.DEBITO, numero, null, valor);
+	}
+
+	/**
+	 * Cria uma transferencia.
+	 *
+	 * @param numeroOrigem
+	 *            numero da conta debitada.
+	 * @param numeroDestino
+	 *            numero da conta creditada.
+	 * @param valor
+	 *            valor da transferencia.
+	 * @return operacao criada.
+	 */
+	public static OperacaoLote transferencia(String numeroOrigem,
+			String numeroDestino, Dinheiro valor) {
+		return new OperacaoLote(Tipo.TRANSFERENCIA, numeroOrigem,
+				numeroDestino, valor);
+	}
+
+	public Tipo getTipo() {
+		return this.tipo;
+	}
+
+	public String getNumeroOrigem() {
+		return this.numeroOrigem;
+	}
+
+	/**
+	 * Retorna o numero da conta de destino.
+	 *
+	 * @return numero da conta de destino ou <code>null</code> se a operacao
+	 *         nao eh uma transferencia.
+	 */
+	public String getNumeroDestino() {
+		return this.numeroDestino;
+	}
+
+	public Dinheiro getValor() {
+		return this.valor;
+	}
+
+	@Override
+	public String toString() {
+		return this.tipo + " " + this.numeroOrigem
+				+ (this.numeroDestino == null ? "" : " " + this.numeroDestino)
+				+ " " + this.valor;
+	}
+}
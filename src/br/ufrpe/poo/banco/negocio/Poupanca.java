@@ -16,13 +16,18 @@ public class Poupanca extends Conta implements Serializable {
 		super(numero, valor);
 	}
 
+	public Poupanca(String numero, Dinheiro valor) {
+		super(numero, valor);
+	}
+
 	/**
-	 * Credita valor dos juros a conta
+	 * Credita valor dos juros a conta. Os juros sao arredondados para o
+	 * centavo mais proximo.
 	 * 
 	 * @param taxa
 	 */
 	public void renderJuros(double taxa) {
-		double juros = this.getSaldo() * taxa;
+		Dinheiro juros = this.getSaldoDinheiro().multiplicar(taxa);
 		this.creditar(juros);
 	}
 
@@ -0,0 +1,259 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import br.ufrpe.poo.banco.dados.IRepositorioContas;
+import br.ufrpe.poo.banco.dados.IRepositorioLancamentos;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+
+/**
+ * Processamento de fim do dia: rende juros de todas as poupancas ou o bonus
+ * de todas as contas especiais de uma vez.
+ *
+ * As contas sao divididas em faixas processadas em paralelo num
+ * <code>ForkJoinPool</code>. Cada conta eh alterada em memoria sob a sua
+ * trava, como em <code>Banco.renderJuros</code>, e as contas alteradas sao
+ * gravadas no fim com uma unica chamada a
+ * <code>IRepositorioContas.atualizarTodas</code>, em vez de uma gravacao por
+ * conta.
+ *
+ * @author
+ *
+ */
+public class ProcessamentoFimDoDia {
+
+	/** Quantidade maxima de contas processadas por uma tarefa sem divisao. */
+	public static final int CONTAS_POR_TAREFA = 2048;
+
+	/**
+	 * Etapas informadas no progresso.
+	 */
+	public enum Etapa {
+		/** Contas sendo alteradas em memoria. */
+		APLICANDO,
+		/** Contas alteradas sendo gravadas no repositorio. */
+		GRAVANDO,
+		/** Processamento concluido. */
+		CONCLUIDO
+	}
+
+	/**
+	 * Recebe o progresso do processamento. Durante a etapa
+	 * <code>APLICANDO</code> eh chamado pelas threads do pool, de modo que a
+	 * implementacao deve ser segura para uso concorrente.
+	 */
+	public interface Progresso {
+
+		/**
+		 * Informa o progresso.
+		 *
+		 * @param etapa
+		 *            etapa atual.
+		 * @param processadas
+		 *            quantidade de contas ja processadas na etapa.
+		 * @param total
+		 *            quantidade total de contas da etapa.
+		 */
+		void atualizar(Etapa etapa, int processadas, int total);
+	}
+
+	/** Progresso que nao faz nada. */
+	public static final Progresso SEM_PROGRESSO = (etapa, processadas,
+			total) -> {
+	};
+
+	/** Repositorio das contas processadas. */
+	private IRepositorioContas contas;
+
+	/** Travas por conta compartilhadas com o banco. */
+	private TravasContas travas;
+
+	/** Pool que executa as tarefas. */
+	private ForkJoinPool pool;
+
+	/** Repositorio dos lancamentos, ou <code>null</code>. */
+	private IRepositorioLancamentos lancamentos;
+
+	/**
+	 * Cria o processamento.
+	 *
+	 * @param contas
+	 *            repositorio das contas.
+	 * @param travas
+	 *            travas por conta usadas pelas demais operacoes do banco.
+	 * @param pool
+	 *            pool que executa as tarefas.
+	 */
+	public ProcessamentoFimDoDia(IRepositorioContas contas,
+			TravasContas travas, ForkJoinPool pool) {
+		this(contas, travas, pool, null);
+	}
+
+	/**
+	 * Cria o processamento registrando um lancamento para cada conta
+	 * alterada.
+	 *
+	 * @param contas
+	 *            repositorio das contas.
+	 * @param travas
+	 *            travas por conta usadas pelas demais operacoes do banco.
+	 * @param pool
+	 *            pool que executa as tarefas.
+	 * @param lancamentos
+	 *            repositorio dos lancamentos, ou <code>null</code> para nao
+	 *            registrar lancamentos.
+	 */
+	public ProcessamentoFimDoDia(IRepositorioContas contas,
+			TravasContas travas, ForkJoinPool pool,
+			IRepositorioLancamentos lancamentos) {
+		this.contas = contas;
+		this.travas = travas;
+		this.pool = pool;
+		this.lancamentos = lancamentos;
+	}
+
+	/**
+	 * Rende juros de todas as poupancas do repositorio.
+	 *
+	 * @param taxa
+	 *            taxa de juros.
+	 * @param progresso
+	 *            recebe o progresso do processamento.
+	 * @return quantidade de contas atualizadas.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na gravacao das contas.
+	 */
+	public int renderJurosTodas(double taxa, Progresso progresso)
+			throws RepositorioException {
+		return this.processar(conta -> conta instanceof Poupanca,
+				conta -> ((Poupanca) conta).renderJuros(taxa),
+				Lancamento.Tipo.JUROS, progresso);
+	}
+
+	/**
+	 * Rende o bonus de todas as contas especiais do repositorio.
+	 *
+	 * @param progresso
+	 *            recebe o progresso do processamento.
+	 * @return quantidade de contas atualizadas.
+	 * @throws RepositorioException
+	 *             lancada em caso de erro na gravacao das contas.
+	 */
+	public int renderBonusTodas(Progresso progresso)
+			throws RepositorioException {
+		return this.processar(conta -> conta instanceof ContaEspecial,
+				conta -> ((ContaEspecial) conta).renderBonus(),
+				Lancamento.Tipo.BONUS, progresso);
+	}
+
+	/**
+	 * Aplica uma alteracao a todas as contas selecionadas e grava as contas
+	 * alteradas, e os seus lancamentos, como um unico lote.
+	 */
+	private int processar(Predicate<ContaAbstrata> filtro,
+			Consumer<ContaAbstrata> alteracao, Lancamento.Tipo tipo,
+			Progresso progresso) throws RepositorioException {
+		ArrayList<ContaAbstrata> todas = new ArrayList<ContaAbstrata>();
+		IteratorContaAbstrata it = this.contas.getIterator();
+		while (it.hasNext()) {
+			todas.add(it.next());
+		}
+		ContaAbstrata[] array = todas.toArray(new ContaAbstrata[todas.size()]);
+		Queue<Lancamento> lancamentosAlteradas = this.lancamentos == null ? null
+				: new ConcurrentLinkedQueue<Lancamento>();
+		Tarefa tarefa = new Tarefa(array, 0, array.length, filtro, alteracao,
+				tipo, lancamentosAlteradas, progresso, new AtomicInteger());
+		List<ContaAbstrata> alteradas = this.pool.invoke(tarefa);
+		progresso.atualizar(Etapa.GRAVANDO, 0, alteradas.size());
+		int atualizadas = this.contas.atualizarTodas(alteradas);
+		if (lancamentosAlteradas != null && !lancamentosAlteradas.isEmpty())
+			this.lancamentos.registrarTodos(lancamentosAlteradas);
+		progresso.atualizar(Etapa.CONCLUIDO, atualizadas, alteradas.size());
+		return atualizadas;
+	}
+
+	/**
+	 * Tarefa que processa uma faixa do array de contas, dividindo-a ao meio
+	 * enquanto for maior que <code>CONTAS_POR_TAREFA</code>.
+	 */
+	private class Tarefa extends RecursiveTask<List<ContaAbstrata>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ContaAbstrata[] contas;
+		private final int inicio;
+		private final int fim;
+		private final Predicate<ContaAbstrata> filtro;
+		private final Consumer<ContaAbstrata> alteracao;
+		private final Lancamento.Tipo tipo;
+		private final Queue<Lancamento> lancamentos;
+		private final Progresso progresso;
+		private final AtomicInteger processadas;
+
+		Tarefa(ContaAbstrata[] contas, int inicio, int fim,
+				Predicate<ContaAbstrata> filtro,
+				Consumer<ContaAbstrata> alteracao, Lancamento.Tipo tipo,
+				Queue<Lancamento> lancamentos, Progresso progresso,
+				AtomicInteger processadas) {
+			this.contas = contas;
+			this.inicio = inicio;
+			this.fim = fim;
+			this.filtro = filtro;
+			this.alteracao = alteracao;
+			this.tipo = tipo;
+			this.lancamentos = lancamentos;
+			this.progresso = progresso;
+			this.processadas = processadas;
+		}
+
+		@Override
+		protected List<ContaAbstrata> compute() {
+			if (this.fim - this.inicio > CONTAS_POR_TAREFA) {
+				int meio = (this.inicio + this.fim) >>> 1;
+				Tarefa esquerda = new Tarefa(this.contas, this.inicio, meio,
+						this.filtro, this.alteracao, this.tipo,
+						this.lancamentos, this.progresso, this.processadas);
+				Tarefa direita = new Tarefa(this.contas, meio, this.fim,
+						this.filtro, this.alteracao, this.tipo,
+						this.lancamentos, this.progresso, this.processadas);
+				esquerda.fork();
+				List<ContaAbstrata> resultado = direita.compute();
+				List<ContaAbstrata> resultadoEsquerda = esquerda.join();
+				resultadoEsquerda.addAll(resultado);
+				return resultadoEsquerda;
+			}
+			List<ContaAbstrata> alteradas = new ArrayList<ContaAbstrata>();
+			for (int i = this.inicio; i < this.fim; i++) {
+				ContaAbstrata conta = this.contas[i];
+				if (!this.filtro.test(conta))
+					continue;
+				ProcessamentoFimDoDia.this.travas.travar(conta.getNumero());
+				try {
+					Dinheiro saldoAnterior = conta.getSaldoDinheiro();
+					this.alteracao.accept(conta);
+					if (this.lancamentos != null
+							&& !conta.getSaldoDinheiro().equals(saldoAnterior))
+						this.lancamentos.add(Lancamento.de(conta, this.tipo,
+								saldoAnterior, null));
+				} finally {
+					ProcessamentoFimDoDia.this.travas.destravar(conta
+							.getNumero());
+				}
+				alteradas.add(conta);
+			}
+			int total = this.processadas.addAndGet(this.fim - this.inicio);
+			this.progresso.atualizar(Etapa.APLICANDO, total,
+					this.contas.length);
+			return alteradas;
+		}
+	}
+}
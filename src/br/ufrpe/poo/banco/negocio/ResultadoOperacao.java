@@ -0,0 +1,39 @@
+package br.ufrpe.poo.banco.negocio;
+
+/**
+ * Resultado de cada operacao executada em lote. Substitui as excecoes que a
+ * operacao isolada lancaria, de modo que uma operacao recusada nao interrompe
+ * o lote.
+ *
+ * @author
+ *
+ */
+public enum ResultadoOperacao {
+
+	/** Operacao aplicada. */
+	REALIZADA,
+
+	/** Valor ausente ou negativo; corresponde a ValorInvalidoException. */
+	VALOR_INVALIDO,
+
+	/** Conta inexistente; corresponde a ContaNaoEncontradaException. */
+	CONTA_NAO_ENCONTRADA,
+
+	/**
+	 * Transferencia para a propria conta; corresponde a
+	 * ContasOrigemDestinoIguaisException.
+	 */
+	CONTAS_IGUAIS,
+
+	/** Saldo insuficiente; corresponde a SaldoInsuficienteException. */
+	SALDO_INSUFICIENTE;
+
+	/**
+	 * Indica se a operacao foi aplicada.
+	 *
+	 * @return <code>true</code> se o resultado eh <code>REALIZADA</code>.
+	 */
+	public boolean foiRealizada() {
+		return this == REALIZADA;
+	}
+}
@@ -0,0 +1,109 @@
+package br.ufrpe.poo.banco.negocio;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto de travas por conta usado pelo banco para serializar as operacoes
+ * sobre uma mesma conta sem bloquear operacoes sobre contas diferentes.
+ *
+ * Cada numero de conta eh associado a uma das travas (faixas) do conjunto.
+ * Quando uma operacao precisa de duas contas, as travas sao sempre obtidas na
+ * ordem crescente do indice da faixa, o que evita deadlock entre
+ * transferencias em sentidos opostos.
+ *
+ * @author
+ *
+ */
+public class TravasContas {
+
+	/** Quantidade padrao de faixas. */
+	public static final int FAIXAS_PADRAO = 256;
+
+	/** Travas de cada faixa. */
+	private final ReentrantLock[] travas;
+
+	/**
+	 * Cria um conjunto de travas.
+	 *
+	 * @param faixas
+	 *            quantidade de faixas. Eh arredondada para uma potencia de dois.
+	 */
+	public TravasContas(int faixas) {
+		int tamanho = Integer.highestOneBit(Math.max(faixas, 1) * 2 - 1);
+		this.travas = new ReentrantLock[tamanho];
+		for (int i = 0; i < tamanho; i++) {
+			this.travas[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Retorna a faixa de um numero de conta.
+	 *
+	 * @param numero
+	 *            numero da conta.
+	 * @return indice da faixa.
+	 */
+	public int faixa(String numero) {
+		int h = numero.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (this.travas.length - 1);
+	}
+
+	/**
+	 * Obtem a trava de uma conta.
+	 *
+	 * @param numero
+	 *            numero da conta.
+	 */
+	public void travar(String numero) {
+		this.travas[this.faixa(numero)].lock();
+	}
+
+	/**
+	 * Libera a trava de uma conta.
+	 *
+	 * @param numero
+	 *            numero da conta.
+	 */
+	public void destravar(String numero) {
+		this.travas[this.faixa(numero)].unlock();
+	}
+
+	/**
+	 * Obtem as travas de duas contas na ordem das faixas. Se as contas caem na
+	 * mesma faixa, a trava eh obtida uma unica vez.
+	 *
+	 * @param numero1
+	 *            numero da primeira conta.
+	 * @param numero2
+	 *            numero da segunda conta.
+	 */
+	public void travar(String numero1, String numero2) {
+		int f1 = this.faixa(numero1);
+		int f2 = this.faixa(numero2);
+		if (f1 == f2) {
+			this.travas[f1].lock();
+		} else {
+			this.travas[Math.min(f1, f2)].lock();
+			this.travas[Math.max(f1, f2)].lock();
+		}
+	}
+
+	/**
+	 * Libera as travas obtidas por <code>travar(numero1, numero2)</code>.
+	 *
+	 * @param numero1
+	 *            numero da primeira conta.
+	 * @param numero2
+	 *            numero da segunda conta.
+	 */
+	public void destravar(String numero1, String numero2) {
+		int f1 = this.faixa(numero1);
+		int f2 = this.faixa(numero2);
+		if (f1 == f2) {
+			this.travas[f1].unlock();
+		} else {
+			this.travas[Math.max(f1, f2)].unlock();
+			this.travas[Math.min(f1, f2)].unlock();
+		}
+	}
+}
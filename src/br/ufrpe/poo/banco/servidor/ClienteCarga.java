@@ -0,0 +1,279 @@
+package br.ufrpe.poo.banco.servidor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.negocio.Banco;
+
+/**
+ * Cliente de carga do <code>ServidorBanco</code>.
+ *
+ * Abre varias conexoes simultaneas, cada uma numa thread virtual, e em cada
+ * conexao envia creditos e transferencias entre contas de carga, esperando a
+ * resposta de cada comando. Ao final informa a vazao e a latencia dos
+ * comandos.
+ */
+public class ClienteCarga {
+
+	/** Prefixo do numero das contas criadas para a carga. */
+	public static final String PREFIXO_CONTA = "carga-";
+
+	/**
+	 * Resultado de uma execucao da carga.
+	 */
+	public static class Relatorio {
+
+		/** Quantidade de conexoes. */
+		public final int conexoes;
+
+		/** Quantidade de comandos respondidos. */
+		public final long comandos;
+
+		/** Quantidade de respostas de erro. */
+		public final long erros;
+
+		/** Duracao da carga em nanossegundos. */
+		public final long nanos;
+
+		/** Latencias de todos os comandos em nanossegundos, ordenadas. */
+		private final long[] latencias;
+
+		Relatorio(int conexoes, long erros, long nanos, long[] latencias) {
+			this.conexoes = conexoes;
+			this.comandos = latencias.length;
+			this.erros = erros;
+			this.nanos = nanos;
+			this.latencias = latencias;
+			Arrays.sort(this.latencias);
+		}
+
+		/**
+		 * Retorna a latencia de um percentil.
+		 *
+		 * @param percentil
+		 *            percentil entre 0 e 100.
+		 * @return latencia em nanossegundos.
+		 */
+		public long percentil(double percentil) {
+			if (this.latencias.length == 0)
+				return 0;
+			int i = (int) Math.ceil(percentil / 100 * this.latencias.length) - 1;
+			return this.latencias[Math.max(0, Math.min(i,
+					this.latencias.length - 1))];
+		}
+
+		/**
+		 * Retorna a quantidade de comandos por segundo.
+		 *
+		 * @return vazao da carga.
+		 */
+		public double getComandosPorSegundo() {
+			return this.comandos * 1e9 / Math.max(this.nanos, 1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d conexoes, %d comandos (%d erros) em %.2f s: "
+					+ "%.0f comandos/s, latencia p50 %d us, p99 %d us, max %d us",
+					this.conexoes, this.comandos, this.erros, this.nanos / 1e9,
+					this.getComandosPorSegundo(), this.percentil(50) / 1000,
+					this.percentil(99) / 1000, this.percentil(100) / 1000);
+		}
+	}
+
+	/**
+	 * Conexao com o servidor.
+	 */
+	private static class Conexao implements AutoCloseable {
+
+		private final Socket socket;
+
+		private final BufferedReader in;
+
+		private final Writer out;
+
+		Conexao(String host, int porta) throws IOException {
+			this.socket = new Socket(host, porta);
+			this.socket.setTcpNoDelay(true);
+			this.in = new BufferedReader(new InputStreamReader(
+					this.socket.getInputStream(), StandardCharsets.UTF_8));
+			this.out = new BufferedWriter(new OutputStreamWriter(
+					this.socket.getOutputStream(), StandardCharsets.UTF_8));
+		}
+
+		String enviar(String comando) throws IOException {
+			this.out.write(comando);
+			this.out.write('\n');
+			this.out.flush();
+			String resposta = this.in.readLine();
+			if (resposta == null)
+				throw new IOException("Conexao encerrada pelo servidor!");
+			return resposta;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.socket.close();
+		}
+	}
+
+	/** Endereco do servidor. */
+	private final String host;
+
+	/** Porta do servidor. */
+	private final int porta;
+
+	/**
+	 * Cria o cliente de carga.
+	 *
+	 * @param host
+	 *            endereco do servidor.
+	 * @param porta
+	 *            porta do servidor.
+	 */
+	public ClienteCarga(String host, int porta) {
+		this.host = host;
+		this.porta = porta;
+	}
+
+	/**
+	 * Cria as contas de carga que ainda nao existem no servidor.
+	 *
+	 * @param contas
+	 *            quantidade de contas.
+	 * @throws IOException
+	 *             lancada em caso de erro na conexao.
+	 */
+	public void criarContas(int contas) throws IOException {
+		try (Conexao conexao = new Conexao(this.host, this.porta)) {
+			for (int i = 0; i < contas; i++) {
+				if (conexao.enviar("CONTA " + PREFIXO_CONTA + i).startsWith(
+						"ERRO"))
+					conexao.enviar("CADASTRAR_CONTA CONTA " + PREFIXO_CONTA + i
+							+ " 1000000000");
+			}
+		}
+	}
+
+	/**
+	 * Executa a carga. Todas as conexoes sao abertas antes de os comandos
+	 * comecarem a ser enviados.
+	 *
+	 * @param conexoes
+	 *            quantidade de conexoes simultaneas.
+	 * @param comandos
+	 *            quantidade de comandos por conexao.
+	 * @param contas
+	 *            quantidade de contas de carga, ja criadas.
+	 * @return relatorio da carga.
+	 * @throws Exception
+	 *             lancada se uma conexao falhar.
+	 */
+	public Relatorio executar(int conexoes, int comandos, int contas)
+			throws Exception {
+		ExecutorService executor = ServidorBanco.novoExecutorPorTarefa();
+		CountDownLatch conectadas = new CountDownLatch(conexoes);
+		CountDownLatch largada = new CountDownLatch(1);
+		AtomicLong erros = new AtomicLong();
+		List<Future<long[]>> tarefas = new ArrayList<Future<long[]>>();
+		for (int c = 0; c < conexoes; c++) {
+			final int semente = c;
+			tarefas.add(executor.submit(() -> {
+				long[] latencias = new long[comandos];
+				Random random = new Random(semente);
+				Conexao aberta;
+				try {
+					aberta = new Conexao(this.host, this.porta);
+				} finally {
+					conectadas.countDown();
+				}
+				try (Conexao conexao = aberta) {
+					largada.await();
+					for (int i = 0; i < comandos; i++) {
+						String origem = PREFIXO_CONTA + random.nextInt(contas);
+						String comando = (i & 1) == 0 ? "CREDITAR " + origem
+								+ " 1" : "TRANSFERIR " + origem + " "
+								+ PREFIXO_CONTA + random.nextInt(contas) + " 1";
+						long inicio = System.nanoTime();
+						String resposta = conexao.enviar(comando);
+						latencias[i] = System.nanoTime() - inicio;
+						if (!resposta.startsWith("OK"))
+							erros.incrementAndGet();
+					}
+				}
+				return latencias;
+			}));
+		}
+		conectadas.await();
+		long inicio = System.nanoTime();
+		largada.countDown();
+		long[] todas = new long[conexoes * comandos];
+		int n = 0;
+		try {
+			for (Future<long[]> tarefa : tarefas) {
+				long[] latencias = tarefa.get();
+				System.arraycopy(latencias, 0, todas, n, latencias.length);
+				n = n + latencias.length;
+			}
+		} finally {
+			largada.countDown();
+			executor.shutdownNow();
+		}
+		return new Relatorio(conexoes, erros.get(), System.nanoTime() - inicio,
+				todas);
+	}
+
+	/**
+	 * Executa a carga contra um servidor.
+	 *
+	 * Argumentos: <code>host porta conexoes comandos contas</code>. Com o host
+	 * <code>local</code>, um servidor com repositorios em memoria eh iniciado
+	 * na propria JVM.
+	 *
+	 * @param args
+	 *            argumentos da carga.
+	 * @throws Exception
+	 *             lancada se a carga falhar.
+	 */
+	public static void main(String[] args) throws Exception {
+		String host = args.length > 0 ? args[0] : "local";
+		int porta = args.length > 1 ? Integer.parseInt(args[1])
+				: ServidorBanco.PORTA_PADRAO;
+		int conexoes = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		int comandos = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+		int contas = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+		ServidorBanco servidor = null;
+		if (host.equals("local")) {
+			Banco banco = new Banco(new RepositorioClientesHash(),
+					new RepositorioContasHash(contas)) {
+			};
+			servidor = new ServidorBanco(banco, banco, 0);
+			host = "localhost";
+			porta = servidor.getPorta();
+		}
+		try {
+			ClienteCarga carga = new ClienteCarga(host, porta);
+			carga.criarContas(contas);
+			System.out.println(carga.executar(conexoes, comandos, contas));
+		} finally {
+			if (servidor != null)
+				servidor.fechar();
+		}
+	}
+}
@@ -0,0 +1,423 @@
+package br.ufrpe.poo.banco.servidor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import br.ufrpe.poo.banco.exceptions.ValorInvalidoException;
+import br.ufrpe.poo.banco.metricas.Metricas;
+import br.ufrpe.poo.banco.negocio.Banco;
+import br.ufrpe.poo.banco.negocio.BancoInstrumentado;
+import br.ufrpe.poo.banco.negocio.Cliente;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.ContaImposto;
+import br.ufrpe.poo.banco.negocio.Dinheiro;
+import br.ufrpe.poo.banco.negocio.ICliente;
+import br.ufrpe.poo.banco.negocio.IGerencia;
+import br.ufrpe.poo.banco.negocio.Poupanca;
+import br.ufrpe.poo.banco.negocio.ProcessamentoFimDoDia;
+
+/**
+ * Servidor TCP que expoe as operacoes de <code>ICliente</code> e
+ * <code>IGerencia</code> num protocolo de linhas de texto.
+ *
+ * Cada linha enviada eh um comando com argumentos separados por espaco, e cada
+ * comando recebe uma linha de resposta: <code>OK</code> seguido do resultado
+ * ou <code>ERRO</code> seguido da mensagem. Os comandos sao:
+ * <ul>
+ * <li><code>CONTA numero</code> - saldo da conta</li>
+ * <li><code>CLIENTE cpf</code> - contas (separadas por virgula) e nome</li>
+ * <li><code>CADASTRAR_CLIENTE cpf nome</code></li>
+ * <li><code>CADASTRAR_CONTA tipo numero saldo</code> - tipo eh CONTA,
+ * POUPANCA, IMPOSTO ou ESPECIAL</li>
+ * <li><code>ASSOCIAR cpf numero</code></li>
+ * <li><code>REMOVER_CLIENTE cpf</code></li>
+ * <li><code>REMOVER_CONTA cpf numero</code></li>
+ * <li><code>CREDITAR numero valor</code></li>
+ * <li><code>DEBITAR numero valor</code></li>
+ * <li><code>TRANSFERIR origem destino valor</code></li>
+ * <li><code>JUROS_TODAS</code> e <code>BONUS_TODAS</code> - quantidade de
+ * contas alteradas</li>
+ * <li><code>SAIR</code> - encerra a conexao</li>
+ * </ul>
+ *
+ * Por padrao o servidor aceita conexoes apenas do endereco local
+ * (loopback); para atender outras maquinas, o endereco da interface deve ser
+ * passado explicitamente.
+ *
+ * Cada conexao eh atendida por uma thread virtual, de modo que conexoes
+ * ociosas nao ocupam threads da plataforma. Em JVMs sem threads virtuais as
+ * conexoes sao atendidas por um pool de threads comum.
+ */
+public class ServidorBanco {
+
+	/** Porta padrao do servidor. */
+	public static final int PORTA_PADRAO = 7070;
+
+	/** Tamanho da fila de conexoes aguardando aceitacao. */
+	private static final int FILA_CONEXOES = 4096;
+
+	/** Operacoes de cliente. */
+	private final ICliente cliente;
+
+	/** Operacoes de gerencia. */
+	private final IGerencia gerencia;
+
+	/** Socket que aceita as conexoes. */
+	private final ServerSocket servidor;
+
+	/** Executor que atende as conexoes. */
+	private final ExecutorService conexoes;
+
+	/** Thread que aceita as conexoes. */
+	private final Thread aceitador;
+
+	/** Conexoes em atendimento, fechadas junto com o servidor. */
+	private final Set<Socket> abertas = ConcurrentHashMap.newKeySet();
+
+	/** Indica se o servidor foi fechado. */
+	private volatile boolean fechado;
+
+	/** Quantidade de falhas ao aceitar conexoes. */
+	private volatile long falhasAceitacao;
+
+	/**
+	 * Cria o servidor no endereco local e comeca a aceitar conexoes.
+	 *
+	 * @param cliente
+	 *            operacoes de cliente.
+	 * @param gerencia
+	 *            operacoes de gerencia.
+	 * @param porta
+	 *            porta do servidor, ou 0 para uma porta livre.
+	 * @throws IOException
+	 *             lancada se a porta nao pode ser aberta.
+	 */
+	public ServidorBanco(ICliente cliente, IGerencia gerencia, int porta)
+			throws IOException {
+		this(cliente, gerencia, InetAddress.getLoopbackAddress(), porta);
+	}
+
+	/**
+	 * Cria o servidor e comeca a aceitar conexoes.
+	 *
+	 * @param cliente
+	 *            operacoes de cliente.
+	 * @param gerencia
+	 *            operacoes de gerencia.
+	 * @param endereco
+	 *            endereco em que o servidor aceita conexoes; o endereco
+	 *            curinga (0.0.0.0) aceita conexoes de todas as interfaces.
+	 * @param porta
+	 *            porta do servidor, ou 0 para uma porta livre.
+	 * @throws IOException
+	 *             lancada se a porta nao pode ser aberta.
+	 */
+	public ServidorBanco(ICliente cliente, IGerencia gerencia,
+			InetAddress endereco, int porta) throws IOException {
+		this.cliente = cliente;
+		this.gerencia = gerencia;
+		this.servidor = new ServerSocket(porta, FILA_CONEXOES, endereco);
+		this.conexoes = novoExecutorPorTarefa();
+		this.aceitador = new Thread(this::aceitar, "servidor-banco-"
+				+ this.servidor.getLocalPort());
+		this.aceitador.start();
+	}
+
+	/**
+	 * Cria um executor que roda cada tarefa numa thread virtual nova ou, se a
+	 * JVM nao tem threads virtuais, num pool de threads que cresce sob
+	 * demanda.
+	 *
+	 * @return executor criado.
+	 */
+	public static ExecutorService novoExecutorPorTarefa() {
+		try {
+			return (ExecutorService) Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Retorna a porta em que o servidor aceita conexoes.
+	 *
+	 * @return porta do servidor.
+	 */
+	public int getPorta() {
+		return this.servidor.getLocalPort();
+	}
+
+	/**
+	 * Retorna o endereco em que o servidor aceita conexoes.
+	 *
+	 * @return endereco do servidor.
+	 */
+	public InetAddress getEndereco() {
+		return this.servidor.getInetAddress();
+	}
+
+	/**
+	 * Retorna a quantidade de falhas ao aceitar conexoes, por exemplo por
+	 * falta de descritores de arquivo.
+	 *
+	 * @return quantidade de falhas desde a criacao do servidor.
+	 */
+	public long getFalhasAceitacao() {
+		return this.falhasAceitacao;
+	}
+
+	/**
+	 * Laco da thread que aceita as conexoes. Apenas a primeira falha de uma
+	 * sequencia de falhas seguidas eh informada; todas sao contadas em
+	 * <code>falhasAceitacao</code>.
+	 */
+	private void aceitar() {
+		boolean falhando = false;
+		while (!this.fechado) {
+			try {
+				Socket socket = this.servidor.accept();
+				falhando = false;
+				this.abertas.add(socket);
+				try {
+					this.conexoes.execute(() -> this.atender(socket));
+				} catch (RejectedExecutionException e) {
+					// servidor fechado enquanto a conexao era aceita
+					this.abertas.remove(socket);
+					socket.close();
+				}
+			} catch (IOException e) {
+				// socket fechado por fechar()
+				if (this.fechado)
+					break;
+				// por exemplo, limite de arquivos abertos: espera conexoes
+				// serem encerradas em vez de repetir o erro sem pausa
+				this.falhasAceitacao++;
+				if (!falhando) {
+					falhando = true;
+					System.err.println("Falha ao aceitar conexoes na porta "
+							+ this.getPorta() + ": " + e);
+				}
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e1) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Atende uma conexao ate o cliente enviar SAIR ou fechar o socket.
+	 */
+	private void atender(Socket socket) {
+		try (Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(
+						s.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(
+						s.getOutputStream(), StandardCharsets.UTF_8))) {
+			s.setTcpNoDelay(true);
+			String linha;
+			while ((linha = in.readLine()) != null) {
+				if (linha.trim().equalsIgnoreCase("SAIR"))
+					break;
+				out.write(this.processar(linha));
+				out.write('\n');
+				// respostas de comandos ja enviados em sequencia saem juntas
+				if (!in.ready())
+					out.flush();
+			}
+		} catch (IOException e) {
+			// conexao encerrada pelo cliente
+		} finally {
+			this.abertas.remove(socket);
+		}
+	}
+
+	/**
+	 * Executa um comando e retorna a linha de resposta.
+	 *
+	 * @param linha
+	 *            comando recebido.
+	 * @return resposta sem a quebra de linha.
+	 */
+	public String processar(String linha) {
+		String[] campos = linha.trim().split(" +", 4);
+		try {
+			return "OK" + this.executar(campos);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			return "ERRO Argumentos insuficientes!";
+		} catch (NumberFormatException e) {
+			return "ERRO Valor invalido!";
+		} catch (Exception e) {
+			return "ERRO " + (e.getMessage() == null ? e.getClass()
+					.getSimpleName() : e.getMessage());
+		}
+	}
+
+	/**
+	 * Executa o comando e retorna o resultado, com um espaco antes se nao for
+	 * vazio.
+	 */
+	private String executar(String[] campos) throws Exception {
+		switch (campos[0].toUpperCase()) {
+		case "CONTA":
+			return " " + this.conta(campos[1]).getSaldoDinheiro();
+		case "CLIENTE": {
+			Cliente c = this.clienteCadastrado(campos[1]);
+			List<String> contas = c.getContas();
+			return " " + (contas == null || contas.isEmpty() ? "-" : String
+					.join(",", contas)) + " " + c.getNome();
+		}
+		case "CADASTRAR_CLIENTE":
+			this.gerencia.cadastrarCliente(new Cliente(juntar(campos, 2),
+					campos[1]));
+			return "";
+		case "CADASTRAR_CONTA":
+			this.gerencia.cadastrar(criarConta(campos[1], campos[2],
+					valor(campos[3])));
+			return "";
+		case "ASSOCIAR":
+			this.gerencia.associarConta(campos[1], campos[2]);
+			return "";
+		case "REMOVER_CLIENTE":
+			this.gerencia.removerCliente(campos[1]);
+			return "";
+		case "REMOVER_CONTA":
+			this.gerencia.removerConta(this.clienteCadastrado(campos[1]),
+					campos[2]);
+			return "";
+		case "CREDITAR":
+			this.cliente.creditar(this.conta(campos[1]), valor(campos[2]));
+			return "";
+		case "DEBITAR":
+			this.cliente.debitar(this.conta(campos[1]), valor(campos[2]));
+			return "";
+		case "TRANSFERIR":
+			this.cliente.transferir(this.conta(campos[1]),
+					this.conta(campos[2]), valor(campos[3]));
+			return "";
+		case "JUROS_TODAS":
+			return " " + this.gerencia.renderJurosTodas(
+					ProcessamentoFimDoDia.SEM_PROGRESSO);
+		case "BONUS_TODAS":
+			return " " + this.gerencia.renderBonusTodas(
+					ProcessamentoFimDoDia.SEM_PROGRESSO);
+		default:
+			throw new IllegalArgumentException("Comando desconhecido: "
+					+ campos[0]);
+		}
+	}
+
+	private ContaAbstrata conta(String numero) {
+		ContaAbstrata conta = this.cliente.procurarConta(numero);
+		if (conta == null)
+			throw new IllegalArgumentException("Conta inexistente: " + numero);
+		return conta;
+	}
+
+	private Cliente clienteCadastrado(String cpf) {
+		Cliente c = this.cliente.procurarCliente(cpf);
+		if (c == null)
+			throw new IllegalArgumentException("Cliente inexistente: " + cpf);
+		return c;
+	}
+
+	private static Dinheiro valor(String texto) throws ValorInvalidoException {
+		return ICliente.valorValido(Double.parseDouble(texto));
+	}
+
+	/**
+	 * Junta os campos a partir de um indice, para argumentos com espacos.
+	 */
+	private static String juntar(String[] campos, int inicio) {
+		return String.join(" ", Arrays.copyOfRange(campos, inicio,
+				campos.length));
+	}
+
+	private static ContaAbstrata criarConta(String tipo, String numero,
+			Dinheiro saldo) {
+		switch (tipo.toUpperCase()) {
+		case "CONTA":
+			return new Conta(numero, saldo);
+		case "POUPANCA":
+			return new Poupanca(numero, saldo);
+		case "IMPOSTO":
+			return new ContaImposto(numero, saldo);
+		case "ESPECIAL":
+			return new ContaEspecial(numero, saldo);
+		default:
+			throw new IllegalArgumentException("Tipo de conta inexistente: "
+					+ tipo);
+		}
+	}
+
+	/**
+	 * Para de aceitar conexoes e encerra as conexoes em atendimento.
+	 *
+	 * @throws IOException
+	 *             lancada em caso de erro ao fechar o socket.
+	 */
+	public void fechar() throws IOException {
+		this.fechado = true;
+		this.servidor.close();
+		for (Socket socket : this.abertas) {
+			socket.close();
+		}
+		this.conexoes.shutdown();
+		try {
+			this.aceitador.join();
+			this.conexoes.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Inicia o servidor sobre os repositorios padrao do banco. As operacoes
+	 * sao medidas por <code>BancoInstrumentado</code>, e as metricas sao
+	 * exportadas por JMX e em texto por HTTP na porta seguinte a do servidor.
+	 *
+	 * @param args
+	 *            porta e endereco opcionais; sem endereco, os servidores
+	 *            aceitam apenas conexoes locais.
+	 * @throws Exception
+	 *             lancada se o banco ou o servidor nao podem ser iniciados.
+	 */
+	public static void main(String[] args) throws Exception {
+		int porta = args.length > 0 ? Integer.parseInt(args[0]) : PORTA_PADRAO;
+		InetAddress endereco = args.length > 1 ? InetAddress
+				.getByName(args[1]) : InetAddress.getLoopbackAddress();
+		Metricas metricas = new Metricas();
+		BancoInstrumentado banco = new BancoInstrumentado(Banco.getInstance(),
+				metricas);
+		metricas.registrarJmx(Metricas.DOMINIO_PADRAO);
+		ServidorBanco servidor = new ServidorBanco(banco, banco, endereco,
+				porta);
+		ServidorMetricas servidorMetricas = new ServidorMetricas(metricas,
+				endereco, porta == 0 ? 0 : porta + 1);
+		System.out.println("Servidor do banco em "
+				+ endereco.getHostAddress() + ":" + servidor.getPorta());
+		System.out.println("Metricas em http://"
+				+ endereco.getHostAddress() + ":"
+				+ servidorMetricas.getPorta() + ServidorMetricas.CAMINHO);
+	}
+}
@@ -0,0 +1,95 @@
+package br.ufrpe.poo.banco.servidor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import br.ufrpe.poo.banco.metricas.Metricas;
+
+/**
+ * Servidor HTTP que expoe o relatorio de <code>Metricas</code> em texto no
+ * caminho <code>/metricas</code>, para ser consultado por
+ * <code>curl http://host:porta/metricas</code> ou coletado periodicamente.
+ * Por padrao o servidor atende apenas o endereco local (loopback).
+ */
+public class ServidorMetricas {
+
+	/** Caminho do relatorio. */
+	public static final String CAMINHO = "/metricas";
+
+	/** Metricas expostas. */
+	private final Metricas metricas;
+
+	/** Servidor HTTP. */
+	private final HttpServer servidor;
+
+	/**
+	 * Cria o servidor no endereco local e comeca a atender as requisicoes.
+	 *
+	 * @param metricas
+	 *            metricas expostas.
+	 * @param porta
+	 *            porta do servidor, ou 0 para uma porta livre.
+	 * @throws IOException
+	 *             lancada se a porta nao pode ser aberta.
+	 */
+	public ServidorMetricas(Metricas metricas, int porta) throws IOException {
+		this(metricas, InetAddress.getLoopbackAddress(), porta);
+	}
+
+	/**
+	 * Cria o servidor e comeca a atender as requisicoes.
+	 *
+	 * @param metricas
+	 *            metricas expostas.
+	 * @param endereco
+	 *            endereco em que o servidor atende.
+	 * @param porta
+	 *            porta do servidor, ou 0 para uma porta livre.
+	 * @throws IOException
+	 *             lancada se a porta nao pode ser aberta.
+	 */
+	public ServidorMetricas(Metricas metricas, InetAddress endereco,
+			int porta) throws IOException {
+		this.metricas = metricas;
+		this.servidor = HttpServer.create(new InetSocketAddress(endereco,
+				porta), 0);
+		this.servidor.createContext(CAMINHO, this::responder);
+		this.servidor.start();
+	}
+
+	/**
+	 * Responde uma requisicao com o relatorio das metricas.
+	 */
+	private void responder(HttpExchange troca) throws IOException {
+		byte[] corpo = this.metricas.getRelatorio().getBytes(
+				StandardCharsets.UTF_8);
+		troca.getResponseHeaders().set("Content-Type",
+				"text/plain; charset=utf-8");
+		troca.sendResponseHeaders(200, corpo.length);
+		try (OutputStream out = troca.getResponseBody()) {
+			out.write(corpo);
+		}
+	}
+
+	/**
+	 * Retorna a porta em que o servidor atende.
+	 *
+	 * @return porta do servidor.
+	 */
+	public int getPorta() {
+		return this.servidor.getAddress().getPort();
+	}
+
+	/**
+	 * Para de atender as requisicoes.
+	 */
+	public void fechar() {
+		this.servidor.stop(0);
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * Contem o servidor de rede que expoe as operacoes do banco sem a gui.
+ */
+package br.ufrpe.poo.banco.servidor;
@@ -0,0 +1,138 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.ClienteJaPossuiContaException;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.ContaImposto;
+import br.ufrpe.poo.banco.negocio.Evento;
+import br.ufrpe.poo.banco.negocio.Lancamento;
+import br.ufrpe.poo.banco.negocio.Poupanca;
+
+/**
+ * Testa a codificacao binaria de contas e clientes e a migracao dos arquivos
+ * gravados com serializacao Java.
+ */
+public class TesteCodecRegistros {
+
+	@After
+	public void apagarArquivos() throws IOException {
+		new FileOutputStream("contas.dat").close();
+		new FileOutputStream("clientes.dat").close();
+	}
+
+	private static ContaAbstrata idaEVolta(ContaAbstrata conta)
+			throws IOException, RepositorioException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodecRegistros.escreverConta(new DataOutputStream(bytes), conta);
+		return CodecRegistros.lerConta(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())),
+				CodecRegistros.VERSAO);
+	}
+
+	@Test
+	public void testeContas() throws IOException, RepositorioException {
+		ContaEspecial especial = new ContaEspecial("4", 10);
+		especial.creditar(100);
+		ContaAbstrata[] contas = { new Conta("1", 1.5), new Poupanca("2", 2),
+				new ContaImposto("3", 3), especial };
+		for (ContaAbstrata conta : contas) {
+			ContaAbstrata lida = idaEVolta(conta);
+			assertEquals(conta.getClass(), lida.getClass());
+			assertEquals(conta.getNumero(), lida.getNumero());
+			assertEquals(conta.getSaldo(), lida.getSaldo(), 0);
+		}
+		assertEquals(1, ((ContaEspecial) idaEVolta(especial)).getBonus(), 0);
+	}
+
+	@Test
+	public void testeCliente() throws IOException,
+			ClienteJaPossuiContaException {
+		Cliente cliente = new Cliente("Maria", "123");
+		cliente.adicionarConta("1");
+		cliente.adicionarConta("2");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodecRegistros.escreverCliente(new DataOutputStream(bytes), cliente);
+		Cliente lido = CodecRegistros.lerCliente(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())),
+				CodecRegistros.VERSAO);
+		assertEquals("Maria", lido.getNome());
+		assertEquals("123", lido.getCpf());
+		assertEquals(cliente.getContas(), lido.getContas());
+	}
+
+	@Test
+	public void testeCodigosDosTipos() throws IOException {
+		// os codigos sao os que ja estao gravados nos arquivos
+		assertEquals(0, Lancamento.Tipo.CREDITO.getCodigo());
+		assertEquals(5, Lancamento.Tipo.BONUS.getCodigo());
+		assertEquals(0, Evento.Tipo.CLIENTE_CADASTRADO.getCodigo());
+		assertEquals(8, Evento.Tipo.TRANSFERIDO.getCodigo());
+		assertEquals(9, Evento.Tipo.JUROS_CREDITADOS.getCodigo());
+		assertEquals(10, Evento.Tipo.BONUS_CREDITADO.getCodigo());
+		for (Lancamento.Tipo tipo : Lancamento.Tipo.values()) {
+			assertEquals(tipo, Lancamento.Tipo.doCodigo(tipo.getCodigo()));
+		}
+		for (Evento.Tipo tipo : Evento.Tipo.values()) {
+			assertEquals(tipo, Evento.Tipo.doCodigo(tipo.getCodigo()));
+		}
+		assertNull(Evento.Tipo.doCodigo(11));
+
+		try {
+			CodecRegistros.lerEvento(new DataInputStream(
+					new ByteArrayInputStream(new byte[] { 11 })),
+					CodecRegistros.VERSAO);
+			fail();
+		} catch (RepositorioException e) {
+		}
+	}
+
+	@Test
+	public void testeMigracaoSerializacaoJava() throws IOException,
+			RepositorioException, ClienteJaPossuiContaException {
+		try (ObjectOutputStream out = new ObjectOutputStream(
+				new FileOutputStream("contas.dat"))) {
+			out.writeObject(new Poupanca("1", 10));
+			out.writeObject(new Conta("2", 20));
+		}
+		Cliente cliente = new Cliente("Joao", "456");
+		cliente.adicionarConta("1");
+		try (ObjectOutputStream out = new ObjectOutputStream(
+				new FileOutputStream("clientes.dat"))) {
+			out.writeObject(cliente);
+		}
+		File contas = new File("contas.dat");
+		assertTrue(CodecRegistros.ehSerializacaoJava(contas));
+
+		RepositorioContasArquivoBin repositorioContas = new RepositorioContasArquivoBin();
+		RepositorioClientesArquivoBin repositorioClientes = new RepositorioClientesArquivoBin();
+		assertFalse(CodecRegistros.ehSerializacaoJava(contas));
+		assertFalse(CodecRegistros.ehSerializacaoJava(new File("clientes.dat")));
+		assertTrue(repositorioContas.procurar("1") instanceof Poupanca);
+		assertEquals(20, repositorioContas.procurar("2").getSaldo(), 0);
+		assertEquals(0, repositorioClientes.procurar("456").procurarConta("1"));
+
+		repositorioContas = new RepositorioContasArquivoBin();
+		assertEquals(10, repositorioContas.procurar("1").getSaldo(), 0);
+	}
+}
@@ -0,0 +1,118 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+
+/**
+ * Testa a confirmacao em grupo das alteracoes dos repositorios em arquivo.
+ */
+public class TesteConfirmacaoEmGrupo {
+
+	private static final int THREADS = 8;
+	private static final int CONTAS_POR_THREAD = 100;
+
+	private File snapshot;
+	private File log;
+	private File arquivo;
+
+	@Before
+	public void criarArquivos() throws IOException {
+		this.snapshot = File.createTempFile("contas", ".snap");
+		this.log = File.createTempFile("contas", ".log");
+		this.arquivo = File.createTempFile("contas", ".dat");
+		this.snapshot.delete();
+		this.log.delete();
+	}
+
+	@After
+	public void apagarArquivos() {
+		this.snapshot.delete();
+		this.log.delete();
+		this.arquivo.delete();
+		new File(this.log.getPath() + ".1").delete();
+	}
+
+	/**
+	 * Insere contas a partir de varias threads ao mesmo tempo.
+	 */
+	private void inserirConcorrente(IRepositorioContas repositorio)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> tarefas = new ArrayList<Future<?>>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			tarefas.add(executor.submit(() -> {
+				for (int i = 0; i < CONTAS_POR_THREAD; i++) {
+					repositorio.inserir(new Conta(thread + "-" + i, i));
+				}
+				return null;
+			}));
+		}
+		for (Future<?> tarefa : tarefas) {
+			tarefa.get();
+		}
+		executor.shutdown();
+	}
+
+	private void verificarContas(IRepositorioContas repositorio) {
+		for (int t = 0; t < THREADS; t++) {
+			for (int i = 0; i < CONTAS_POR_THREAD; i++) {
+				assertEquals(i, repositorio.procurar(t + "-" + i).getSaldo(), 0);
+			}
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void testeLogEmGrupo() throws Exception {
+		RepositorioContasArquivoLog repositorio = new RepositorioContasArquivoLog(
+				this.snapshot, this.log, ModoGravacao.EM_GRUPO, 1000000);
+		this.inserirConcorrente(repositorio);
+		repositorio.fechar();
+
+		repositorio = new RepositorioContasArquivoLog(this.snapshot, this.log,
+				ModoGravacao.IMEDIATO, 1000000);
+		this.verificarContas(repositorio);
+		repositorio.fechar();
+	}
+
+	@Test(timeout = 60000)
+	public void testeArquivoBinEmGrupo() throws Exception {
+		RepositorioContasArquivoBin repositorio = new RepositorioContasArquivoBin(
+				this.arquivo, ModoGravacao.EM_GRUPO);
+		this.inserirConcorrente(repositorio);
+		ConfirmacaoEmGrupo confirmacao = repositorio.getConfirmacao();
+		assertEquals(THREADS * CONTAS_POR_THREAD, confirmacao.getAlteracoes());
+		assertTrue(confirmacao.getDescargas() <= confirmacao.getAlteracoes());
+		repositorio.fechar();
+
+		this.verificarContas(new RepositorioContasArquivoBin(this.arquivo,
+				ModoGravacao.IMEDIATO));
+	}
+
+	@Test(expected = RepositorioException.class)
+	public void testeFalhaNaDescarga() throws RepositorioException {
+		ConfirmacaoEmGrupo confirmacao = new ConfirmacaoEmGrupo("falha", () -> {
+			throw new RepositorioException("Disco cheio!");
+		});
+		try {
+			confirmacao.confirmar();
+		} finally {
+			confirmacao.fechar();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+import br.ufrpe.poo.banco.negocio.Conta;
+
+/**
+ * Testa a gravacao em segundo plano e o modo <code>ASSINCRONO</code> dos
+ * repositorios em arquivo binario.
+ */
+public class TesteGravacaoAssincrona {
+
+	private File arquivo;
+
+	@Before
+	public void criarArquivo() throws IOException {
+		this.arquivo = File.createTempFile("assincrona", ".dat");
+		this.arquivo.delete();
+	}
+
+	@After
+	public void apagarArquivo() {
+		this.arquivo.delete();
+	}
+
+	/**
+	 * Espera ate que a condicao seja verdadeira ou falha depois de 5 segundos.
+	 */
+	private static void esperar(BooleanSupplier condicao)
+			throws InterruptedException {
+		long fim = System.currentTimeMillis() + 5000;
+		while (!condicao.getAsBoolean()) {
+			if (System.currentTimeMillis() > fim)
+				fail("condicao nao atingida");
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	public void testeDescargaPorIntervalo() throws Exception {
+		AtomicInteger gravacoes = new AtomicInteger();
+		GravacaoAssincrona gravacao = new GravacaoAssincrona("teste",
+				gravacoes::incrementAndGet, 50, 1000);
+		for (int i = 0; i < 10; i++) {
+			gravacao.alterado();
+		}
+		assertEquals(10, gravacao.getPendentes());
+		esperar(() -> gravacao.getPendentes() == 0);
+		assertEquals(1, gravacoes.get());
+		assertEquals(1, gravacao.getDescargas());
+		assertEquals(10, gravacao.getAlteracoes());
+		assertTrue(gravacao.getUltimoAtraso() >= 50);
+		assertEquals(0, gravacao.getAtraso());
+		gravacao.fechar();
+	}
+
+	@Test
+	public void testeDescargaPorLimite() throws Exception {
+		AtomicInteger gravacoes = new AtomicInteger();
+		GravacaoAssincrona gravacao = new GravacaoAssincrona("teste",
+				gravacoes::incrementAndGet, 60000, 5);
+		for (int i = 0; i < 5; i++) {
+			gravacao.alterado();
+		}
+		esperar(() -> gravacoes.get() == 1);
+		gravacao.alterado();
+		assertEquals(1, gravacao.getPendentes());
+		gravacao.fechar();
+		assertEquals(2, gravacoes.get());
+		assertEquals(6, gravacao.getAlteracoes());
+		assertEquals(0, gravacao.getPendentes());
+		try {
+			gravacao.alterado();
+			fail("alteracao aceita depois de fechar");
+		} catch (RepositorioException e) {
+			// esperado
+		}
+	}
+
+	@Test
+	public void testeFalhaMantemPendentes() throws Exception {
+		AtomicInteger tentativas = new AtomicInteger();
+		GravacaoAssincrona gravacao = new GravacaoAssincrona("teste", () -> {
+			if (tentativas.incrementAndGet() == 1)
+				throw new RepositorioException("disco cheio");
+		}, 60000, 1000);
+		gravacao.alterado();
+		gravacao.alterado();
+		try {
+			gravacao.descarregar();
+			fail("falha nao propagada");
+		} catch (RepositorioException e) {
+			// esperado
+		}
+		assertEquals(2, gravacao.getPendentes());
+		assertNotNull(gravacao.getUltimaFalha());
+		gravacao.descarregar();
+		assertEquals(0, gravacao.getPendentes());
+		assertEquals(2, gravacao.getAlteracoes());
+		assertNull(gravacao.getUltimaFalha());
+		gravacao.fechar();
+	}
+
+	@Test
+	public void testeRepositorioContas() throws Exception {
+		RepositorioContasArquivoBin repositorio = new RepositorioContasArquivoBin(
+				this.arquivo, ModoGravacao.ASSINCRONO, 60000, 1000);
+		repositorio.inserir(new Conta("1", 10));
+		repositorio.inserir(new Conta("2", 20));
+		assertEquals(0, this.arquivo.length());
+		assertEquals(2, repositorio.getGravacaoAssincrona().getPendentes());
+		repositorio.descarregar();
+		assertEquals(0, repositorio.getGravacaoAssincrona().getPendentes());
+		repositorio.remover("1");
+		repositorio.fechar();
+
+		repositorio = new RepositorioContasArquivoBin(this.arquivo,
+				ModoGravacao.IMEDIATO);
+		assertNull(repositorio.procurar("1"));
+		assertEquals(20, repositorio.procurar("2").getSaldo(), 0);
+	}
+
+	@Test
+	public void testeRepositorioClientes() throws Exception {
+		RepositorioClientesArquivoBin repositorio = new RepositorioClientesArquivoBin(
+				this.arquivo, ModoGravacao.ASSINCRONO, 20, 1000);
+		repositorio.inserir(new Cliente("Ana", "1"));
+		GravacaoAssincrona gravacao = repositorio.getGravacaoAssincrona();
+		esperar(() -> gravacao.getDescargas() == 1);
+		repositorio.fechar();
+
+		repositorio = new RepositorioClientesArquivoBin(this.arquivo,
+				ModoGravacao.IMEDIATO);
+		assertEquals("Ana", repositorio.procurar("1").getNome());
+	}
+}
@@ -0,0 +1,106 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+
+/**
+ * Testa a gravacao de snapshots com rodape de CRC32 e os repositorios em
+ * arquivo binario que a usam.
+ */
+public class TesteGravadorSnapshot {
+
+	private File arquivo;
+
+	@Before
+	public void criarArquivo() throws IOException {
+		this.arquivo = File.createTempFile("snapshot", ".dat");
+		this.arquivo.delete();
+	}
+
+	@After
+	public void apagarArquivo() {
+		this.arquivo.delete();
+	}
+
+	/**
+	 * Troca um byte do arquivo.
+	 */
+	private void corromper(long posicao) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(this.arquivo, "rw")) {
+			raf.seek(posicao);
+			int b = raf.read();
+			raf.seek(posicao);
+			raf.write(b ^ 1);
+		}
+	}
+
+	@Test
+	public void testeGravarELer() throws Exception {
+		byte[] conteudo = "contas".getBytes("US-ASCII");
+		GravadorSnapshot.gravar(this.arquivo, conteudo, true);
+		assertEquals(conteudo.length + GravadorSnapshot.TAMANHO_RODAPE,
+				this.arquivo.length());
+		assertFalse(new File(this.arquivo.getPath() + ".tmp").exists());
+		assertArrayEquals(conteudo, GravadorSnapshot.ler(this.arquivo));
+
+	}
+
+	@Test
+	public void testeSemRodape() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		CodecRegistros.escreverCabecalho(out);
+		out.writeInt(0);
+		Files.write(this.arquivo.toPath(), bytes.toByteArray());
+		try {
+			GravadorSnapshot.ler(this.arquivo);
+			fail("arquivo sem rodape foi lido");
+		} catch (RepositorioException e) {
+			// esperado
+		}
+	}
+
+	@Test(expected = RepositorioException.class)
+	public void testeConteudoCorrompido() throws Exception {
+		GravadorSnapshot.gravar(this.arquivo, new byte[100], false);
+		this.corromper(42);
+		GravadorSnapshot.ler(this.arquivo);
+	}
+
+	@Test
+	public void testeRepositorioContas() throws Exception {
+		RepositorioContasArquivoBin repositorio = new RepositorioContasArquivoBin(
+				this.arquivo, ModoGravacao.SINCRONIZADO);
+		repositorio.inserir(new Conta("1", 10));
+		repositorio.inserir(new ContaEspecial("2", 20));
+		repositorio.fechar();
+		repositorio = new RepositorioContasArquivoBin(this.arquivo,
+				ModoGravacao.IMEDIATO);
+		assertEquals(20, repositorio.procurar("2").getSaldo(), 0);
+
+		this.corromper(CodecRegistros.TAMANHO_CABECALHO + 5);
+		try {
+			new RepositorioContasArquivoBin(this.arquivo, ModoGravacao.IMEDIATO);
+			fail("arquivo corrompido foi carregado");
+		} catch (RepositorioException e) {
+			// esperado
+		}
+	}
+}
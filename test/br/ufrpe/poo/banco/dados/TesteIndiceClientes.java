@@ -0,0 +1,116 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Testa o indice de busca de clientes e o repositorio que o mantem.
+ */
+public class TesteIndiceClientes {
+
+	private RepositorioClientesIndexado repositorio;
+
+	@Before
+	public void criarRepositorio() throws RepositorioException {
+		RepositorioClientesHash clientes = new RepositorioClientesHash();
+		clientes.inserir(new Cliente("Joao da Silva", "111.222.333-44"));
+		this.repositorio = new RepositorioClientesIndexado(clientes);
+		this.repositorio.inserir(new Cliente("Ana Maria", "11122"));
+		this.repositorio.inserir(new Cliente("Anabela Souza", "55566"));
+		this.repositorio.inserir(new Cliente("JOS\u00c9 \u00c2nderson",
+				"77788"));
+	}
+
+	private static List<String> cpfs(List<Cliente> clientes) {
+		List<String> cpfs = new ArrayList<String>();
+		for (Cliente cliente : clientes) {
+			cpfs.add(cliente.getCpf());
+		}
+		return cpfs;
+	}
+
+	@Test
+	public void testeNormalizacao() {
+		assertArrayEquals(new String[] { "jose", "anderson" },
+				IndiceClientes
+						.palavras("  JOS\u00c9  \u00c2nderson-jos\u00e9 "));
+		assertEquals("11122233344", IndiceClientes.digitos("111.222.333-44"));
+		assertTrue(IndiceClientes.isConsultaCpf("111.2"));
+		assertFalse(IndiceClientes.isConsultaCpf("ana 2"));
+		assertFalse(IndiceClientes.isConsultaCpf("."));
+	}
+
+	@Test
+	public void testeBuscarPorCpf() {
+		// o cliente indexado na criacao e o inserido depois, em ordem de cpf
+		assertEquals(List.of("11122", "111.222.333-44"),
+				cpfs(this.repositorio.buscar("111", 10)));
+		assertEquals(List.of("111.222.333-44"),
+				cpfs(this.repositorio.buscar("111.222.3", 10)));
+		assertEquals(List.of("11122"), cpfs(this.repositorio.buscar("1", 1)));
+		assertTrue(this.repositorio.buscar("9", 10).isEmpty());
+	}
+
+	@Test
+	public void testeBuscarPorNome() {
+		assertEquals(List.of("11122", "55566", "77788"),
+				cpfs(this.repositorio.buscar("an", 10)));
+		// palavra completa antes da mais longa
+		assertEquals(List.of("11122"), cpfs(this.repositorio.buscar("ana", 1)));
+		assertEquals(List.of("111.222.333-44"),
+				cpfs(this.repositorio.buscar("SIL jo", 10)));
+		assertEquals(List.of("77788"),
+				cpfs(this.repositorio.buscar("jose and", 10)));
+		assertTrue(this.repositorio.buscar("ana silva", 10).isEmpty());
+		assertTrue(this.repositorio.buscar("", 10).isEmpty());
+	}
+
+	@Test
+	public void testeAlteracoes() throws RepositorioException {
+		Cliente ana = this.repositorio.procurar("11122");
+		// a janela de atualizacao altera o proprio objeto antes de atualizar
+		ana.setNome("Beatriz");
+		this.repositorio.atualizar(ana);
+		assertEquals(List.of("55566"), cpfs(this.repositorio.buscar("ana", 10)));
+		assertEquals(List.of("11122"), cpfs(this.repositorio.buscar("bea", 10)));
+
+		this.repositorio.remover("55566");
+		assertTrue(this.repositorio.buscar("ana", 10).isEmpty());
+		assertTrue(this.repositorio.buscar("555", 10).isEmpty());
+		assertEquals(3, this.repositorio.getIndice().getQuantidade());
+
+		assertFalse(this.repositorio.inserir(new Cliente("Outro", "11122")));
+		assertTrue(this.repositorio.buscar("outro", 10).isEmpty());
+	}
+
+	@Test
+	public void testeBuscaSemIndiceIgual() throws RepositorioException {
+		RepositorioClientesHash semIndice = new RepositorioClientesHash();
+		for (int i = 0; i < 1000; i++) {
+			Cliente cliente = new Cliente("Cliente " + (i % 37) + " Silva",
+					"" + (100000 + i));
+			semIndice.inserir(cliente);
+		}
+		RepositorioClientesIndexado comIndice = new RepositorioClientesIndexado(
+				semIndice);
+		for (String consulta : new String[] { "1001", "10099", "cliente 3",
+				"silva 12", "sil", "x" }) {
+			List<String> esperados = cpfs(semIndice.buscar(consulta, 1000));
+			List<String> obtidos = cpfs(comIndice.buscar(consulta, 1000));
+			esperados.sort(null);
+			obtidos.sort(null);
+			assertEquals(consulta, esperados, obtidos);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.ContaImposto;
+import br.ufrpe.poo.banco.negocio.Poupanca;
+
+/**
+ * Testa a leitura do arquivo texto de contas.
+ */
+public class TesteLeitorContasTxt {
+
+	private static LeitorContasTxt leitor(String texto) {
+		return new LeitorContasTxt(new ByteArrayInputStream(
+				texto.getBytes(StandardCharsets.UTF_8)), "teste");
+	}
+
+	private static ContaAbstrata proxima(LeitorContasTxt leitor)
+			throws IOException, RepositorioException {
+		return leitor.proximo() ? leitor.getConta() : null;
+	}
+
+	@Test
+	public void testeTodosOsTipos() throws IOException, RepositorioException {
+		LeitorContasTxt leitor = leitor("0 a 10.5\n1 b +3.25\r\n"
+				+ "2 c 899.6199999999999\n\n3 d 1.0E3 2.75\n3 e 7\n");
+		ContaAbstrata conta = proxima(leitor);
+		assertTrue(conta instanceof Conta);
+		assertEquals("a", conta.getNumero());
+		assertEquals(1050, conta.getSaldoDinheiro().getCentavos());
+		conta = proxima(leitor);
+		assertTrue(conta instanceof Poupanca);
+		assertEquals(325, conta.getSaldoDinheiro().getCentavos());
+		conta = proxima(leitor);
+		assertTrue(conta instanceof ContaImposto);
+		assertEquals(89962, conta.getSaldoDinheiro().getCentavos());
+		ContaEspecial especial = (ContaEspecial) proxima(leitor);
+		assertEquals(100000, especial.getSaldoDinheiro().getCentavos());
+		assertEquals(275, especial.getBonusDinheiro().getCentavos());
+		especial = (ContaEspecial) proxima(leitor);
+		assertEquals(700, especial.getSaldoDinheiro().getCentavos());
+		assertEquals(0, especial.getBonusDinheiro().getCentavos());
+		assertNull(proxima(leitor));
+	}
+
+	@Test
+	public void testeRemocao() throws IOException, RepositorioException {
+		LeitorContasTxt leitor = leitor("0 a 1.00\nR a\n");
+		assertTrue(leitor.proximo());
+		assertEquals("a", leitor.getNumero());
+		assertTrue(leitor.proximo());
+		assertNull(leitor.getConta());
+		assertEquals("a", leitor.getNumero());
+		assertFalse(leitor.proximo());
+	}
+
+	@Test
+	public void testeBytesAcimaDe127() throws IOException,
+			RepositorioException {
+		LeitorContasTxt leitor = leitor("0 s\u00e3o1 10\n0 b 1\n");
+		assertEquals("s\u00e3o1", proxima(leitor).getNumero());
+		assertEquals("b", proxima(leitor).getNumero());
+		assertNull(proxima(leitor));
+
+		// o byte 0xFF nao eh confundido com o fim do arquivo
+		leitor = new LeitorContasTxt(new ByteArrayInputStream(new byte[] {
+				'0', ' ', 'a', (byte) 0xFF, ' ', '1', '\n', '0', ' ', 'b',
+				' ', '2', '\n' }), "teste");
+		assertEquals(2, proxima(leitor).getNumero().length());
+		assertEquals("b", proxima(leitor).getNumero());
+	}
+
+	@Test(expected = RepositorioException.class)
+	public void testeLinhaIncompleta() throws IOException,
+			RepositorioException {
+		LeitorContasTxt leitor = leitor("0 a 1.0\n0 b\n1 c 2.0\n");
+		proxima(leitor);
+		proxima(leitor);
+	}
+
+	@Test
+	public void testeRepositorioPreservaTiposEBonus() throws IOException,
+			RepositorioException {
+		File arquivo = File.createTempFile("contas", ".txt");
+		try {
+			RepositorioContasArquivoTxt repositorio = new RepositorioContasArquivoTxt(
+					arquivo);
+			ContaEspecial especial = new ContaEspecial("1", 100);
+			especial.creditar(50);
+			repositorio.inserir(especial);
+			repositorio.inserir(new Poupanca("2", 20));
+			repositorio.inserir(new Conta("3", 30));
+			repositorio.inserir(new ContaImposto("4", 40));
+			// regrava o arquivo inteiro
+			assertTrue(repositorio.remover("3"));
+
+			repositorio = new RepositorioContasArquivoTxt(arquivo);
+			especial = (ContaEspecial) repositorio.procurar("1");
+			assertEquals(150, especial.getSaldo(), 0);
+			assertEquals(0.5, especial.getBonus(), 0);
+			assertTrue(repositorio.procurar("2") instanceof Poupanca);
+			assertNull(repositorio.procurar("3"));
+			assertTrue(repositorio.procurar("4") instanceof ContaImposto);
+		} finally {
+			arquivo.delete();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Testa o repositorio de clientes indexado por hash de cpf.
+ */
+public class TesteRepositorioClientesHash {
+
+	@Test
+	public void testeChaveDistingueZerosAEsquerda() {
+		assertNotEquals(RepositorioClientesHash.chave("0123"),
+				RepositorioClientesHash.chave("123"));
+		assertEquals(-1, RepositorioClientesHash.chave("123.456.789-00"));
+		assertEquals(-1, RepositorioClientesHash.chave(""));
+	}
+
+	@Test
+	public void testeInserirProcurar() throws RepositorioException {
+		RepositorioClientesHash repositorio = new RepositorioClientesHash();
+		Cliente cliente = new Cliente("Maria", "12345678900");
+		Cliente formatado = new Cliente("Joao", "123.456.789-00");
+		assertTrue(repositorio.inserir(cliente));
+		assertTrue(repositorio.inserir(formatado));
+		assertFalse(repositorio.inserir(new Cliente("Outra", "12345678900")));
+		assertSame(cliente, repositorio.procurar("12345678900"));
+		assertSame(formatado, repositorio.procurar("123.456.789-00"));
+		assertNull(repositorio.procurar("012345678900"));
+	}
+
+	@Test
+	public void testeRemoverMantemIndices() throws RepositorioException {
+		RepositorioClientesHash repositorio = new RepositorioClientesHash();
+		for (int i = 0; i < 3000; i++) {
+			String cpf = i % 3 == 0 ? "cpf-" + i : Integer.toString(i);
+			repositorio.inserir(new Cliente("c" + i, cpf));
+		}
+		for (int i = 0; i < 3000; i = i + 2) {
+			String cpf = i % 3 == 0 ? "cpf-" + i : Integer.toString(i);
+			assertTrue(repositorio.remover(cpf));
+		}
+		assertEquals(1500, repositorio.getQuantidade());
+		for (int i = 0; i < 3000; i++) {
+			String cpf = i % 3 == 0 ? "cpf-" + i : Integer.toString(i);
+			Cliente cliente = repositorio.procurar(cpf);
+			if (i % 2 == 0) {
+				assertNull(cliente);
+			} else {
+				assertEquals("c" + i, cliente.getNome());
+			}
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.Poupanca;
+
+/**
+ * Testa a persistencia das contas no log de escrita antecipada.
+ */
+public class TesteRepositorioContasArquivoLog {
+
+	private File snapshot;
+	private File log;
+
+	@Before
+	public void criarArquivos() throws IOException {
+		this.snapshot = File.createTempFile("contas", ".snap");
+		this.log = File.createTempFile("contas", ".log");
+		this.snapshot.delete();
+		this.log.delete();
+	}
+
+	@After
+	public void apagarArquivos() {
+		this.snapshot.delete();
+		this.log.delete();
+		new File(this.log.getPath() + ".1").delete();
+	}
+
+	private RepositorioContasArquivoLog abrir(int limiteCompactacao)
+			throws RepositorioException {
+		return new RepositorioContasArquivoLog(this.snapshot, this.log, false,
+				limiteCompactacao);
+	}
+
+	@Test
+	public void testeReaplicarLog() throws RepositorioException {
+		RepositorioContasArquivoLog repositorio = this.abrir(1000);
+		ContaEspecial especial = new ContaEspecial("1", 100);
+		repositorio.inserir(especial);
+		repositorio.inserir(new Poupanca("2", 50));
+		repositorio.inserir(new Conta("3", 10));
+		especial.creditar(100);
+		repositorio.atualizar(especial);
+		repositorio.remover("3");
+		repositorio.fechar();
+
+		repositorio = this.abrir(1000);
+		ContaEspecial lida = (ContaEspecial) repositorio.procurar("1");
+		assertEquals(200, lida.getSaldo(), 0);
+		assertEquals(1, lida.getBonus(), 0);
+		assertTrue(repositorio.procurar("2") instanceof Poupanca);
+		assertNull(repositorio.procurar("3"));
+		repositorio.fechar();
+	}
+
+	@Test
+	public void testeCompactacao() throws RepositorioException {
+		RepositorioContasArquivoLog repositorio = this.abrir(10);
+		Conta conta = new Conta("1", 0);
+		repositorio.inserir(conta);
+		for (int i = 0; i < 25; i++) {
+			conta.creditar(1);
+			repositorio.atualizar(conta);
+		}
+		repositorio.fechar();
+		assertTrue(this.snapshot.exists());
+		assertFalse(new File(this.log.getPath() + ".1").exists());
+
+		repositorio = this.abrir(10);
+		assertEquals(25, repositorio.procurar("1").getSaldo(), 0);
+		repositorio.fechar();
+	}
+
+	@Test
+	public void testeRegistroIncompletoDescartado()
+			throws RepositorioException, IOException {
+		RepositorioContasArquivoLog repositorio = this.abrir(1000);
+		repositorio.inserir(new Conta("1", 10));
+		repositorio.fechar();
+		long tamanho = this.log.length();
+		try (FileOutputStream out = new FileOutputStream(this.log, true)) {
+			out.write(new byte[] { 'G', 0, 0 });
+		}
+
+		repositorio = this.abrir(1000);
+		assertEquals(10, repositorio.procurar("1").getSaldo(), 0);
+		assertEquals(tamanho, this.log.length());
+		repositorio.fechar();
+	}
+
+	@Test
+	public void testeFimComLixoDescartado() throws RepositorioException,
+			IOException {
+		RepositorioContasArquivoLog repositorio = this.abrir(1000);
+		repositorio.inserir(new Conta("1", 10));
+		repositorio.fechar();
+		long tamanho = this.log.length();
+		// fim preenchido com zeros por uma queda
+		try (FileOutputStream out = new FileOutputStream(this.log, true)) {
+			out.write(new byte[64]);
+		}
+		repositorio = this.abrir(1000);
+		assertEquals(tamanho, this.log.length());
+		repositorio.fechar();
+
+		// registro de gravacao decodificavel, mas sem moldura valida
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream dados = new DataOutputStream(bytes);
+		dados.writeByte('G');
+		CodecRegistros.escreverConta(dados, new Conta("2", 99));
+		try (FileOutputStream out = new FileOutputStream(this.log, true)) {
+			out.write(bytes.toByteArray());
+		}
+		repositorio = this.abrir(1000);
+		assertEquals(tamanho, this.log.length());
+		assertNull(repositorio.procurar("2"));
+		repositorio.inserir(new Conta("3", 5));
+		repositorio.fechar();
+
+		repositorio = this.abrir(1000);
+		assertEquals(10, repositorio.procurar("1").getSaldo(), 0);
+		assertEquals(5, repositorio.procurar("3").getSaldo(), 0);
+		repositorio.fechar();
+	}
+}
@@ -0,0 +1,120 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+
+/**
+ * Testa o modo incremental do repositorio de contas em arquivo texto.
+ */
+public class TesteRepositorioContasArquivoTxt {
+
+	private File arquivo;
+
+	@Before
+	public void criarArquivo() throws IOException {
+		this.arquivo = File.createTempFile("contas", ".txt");
+	}
+
+	@After
+	public void apagarArquivo() {
+		this.arquivo.delete();
+	}
+
+	private int linhas() throws IOException {
+		return Files.readAllLines(this.arquivo.toPath()).size();
+	}
+
+	@Test
+	public void testeAtualizarERemoverAcrescentam() throws IOException,
+			RepositorioException {
+		RepositorioContasArquivoTxt repositorio = new RepositorioContasArquivoTxt(
+				this.arquivo, true);
+		Conta conta = new Conta("1", 10);
+		repositorio.inserir(conta);
+		repositorio.inserir(new ContaEspecial("2", 20));
+		conta.creditar(5);
+		assertTrue(repositorio.atualizar(conta));
+		assertTrue(repositorio.remover("2"));
+		repositorio.inserir(new Conta("2", 7));
+		repositorio.fechar();
+		assertEquals(5, this.linhas());
+
+		repositorio = new RepositorioContasArquivoTxt(this.arquivo, true);
+		assertEquals(15, repositorio.procurar("1").getSaldo(), 0);
+		assertTrue(repositorio.procurar("2") instanceof Conta);
+		assertEquals(7, repositorio.procurar("2").getSaldo(), 0);
+
+		repositorio.compactar();
+		assertEquals(2, this.linhas());
+		repositorio.remover("1");
+		repositorio.fechar();
+
+		repositorio = new RepositorioContasArquivoTxt(this.arquivo);
+		assertNull(repositorio.procurar("1"));
+		assertEquals(7, repositorio.procurar("2").getSaldo(), 0);
+	}
+
+	@Test(timeout = 30000)
+	public void testeCompactacaoAutomatica() throws Exception {
+		RepositorioContasArquivoTxt repositorio = new RepositorioContasArquivoTxt(
+				this.arquivo, true);
+		Conta conta = new Conta("1", 0);
+		repositorio.inserir(conta);
+		for (int i = 0; i < RepositorioContasArquivoTxt.MINIMO_OBSOLETAS; i++) {
+			conta.creditar(1);
+			repositorio.atualizar(conta);
+		}
+		while (repositorio.getCompactacoes() == 0) {
+			Thread.sleep(10);
+		}
+		repositorio.fechar();
+		assertTrue(this.linhas() < RepositorioContasArquivoTxt.MINIMO_OBSOLETAS);
+
+		repositorio = new RepositorioContasArquivoTxt(this.arquivo);
+		assertEquals(RepositorioContasArquivoTxt.MINIMO_OBSOLETAS, repositorio
+				.procurar("1").getSaldo(), 0);
+	}
+
+	@Test(timeout = 30000)
+	public void testeFalhaNaCompactacaoAutomatica() throws Exception {
+		// um diretorio no lugar do arquivo temporario impede a compactacao
+		File temporario = new File(this.arquivo.getPath() + ".tmp");
+		assertTrue(temporario.mkdir());
+		try {
+			RepositorioContasArquivoTxt repositorio = new RepositorioContasArquivoTxt(
+					this.arquivo, true);
+			Conta conta = new Conta("1", 0);
+			repositorio.inserir(conta);
+			for (int i = 0; i < RepositorioContasArquivoTxt.MINIMO_OBSOLETAS; i++) {
+				conta.creditar(1);
+				repositorio.atualizar(conta);
+			}
+			while (repositorio.getFalhaCompactacao() == null) {
+				Thread.sleep(10);
+			}
+			try {
+				repositorio.fechar();
+				fail();
+			} catch (RepositorioException e) {
+				assertNull(repositorio.getFalhaCompactacao());
+			}
+			assertEquals(0, repositorio.getCompactacoes());
+		} finally {
+			temporario.delete();
+		}
+	}
+}
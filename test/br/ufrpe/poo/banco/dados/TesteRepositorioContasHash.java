@@ -0,0 +1,115 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.iterator.IteratorContaAbstrata;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaAbstrata;
+
+/**
+ * Testa o repositorio de contas indexado por hash.
+ */
+public class TesteRepositorioContasHash {
+
+	@Test
+	public void testeInserirProcurar() throws RepositorioException {
+		RepositorioContasHash repositorio = new RepositorioContasHash();
+		Conta conta = new Conta("1", 100);
+		assertTrue(repositorio.inserir(conta));
+		assertFalse(repositorio.inserir(new Conta("1", 50)));
+		assertSame(conta, repositorio.procurar("1"));
+		assertTrue(repositorio.existe("1"));
+		assertNull(repositorio.procurar("2"));
+	}
+
+	@Test
+	public void testeAtualizar() throws RepositorioException {
+		RepositorioContasHash repositorio = new RepositorioContasHash();
+		repositorio.inserir(new Conta("1", 100));
+		Conta nova = new Conta("1", 300);
+		assertTrue(repositorio.atualizar(nova));
+		assertSame(nova, repositorio.procurar("1"));
+		assertFalse(repositorio.atualizar(new Conta("2", 0)));
+	}
+
+	@Test
+	public void testeCrescerERemover() throws RepositorioException {
+		RepositorioContasHash repositorio = new RepositorioContasHash();
+		for (int i = 0; i < 5000; i++) {
+			assertTrue(repositorio.inserir(new Conta("c" + i, i)));
+		}
+		for (int i = 0; i < 5000; i = i + 2) {
+			assertTrue(repositorio.remover("c" + i));
+		}
+		assertFalse(repositorio.remover("c0"));
+		assertEquals(2500, repositorio.getQuantidade());
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(i % 2 == 1, repositorio.existe("c" + i));
+		}
+		for (int i = 1; i < 5000; i = i + 2) {
+			assertEquals(i, repositorio.procurar("c" + i).getSaldo(), 0);
+		}
+	}
+
+	@Test
+	public void testeIterador() throws RepositorioException {
+		RepositorioContasHash repositorio = new RepositorioContasHash();
+		for (int i = 0; i < 10; i++) {
+			repositorio.inserir(new Conta("" + i, 0));
+		}
+		repositorio.remover("3");
+		Set<String> numeros = new HashSet<String>();
+		IteratorContaAbstrata it = repositorio.getIterator();
+		while (it.hasNext()) {
+			ContaAbstrata conta = it.next();
+			numeros.add(conta.getNumero());
+		}
+		assertEquals(9, numeros.size());
+		assertFalse(numeros.contains("3"));
+	}
+
+	@Test
+	public void testePagina() throws RepositorioException {
+		RepositorioContasHash repositorio = new RepositorioContasHash();
+		RepositorioContasArray array = new RepositorioContasArray();
+		for (int i = 0; i < 25; i++) {
+			repositorio.inserir(new Conta("" + i, i));
+			array.inserir(new Conta("" + i, i));
+		}
+		Set<String> numeros = new HashSet<String>();
+		int cursor = 0;
+		int paginas = 0;
+		while (cursor != Pagina.FIM) {
+			Pagina<ContaAbstrata> pagina = repositorio.pagina(cursor, 10);
+			// a implementacao padrao, pelo iterador, lista na mesma ordem
+			Pagina<ContaAbstrata> padrao = array.pagina(cursor, 10);
+			assertEquals(25, pagina.getTotal());
+			assertEquals(pagina.getTotal(), padrao.getTotal());
+			assertEquals(pagina.getProximo(), padrao.getProximo());
+			for (int i = 0; i < pagina.getItens().size(); i++) {
+				ContaAbstrata conta = pagina.getItens().get(i);
+				assertEquals(conta.getNumero(), padrao.getItens().get(i)
+						.getNumero());
+				numeros.add(conta.getNumero());
+			}
+			cursor = pagina.getProximo();
+			paginas = paginas + 1;
+		}
+		assertEquals(3, paginas);
+		assertEquals(25, numeros.size());
+
+		assertEquals(5, repositorio.pagina(20, 10).getItens().size());
+		assertFalse(repositorio.pagina(20, 10).temProxima());
+		assertTrue(repositorio.pagina(30, 10).getItens().isEmpty());
+	}
+}
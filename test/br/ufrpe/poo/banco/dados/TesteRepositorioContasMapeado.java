@@ -0,0 +1,127 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Conta;
+import br.ufrpe.poo.banco.negocio.ContaEspecial;
+import br.ufrpe.poo.banco.negocio.ContaImposto;
+
+/**
+ * Testa o repositorio de contas em arquivo mapeado em memoria.
+ */
+public class TesteRepositorioContasMapeado {
+
+	private File arquivo;
+
+	@Before
+	public void criarArquivo() throws IOException {
+		this.arquivo = File.createTempFile("contas", ".map");
+		this.arquivo.delete();
+	}
+
+	@After
+	public void apagarArquivo() {
+		this.arquivo.delete();
+	}
+
+	@Test
+	public void testeAtualizacaoNoLugar() throws RepositorioException {
+		RepositorioContasMapeado repositorio = new RepositorioContasMapeado(
+				this.arquivo, 1);
+		ContaEspecial especial = new ContaEspecial("1", 100);
+		repositorio.inserir(especial);
+		repositorio.inserir(new ContaImposto("2", 50));
+		assertFalse(repositorio.inserir(new Conta("1", 0)));
+		especial.creditar(100);
+		assertTrue(repositorio.atualizar(especial));
+		repositorio.fechar();
+
+		repositorio = new RepositorioContasMapeado(this.arquivo, 0);
+		ContaEspecial lida = (ContaEspecial) repositorio.procurar("1");
+		assertEquals(200, lida.getSaldo(), 0);
+		assertEquals(1, lida.getBonus(), 0);
+		assertTrue(repositorio.procurar("2") instanceof ContaImposto);
+		repositorio.fechar();
+	}
+
+	@Test
+	public void testeCrescerERemover() throws RepositorioException {
+		RepositorioContasMapeado repositorio = new RepositorioContasMapeado(
+				this.arquivo, 0);
+		for (int i = 0; i < 3000; i++) {
+			repositorio.inserir(new Conta("c" + i, i));
+		}
+		for (int i = 0; i < 3000; i = i + 2) {
+			assertTrue(repositorio.remover("c" + i));
+		}
+		repositorio.inserir(new Conta("nova", 7));
+		repositorio.fechar();
+
+		repositorio = new RepositorioContasMapeado(this.arquivo, 0);
+		for (int i = 0; i < 3000; i++) {
+			if (i % 2 == 0) {
+				assertNull(repositorio.procurar("c" + i));
+			} else {
+				assertEquals(i, repositorio.procurar("c" + i).getSaldo(), 0);
+			}
+		}
+		assertEquals(7, repositorio.procurar("nova").getSaldo(), 0);
+		repositorio.fechar();
+	}
+
+	@Test(expected = RepositorioException.class)
+	public void testeNumeroMuitoLongo() throws RepositorioException {
+		RepositorioContasMapeado repositorio = new RepositorioContasMapeado(
+				this.arquivo, 0);
+		try {
+			repositorio.inserir(new Conta(
+					"01234567890123456789012345678901234567890", 0));
+		} finally {
+			repositorio.fechar();
+		}
+	}
+
+	@Test
+	public void testeArquivoInvalido() throws RepositorioException,
+			IOException {
+		// mais curto que o cabecalho
+		Files.write(this.arquivo.toPath(), new byte[10]);
+		try {
+			new RepositorioContasMapeado(this.arquivo, 0);
+			fail("arquivo curto foi aberto");
+		} catch (RepositorioException e) {
+			// esperado
+		}
+
+		// tamanho do numero do primeiro slot corrompido
+		this.arquivo.delete();
+		RepositorioContasMapeado repositorio = new RepositorioContasMapeado(
+				this.arquivo, 1);
+		repositorio.inserir(new Conta("1", 10));
+		repositorio.fechar();
+		try (RandomAccessFile raf = new RandomAccessFile(this.arquivo, "rw")) {
+			raf.seek(64 + 2);
+			raf.writeByte(0x7F);
+		}
+		try {
+			new RepositorioContasMapeado(this.arquivo, 0);
+			fail("slot corrompido foi lido");
+		} catch (RepositorioException e) {
+			// esperado
+		}
+	}
+}
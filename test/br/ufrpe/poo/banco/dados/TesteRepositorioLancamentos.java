@@ -0,0 +1,126 @@
+package br.ufrpe.poo.banco.dados;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Dinheiro;
+import br.ufrpe.poo.banco.negocio.Lancamento;
+
+/**
+ * Testa os repositorios de lancamentos.
+ */
+public class TesteRepositorioLancamentos {
+
+	private File arquivo;
+
+	@Before
+	public void criarArquivo() throws IOException {
+		this.arquivo = File.createTempFile("lancamentos", ".dat");
+		this.arquivo.delete();
+	}
+
+	@After
+	public void apagarArquivo() {
+		this.arquivo.delete();
+	}
+
+	private static Lancamento credito(String numero, long instante,
+			long centavos) {
+		return new Lancamento(instante, numero, Lancamento.Tipo.CREDITO,
+				Dinheiro.deCentavos(centavos), Dinheiro.deCentavos(centavos),
+				null);
+	}
+
+	@Test
+	public void testeConsultas() throws RepositorioException {
+		RepositorioLancamentosMemoria repositorio = new RepositorioLancamentosMemoria();
+		for (int i = 0; i < 100; i++) {
+			repositorio.registrar(credito("a", i * 10, i));
+			repositorio.registrar(credito("b", i * 10, -i));
+		}
+		List<Lancamento> ultimos = repositorio.ultimos("a", 3);
+		assertEquals(3, ultimos.size());
+		assertEquals(97, ultimos.get(0).getValor().getCentavos());
+		assertEquals(99, ultimos.get(2).getValor().getCentavos());
+		assertEquals(100, repositorio.ultimos("a", 1000).size());
+		assertTrue(repositorio.ultimos("c", 3).isEmpty());
+
+		List<Lancamento> periodo = repositorio.entre("b", 205, 250);
+		assertEquals(5, periodo.size());
+		assertEquals(210, periodo.get(0).getInstante());
+		assertEquals(250, periodo.get(4).getInstante());
+		assertEquals(100, repositorio.entre("b", Long.MIN_VALUE,
+				Long.MAX_VALUE).size());
+		assertTrue(repositorio.entre("b", 2000, 3000).isEmpty());
+		assertTrue(repositorio.entre("b", 50, 40).isEmpty());
+	}
+
+	@Test
+	public void testeRelogioVoltando() {
+		RepositorioLancamentosMemoria repositorio = new RepositorioLancamentosMemoria();
+		repositorio.registrar(credito("a", 100, 1));
+		repositorio.registrar(credito("a", 50, 2));
+		List<Lancamento> periodo = repositorio.entre("a", 100, 100);
+		assertEquals(2, periodo.size());
+		assertEquals(2, periodo.get(1).getValor().getCentavos());
+	}
+
+	@Test
+	public void testeArquivo() throws RepositorioException, IOException {
+		RepositorioLancamentosArquivo repositorio = new RepositorioLancamentosArquivo(
+				this.arquivo);
+		repositorio.registrar(credito("a", 1, 1));
+		repositorio.registrar(new Lancamento(2, "a",
+				Lancamento.Tipo.TRANSFERENCIA_ENVIADA, Dinheiro.deCentavos(-1),
+				Dinheiro.ZERO, "b"));
+		repositorio.fechar();
+		// simula gravacao interrompida no meio de um registro
+		long tamanho = this.arquivo.length();
+		try (RandomAccessFile raf = new RandomAccessFile(this.arquivo, "rw")) {
+			raf.seek(tamanho);
+			raf.write(new byte[] { 0, 0, 0 });
+		}
+
+		repositorio = new RepositorioLancamentosArquivo(this.arquivo);
+		assertEquals(tamanho, this.arquivo.length());
+		List<Lancamento> lidos = repositorio.ultimos("a", 10);
+		assertEquals(2, lidos.size());
+		assertEquals("b", lidos.get(1).getContrapartida());
+		assertEquals(Lancamento.Tipo.TRANSFERENCIA_ENVIADA, lidos.get(1)
+				.getTipo());
+		repositorio.registrar(credito("a", 3, 5));
+		repositorio.fechar();
+
+		repositorio = new RepositorioLancamentosArquivo(this.arquivo);
+		assertEquals(3, repositorio.ultimos("a", 10).size());
+		repositorio.fechar();
+	}
+
+	@Test
+	public void testeFimZeradoDescartado() throws RepositorioException,
+			IOException {
+		RepositorioLancamentosArquivo repositorio = new RepositorioLancamentosArquivo(
+				this.arquivo);
+		repositorio.registrar(credito("a", 1, 1));
+		repositorio.fechar();
+		long tamanho = this.arquivo.length();
+		try (RandomAccessFile raf = new RandomAccessFile(this.arquivo, "rw")) {
+			raf.setLength(tamanho + 4096);
+		}
+
+		repositorio = new RepositorioLancamentosArquivo(this.arquivo);
+		assertEquals(tamanho, this.arquivo.length());
+		assertEquals(1, repositorio.ultimos("a", 10).size());
+		repositorio.fechar();
+	}
+}
@@ -0,0 +1,120 @@
+package br.ufrpe.poo.banco.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.JButton;
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+
+/**
+ * Testa a execucao das operacoes da interface grafica fora da EDT. Nao abre
+ * janelas, apenas usa botoes, e por isso roda sem monitor.
+ */
+public class TesteExecutorBanco {
+
+	/**
+	 * Espera as tarefas pendentes da EDT terminarem.
+	 */
+	private static void esperarEdt() throws Exception {
+		SwingUtilities.invokeAndWait(() -> {
+		});
+	}
+
+	@Test
+	public void testeSucessoNaEdt() throws Exception {
+		ExecutorBanco executor = new ExecutorBanco(1);
+		JButton botao = new JButton();
+		CountDownLatch liberar = new CountDownLatch(1);
+		CountDownLatch aplicado = new CountDownLatch(1);
+		AtomicReference<String> resultado = new AtomicReference<String>();
+		AtomicBoolean naEdt = new AtomicBoolean();
+		AtomicReference<ExecutorBanco.Tarefa<String>> tarefa = new AtomicReference<ExecutorBanco.Tarefa<String>>();
+
+		SwingUtilities.invokeAndWait(() -> tarefa.set(executor.executar(null,
+				() -> {
+					liberar.await();
+					return "ok";
+				}, valor -> {
+					resultado.set(valor);
+					naEdt.set(SwingUtilities.isEventDispatchThread());
+					aplicado.countDown();
+				}, e -> {
+				}, botao)));
+		assertFalse(botao.isEnabled());
+		assertTrue(tarefa.get().isEmAndamento());
+		assertEquals(1, executor.getEmAndamento());
+
+		liberar.countDown();
+		assertTrue(aplicado.await(5, TimeUnit.SECONDS));
+		esperarEdt();
+		assertEquals("ok", resultado.get());
+		assertTrue(naEdt.get());
+		assertTrue(botao.isEnabled());
+		assertEquals(0, executor.getEmAndamento());
+	}
+
+	@Test
+	public void testeFalha() throws Exception {
+		ExecutorBanco executor = new ExecutorBanco(1);
+		JButton botao = new JButton();
+		CountDownLatch tratado = new CountDownLatch(1);
+		AtomicReference<Exception> erro = new AtomicReference<Exception>();
+		SaldoInsuficienteException lancada = new SaldoInsuficienteException(
+				"1", 0);
+
+		SwingUtilities.invokeAndWait(() -> executor.executarAcao(null, () -> {
+			throw lancada;
+		}, () -> {
+		}, e -> {
+			erro.set(e);
+			tratado.countDown();
+		}, botao));
+
+		assertTrue(tratado.await(5, TimeUnit.SECONDS));
+		esperarEdt();
+		assertSame(lancada, erro.get());
+		assertTrue(botao.isEnabled());
+	}
+
+	@Test
+	public void testeCancelarTarefaNaFila() throws Exception {
+		ExecutorBanco executor = new ExecutorBanco(1);
+		JButton primeiro = new JButton();
+		JButton segundo = new JButton();
+		CountDownLatch liberar = new CountDownLatch(1);
+		CountDownLatch terminou = new CountDownLatch(1);
+		AtomicBoolean executada = new AtomicBoolean();
+		AtomicReference<Object> aplicado = new AtomicReference<Object>();
+
+		SwingUtilities.invokeAndWait(() -> {
+			executor.executarAcao(null, () -> liberar.await(),
+					() -> terminou.countDown(), e -> {
+					}, primeiro);
+			ExecutorBanco.Tarefa<Void> tarefa = executor.executarAcao(null,
+					() -> executada.set(true), () -> aplicado.set(this),
+					e -> aplicado.set(e), segundo);
+			assertFalse(segundo.isEnabled());
+			assertTrue(tarefa.cancelar());
+			assertTrue(segundo.isEnabled());
+		});
+
+		liberar.countDown();
+		assertTrue(terminou.await(5, TimeUnit.SECONDS));
+		esperarEdt();
+		assertFalse(executada.get());
+		assertNull(aplicado.get());
+		assertEquals(0, executor.getEmAndamento());
+	}
+}
@@ -0,0 +1,86 @@
+package br.ufrpe.poo.banco.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.Pagina;
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+import br.ufrpe.poo.banco.negocio.Cliente;
+
+/**
+ * Testa o modelo de tabela que busca as linhas pagina por pagina.
+ */
+public class TesteModeloTabelaPaginada {
+
+	private RepositorioClientesHash repositorio;
+
+	private ModeloTabelaPaginada<Cliente> modelo;
+
+	@Before
+	public void criarModelo() throws RepositorioException {
+		this.repositorio = new RepositorioClientesHash();
+		for (int i = 0; i < 10000; i++) {
+			this.repositorio.inserir(new Cliente("cliente " + i, "" + i));
+		}
+		this.modelo = new ModeloTabelaPaginada<Cliente>(new String[] { "CPF",
+				"Nome" }, 50, 3) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Pagina<Cliente> buscar(int cursor, int tamanho) {
+				return repositorio.pagina(cursor, tamanho);
+			}
+
+			@Override
+			protected Object getValor(Cliente cliente, int coluna) {
+				return coluna == 0 ? cliente.getCpf() : cliente.getNome();
+			}
+		};
+	}
+
+	@Test
+	public void testeBuscaApenasPaginasUsadas() {
+		assertEquals(10000, this.modelo.getRowCount());
+		assertEquals(2, this.modelo.getColumnCount());
+		assertEquals("Nome", this.modelo.getColumnName(1));
+		assertEquals(1, this.modelo.getBuscas());
+
+		for (int linha = 0; linha < 50; linha++) {
+			assertEquals("" + linha, this.modelo.getValueAt(linha, 0));
+		}
+		assertEquals(1, this.modelo.getBuscas());
+
+		assertEquals("cliente 9999", this.modelo.getValueAt(9999, 1));
+		assertEquals("5000", this.modelo.getValueAt(5000, 0));
+		assertEquals(3, this.modelo.getBuscas());
+	}
+
+	@Test
+	public void testeMantemUltimasPaginas() {
+		for (int pagina = 0; pagina < 10; pagina++) {
+			this.modelo.getValueAt(pagina * 50, 0);
+		}
+		assertEquals(3, this.modelo.getPaginasEmMemoria());
+		assertEquals(10, this.modelo.getBuscas());
+		// a pagina 9 ainda esta em memoria, a pagina 0 foi descartada
+		this.modelo.getValueAt(9 * 50, 0);
+		assertEquals(10, this.modelo.getBuscas());
+		this.modelo.getValueAt(0, 0);
+		assertEquals(11, this.modelo.getBuscas());
+	}
+
+	@Test
+	public void testeAtualizar() throws RepositorioException {
+		assertEquals(10000, this.modelo.getRowCount());
+		this.repositorio.remover("9999");
+		assertNull(this.modelo.getValueAt(9999, 0));
+		this.modelo.atualizar();
+		assertEquals(9999, this.modelo.getRowCount());
+		assertEquals(1, this.modelo.getPaginasEmMemoria());
+	}
+}
@@ -0,0 +1,143 @@
+package br.ufrpe.poo.banco.metricas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Testa o histograma de latencias e o conjunto de metricas.
+ */
+public class TesteMetricas {
+
+	@Test
+	public void testeFaixas() {
+		long anterior = -1;
+		for (long valor = 0; valor < 1L << 42; valor = valor + 1 + valor / 7) {
+			int faixa = Histograma.faixa(valor);
+			long limite = Histograma.limiteSuperior(faixa);
+			if (faixa < Histograma.faixa(Long.MAX_VALUE)) {
+				assertTrue(valor <= limite);
+				assertTrue(limite - valor <= valor / 64);
+			}
+			assertTrue(limite >= anterior);
+			anterior = limite;
+		}
+	}
+
+	@Test
+	public void testePercentis() {
+		Histograma histograma = new Histograma();
+		for (long valor = 1; valor <= 100000; valor++) {
+			histograma.registrar(valor * 1000);
+		}
+		assertEquals(100000, histograma.getTotal());
+		assertEquals(100000000, histograma.getMaximo());
+		assertEquals(50000500, histograma.getMedia(), 1);
+		assertEquals(50000000, histograma.percentil(50), 50000000 / 64);
+		assertEquals(99000000, histograma.percentil(99), 99000000 / 64);
+		assertEquals(99900000, histograma.percentil(99.9), 99900000 / 64);
+		assertEquals(100000000, histograma.percentil(100));
+		histograma.zerar();
+		assertEquals(0, histograma.percentil(99));
+	}
+
+	@Test
+	public void testeMetodo() {
+		Metricas metricas = new Metricas();
+		MetricaMetodo metrica = metricas.metodo("contas.procurar");
+		metrica.sucesso(metrica.iniciar());
+		metrica.falha(metrica.iniciar(), new RepositorioException("x"));
+		metrica.falha(metrica.iniciar(), new IllegalStateException());
+		metrica.falha(metrica.iniciar(), new IllegalStateException());
+		assertEquals(4, metrica.getChamadas());
+		assertEquals(3, metrica.getErros());
+		assertEquals(2L, (long) metrica
+				.getErrosPorTipo().get("IllegalStateException"));
+		assertTrue(metricas.getRelatorio().contains(
+				"contas.procurar chamadas=4 erros=3 "));
+		assertTrue(metricas.getRelatorio().contains(
+				"contas.procurar.erro.RepositorioException 1"));
+
+		metricas.setHabilitada(false);
+		metrica.sucesso(metrica.iniciar());
+		metrica.falha(metrica.iniciar(), new IllegalStateException());
+		assertEquals(4, metrica.getChamadas());
+
+		metricas.zerar();
+		assertEquals(0, metrica.getChamadas());
+		assertEquals(Collections.emptyMap(), metrica.getErrosPorTipo());
+	}
+
+	@Test
+	public void testeJmx() throws Exception {
+		Metricas metricas = new Metricas();
+		metricas.metodo("banco.transferir");
+		metricas.registrarJmx("teste.metricas");
+		try {
+			MetricaMetodo metrica = metricas.metodo("banco.debitar");
+			metrica.sucesso(metrica.iniciar());
+			MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(1L, servidor.getAttribute(new ObjectName(
+					"teste.metricas:type=Metodo,name=banco.debitar"),
+					"Chamadas"));
+			assertEquals(0L, servidor.getAttribute(new ObjectName(
+					"teste.metricas:type=Metodo,name=banco.transferir"),
+					"Chamadas"));
+			assertEquals(true, servidor.getAttribute(new ObjectName(
+					"teste.metricas:type=Metricas"), "Habilitada"));
+		} finally {
+			metricas.removerJmx();
+		}
+	}
+
+	@Test
+	public void testeJmxNomeJaRegistrado() throws Exception {
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		ObjectName ocupado = new ObjectName(
+				"teste.conflito:type=Metodo,name=banco.creditar");
+		servidor.registerMBean(new Metricas().metodo("banco.creditar"),
+				ocupado);
+		try {
+			// registrarJmx propaga o erro e nao deixa nada registrado
+			Metricas metricas = new Metricas();
+			metricas.metodo("banco.creditar");
+			try {
+				metricas.registrarJmx("teste.conflito");
+				fail();
+			} catch (JMException e) {
+				assertFalse(servidor.isRegistered(new ObjectName(
+						"teste.conflito:type=Metricas")));
+			}
+
+			// o metodo criado depois do registro guarda o erro
+			metricas = new Metricas();
+			metricas.registrarJmx("teste.conflito");
+			try {
+				assertNull(metricas.getFalhaJmx());
+				metricas.metodo("banco.creditar");
+				assertNotNull(metricas.getFalhaJmx());
+			} finally {
+				metricas.removerJmx();
+			}
+			// removerJmx nao retira o nome registrado pelo outro conjunto
+			assertTrue(servidor.isRegistered(ocupado));
+		} finally {
+			if (servidor.isRegistered(ocupado))
+				servidor.unregisterMBean(ocupado);
+		}
+	}
+}
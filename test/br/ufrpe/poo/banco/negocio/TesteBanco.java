@@ -105,6 +105,38 @@ public class TesteBanco {
 		fail("O valor informado eh invalido!");
 	}
 
+	/**
+	 * Verifica que valores que seriam arredondados para zero, NaN e infinitos
+	 * sao rejeitados pelos adaptadores de <code>double</code>.
+	 */
+	@Test
+	public void testeValoresDoubleInvalidos() throws Exception {
+		ContaAbstrata conta = new Conta("1", 100);
+		ContaAbstrata outra = new Conta("2", 100);
+		banco.cadastrar(conta);
+		banco.cadastrar(outra);
+		double[] invalidos = { -0.004, Double.NaN, Double.POSITIVE_INFINITY,
+				Double.NEGATIVE_INFINITY };
+		for (double valor : invalidos) {
+			try {
+				banco.creditar(conta, valor);
+				fail("credito de " + valor);
+			} catch (ValorInvalidoException e) {
+			}
+			try {
+				banco.debitar(conta, valor);
+				fail("debito de " + valor);
+			} catch (ValorInvalidoException e) {
+			}
+			try {
+				banco.transferir(conta, outra, valor);
+				fail("transferencia de " + valor);
+			} catch (ValorInvalidoException e) {
+			}
+		}
+		assertEquals(100, banco.procurarConta("1").getSaldo(), 0);
+	}
+
 	/**
 	 * Verifica a excecao levantada na tentativa de creditar em uma conta que
 	 * nao existe.
@@ -0,0 +1,66 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+
+/**
+ * Verifica que transferencias concorrentes nao perdem atualizacoes nem entram
+ * em deadlock.
+ */
+public class TesteBancoConcorrencia {
+
+	private static final int CONTAS = 8;
+	private static final int THREADS = 8;
+	private static final int TRANSFERENCIAS = 20000;
+
+	@Test(timeout = 60000)
+	public void testeTransferenciasConcorrentes() throws Exception {
+		Banco banco = new Banco(null, new RepositorioContasHash());
+		ContaAbstrata[] contas = new ContaAbstrata[CONTAS];
+		for (int i = 0; i < CONTAS; i++) {
+			contas[i] = new Conta(Integer.toString(i), 1000);
+			banco.cadastrar(contas[i]);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> tarefas = new ArrayList<Future<?>>();
+		for (int t = 0; t < THREADS; t++) {
+			final int deslocamento = t;
+			tarefas.add(executor.submit(() -> {
+				for (int i = 0; i < TRANSFERENCIAS; i++) {
+					// threads pares e impares transferem em sentidos opostos
+					int origem = (i + deslocamento) % CONTAS;
+					int destino = (origem + (deslocamento % 2 == 0 ? 1
+							: CONTAS - 1)) % CONTAS;
+					try {
+						banco.transferir(contas[origem], contas[destino], 1);
+					} catch (SaldoInsuficienteException e) {
+						// saldo da origem esgotado momentaneamente
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> tarefa : tarefas) {
+			tarefa.get();
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		double total = 0;
+		for (ContaAbstrata conta : contas) {
+			total = total + banco.procurarConta(conta.getNumero()).getSaldo();
+		}
+		assertEquals(CONTAS * 1000, total, 0);
+	}
+}
@@ -0,0 +1,257 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.ModoGravacao;
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.dados.RepositorioEventos;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Testa o banco derivado do log de eventos.
+ */
+public class TesteBancoEventos {
+
+	private File snapshot;
+
+	private File log;
+
+	@Before
+	public void criarArquivos() throws IOException {
+		this.snapshot = File.createTempFile("eventos", ".snap");
+		this.snapshot.delete();
+		this.log = new File(this.snapshot.getPath() + ".log");
+	}
+
+	@After
+	public void apagarArquivos() {
+		this.snapshot.delete();
+		this.log.delete();
+		new File(this.log.getPath() + ".1").delete();
+	}
+
+	private RepositorioEventos repositorio(int limiteSnapshot) {
+		return new RepositorioEventos(this.snapshot, this.log,
+				ModoGravacao.IMEDIATO, limiteSnapshot);
+	}
+
+	/**
+	 * Cria clientes e contas e executa operacoes de todos os tipos.
+	 */
+	private static void operar(BancoEventos banco) throws Exception {
+		banco.cadastrarCliente(new Cliente("Ana", "1"));
+		banco.cadastrarCliente(new Cliente("Beto", "2"));
+		banco.associarConta("1", "p");
+		banco.associarConta("1", "e");
+		banco.associarConta("2", "i");
+		banco.associarConta("2", "x");
+		banco.cadastrar(new Poupanca("p", 100));
+		banco.cadastrar(new ContaEspecial("e", 200));
+		banco.cadastrar(new ContaImposto("i", 300));
+		banco.cadastrar(new Conta("x", 0));
+		banco.creditar(banco.procurarConta("e"), 50);
+		banco.debitar(banco.procurarConta("i"), 10);
+		banco.transferir(banco.procurarConta("i"), banco.procurarConta("p"), 40);
+		banco.renderJuros(banco.procurarConta("p"));
+		banco.renderBonus(banco.procurarConta("e"));
+		banco.executarLote(Arrays.asList(
+				OperacaoLote.credito("x", Dinheiro.de(7)),
+				OperacaoLote.debito("x", Dinheiro.de(1000)),
+				OperacaoLote.transferencia("e", "x", Dinheiro.de(3))));
+		banco.renderJurosTodas(ProcessamentoFimDoDia.SEM_PROGRESSO);
+		banco.renderBonusTodas(ProcessamentoFimDoDia.SEM_PROGRESSO);
+		banco.removerConta(banco.procurarCliente("2"), "i");
+	}
+
+	private static void verificar(BancoEventos esperado, BancoEventos lido) {
+		for (String numero : new String[] { "p", "e", "x" }) {
+			assertEquals(esperado.procurarConta(numero).getSaldoDinheiro(),
+					lido.procurarConta(numero).getSaldoDinheiro());
+		}
+		assertEquals(
+				((ContaEspecial) esperado.procurarConta("e")).getBonusDinheiro(),
+				((ContaEspecial) lido.procurarConta("e")).getBonusDinheiro());
+		assertTrue(lido.procurarConta("p") instanceof Poupanca);
+		assertNull(lido.procurarConta("i"));
+		assertEquals(Arrays.asList("p", "e"), lido.procurarCliente("1")
+				.getContas());
+		assertEquals(Arrays.asList("x"), lido.procurarCliente("2").getContas());
+	}
+
+	@Test
+	public void testeReaplicarLog() throws Exception {
+		BancoEventos banco = new BancoEventos(this.repositorio(1000));
+		operar(banco);
+		banco.fechar();
+
+		RepositorioEventos repositorio = this.repositorio(1000);
+		BancoEventos lido = new BancoEventos(repositorio);
+		verificar(banco, lido);
+		// o bonus de todas nao gera evento: o bonus de "e" ja foi rendido
+		assertEquals(20, repositorio.getEventosNoLog());
+
+		lido.removerCliente("1");
+		lido.fechar();
+		lido = new BancoEventos(this.repositorio(1000));
+		assertNull(lido.procurarCliente("1"));
+		assertNull(lido.procurarConta("p"));
+		assertFalse(lido.procurarConta("x") == null);
+		lido.fechar();
+	}
+
+	@Test
+	public void testeSnapshot() throws Exception {
+		RepositorioEventos repositorio = this.repositorio(10);
+		BancoEventos banco = new BancoEventos(repositorio);
+		operar(banco);
+		banco.fechar();
+		assertTrue(repositorio.getSnapshots() > 0);
+
+		// apenas os eventos posteriores ao ultimo snapshot sao reaplicados
+		repositorio = this.repositorio(10);
+		BancoEventos lido = new BancoEventos(repositorio);
+		verificar(banco, lido);
+		assertTrue(repositorio.getEventosNoLog() < 20);
+		lido.gravarSnapshot();
+		lido.fechar();
+
+		repositorio = this.repositorio(10);
+		lido = new BancoEventos(repositorio);
+		verificar(banco, lido);
+		assertEquals(0, repositorio.getEventosNoLog());
+		lido.fechar();
+	}
+
+	@Test
+	public void testeFalhaNoSnapshot() throws Exception {
+		// um diretorio no lugar do arquivo temporario impede a gravacao
+		File temporario = new File(this.snapshot.getPath() + ".tmp");
+		assertTrue(temporario.mkdir());
+		try {
+			RepositorioEventos repositorio = this.repositorio(1000);
+			BancoEventos banco = new BancoEventos(repositorio);
+			operar(banco);
+			banco.gravarSnapshot();
+			try {
+				banco.fechar();
+				fail();
+			} catch (RepositorioException e) {
+				assertNull(repositorio.getFalhaSnapshot());
+			}
+			assertEquals(0, repositorio.getSnapshots());
+
+			// o log anterior foi mantido
+			BancoEventos lido = new BancoEventos(this.repositorio(1000));
+			verificar(banco, lido);
+			lido.fechar();
+		} finally {
+			temporario.delete();
+		}
+	}
+
+	@Test
+	public void testeLogJaContidoNoSnapshot() throws Exception {
+		BancoEventos banco = new BancoEventos(this.repositorio(1000));
+		operar(banco);
+		// simula falha depois de gravar o snapshot e antes de apagar o log
+		File copia = new File(this.log.getPath() + ".copia");
+		Files.copy(this.log.toPath(), copia.toPath());
+		banco.gravarSnapshot();
+		banco.fechar();
+		Files.move(copia.toPath(), new File(this.log.getPath() + ".1")
+				.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		BancoEventos lido = new BancoEventos(this.repositorio(1000));
+		verificar(banco, lido);
+		assertFalse(new File(this.log.getPath() + ".1").exists());
+		lido.fechar();
+	}
+
+	@Test
+	public void testeEventoIncompleto() throws Exception {
+		BancoEventos banco = new BancoEventos(this.repositorio(1000));
+		banco.cadastrar(new Conta("1", 10));
+		banco.creditar(banco.procurarConta("1"), 5);
+		banco.fechar();
+		long tamanho = this.log.length();
+		try (RandomAccessFile raf = new RandomAccessFile(this.log, "rw")) {
+			raf.seek(tamanho);
+			raf.write(Evento.Tipo.CREDITADO.ordinal());
+			raf.write(0);
+		}
+
+		banco = new BancoEventos(this.repositorio(1000));
+		assertEquals(tamanho, this.log.length());
+		assertEquals(15, banco.procurarConta("1").getSaldo(), 0);
+		banco.debitar(banco.procurarConta("1"), 1);
+		banco.fechar();
+		banco = new BancoEventos(this.repositorio(1000));
+		assertEquals(14, banco.procurarConta("1").getSaldo(), 0);
+		banco.fechar();
+	}
+
+	@Test
+	public void testeJurosEBonusComValorAplicado() throws Exception {
+		BancoEventos banco = new BancoEventos(this.repositorio(1000));
+		banco.cadastrar(new Poupanca("p", 100));
+		banco.cadastrar(new ContaEspecial("e", 0));
+		banco.creditar(banco.procurarConta("e"), 200);
+		banco.renderJuros(banco.procurarConta("p"));
+		banco.renderBonusTodas(ProcessamentoFimDoDia.SEM_PROGRESSO);
+		banco.fechar();
+
+		List<Evento> eventos = new ArrayList<Evento>();
+		RepositorioEventos repositorio = this.repositorio(1000);
+		repositorio.carregar(new RepositorioClientesHash(),
+				new RepositorioContasHash(), eventos::add);
+		repositorio.fechar();
+		Evento juros = eventos.get(3);
+		assertEquals(Evento.Tipo.JUROS_CREDITADOS, juros.getTipo());
+		assertEquals(Dinheiro.de(100).multiplicar(Banco.TAXA_JUROS),
+				juros.getValor());
+		Evento bonus = eventos.get(4);
+		assertEquals(Evento.Tipo.BONUS_CREDITADO, bonus.getTipo());
+		assertEquals("e", bonus.getNumero());
+		assertEquals(Dinheiro.de(2), bonus.getValor());
+
+		BancoEventos lido = new BancoEventos(this.repositorio(1000));
+		assertEquals(202, lido.procurarConta("e").getSaldo(), 0);
+		assertEquals(0, ((ContaEspecial) lido.procurarConta("e")).getBonus(),
+				0);
+		lido.fechar();
+	}
+
+	@Test
+	public void testeFimZeradoDescartado() throws Exception {
+		BancoEventos banco = new BancoEventos(this.repositorio(1000));
+		banco.cadastrar(new Conta("1", 10));
+		banco.fechar();
+		long tamanho = this.log.length();
+		try (RandomAccessFile raf = new RandomAccessFile(this.log, "rw")) {
+			raf.setLength(tamanho + 4096);
+		}
+
+		banco = new BancoEventos(this.repositorio(1000));
+		assertEquals(tamanho, this.log.length());
+		assertEquals(10, banco.procurarConta("1").getSaldo(), 0);
+		banco.fechar();
+	}
+}
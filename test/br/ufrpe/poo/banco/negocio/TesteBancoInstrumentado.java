@@ -0,0 +1,74 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.ModoGravacao;
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioClientesInstrumentado;
+import br.ufrpe.poo.banco.dados.RepositorioContasArquivoBin;
+import br.ufrpe.poo.banco.dados.RepositorioContasInstrumentado;
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+import br.ufrpe.poo.banco.metricas.Metricas;
+
+/**
+ * Testa os decoradores que medem o banco e os repositorios.
+ */
+public class TesteBancoInstrumentado {
+
+	@Test
+	public void testeMetricas() throws Exception {
+		File arquivo = File.createTempFile("contas", ".dat");
+		arquivo.delete();
+		Metricas metricas = new Metricas();
+		RepositorioContasArquivoBin contas = new RepositorioContasArquivoBin(
+				arquivo, ModoGravacao.IMEDIATO);
+		try {
+			BancoInstrumentado banco = new BancoInstrumentado(new Banco(
+					new RepositorioClientesInstrumentado(
+							new RepositorioClientesHash(), metricas),
+					new RepositorioContasInstrumentado(contas, metricas)),
+					metricas);
+			banco.cadastrarCliente(new Cliente("Ana", "1"));
+			banco.cadastrar(new Conta("1", 100));
+			banco.cadastrar(new Conta("2", 0));
+			banco.transferir(banco.procurarConta("1"), banco.procurarConta("2"),
+					30);
+			try {
+				banco.transferir(banco.procurarConta("2"),
+						banco.procurarConta("1"), 1000);
+				fail("transferencia sem saldo");
+			} catch (SaldoInsuficienteException e) {
+				// esperado
+			}
+
+			assertEquals(2, metricas.metodo("banco.transferir").getChamadas());
+			assertEquals(1L, (long) metricas.metodo("banco.transferir")
+					.getErrosPorTipo().get("SaldoInsuficienteException"));
+			assertEquals(4, metricas.metodo("banco.procurarConta")
+					.getChamadas());
+			assertEquals(1, metricas.metodo("clientes.inserir").getChamadas());
+			assertEquals(2, metricas.metodo("contas.inserir").getChamadas());
+			assertTrue(metricas.metodo("contas.procurar").getChamadas() >= 4);
+			// dois cadastros e os dois lados da transferencia
+			assertEquals(4, metricas.metodo("contas.gravarArquivo")
+					.getChamadas());
+			assertTrue(metricas.metodo("contas.gravarArquivo")
+					.getPercentil99() > 0);
+
+			metricas.setHabilitada(false);
+			banco.creditar(banco.procurarConta("1"), 1);
+			assertEquals(0, metricas.metodo("banco.creditar").getChamadas());
+			assertEquals(4, metricas.metodo("contas.gravarArquivo")
+					.getChamadas());
+		} finally {
+			contas.fechar();
+			arquivo.delete();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.dados.RepositorioLancamentosMemoria;
+
+/**
+ * Testa o registro dos lancamentos pelas operacoes do banco.
+ */
+public class TesteBancoLancamentos {
+
+	@Test
+	public void testeOperacoes() throws Exception {
+		Banco banco = new Banco(null, new RepositorioContasHash(),
+				new RepositorioLancamentosMemoria());
+		Poupanca poupanca = new Poupanca("1", 100);
+		ContaImposto imposto = new ContaImposto("2", 100);
+		banco.cadastrar(poupanca);
+		banco.cadastrar(imposto);
+		long inicio = System.currentTimeMillis();
+
+		banco.creditar(poupanca, 50);
+		banco.debitar(imposto, 10);
+		banco.transferir(poupanca, imposto, 20);
+		banco.renderJuros(poupanca);
+		banco.executarLote(Arrays.asList(OperacaoLote.credito("2",
+				Dinheiro.de(1)), OperacaoLote.debito("1", Dinheiro.de(1e9))));
+		banco.renderJurosTodas(ProcessamentoFimDoDia.SEM_PROGRESSO);
+
+		List<Lancamento> extrato = banco.consultarLancamentos("1", inicio,
+				System.currentTimeMillis());
+		assertEquals(4, extrato.size());
+		assertEquals(Lancamento.Tipo.CREDITO, extrato.get(0).getTipo());
+		assertEquals(5000, extrato.get(0).getValor().getCentavos());
+		assertEquals(Lancamento.Tipo.TRANSFERENCIA_ENVIADA, extrato.get(1)
+				.getTipo());
+		assertEquals("2", extrato.get(1).getContrapartida());
+		assertEquals(Lancamento.Tipo.JUROS, extrato.get(2).getTipo());
+		assertEquals(Lancamento.Tipo.JUROS, extrato.get(3).getTipo());
+		assertEquals(poupanca.getSaldoDinheiro(), extrato.get(3).getSaldo());
+
+		List<Lancamento> ultimos = banco.consultarUltimosLancamentos("2", 2);
+		assertEquals(2, ultimos.size());
+		assertEquals(Lancamento.Tipo.TRANSFERENCIA_RECEBIDA, ultimos.get(0)
+				.getTipo());
+		assertEquals(Lancamento.Tipo.CREDITO, ultimos.get(1).getTipo());
+		// o debito da conta com imposto inclui a CPMF
+		Lancamento debito = banco.consultarUltimosLancamentos("2", 3).get(0);
+		assertEquals(Lancamento.Tipo.DEBITO, debito.getTipo());
+		assertEquals(-1004, debito.getValor().getCentavos());
+	}
+
+	@Test
+	public void testeSemLancamentos() throws Exception {
+		Banco banco = new Banco(null, new RepositorioContasHash());
+		Conta conta = new Conta("1", 0);
+		banco.cadastrar(conta);
+		banco.creditar(conta, 10);
+		assertTrue(banco.consultarUltimosLancamentos("1", 10).isEmpty());
+	}
+}
@@ -0,0 +1,72 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Testa a execucao de operacoes em lote pelo banco.
+ */
+public class TesteBancoLote {
+
+	/**
+	 * Repositorio que conta as gravacoes.
+	 */
+	private static class RepositorioContado extends RepositorioContasHash {
+
+		int atualizacoes;
+
+		int lotes;
+
+		@Override
+		public boolean atualizar(ContaAbstrata conta)
+				throws RepositorioException {
+			this.atualizacoes++;
+			return super.atualizar(conta);
+		}
+
+		@Override
+		public int atualizarTodas(Collection<? extends ContaAbstrata> contas)
+				throws RepositorioException {
+			this.lotes++;
+			return super.atualizarTodas(contas);
+		}
+	}
+
+	@Test
+	public void testeLote() throws Exception {
+		RepositorioContado repositorio = new RepositorioContado();
+		Banco banco = new Banco(null, repositorio);
+		banco.cadastrar(new Conta("1", 100));
+		banco.cadastrar(new Conta("2", 0));
+		Dinheiro dez = Dinheiro.de(10);
+
+		List<ResultadoOperacao> resultados = banco.executarLote(Arrays.asList(
+				OperacaoLote.credito("1", dez),
+				OperacaoLote.transferencia("1", "2", Dinheiro.de(110)),
+				OperacaoLote.debito("2", dez),
+				OperacaoLote.transferencia("2", "1", Dinheiro.de(200)),
+				OperacaoLote.debito("3", dez),
+				OperacaoLote.transferencia("1", "1", dez),
+				OperacaoLote.credito("1", Dinheiro.de(-1))));
+
+		assertEquals(Arrays.asList(ResultadoOperacao.REALIZADA,
+				ResultadoOperacao.REALIZADA, ResultadoOperacao.REALIZADA,
+				ResultadoOperacao.SALDO_INSUFICIENTE,
+				ResultadoOperacao.CONTA_NAO_ENCONTRADA,
+				ResultadoOperacao.CONTAS_IGUAIS,
+				ResultadoOperacao.VALOR_INVALIDO), resultados);
+		assertEquals(0, banco.procurarConta("1").getSaldo(), 0);
+		assertEquals(100, banco.procurarConta("2").getSaldo(), 0);
+		// as duas contas alteradas sao gravadas de uma vez
+		assertEquals(1, repositorio.lotes);
+		assertEquals(2, repositorio.atualizacoes);
+	}
+}
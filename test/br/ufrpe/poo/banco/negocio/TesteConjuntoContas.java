@@ -0,0 +1,186 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+
+/**
+ * Testa o conjunto de contas do cliente.
+ */
+public class TesteConjuntoContas {
+
+	/**
+	 * Cliente "Joao", cpf "123", com as contas "1" e "2", serializado quando o
+	 * campo contas era um ArrayList.
+	 */
+	private static final String CLIENTE_LEGADO = "rO0ABXNyACJici51ZnJwZS5wb28uYmFuY28ubmVnb2Npby5DbGllbnRlAAAAAAAAAAECAANMAAZjb250YXN0ABVMamF2YS91dGlsL0FycmF5TGlzdDtMAANjcGZ0ABJMamF2YS9sYW5nL1N0cmluZztMAARub21lcQB+AAJ4cHNyABNqYXZhLnV0aWwuQXJyYXlMaXN0eIHSHZnHYZ0DAAFJAARzaXpleHAAAAACdwQAAAACdAABMXQAATJ4dAADMTIzdAAESm9hbw==";
+
+	private static Object copiar(Object objeto) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(objeto);
+		}
+		return ler(bytes.toByteArray());
+	}
+
+	private static Object ler(byte[] bytes) throws Exception {
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes))) {
+			return in.readObject();
+		}
+	}
+
+	@Test
+	public void testeOperacoesIguaisALista() {
+		// compara com uma lista comum, passando do array para a tabela e de volta
+		Random random = new Random(7);
+		ConjuntoContas conjunto = new ConjuntoContas();
+		List<String> esperado = new ArrayList<String>();
+		for (int i = 0; i < 20000; i++) {
+			String numero = Integer.toString(random.nextInt(300));
+			if (random.nextInt(3) == 0) {
+				int posicao = esperado.indexOf(numero);
+				if (posicao != -1) {
+					esperado.set(posicao, esperado.get(esperado.size() - 1));
+					esperado.remove(esperado.size() - 1);
+				}
+				assertEquals(posicao != -1, conjunto.remove(numero));
+			} else {
+				boolean novo = !esperado.contains(numero);
+				if (novo)
+					esperado.add(numero);
+				assertEquals(novo, conjunto.add(numero));
+			}
+			assertEquals(esperado.indexOf(numero), conjunto.indexOf(numero));
+			if (i % 1000 == 0) {
+				conjunto.clear();
+				esperado.clear();
+			}
+		}
+		assertEquals(esperado, conjunto);
+		for (String numero : esperado) {
+			assertEquals(esperado.indexOf(numero), conjunto.indexOf(numero));
+		}
+		assertFalse(conjunto.contains("300"));
+	}
+
+	@Test
+	public void testeRemoverDoFimNaoMoveNumeros() {
+		ConjuntoContas conjunto = new ConjuntoContas(
+				Arrays.asList("a", "b", "c", "b"));
+		assertEquals(Arrays.asList("a", "b", "c"), conjunto);
+		assertEquals("c", conjunto.remove(2));
+		assertEquals(Arrays.asList("a", "b"), conjunto);
+		conjunto.add("c");
+		conjunto.add("d");
+		// o ultimo numero ocupa o lugar do removido
+		conjunto.remove("a");
+		assertEquals(Arrays.asList("d", "b", "c"), conjunto);
+		assertEquals(0, conjunto.indexOf("d"));
+	}
+
+	@Test
+	public void testeRemoverIntervalo() {
+		ConjuntoContas conjunto = new ConjuntoContas(
+				Arrays.asList("a", "b", "c", "d"));
+		conjunto.subList(1, 3).clear();
+		assertEquals(Arrays.asList("a", "d"), conjunto);
+		assertEquals(1, conjunto.indexOf("d"));
+		assertEquals(-1, conjunto.indexOf("b"));
+
+		// com a tabela montada
+		conjunto = new ConjuntoContas();
+		for (int i = 0; i < 100; i++) {
+			conjunto.add("c" + i);
+		}
+		conjunto.subList(10, 90).clear();
+		assertEquals(20, conjunto.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i < 10 ? i : i >= 90 ? i - 80 : -1,
+					conjunto.indexOf("c" + i));
+		}
+		assertTrue(conjunto.add("c50"));
+		assertEquals(20, conjunto.indexOf("c50"));
+	}
+
+	@Test
+	public void testeRemoverPeloIterador() {
+		for (int quantidade : new int[] { 6, 100 }) {
+			ConjuntoContas conjunto = new ConjuntoContas();
+			for (int i = 0; i < quantidade; i++) {
+				conjunto.add("c" + i);
+			}
+			// cada numero eh visitado uma vez; os pares sao removidos
+			List<String> visitados = new ArrayList<String>();
+			Iterator<String> it = conjunto.iterator();
+			while (it.hasNext()) {
+				String numero = it.next();
+				visitados.add(numero);
+				if (Integer.parseInt(numero.substring(1)) % 2 == 0)
+					it.remove();
+			}
+			assertEquals(quantidade, visitados.size());
+			assertEquals(quantidade, new HashSet<String>(visitados).size());
+			assertEquals(quantidade / 2, conjunto.size());
+			for (int i = 0; i < quantidade; i++) {
+				assertEquals(i % 2 == 1, conjunto.contains("c" + i));
+			}
+		}
+	}
+
+	@Test
+	public void testeSerializacao() throws Exception {
+		ConjuntoContas conjunto = new ConjuntoContas();
+		for (int i = 0; i < 100; i++) {
+			conjunto.add("c" + i);
+		}
+		ConjuntoContas lido = (ConjuntoContas) copiar(conjunto);
+		assertEquals(conjunto, lido);
+		assertEquals(99, lido.indexOf("c99"));
+		assertFalse(lido.add("c50"));
+	}
+
+	@Test
+	public void testeClienteSerializadoComArrayList() throws Exception {
+		Cliente cliente = (Cliente) ler(Base64.getDecoder().decode(
+				CLIENTE_LEGADO));
+		assertEquals("Joao", cliente.getNome());
+		assertEquals("123", cliente.getCpf());
+		assertEquals(Arrays.asList("1", "2"), cliente.getContas());
+		assertEquals(1, cliente.procurarConta("2"));
+	}
+
+	@Test
+	public void testeRemoverClienteComMuitasContas() throws Exception {
+		RepositorioContasHash contas = new RepositorioContasHash();
+		Banco banco = new Banco(new RepositorioClientesHash(), contas) {
+		};
+		banco.cadastrarCliente(new Cliente("Empresa", "1"));
+		for (int i = 0; i < 5000; i++) {
+			banco.associarConta("1", "n" + i);
+			contas.inserir(new Conta("n" + i, 0));
+		}
+		banco.removerCliente("1");
+		assertNull(banco.procurarCliente("1"));
+		assertNull(banco.procurarConta("n0"));
+		assertNull(banco.procurarTitular("n4999"));
+	}
+}
@@ -155,6 +155,25 @@ public class TesteConta {
 		
 	}
 
+	/**
+	 * Testa que o debito recusado nao captura a pilha e mantem a mensagem
+	 */
+	@Test
+	public void testeSaldoInsuficienteSemPilha() {
+		Conta c = new Conta("789", 10);
+		try {
+			c.debitar(20);
+			fail("Excecao deveria ter sido levantada");
+		} catch (SaldoInsuficienteException e) {
+			assertEquals(0, e.getStackTrace().length);
+			assertEquals("789", e.getNumero());
+			assertEquals(String.format(
+					"Saldo insuficiente! O saldo atual da conta %s eh R$%.2f",
+					"789", 10.0), e.getMessage());
+		}
+		assertEquals(10, c.getSaldo(), 0);
+	}
+
 
 
 }
@@ -0,0 +1,81 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.exceptions.SaldoInsuficienteException;
+
+/**
+ * Testa o valor monetario em centavos e o seu uso pelas contas.
+ */
+public class TesteDinheiro {
+
+	@Test
+	public void testeConversaoDouble() {
+		assertEquals(29, Dinheiro.de(0.29).getCentavos());
+		assertEquals(-1205, Dinheiro.de(-12.05).getCentavos());
+		assertEquals(0.29, Dinheiro.deCentavos(29).paraDouble(), 0);
+		assertEquals("-12.05", Dinheiro.deCentavos(-1205).toString());
+		assertEquals("3.40", Dinheiro.deCentavos(340).toString());
+	}
+
+	@Test
+	public void testeMultiplicarArredondaNoCentavo() {
+		assertEquals(38, Dinheiro.de(100).multiplicar(ContaImposto.CPMF)
+				.getCentavos());
+		// 0.5 centavo arredonda para o centavo par
+		assertEquals(0, Dinheiro.deCentavos(50).multiplicar(0.01)
+				.getCentavos());
+		assertEquals(2, Dinheiro.deCentavos(150).multiplicar(0.01)
+				.getCentavos());
+	}
+
+	@Test
+	public void testeCreditosSemAcumularFracoes() {
+		Conta conta = new Conta("1", 0);
+		for (int i = 0; i < 1000; i++) {
+			conta.creditar(0.1);
+		}
+		assertEquals(10000, conta.getSaldoDinheiro().getCentavos());
+		assertEquals(100, conta.getSaldo(), 0);
+	}
+
+	@Test
+	public void testeDebitoComCpmf() throws SaldoInsuficienteException {
+		ContaImposto conta = new ContaImposto("1", Dinheiro.de(1000));
+		for (int i = 0; i < 3; i++) {
+			conta.debitar(Dinheiro.de(33.33));
+		}
+		// cada debito de 33.33 paga 0.13 de CPMF
+		assertEquals(100000 - 3 * (3333 + 13), conta.getSaldoDinheiro()
+				.getCentavos());
+	}
+
+	@Test
+	public void testeSerializacaoJavaCompativel() throws IOException,
+			ClassNotFoundException {
+		ContaEspecial especial = new ContaEspecial("1", 10.5);
+		especial.creditar(50);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(especial);
+		}
+		ContaEspecial lida;
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))) {
+			lida = (ContaEspecial) in.readObject();
+		}
+		assertEquals("1", lida.getNumero());
+		assertEquals(especial.getSaldoDinheiro(), lida.getSaldoDinheiro());
+		assertEquals(especial.getBonusDinheiro(), lida.getBonusDinheiro());
+		assertTrue(lida.getBonusDinheiro().ehPositivo());
+	}
+}
@@ -0,0 +1,97 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+
+/**
+ * Testa a manutencao do indice de titulares pelas operacoes do banco.
+ */
+public class TesteIndiceTitulares {
+
+	private RepositorioClientesHash clientes;
+
+	private Banco banco;
+
+	@Before
+	public void criarBanco() throws Exception {
+		this.clientes = new RepositorioClientesHash();
+		Cliente joao = new Cliente("Joao", "111");
+		joao.adicionarConta("1");
+		this.clientes.inserir(joao);
+		this.banco = new Banco(this.clientes, new RepositorioContasHash()) {
+		};
+	}
+
+	@Test
+	public void testeIndiceMontadoDoRepositorio() throws Exception {
+		// incluido direto no repositorio, como na reaplicacao de eventos
+		Cliente ana = new Cliente("Ana", "333");
+		ana.adicionarConta("4");
+		this.clientes.inserir(ana);
+		assertEquals("333", this.banco.procurarTitular("4").getCpf());
+		assertEquals("111", this.banco.procurarTitular("1").getCpf());
+		assertNull(this.banco.procurarTitular("2"));
+	}
+
+	@Test
+	public void testeCadastroEAssociacao() throws Exception {
+		Cliente maria = new Cliente("Maria", "222");
+		maria.adicionarConta("2");
+		this.banco.cadastrarCliente(maria);
+		this.banco.associarConta("222", "3");
+		assertEquals("222", this.banco.procurarTitular("2").getCpf());
+		assertEquals("222", this.banco.procurarTitular("3").getCpf());
+		assertEquals("111", this.banco.procurarTitular("1").getCpf());
+	}
+
+	@Test
+	public void testeRemocoes() throws Exception {
+		this.banco.associarConta("111", "2");
+		this.banco.cadastrar(new Conta("1", 0));
+		this.banco.cadastrar(new Conta("2", 0));
+		this.banco.removerConta(this.banco.procurarCliente("111"), "1");
+		assertNull(this.banco.procurarTitular("1"));
+		assertEquals("111", this.banco.procurarTitular("2").getCpf());
+
+		this.banco.removerCliente("111");
+		assertNull(this.banco.procurarTitular("2"));
+		assertEquals(0, this.banco.titulares.getQuantidade());
+	}
+
+	@Test
+	public void testeAtualizacaoDoCliente() throws Exception {
+		assertEquals("111", this.banco.procurarTitular("1").getCpf());
+		Cliente joao = new Cliente("Joao", "111");
+		joao.adicionarConta("5");
+		this.banco.atualizarCliente(joao);
+		assertNull(this.banco.procurarTitular("1"));
+		assertEquals("111", this.banco.procurarTitular("5").getCpf());
+		assertEquals(1, this.banco.titulares.getQuantidade());
+	}
+
+	@Test
+	public void testeAtualizacaoDoClienteNoLugar() throws Exception {
+		assertEquals("111", this.banco.procurarTitular("1").getCpf());
+		// o repositorio devolve o proprio cliente guardado, alterado no lugar
+		Cliente joao = this.banco.procurarCliente("111");
+		joao.getContas().remove("1");
+		joao.adicionarConta("5");
+		this.banco.atualizarCliente(joao);
+		assertNull(this.banco.procurarTitular("1"));
+		assertEquals("111", this.banco.procurarTitular("5").getCpf());
+		assertEquals(1, this.banco.titulares.getQuantidade());
+	}
+
+	@Test
+	public void testeAssociacaoDesfeitaForaDoBanco() {
+		// a conta sai do cliente sem passar pelo banco
+		this.clientes.procurar("111").getContas().clear();
+		assertNull(this.banco.procurarTitular("1"));
+	}
+}
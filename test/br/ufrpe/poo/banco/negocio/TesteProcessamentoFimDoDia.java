@@ -0,0 +1,102 @@
+package br.ufrpe.poo.banco.negocio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.ModoGravacao;
+import br.ufrpe.poo.banco.dados.RepositorioContasArquivoBin;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.exceptions.ContaJaCadastradaException;
+import br.ufrpe.poo.banco.exceptions.RepositorioException;
+
+/**
+ * Testa o processamento de juros e bonus de todas as contas de uma vez.
+ */
+public class TesteProcessamentoFimDoDia {
+
+	private static final int CONTAS = 10000;
+
+	/**
+	 * Repositorio que conta as chamadas de atualizacao.
+	 */
+	private static class RepositorioContado extends RepositorioContasHash {
+
+		int atualizacoes;
+		int lotes;
+
+		@Override
+		public boolean atualizar(ContaAbstrata conta)
+				throws RepositorioException {
+			this.atualizacoes++;
+			return super.atualizar(conta);
+		}
+
+		@Override
+		public int atualizarTodas(Collection<? extends ContaAbstrata> contas)
+				throws RepositorioException {
+			this.lotes++;
+			int atualizadas = 0;
+			for (ContaAbstrata conta : contas) {
+				if (super.atualizar(conta))
+					atualizadas++;
+			}
+			return atualizadas;
+		}
+	}
+
+	private static void cadastrar(Banco banco) throws RepositorioException,
+			ContaJaCadastradaException {
+		for (int i = 0; i < CONTAS; i++) {
+			String numero = Integer.toString(i);
+			banco.cadastrar(i % 2 == 0 ? new Poupanca(numero, 100)
+					: new ContaEspecial(numero, 100));
+		}
+	}
+
+	@Test
+	public void testeJurosEmLote() throws Exception {
+		RepositorioContado repositorio = new RepositorioContado();
+		Banco banco = new Banco(null, repositorio);
+		cadastrar(banco);
+		AtomicInteger concluido = new AtomicInteger();
+		int atualizadas = banco.renderJurosTodas((etapa, processadas,
+				total) -> {
+			if (etapa == ProcessamentoFimDoDia.Etapa.CONCLUIDO)
+				concluido.set(processadas);
+		});
+		assertEquals(CONTAS / 2, atualizadas);
+		assertEquals(CONTAS / 2, concluido.get());
+		assertEquals(0, repositorio.atualizacoes);
+		assertEquals(1, repositorio.lotes);
+		assertEquals(150, banco.procurarConta("0").getSaldo(), 0);
+		assertEquals(100, banco.procurarConta("1").getSaldo(), 0);
+	}
+
+	@Test
+	public void testeBonusGravadoEmArquivo() throws Exception {
+		File arquivo = File.createTempFile("contas", ".dat");
+		try {
+			Banco banco = new Banco(null, new RepositorioContasArquivoBin(
+					arquivo, ModoGravacao.IMEDIATO));
+			banco.cadastrar(new ContaEspecial("1", 100));
+			banco.cadastrar(new Poupanca("2", 100));
+			ContaAbstrata especial = banco.procurarConta("1");
+			especial.creditar(100);
+			assertEquals(1, banco.renderBonusTodas(
+					ProcessamentoFimDoDia.SEM_PROGRESSO));
+
+			RepositorioContasArquivoBin lido = new RepositorioContasArquivoBin(
+					arquivo, ModoGravacao.IMEDIATO);
+			assertEquals(201, lido.procurar("1").getSaldo(), 0);
+			assertEquals(0, ((ContaEspecial) lido.procurar("1")).getBonus(), 0);
+			assertEquals(100, lido.procurar("2").getSaldo(), 0);
+		} finally {
+			arquivo.delete();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package br.ufrpe.poo.banco.servidor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import br.ufrpe.poo.banco.dados.RepositorioClientesHash;
+import br.ufrpe.poo.banco.dados.RepositorioContasHash;
+import br.ufrpe.poo.banco.negocio.Banco;
+
+/**
+ * Testa o servidor de rede do banco.
+ */
+public class TesteServidorBanco {
+
+	private Banco banco;
+
+	private ServidorBanco servidor;
+
+	@Before
+	public void iniciarServidor() throws Exception {
+		this.banco = new Banco(new RepositorioClientesHash(),
+				new RepositorioContasHash()) {
+		};
+		this.servidor = new ServidorBanco(this.banco, this.banco, 0);
+	}
+
+	@After
+	public void fecharServidor() throws Exception {
+		this.servidor.fechar();
+	}
+
+	@Test
+	public void testeComandos() {
+		assertEquals("OK", this.servidor.processar("CADASTRAR_CLIENTE 123 Maria da Silva"));
+		assertEquals("OK", this.servidor.processar("CADASTRAR_CONTA POUPANCA 1 100"));
+		assertEquals("OK", this.servidor.processar("CADASTRAR_CONTA CONTA 2 0"));
+		assertEquals("OK", this.servidor.processar("ASSOCIAR 123 3"));
+		assertEquals("OK 3 Maria da Silva", this.servidor.processar("CLIENTE 123"));
+		assertEquals("OK", this.servidor.processar("TRANSFERIR 1 2 30.5"));
+		assertEquals("OK 69.50", this.servidor.processar("CONTA 1"));
+		assertEquals("OK 30.50", this.servidor.processar("CONTA 2"));
+		assertTrue(this.servidor.processar("DEBITAR 2 31").startsWith(
+				"ERRO Saldo insuficiente!"));
+		assertTrue(this.servidor.processar("CONTA 9").startsWith("ERRO"));
+		assertTrue(this.servidor.processar("CREDITAR 1").startsWith("ERRO"));
+		assertTrue(this.servidor.processar("CREDITAR 1 x").startsWith("ERRO"));
+		assertTrue(this.servidor.processar("CREDITAR 1 -0.004").startsWith(
+				"ERRO"));
+		assertTrue(this.servidor.processar("CREDITAR 1 NaN").startsWith("ERRO"));
+		assertTrue(this.servidor.processar("DEBITAR 1 Infinity").startsWith(
+				"ERRO"));
+		assertEquals("OK 69.50", this.servidor.processar("CONTA 1"));
+		assertTrue(this.servidor.processar("XYZ").startsWith("ERRO"));
+	}
+
+	@Test
+	public void testeEnderecoLocalPorPadrao() {
+		assertTrue(this.servidor.getEndereco().isLoopbackAddress());
+	}
+
+	@Test(timeout = 60000)
+	public void testeCarga() throws Exception {
+		ClienteCarga carga = new ClienteCarga("localhost",
+				this.servidor.getPorta());
+		carga.criarContas(10);
+		ClienteCarga.Relatorio relatorio = carga.executar(50, 200, 10);
+		assertEquals(50 * 200, relatorio.comandos);
+		assertEquals(0, relatorio.erros);
+
+		double total = 0;
+		for (int i = 0; i < 10; i++) {
+			total = total + this.banco.procurarConta(
+					ClienteCarga.PREFIXO_CONTA + i).getSaldo();
+		}
+		// metade dos comandos sao creditos de 1 e a outra metade transferencias
+		assertEquals(10 * 1e9 + 50 * 100, total, 0);
+	}
+}